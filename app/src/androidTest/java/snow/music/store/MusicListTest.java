@@ -12,8 +12,10 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import io.objectbox.Box;
 import io.objectbox.BoxStore;
 
 import static org.junit.Assert.*;
@@ -497,4 +499,54 @@ public class MusicListTest {
         assertEquals(musicC, musicList.getMusicElements().get(1));
         assertEquals(musicA, musicList.getMusicElements().get(2));
     }
+
+    @Test
+    public void elements_orderPages() {
+        List<Music> musics = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            musics.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+
+        mMusicStore.putAllMusic(musics);
+
+        MusicList musicList = mMusicStore.createCustomMusicList(TEST_MUSIC_LIST);
+        musicList.getMusicElements().addAll(musics);
+        mMusicStore.updateMusicList(musicList);
+
+        Box<MusicListOrderPage> pageBox = store.boxFor(MusicListOrderPage.class);
+        List<MusicListOrderPage> pagesBefore = pageBox.getAll();
+        assertEquals((1000 + MusicListOrder.PAGE_MAX_SIZE - 1) / MusicListOrder.PAGE_MAX_SIZE, pagesBefore.size());
+
+        Music removed = musics.remove(500);
+        musicList.getMusicElements().remove(removed);
+        mMusicStore.updateMusicList(musicList);
+
+        // 只有包含被移除歌曲的分页发生了变化
+        List<MusicListOrderPage> pagesAfter = pageBox.getAll();
+        assertEquals(pagesBefore.size(), pagesAfter.size());
+
+        int changedPages = 0;
+        for (int i = 0; i < pagesBefore.size(); i++) {
+            if (!Arrays.equals(pagesBefore.get(i).musicIds, pagesAfter.get(i).musicIds)) {
+                changedPages++;
+            }
+        }
+        assertEquals(1, changedPages);
+
+        musicList = mMusicStore.getCustomMusicList(TEST_MUSIC_LIST);
+        assertNotNull(musicList);
+        assertEquals(musics, musicList.getMusicElements());
+        assertEquals(musics.subList(600, 700), mMusicStore.getMusicListItems(musicList, 600, 100));
+
+        mMusicStore.deleteMusicList(musicList);
+        assertEquals(0, pageBox.count());
+    }
 }
@@ -12,10 +12,16 @@ import org.junit.runner.RunWith;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Collections;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import io.objectbox.Box;
 import io.objectbox.BoxStore;
+import io.objectbox.query.QueryBuilder;
 
 import static org.junit.Assert.*;
 
@@ -43,6 +49,7 @@ public class MusicStoreTest {
 
     @After
     public void tearDown() {
+        MusicStore.resetForTesting();
         if (store != null) {
             store.close();
             store = null;
@@ -68,6 +75,126 @@ public class MusicStoreTest {
         assertTrue(exception);
     }
 
+    @Test(timeout = 5000)
+    public void initAsyncListenerOrder() throws InterruptedException {
+        MusicStore.resetForTesting();
+
+        CountDownLatch openGate = new CountDownLatch(1);
+        MusicStore.initAsync(() -> {
+            openGate.await();
+            return store;
+        }, false);
+
+        assertFalse(MusicStore.isReady());
+
+        List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch readyLatch = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            MusicStore.whenReady(musicStore -> {
+                order.add(index);
+                readyLatch.countDown();
+            });
+        }
+
+        openGate.countDown();
+        readyLatch.await();
+
+        assertTrue(MusicStore.isReady());
+        assertEquals(Arrays.asList(0, 1, 2), order);
+
+        // 初始化完成后，在主线程中调用 whenReady 会立即执行
+        boolean[] called = new boolean[1];
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() ->
+                MusicStore.whenReady(musicStore -> called[0] = true));
+        assertTrue(called[0]);
+    }
+
+    @Test(timeout = 5000)
+    public void initAsyncRemoveOnReadyListener() throws InterruptedException {
+        MusicStore.resetForTesting();
+
+        CountDownLatch openGate = new CountDownLatch(1);
+        MusicStore.initAsync(() -> {
+            openGate.await();
+            return store;
+        }, false);
+
+        boolean[] removedCalled = new boolean[1];
+        MusicStore.OnReadyListener removed = musicStore -> removedCalled[0] = true;
+        CountDownLatch readyLatch = new CountDownLatch(1);
+
+        MusicStore.whenReady(removed);
+        MusicStore.whenReady(musicStore -> readyLatch.countDown());
+        MusicStore.removeOnReadyListener(removed);
+
+        openGate.countDown();
+        readyLatch.await();
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+
+        assertFalse(removedCalled[0]);
+    }
+
+    @Test(timeout = 5000)
+    public void initAsyncFailure() throws InterruptedException {
+        MusicStore.resetForTesting();
+
+        RuntimeException error = new RuntimeException("open failed");
+        boolean[] listenerCalled = new boolean[1];
+
+        CountDownLatch openGate = new CountDownLatch(1);
+        MusicStore.initAsync(() -> {
+            openGate.await();
+            throw error;
+        }, false);
+        MusicStore.whenReady(musicStore -> listenerCalled[0] = true);
+
+        openGate.countDown();
+
+        IllegalStateException exception = null;
+        try {
+            MusicStore.getInstance();
+        } catch (IllegalStateException e) {
+            exception = e;
+        }
+
+        assertNotNull(exception);
+        assertSame(error, exception.getCause());
+        assertFalse(MusicStore.isReady());
+
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        assertFalse(listenerCalled[0]);
+    }
+
+    @Test(timeout = 5000)
+    public void initAsyncGetInstanceWaits() throws InterruptedException {
+        MusicStore.resetForTesting();
+
+        CountDownLatch openGate = new CountDownLatch(1);
+        MusicStore.initAsync(() -> {
+            openGate.await();
+            return store;
+        }, false);
+
+        AtomicReference<MusicStore> result = new AtomicReference<>();
+        CountDownLatch returnedLatch = new CountDownLatch(1);
+        Thread thread = new Thread(() -> {
+            result.set(MusicStore.getInstance());
+            returnedLatch.countDown();
+        });
+        thread.start();
+
+        // 初始化完成前，getInstance() 会一直等待
+        assertFalse(returnedLatch.await(200, TimeUnit.MILLISECONDS));
+
+        openGate.countDown();
+        returnedLatch.await();
+
+        assertNotNull(result.get());
+        assertSame(result.get(), MusicStore.getInstance());
+        assertSame(store, result.get().getBoxStore());
+    }
+
     @Test
     public void getLocalMusicList() {
         MusicList localMusicList = mMusicStore.getLocalMusicList();
@@ -285,6 +412,90 @@ public class MusicStoreTest {
         assertEquals(0, mMusicStore.getAllHistory().size());
     }
 
+    @Test
+    public void historyMaxSizeAndPlayCount() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Music music = new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis());
+            mMusicStore.putMusic(music);
+            allMusic.add(music);
+        }
+
+        mMusicStore.setHistoryMaxSize(3);
+        for (Music music : allMusic) {
+            mMusicStore.addHistory(music);
+        }
+
+        assertEquals(3, mMusicStore.getHistoryCount());
+        assertEquals(2, mMusicStore.getHistory(0, 2).size());
+
+        Music music = allMusic.get(4);
+        mMusicStore.recordHistory(music);
+        mMusicStore.recordHistory(music);
+
+        HistoryEntity historyEntity = mMusicStore.getHistory(music);
+        assertNotNull(historyEntity);
+        assertEquals(3, historyEntity.getPlayCount());
+        assertEquals(music, mMusicStore.getMostPlayedHistory(1).get(0).getMusic());
+    }
+
+    @Test
+    public void getHistoryBefore() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Music music = new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis());
+            mMusicStore.putMusic(music);
+            allMusic.add(music);
+        }
+
+        // 多条历史记录的播放时间可能相同
+        for (Music music : allMusic) {
+            mMusicStore.addHistory(music);
+        }
+
+        List<HistoryEntity> firstPage = mMusicStore.getHistoryBefore(null, 3);
+        assertEquals(3, firstPage.size());
+
+        // 分页加载期间，将最早的历史记录移动到最前面
+        List<HistoryEntity> allHistory = mMusicStore.getAllHistory();
+        Music moved = allHistory.get(allHistory.size() - 1).getMusic();
+        mMusicStore.addHistory(moved);
+
+        List<Music> loaded = new ArrayList<>();
+        for (HistoryEntity entity : firstPage) {
+            loaded.add(entity.getMusic());
+        }
+
+        HistoryEntity last = firstPage.get(firstPage.size() - 1);
+        List<HistoryEntity> page;
+        while (!(page = mMusicStore.getHistoryBefore(last, 3)).isEmpty()) {
+            for (HistoryEntity entity : page) {
+                assertFalse(loaded.contains(entity.getMusic()));
+                loaded.add(entity.getMusic());
+            }
+            last = page.get(page.size() - 1);
+        }
+
+        assertEquals(allMusic.size() - 1, loaded.size());
+        assertFalse(loaded.contains(moved));
+    }
+
     @Test
     public void getMusic() {
         final Music music1 = new Music(
@@ -798,4 +1009,346 @@ public class MusicStoreTest {
         assert musicList != null;
         assertEquals(1, musicList.getSize());
     }
+
+    @Test
+    public void getMusicListItems() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            allMusic.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+        mMusicStore.putAllMusic(allMusic);
+
+        final String musicListName = "Test music list";
+        mMusicStore.createCustomMusicList(musicListName);
+        mMusicStore.addAllMusic(musicListName, allMusic);
+
+        MusicList musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+
+        assertEquals(allMusic.subList(3, 7), mMusicStore.getMusicListItems(musicList, 3, 4));
+        assertEquals(allMusic.subList(8, 10), mMusicStore.getMusicListItems(musicList, 8, 4));
+        assertTrue(mMusicStore.getMusicListItems(musicList, 10, 4).isEmpty());
+    }
+
+    @Test
+    public void getMusicListItemsWithRemovedMusic() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            allMusic.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+        mMusicStore.putAllMusic(allMusic);
+
+        final String musicListName = "Test music list";
+        mMusicStore.createCustomMusicList(musicListName);
+        mMusicStore.addAllMusic(musicListName, allMusic);
+
+        // 通过 MusicStore 移除歌曲时，会同时更新歌单
+        Music removed = allMusic.remove(2);
+        assertTrue(mMusicStore.removeMusic(removed));
+
+        MusicList musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(allMusic.size(), musicList.getSize());
+        assertEquals(allMusic.subList(0, 4), mMusicStore.getMusicListItems(musicList, 0, 4));
+
+        // 绕过 MusicStore 移除歌曲，歌单中会残留已移除的歌曲，读取时会修复歌单
+        removed = allMusic.remove(5);
+        store.boxFor(Music.class).remove(removed.getId());
+
+        musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(allMusic.subList(4, 8), mMusicStore.getMusicListItems(musicList, 4, 4));
+        assertEquals(allMusic.size(), musicList.getSize());
+
+        musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(allMusic.size(), musicList.getSize());
+        assertEquals(allMusic, mMusicStore.getMusicListItems(musicList, 0, allMusic.size()));
+    }
+
+    @Test
+    public void addToAllMusicList() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            allMusic.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+        mMusicStore.putAllMusic(allMusic);
+
+        final Music music = new Music(
+                0,
+                "title",
+                "artist",
+                "album",
+                "https://www.test.com/test.mp3",
+                "https://www.test.com/test.png",
+                60_000,
+                System.currentTimeMillis());
+        mMusicStore.putMusic(music);
+
+        List<String> allMusicListName = new ArrayList<>();
+        allMusicListName.add("Test music list 1");
+        allMusicListName.add("Test music list 2");
+        for (String name : allMusicListName) {
+            mMusicStore.createCustomMusicList(name);
+            mMusicStore.addAllMusic(name, allMusic);
+        }
+
+        mMusicStore.addToAllMusicList(music, allMusicListName);
+        // 已存在于歌单中的歌曲会被忽略
+        mMusicStore.addToAllMusicList(music, allMusicListName);
+
+        for (String name : allMusicListName) {
+            MusicList musicList = mMusicStore.getCustomMusicList(name);
+            assert musicList != null;
+
+            assertEquals(allMusic.size() + 1, musicList.getSize());
+            assertEquals(music, mMusicStore.getMusicListItems(musicList, allMusic.size(), 1).get(0));
+
+            List<Music> elements = musicList.getMusicElements();
+            assertEquals(allMusic.size() + 1, elements.size());
+            assertEquals(allMusic, elements.subList(0, allMusic.size()));
+            assertEquals(music, elements.get(allMusic.size()));
+        }
+
+        List<Music> removed = new ArrayList<>();
+        removed.add(music);
+        removed.add(allMusic.get(0));
+        mMusicStore.removeAllMusic(allMusicListName.get(0), removed);
+
+        MusicList musicList = mMusicStore.getCustomMusicList(allMusicListName.get(0));
+        assert musicList != null;
+        assertEquals(allMusic.size() - 1, musicList.getSize());
+        assertEquals(allMusic.subList(1, allMusic.size()), musicList.getMusicElements());
+
+        musicList = mMusicStore.getCustomMusicList(allMusicListName.get(1));
+        assert musicList != null;
+        assertEquals(allMusic.size() + 1, musicList.getSize());
+    }
+
+    @Test
+    public void updateMusicListThroughStaleInstance() {
+        List<Music> allMusic = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            allMusic.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "https://www.test.com/test" + i + ".png",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+        mMusicStore.putAllMusic(allMusic);
+
+        List<Music> initMusic = new ArrayList<>(allMusic.subList(0, 260));
+        List<Music> appendMusic = new ArrayList<>(allMusic.subList(260, 300));
+
+        final String musicListName = "Test music list";
+        mMusicStore.createCustomMusicList(musicListName);
+        mMusicStore.addAllMusic(musicListName, initMusic);
+
+        // 加载歌单后长时间持有的 MusicList 对象
+        MusicList staleMusicList = mMusicStore.getCustomMusicList(musicListName);
+        assert staleMusicList != null;
+        assertEquals(initMusic, staleMusicList.getMusicElements());
+
+        // 其他地方通过分页存储的快速路径追加歌曲
+        mMusicStore.addAllMusic(musicListName, appendMusic);
+
+        // 通过过期的 MusicList 对象修改歌单
+        staleMusicList.getMusicElements().remove(0);
+        Music moved = staleMusicList.getMusicElements().remove(0);
+        staleMusicList.getMusicElements().add(moved);
+        mMusicStore.updateMusicList(staleMusicList);
+
+        List<Music> expected = new ArrayList<>(initMusic.subList(2, initMusic.size()));
+        expected.add(moved);
+        expected.addAll(appendMusic);
+
+        MusicList musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(expected.size(), musicList.getSize());
+        assertEquals(expected, musicList.getMusicElements());
+        assertEquals(expected.subList(250, 270), mMusicStore.getMusicListItems(musicList, 250, 20));
+        assertEquals(expected, staleMusicList.getMusicElements());
+
+        // 过期的对象被更新后，再次修改也不会丢失其他地方写入的歌曲
+        staleMusicList.getMusicElements().remove(moved);
+        mMusicStore.updateMusicList(staleMusicList);
+        expected.remove(moved);
+
+        musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(expected.size(), musicList.getSize());
+        assertEquals(expected, musicList.getMusicElements());
+    }
+
+    @Test
+    public void favoriteWritesOnlyTouchedPages() {
+        List<Music> musics = createMusics(600);
+        mMusicStore.putAllMusic(musics);
+
+        Music newMusic = musics.remove(musics.size() - 1);
+        mMusicStore.addAllMusic(MusicStore.MUSIC_LIST_FAVORITE, musics);
+
+        Box<MusicListOrderPage> pageBox = store.boxFor(MusicListOrderPage.class);
+        List<MusicListOrderPage> pages = pageBox.getAll();
+        assertEquals(3, pages.size());
+
+        // 追加只会写入最后一个分页
+        mMusicStore.addToFavorite(newMusic);
+        assertEquals(Collections.singletonList(pages.get(2).id), getChangedPageIds(pages, pageBox.getAll()));
+
+        // 移除只会写入包含该歌曲的分页
+        pages = pageBox.getAll();
+        mMusicStore.removeFromFavorite(musics.get(300));
+        assertEquals(Collections.singletonList(pages.get(1).id), getChangedPageIds(pages, pageBox.getAll()));
+
+        musics.add(newMusic);
+        musics.remove(300);
+        assertEquals(musics, mMusicStore.getFavoriteMusicList().getMusicElements());
+        assertEquals(musics.size(), mMusicStore.getFavoriteMusicList().getSize());
+    }
+
+    @Test
+    public void removeAllMusicWritesOnlyTouchedPages() {
+        final String musicListName = "TestMusicList";
+
+        List<Music> musics = createMusics(600);
+        mMusicStore.putAllMusic(musics);
+        mMusicStore.createCustomMusicList(musicListName);
+        mMusicStore.addAllMusic(musicListName, musics);
+
+        Box<MusicListOrderPage> pageBox = store.boxFor(MusicListOrderPage.class);
+        List<MusicListOrderPage> pages = pageBox.getAll();
+        assertEquals(3, pages.size());
+
+        Music removed = musics.remove(10);
+        mMusicStore.removeAllMusic(musicListName, Collections.singletonList(removed));
+        assertEquals(Collections.singletonList(pages.get(0).id), getChangedPageIds(pages, pageBox.getAll()));
+
+        MusicList musicList = mMusicStore.getCustomMusicList(musicListName);
+        assert musicList != null;
+        assertEquals(musics, musicList.getMusicElements());
+        assertEquals(musics.size(), musicList.getSize());
+    }
+
+    private List<Music> createMusics(int count) {
+        List<Music> musics = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            musics.add(new Music(
+                    0,
+                    "title" + i,
+                    "artist" + i,
+                    "album" + i,
+                    "https://www.test.com/test" + i + ".mp3",
+                    "",
+                    60_000,
+                    System.currentTimeMillis()));
+        }
+        return musics;
+    }
+
+    // 返回内容发生了变化的分页的 ID，分页被删除或重新创建时直接失败
+    private List<Long> getChangedPageIds(List<MusicListOrderPage> before, List<MusicListOrderPage> after) {
+        assertEquals(before.size(), after.size());
+
+        List<Long> changed = new ArrayList<>();
+        for (int i = 0; i < before.size(); i++) {
+            assertEquals(before.get(i).id, after.get(i).id);
+            if (!Arrays.equals(before.get(i).musicIds, after.get(i).musicIds)) {
+                changed.add(before.get(i).id);
+            }
+        }
+        return changed;
+    }
+
+    @Test
+    public void rebuildStaleSortKeys() {
+        Music current = new Music(
+                0,
+                "Beta",
+                "artist",
+                "album",
+                "https://www.test.com/current.mp3",
+                "https://www.test.com/current.png",
+                60_000,
+                System.currentTimeMillis());
+        mMusicStore.putMusic(current);
+
+        // 模拟系统更新前使用旧版本排序规则生成的排序键
+        Music stale = new Music(
+                0,
+                "Alpha",
+                "artist",
+                "album",
+                "https://www.test.com/stale.mp3",
+                "https://www.test.com/stale.png",
+                60_000,
+                System.currentTimeMillis(),
+                "zz",
+                "zz",
+                "zz",
+                "0:stale");
+        // 即使绕过 putMusic() 直接写入数据库，过时的排序键也不会被保存
+        store.boxFor(Music.class).put(stale);
+
+        mMusicStore.rebuildStaleSortKeys();
+
+        Music rebuilt = store.boxFor(Music.class).get(stale.getId());
+        assertEquals(SortKeyHelper.getVersion(), rebuilt.getSortKeyVersion());
+        assertEquals(SortKeyHelper.getSortKey("Alpha"), rebuilt.getTitleKey());
+        assertTrue(rebuilt.getTitleKey().compareTo(current.getTitleKey()) < 0);
+
+        assertEquals(0, store.boxFor(Music.class).query()
+                .notEqual(Music_.sortKeyVersion, SortKeyHelper.getVersion(), QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .build()
+                .count());
+    }
+
+    @Test
+    public void staleSortKeysDiscardedOnRead() {
+        Music stale = new Music(
+                1,
+                "Alpha",
+                "artist",
+                "album",
+                "https://www.test.com/stale.mp3",
+                "https://www.test.com/stale.png",
+                60_000,
+                System.currentTimeMillis(),
+                "zz",
+                "zz",
+                "zz",
+                "0:stale");
+
+        assertEquals(SortKeyHelper.getSortKey("Alpha"), stale.getTitleKey());
+        assertEquals(SortKeyHelper.getSortKey("artist"), stale.getArtistKey());
+        assertEquals(SortKeyHelper.getVersion(), stale.getSortKeyVersion());
+    }
 }
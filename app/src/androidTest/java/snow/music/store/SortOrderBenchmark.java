@@ -0,0 +1,88 @@
+package snow.music.store;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+@RunWith(AndroidJUnit4.class)
+public class SortOrderBenchmark {
+    private static final int SIZE = 5_000;
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void sortByAddTime() {
+        benchmarkSort(MusicList.SortOrder.BY_ADD_TIME);
+    }
+
+    @Test
+    public void sortByTitle() {
+        benchmarkSort(MusicList.SortOrder.BY_TITLE);
+    }
+
+    @Test
+    public void sortByArtist() {
+        benchmarkSort(MusicList.SortOrder.BY_ARTIST);
+    }
+
+    @Test
+    public void sortByAlbum() {
+        benchmarkSort(MusicList.SortOrder.BY_ALBUM);
+    }
+
+    private void benchmarkSort(MusicList.SortOrder sortOrder) {
+        List<Music> musicList = createMusicList();
+        for (Music music : musicList) {
+            music.ensureSortKeys();
+        }
+
+        List<Music> sorted = new ArrayList<>(musicList.size());
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            state.pauseTiming();
+            sorted.clear();
+            sorted.addAll(musicList);
+            state.resumeTiming();
+
+            Collections.sort(sorted, sortOrder.comparator());
+        }
+    }
+
+    private List<Music> createMusicList() {
+        final String cjk = "阿不成都的饿方工和就可了们你哦片去人是他我小一在中国音乐";
+        final String latin = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+        Random random = new Random(SIZE);
+        List<Music> musicList = new ArrayList<>(SIZE);
+
+        for (int i = 0; i < SIZE; i++) {
+            String title = randomString(random, cjk, latin);
+            String artist = randomString(random, cjk, latin);
+            String album = randomString(random, cjk, latin);
+            musicList.add(new Music(0, title, artist, album, "", "", 60_000, random.nextInt(SIZE)));
+        }
+
+        return musicList;
+    }
+
+    private String randomString(Random random, String cjk, String latin) {
+        StringBuilder builder = new StringBuilder();
+        int length = 2 + random.nextInt(10);
+        for (int j = 0; j < length; j++) {
+            String source = random.nextBoolean() ? cjk : latin;
+            builder.append(source.charAt(random.nextInt(source.length())));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,103 @@
+package snow.music.store;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class SortOrderTest {
+    private static final int MIXED_SIZE = 500;
+
+    private static Music createMusic(String title) {
+        return new Music(0, title, title, title, "", "", 60_000, 0);
+    }
+
+    @Test
+    public void sortByTitle() {
+        List<Music> musicList = new ArrayList<>();
+        musicList.add(createMusic("成都"));
+        musicList.add(createMusic("不为谁而作的歌"));
+        musicList.add(createMusic("阿刁"));
+
+        Collections.sort(musicList, MusicList.SortOrder.BY_TITLE.comparator());
+
+        assertEquals("阿刁", musicList.get(0).getTitle());
+        assertEquals("不为谁而作的歌", musicList.get(1).getTitle());
+        assertEquals("成都", musicList.get(2).getTitle());
+    }
+
+    @Test
+    public void sortKeyIgnoreCase() {
+        Music musicA = createMusic("hello");
+        Music musicB = createMusic("HELLO");
+
+        assertEquals(musicA.getTitleKey(), musicB.getTitleKey());
+        assertEquals(0, MusicList.SortOrder.BY_ARTIST.comparator().compare(musicA, musicB));
+    }
+
+    @Test
+    public void sortKeyInvalidatedBySetter() {
+        Music music = createMusic("abc");
+        String oldKey = music.getAlbumKey();
+
+        music.setAlbum("xyz");
+
+        assertNotEquals(oldKey, music.getAlbumKey());
+    }
+
+    @Test
+    public void sortMixedTitles() {
+        Comparator<Music> comparator = MusicList.SortOrder.BY_TITLE.comparator();
+
+        List<Music> sorted = createMixedMusicList();
+        Collections.sort(sorted, comparator);
+
+        for (int i = 1; i < sorted.size(); i++) {
+            assertTrue(comparator.compare(sorted.get(i - 1), sorted.get(i)) <= 0);
+        }
+
+        // 排序结果与歌曲的初始顺序无关
+        List<Music> shuffled = createMixedMusicList();
+        Collections.shuffle(shuffled, new Random(1));
+        Collections.sort(shuffled, comparator);
+
+        assertEquals(getTitleKeys(sorted), getTitleKeys(shuffled));
+    }
+
+    private static List<String> getTitleKeys(List<Music> musicList) {
+        List<String> keys = new ArrayList<>(musicList.size());
+        for (Music music : musicList) {
+            keys.add(music.getTitleKey());
+        }
+        return keys;
+    }
+
+    private List<Music> createMixedMusicList() {
+        final String cjk = "阿不成都的饿方工和就可了们你哦片去人是他我小一在中国音乐";
+        final String latin = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+        Random random = new Random(0);
+        List<Music> musicList = new ArrayList<>(MIXED_SIZE);
+
+        for (int i = 0; i < MIXED_SIZE; i++) {
+            StringBuilder title = new StringBuilder();
+            int length = 2 + random.nextInt(10);
+            for (int j = 0; j < length; j++) {
+                String source = random.nextBoolean() ? cjk : latin;
+                title.append(source.charAt(random.nextInt(source.length())));
+            }
+            musicList.add(createMusic(title.toString()));
+        }
+
+        return musicList;
+    }
+}
@@ -6,6 +6,7 @@ import com.tencent.mmkv.MMKV;
 
 import snow.music.store.MusicStore;
 import snow.music.util.NightModeUtil;
+import snow.player.util.CacheRegistry;
 
 public class Application extends MultiDexApplication {
     @Override
@@ -14,6 +15,9 @@ public class Application extends MultiDexApplication {
 
         MMKV.initialize(this);
         NightModeUtil.applyNightMode(this);
-        MusicStore.init(this);
+        // 在后台线程中打开数据库，以免阻塞应用程序的启动
+        MusicStore.initAsync(this);
+        // 内存不足时缩小已注册的缓存（歌曲图片、歌单分页等）
+        CacheRegistry.getDefault().install(this);
     }
 }
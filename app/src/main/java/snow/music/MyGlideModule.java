@@ -5,16 +5,41 @@ import android.content.Context;
 import androidx.annotation.NonNull;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
 import com.bumptech.glide.Registry;
 import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
 import com.bumptech.glide.module.AppGlideModule;
 
 import java.nio.ByteBuffer;
 
 import snow.music.glide.AudioPictureModelLoader;
+import snow.player.util.CacheRegistry;
 
 @GlideModule
 public class MyGlideModule extends AppGlideModule {
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context).build();
+        final LruResourceCache memoryCache = new LruResourceCache(calculator.getMemoryCacheSize());
+
+        builder.setMemoryCache(memoryCache);
+
+        // Glide 会自己响应 onTrimMemory 回调来缩小内存缓存，这里只注册用于统计内存占用，不重复缩小
+        CacheRegistry.getDefault().register("GlideMemoryCache", CacheRegistry.TrimPolicy.NORMAL, new CacheRegistry.TrimmableCache() {
+            @Override
+            public long getSizeInBytes() {
+                return memoryCache.getCurrentSize();
+            }
+
+            @Override
+            public void trimToSize(long maxSizeInBytes) {
+                // ignore
+            }
+        });
+    }
+
     @Override
     public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
         registry.prepend(String.class, ByteBuffer.class, new AudioPictureModelLoader.Factory(context));
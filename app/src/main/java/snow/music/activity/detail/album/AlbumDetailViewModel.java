@@ -5,7 +5,6 @@ import androidx.annotation.NonNull;
 import java.util.Collections;
 import java.util.List;
 
-import pinyin.util.PinyinComparator;
 import snow.music.fragment.musiclist.BaseMusicListViewModel;
 import snow.music.store.Music;
 import snow.music.store.MusicList;
@@ -17,12 +16,22 @@ public class AlbumDetailViewModel extends BaseMusicListViewModel {
     protected List<Music> loadMusicListItems() {
         List<Music> musicList = MusicStore.getInstance().getAlbumAllMusic(getAlbumName());
 
-        PinyinComparator pinyinComparator = new PinyinComparator();
-        Collections.sort(musicList, (o1, o2) -> pinyinComparator.compare(o1.getTitle(), o2.getTitle()));
+        Collections.sort(musicList, MusicList.SortOrder.BY_TITLE.comparator());
 
         return musicList;
     }
 
+    @Override
+    protected int loadMusicListSize() {
+        return (int) MusicStore.getInstance().getAlbumMusicCount(getAlbumName());
+    }
+
+    @NonNull
+    @Override
+    protected List<Music> loadMusicListItems(int offset, int limit) {
+        return MusicStore.getInstance().getAlbumAllMusic(getAlbumName(), offset, limit);
+    }
+
     @Override
     protected void removeMusic(@NonNull Music music) {
         // ignore
@@ -6,11 +6,6 @@ import com.google.common.base.Preconditions;
 
 import java.util.List;
 
-import io.reactivex.Single;
-import io.reactivex.SingleOnSubscribe;
-import io.reactivex.android.schedulers.AndroidSchedulers;
-import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
 import snow.music.fragment.musiclist.BaseMusicListViewModel;
 import snow.music.store.Music;
 import snow.music.store.MusicList;
@@ -19,13 +14,12 @@ import snow.music.store.MusicStore;
 public class FavoriteMusicListViewModel extends BaseMusicListViewModel {
     private MusicList mFavoriteMusicList;
     private MusicStore.OnFavoriteChangeListener mFavoriteChangeListener;
-    private Disposable mReloadFavoriteDisposable;
 
     @Override
     public void init(@NonNull String musicListName) {
         super.init(musicListName);
 
-        mFavoriteChangeListener = this::reloadFavoriteMusicList;
+        mFavoriteChangeListener = this::reloadMusicList;
         MusicStore.getInstance().addOnFavoriteChangeListener(mFavoriteChangeListener);
     }
 
@@ -37,9 +31,6 @@ public class FavoriteMusicListViewModel extends BaseMusicListViewModel {
         }
 
         MusicStore.getInstance().removeOnFavoriteChangeListener(mFavoriteChangeListener);
-        if (mReloadFavoriteDisposable != null && !mReloadFavoriteDisposable.isDisposed()) {
-            mReloadFavoriteDisposable.dispose();
-        }
     }
 
     @NonNull
@@ -50,6 +41,18 @@ public class FavoriteMusicListViewModel extends BaseMusicListViewModel {
         return mFavoriteMusicList.getMusicElements();
     }
 
+    @Override
+    protected int loadMusicListSize() {
+        mFavoriteMusicList = MusicStore.getInstance().getFavoriteMusicList();
+        return mFavoriteMusicList.getSize();
+    }
+
+    @NonNull
+    @Override
+    protected List<Music> loadMusicListItems(int offset, int limit) {
+        return MusicStore.getInstance().getMusicListItems(mFavoriteMusicList, offset, limit);
+    }
+
     @Override
     protected void removeMusic(@NonNull Music music) {
         MusicStore.getInstance().removeFromFavorite(music);
@@ -59,7 +62,7 @@ public class FavoriteMusicListViewModel extends BaseMusicListViewModel {
     protected void onSortMusicList(@NonNull MusicList.SortOrder sortOrder) {
         Preconditions.checkNotNull(sortOrder);
 
-        MusicStore.getInstance().sort(mFavoriteMusicList, sortOrder, () -> notifyMusicItemsChanged(mFavoriteMusicList.getMusicElements()));
+        MusicStore.getInstance().sort(mFavoriteMusicList, sortOrder, this::reloadMusicList);
     }
 
     @NonNull
@@ -67,20 +70,4 @@ public class FavoriteMusicListViewModel extends BaseMusicListViewModel {
     protected MusicList.SortOrder getSortOrder() {
         return mFavoriteMusicList.getSortOrder();
     }
-
-    private void reloadFavoriteMusicList() {
-        mReloadFavoriteDisposable = Single.create((SingleOnSubscribe<MusicList>) emitter -> {
-            MusicList favoriteMusicList = MusicStore.getInstance().getFavoriteMusicList();
-            favoriteMusicList.load();
-            if (emitter.isDisposed()) {
-                return;
-            }
-            emitter.onSuccess(favoriteMusicList);
-        }).subscribeOn(Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(musicList -> {
-                    mFavoriteMusicList = musicList;
-                    notifyMusicItemsChanged(mFavoriteMusicList.getMusicElements());
-                });
-    }
 }
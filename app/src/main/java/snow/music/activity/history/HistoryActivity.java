@@ -21,6 +21,8 @@ import snow.player.lifecycle.PlayerViewModel;
 import snow.player.playlist.Playlist;
 
 public class HistoryActivity extends ListActivity {
+    private static final int LOAD_MORE_THRESHOLD = 10;
+
     private PlayerViewModel mPlayerViewModel;
     private HistoryViewModel mHistoryViewModel;
     private HistoryAdapter mHistoryAdapter;
@@ -64,7 +66,8 @@ public class HistoryActivity extends ListActivity {
 
     private void initRecyclerView() {
         RecyclerView rvHistory = findViewById(R.id.rvHistory);
-        rvHistory.setLayoutManager(new LinearLayoutManager(this));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(this);
+        rvHistory.setLayoutManager(layoutManager);
         mHistoryAdapter = new HistoryAdapter(Objects.requireNonNull(mHistoryViewModel.getHistory().getValue()));
         rvHistory.setAdapter(mHistoryAdapter);
 
@@ -80,6 +83,15 @@ public class HistoryActivity extends ListActivity {
             }
         });
 
+        rvHistory.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                if (layoutManager.findLastVisibleItemPosition() >= mHistoryAdapter.getItemCount() - LOAD_MORE_THRESHOLD) {
+                    mHistoryViewModel.loadMoreHistory();
+                }
+            }
+        });
+
         mHistoryViewModel.getHistory()
                 .observe(this, history -> mHistoryAdapter.setHistory(history));
     }
@@ -87,11 +99,11 @@ public class HistoryActivity extends ListActivity {
     private void playMusic(int position) {
         MessageDialog messageDialog = new MessageDialog.Builder(getApplicationContext())
                 .setMessage(R.string.message_play_all_music)
-                .setPositiveButtonClickListener((dialog, which) -> {
-                    Playlist playlist = MusicListUtil.asPlaylist(""/*empty*/, mHistoryViewModel.getAllHistoryMusic(), position);
+                .setPositiveButtonClickListener((dialog, which) -> mHistoryViewModel.requireAllHistoryMusic(allHistoryMusic -> {
+                    Playlist playlist = MusicListUtil.asPlaylist(""/*empty*/, allHistoryMusic, position);
 
                     mPlayerViewModel.setPlaylist(playlist, position, true);
-                })
+                }))
                 .build();
 
         messageDialog.show(getSupportFragmentManager(), "playMusic");
@@ -22,18 +22,27 @@ import snow.music.store.Music;
 import snow.music.store.MusicStore;
 
 public class HistoryViewModel extends ViewModel {
+    private static final int PAGE_SIZE = 50;
+
     private final MutableLiveData<List<HistoryEntity>> mHistory;
     private Disposable mLoadHistoryDisposable;
 
+    private boolean mLoading;
+    private boolean mNoMoreHistory;
+
     public HistoryViewModel() {
         mHistory = new MutableLiveData<>(Collections.emptyList());
-        loadHistory();
+        loadMoreHistory();
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
 
+        disposeLoadHistory();
+    }
+
+    private void disposeLoadHistory() {
         if (mLoadHistoryDisposable != null && !mLoadHistoryDisposable.isDisposed()) {
             mLoadHistoryDisposable.dispose();
         }
@@ -43,11 +52,39 @@ public class HistoryViewModel extends ViewModel {
         return mHistory;
     }
 
-    @NonNull
-    public List<Music> getAllHistoryMusic() {
-        List<HistoryEntity> history = mHistory.getValue();
-        assert history != null;
+    /**
+     * 获取全部历史记录中的歌曲，如果历史记录还没有全部加载，则会先在异步线程中加载剩余部分。
+     * <p>
+     * callback 会在主线程中调用。
+     */
+    public void requireAllHistoryMusic(@NonNull AllHistoryMusicCallback callback) {
+        Preconditions.checkNotNull(callback);
+
+        if (mNoMoreHistory) {
+            callback.onResult(getAllHistoryMusic(Objects.requireNonNull(mHistory.getValue())));
+            return;
+        }
+
+        disposeLoadHistory();
+        mLoading = true;
+        mLoadHistoryDisposable = Single.create((SingleOnSubscribe<List<HistoryEntity>>) emitter -> {
+            List<HistoryEntity> history = MusicStore.getInstance().getAllHistory();
+            if (emitter.isDisposed()) {
+                return;
+            }
+            emitter.onSuccess(history);
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(history -> {
+                    mLoading = false;
+                    mNoMoreHistory = true;
+                    mHistory.setValue(history);
+                    callback.onResult(getAllHistoryMusic(history));
+                });
+    }
 
+    @NonNull
+    private List<Music> getAllHistoryMusic(@NonNull List<HistoryEntity> history) {
         List<Music> musicList = new ArrayList<>(history.size());
 
         for (HistoryEntity entity : history) {
@@ -70,6 +107,9 @@ public class HistoryViewModel extends ViewModel {
     }
 
     public void clearHistory() {
+        disposeLoadHistory();
+        mLoading = false;
+        mNoMoreHistory = true;
         mHistory.setValue(Collections.emptyList());
 
         Single.create((SingleOnSubscribe<Boolean>) emitter -> MusicStore.getInstance().clearHistory())
@@ -77,15 +117,38 @@ public class HistoryViewModel extends ViewModel {
                 .subscribe();
     }
 
-    private void loadHistory() {
+    /**
+     * 加载下一页历史记录，如果正在加载或者已全部加载，则忽略本次调用。
+     */
+    public void loadMoreHistory() {
+        if (mLoading || mNoMoreHistory) {
+            return;
+        }
+
+        mLoading = true;
+        // 根据已加载的最后一条历史记录定位下一页，而不是使用已加载的数量作为偏移量，
+        // 以免在加载期间播放或移除歌曲时导致重复或者遗漏
+        List<HistoryEntity> loadedHistory = Objects.requireNonNull(mHistory.getValue());
+        final HistoryEntity last = loadedHistory.isEmpty() ? null : loadedHistory.get(loadedHistory.size() - 1);
         mLoadHistoryDisposable = Single.create((SingleOnSubscribe<List<HistoryEntity>>) emitter -> {
-            List<HistoryEntity> history = MusicStore.getInstance().getAllHistory();
+            List<HistoryEntity> history = MusicStore.getInstance().getHistoryBefore(last, PAGE_SIZE);
             if (emitter.isDisposed()) {
                 return;
             }
             emitter.onSuccess(history);
         }).subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(mHistory::setValue);
+                .subscribe(history -> {
+                    mLoading = false;
+                    mNoMoreHistory = history.size() < PAGE_SIZE;
+
+                    List<HistoryEntity> allHistory = new ArrayList<>(Objects.requireNonNull(mHistory.getValue()));
+                    allHistory.addAll(history);
+                    mHistory.setValue(allHistory);
+                });
+    }
+
+    public interface AllHistoryMusicCallback {
+        void onResult(@NonNull List<Music> allHistoryMusic);
     }
 }
@@ -16,7 +16,6 @@ import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
-import pinyin.util.PinyinComparator;
 
 import android.app.Application;
 
@@ -24,6 +23,7 @@ import snow.music.R;
 import snow.music.activity.detail.album.AlbumDetailActivity;
 import snow.music.activity.detail.artist.ArtistDetailActivity;
 import snow.music.store.Music;
+import snow.music.store.MusicList;
 import snow.music.store.MusicStore;
 import snow.music.util.MusicListUtil;
 import snow.player.playlist.Playlist;
@@ -47,14 +47,7 @@ public class SearchViewModel extends AndroidViewModel {
         mSearchResult = new MutableLiveData<>(Collections.emptyList());
         mEmptyMessage = new MutableLiveData<>("");
 
-        mMusicComparator = new Comparator<Music>() {
-            private final PinyinComparator pinyinComparator = new PinyinComparator();
-
-            @Override
-            public int compare(Music o1, Music o2) {
-                return pinyinComparator.compare(o1.getTitle(), o2.getTitle());
-            }
-        };
+        mMusicComparator = MusicList.SortOrder.BY_TITLE.comparator();
     }
 
     public void init(@NonNull SearchActivity.Type type, @NonNull String typeName) {
@@ -7,11 +7,12 @@ import android.os.Bundle;
 
 import java.util.concurrent.TimeUnit;
 
-import io.reactivex.Observable;
+import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import snow.music.R;
 import snow.music.activity.navigation.NavigationActivity;
+import snow.music.store.MusicStore;
 
 public class WelcomeActivity extends AppCompatActivity {
     private Disposable mTimerDisposable;
@@ -28,6 +29,12 @@ public class WelcomeActivity extends AppCompatActivity {
         startTimer();
     }
 
+    @Override
+    protected void onStop() {
+        super.onStop();
+        disposeTimer();
+    }
+
     @Override
     public void finish() {
         super.finish();
@@ -37,15 +44,21 @@ public class WelcomeActivity extends AppCompatActivity {
     }
 
     public void startTimer() {
-        if (mTimerDisposable != null && !mTimerDisposable.isDisposed()) {
-            mTimerDisposable.isDisposed();
-        }
+        disposeTimer();
 
-        mTimerDisposable = Observable.timer(300, TimeUnit.MILLISECONDS)
+        // 欢迎页至少显示 300 毫秒，并且会等待 MusicStore 初始化完成，以免 NavigationActivity 阻塞在数据库的初始化上
+        mTimerDisposable = Single.zip(Single.timer(300, TimeUnit.MILLISECONDS), MusicStore.ready(),
+                (along, musicStore) -> along)
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(this::startNavigationActivity);
     }
 
+    private void disposeTimer() {
+        if (mTimerDisposable != null && !mTimerDisposable.isDisposed()) {
+            mTimerDisposable.dispose();
+        }
+    }
+
     public void startNavigationActivity(Long along) {
         Intent intent = new Intent(this, NavigationActivity.class);
         startActivity(intent);
@@ -32,7 +32,6 @@ import recyclerview.helper.ItemClickHelper;
 import recyclerview.helper.SelectableHelper;
 import snow.music.R;
 import snow.music.store.Music;
-import snow.music.store.MusicList;
 import snow.music.store.MusicStore;
 import snow.music.util.InputValidator;
 
@@ -242,13 +241,9 @@ public class AddToMusicListDialog extends BottomDialog {
     @SuppressLint("CheckResult")
     private void createMusicList(Context context, String name) {
         Single.create(emitter -> {
-            MusicList musicList = MusicStore.getInstance().createCustomMusicList(name);
-            if (mManyMusicMode) {
-                musicList.getMusicElements().addAll(mAllMusic);
-            } else {
-                musicList.getMusicElements().add(mMusic);
-            }
-            MusicStore.getInstance().updateMusicList(musicList);
+            MusicStore musicStore = MusicStore.getInstance();
+            musicStore.createCustomMusicList(name);
+            musicStore.addAllMusic(name, mManyMusicMode ? mAllMusic : Collections.singletonList(mMusic));
 
             emitter.onSuccess(true);
         }).subscribeOn(Schedulers.io())
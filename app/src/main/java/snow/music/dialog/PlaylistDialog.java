@@ -20,6 +20,13 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.common.base.Preconditions;
 
+import java.util.ArrayList;
+import java.util.List;
+
+import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
 import recyclerview.helper.ItemClickHelper;
 import recyclerview.helper.PositionHelper;
 import recyclerview.helper.ScrollToPositionHelper;
@@ -89,6 +96,14 @@ public class PlaylistDialog extends BottomDialog {
         return false;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (mPlaylistAdapter != null) {
+            mPlaylistAdapter.cancelDiff();
+        }
+    }
+
     private void initRecyclerView(RecyclerView rvPlaylist) {
         Context context = getContext();
         if (context == null) {
@@ -165,7 +180,16 @@ public class PlaylistDialog extends BottomDialog {
                 .setTitle(musicItem.getTitle())
                 .setMessage(R.string.message_remove_from_playlist)
                 .setPositiveTextColor(context.getResources().getColor(R.color.red_500))
-                .setPositiveButtonClickListener((dialog, which) -> mPlayerViewModel.getPlayerClient().removeMusicItem(position))
+                .setPositiveButtonClickListener((dialog, which) -> {
+                    PlayerClient playerClient = mPlayerViewModel.getPlayerClient();
+                    if (!playerClient.isPlaylistEditable()) {
+                        return;
+                    }
+
+                    // 先在本地移除，播放列表更新后如果内容一致，则无需再计算差异
+                    mPlaylistAdapter.remove(position);
+                    playerClient.removeMusicItem(position);
+                })
                 .setDisableEnterAnim(true)
                 .build();
 
@@ -184,6 +208,8 @@ public class PlaylistDialog extends BottomDialog {
 
         private boolean mLoading;
 
+        private Disposable mDiffDisposable;
+
         public PlaylistAdapter(@NonNull Playlist playlist, int playPosition) {
             Preconditions.checkNotNull(playlist);
             mPlaylist = new MovablePlaylist(playlist, playPosition);
@@ -203,6 +229,8 @@ public class PlaylistDialog extends BottomDialog {
         public void setPlaylist(@NonNull Playlist playlist, int playPosition) {
             Preconditions.checkNotNull(playlist);
 
+            cancelDiff();
+
             if (playlist.isEmpty()) {
                 mPlaylist = new MovablePlaylist(playlist, playPosition);
                 notifyDataSetChanged();
@@ -217,11 +245,54 @@ public class PlaylistDialog extends BottomDialog {
                 return;
             }
 
-            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new MusicItemDiffCallback(mPlaylist, playlist));
-            diffResult.dispatchUpdatesTo(this);
+            if (isSameContent(mPlaylist, playlist)) {
+                // 本地已经应用了本次修改（例如拖拽或移除），无需计算差异
+                mPlaylist = new MovablePlaylist(playlist, playPosition);
+                mSelectableHelper.setSelect(playPosition, true);
+                return;
+            }
 
-            mPlaylist = new MovablePlaylist(playlist, playPosition);
-            mSelectableHelper.setSelect(playPosition, true);
+            // 在异步线程中计算差异，避免播放列表较大时阻塞主线程。
+            // 使用旧列表的快照，因为计算期间本地列表可能会被拖拽修改
+            List<MusicItem> oldItems = new ArrayList<>(mPlaylist.size());
+            for (int i = 0; i < mPlaylist.size(); i++) {
+                oldItems.add(mPlaylist.get(i));
+            }
+
+            MusicItemDiffCallback diffCallback = new MusicItemDiffCallback(oldItems, playlist);
+            mDiffDisposable = Single.fromCallable(() -> DiffUtil.calculateDiff(diffCallback))
+                    .subscribeOn(Schedulers.computation())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(diffResult -> {
+                        mPlaylist = new MovablePlaylist(playlist, playPosition);
+                        diffResult.dispatchUpdatesTo(this);
+                        mSelectableHelper.setSelect(playPosition, true);
+                    });
+        }
+
+        /**
+         * 取消正在进行的差异计算。
+         * <p>
+         * 本地修改列表后，正在计算的差异就不再有效了。之后 PlayerService 会通知新的播放列表，届时会重新计算差异。
+         */
+        public void cancelDiff() {
+            if (mDiffDisposable != null && !mDiffDisposable.isDisposed()) {
+                mDiffDisposable.dispose();
+            }
+        }
+
+        private static boolean isSameContent(MovablePlaylist oldPlaylist, Playlist newPlaylist) {
+            if (oldPlaylist.size() != newPlaylist.size()) {
+                return false;
+            }
+
+            for (int i = 0; i < oldPlaylist.size(); i++) {
+                if (!oldPlaylist.get(i).equals(newPlaylist.get(i))) {
+                    return false;
+                }
+            }
+
+            return true;
         }
 
         public void setPlayPosition(int playPosition) {
@@ -310,10 +381,28 @@ public class PlaylistDialog extends BottomDialog {
         }
 
         public void move(int from, int target) {
+            cancelDiff();
             mPlaylist.move(from, target);
             notifyItemMoved(from, target);
         }
 
+        public void remove(int position) {
+            if (position < 0 || position >= mPlaylist.size()) {
+                return;
+            }
+
+            cancelDiff();
+            mPlaylist.remove(position);
+
+            if (mPlaylist.isEmpty()) {
+                notifyItemChanged(0);
+                mSelectableHelper.clearSelected();
+                return;
+            }
+
+            notifyItemRemoved(position);
+        }
+
         private int getEmptyType() {
             if (mLoading) {
                 return TYPE_EMPTY_LOADING;
@@ -397,10 +486,10 @@ public class PlaylistDialog extends BottomDialog {
         }
 
         private static class MusicItemDiffCallback extends DiffUtil.Callback {
-            private final MovablePlaylist mOldPlaylist;
+            private final List<MusicItem> mOldPlaylist;
             private final Playlist mNewPlaylist;
 
-            MusicItemDiffCallback(MovablePlaylist oldPlaylist, Playlist newPlaylist) {
+            MusicItemDiffCallback(List<MusicItem> oldPlaylist, Playlist newPlaylist) {
                 mOldPlaylist = oldPlaylist;
                 mNewPlaylist = newPlaylist;
             }
@@ -23,28 +23,26 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModelProvider;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
-import media.helper.MediaStoreHelper;
 import snow.music.R;
 import snow.music.service.AppPlayerService;
 import snow.music.store.Music;
-import snow.music.store.MusicList;
 import snow.music.store.MusicStore;
 import snow.music.util.MusicListUtil;
 import snow.music.util.PlayerUtil;
 import snow.player.PlayerClient;
+import snow.player.PlayerSchedulers;
 import snow.player.lifecycle.PlayerViewModel;
+import snow.player.util.AudioScanner;
 
 public class ScannerDialog extends BottomDialog {
     private static final String KEY_UPDATE_PLAYLIST = "UPDATE_PLAYLIST";
@@ -69,7 +67,7 @@ public class ScannerDialog extends BottomDialog {
     /**
      * 创建一个 {@link ScannerDialog} 对象。
      *
-     * @param updatePlaylist 是否更新播放列表，如果为 true，则会在扫描完成后，使用扫描到的音乐设置一个新的播放列表。
+     * @param updatePlaylist 是否更新播放列表，如果为 true，则会在扫描完成后，使用 “本地音乐” 歌单设置一个新的播放列表。
      * @return {@link ScannerDialog} 对象
      */
     public static ScannerDialog newInstance(boolean updatePlaylist, boolean ignoreEnterAnim) {
@@ -134,54 +132,35 @@ public class ScannerDialog extends BottomDialog {
         updateProgress();
     }
 
-    private void showScanResultDialog(FragmentActivity activity, List<Music> musicList) {
+    private void showScanResultDialog(FragmentActivity activity, int scannedCount) {
         MessageDialog.Builder builder = new MessageDialog.Builder(activity);
+        builder.setHideNegativeButton(true);
 
-        switch (musicList.size()) {
+        switch (scannedCount) {
             case 0:
-                builder.setMessage(R.string.message_no_new_songs_found)
-                        .setHideNegativeButton(true);
+                builder.setMessage(R.string.message_no_new_songs_found);
                 break;
             case 1:
                 builder.setMessage(R.string.message_one_song_found);
                 break;
             default:
                 String message = activity.getString(R.string.message_many_songs_found);
-                builder.setMessage(message.replaceFirst("n", String.valueOf(musicList.size())));
+                builder.setMessage(message.replaceFirst("n", String.valueOf(scannedCount)));
                 break;
         }
 
-        MessageDialog messageDialog = builder.setPositiveButtonClickListener(
-                (dialog, which) -> addToLocalMusicList(activity, musicList, updatePlaylist()))
-                .build();
-
-        messageDialog.show(getParentFragmentManager(), "scanComplete");
+        builder.build().show(getParentFragmentManager(), "scanComplete");
     }
 
     @SuppressWarnings("ResultOfMethodCallIgnored")
     @SuppressLint("CheckResult")
-    private void addToLocalMusicList(FragmentActivity activity, List<Music> musicList, boolean updatePlaylist) {
-        if (musicList.size() < 1) {
-            return;
-        }
-
-        Single.create((SingleOnSubscribe<Boolean>) emitter -> {
-            MusicStore musicStore = MusicStore.getInstance();
-            MusicList localMusic = musicStore.getLocalMusicList();
-
-            localMusic.getMusicElements().addAll(musicList);
-            musicStore.updateMusicList(localMusic);
-
-            emitter.onSuccess(true);
-        }).subscribeOn(Schedulers.io())
+    private void setLocalMusicPlaylist(FragmentActivity activity) {
+        Single.create((SingleOnSubscribe<List<Music>>) emitter ->
+                emitter.onSuccess(MusicStore.getInstance().getLocalMusicList().getMusicElements())
+        ).subscribeOn(PlayerSchedulers.getDefault().persistence())
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(aBoolean -> {
-                    MusicStore.getInstance().notifyScanComplete();
-                    if (updatePlaylist) {
-                        getPlayerClient(activity).setPlaylist(
-                                MusicListUtil.asPlaylist(MusicStore.MUSIC_LIST_LOCAL_MUSIC, musicList, 0));
-                    }
-                });
+                .subscribe(musicList -> getPlayerClient(activity).setPlaylist(
+                        MusicListUtil.asPlaylist(MusicStore.MUSIC_LIST_LOCAL_MUSIC, musicList, 0)));
     }
 
     @Override
@@ -229,9 +208,17 @@ public class ScannerDialog extends BottomDialog {
                 .subscribe(aLong -> {
                     FragmentActivity activity = requireActivity();
                     dismiss();
-                    if (mScannerViewModel.isStarted()) {
-                        showScanResultDialog(activity, mScannerViewModel.getScannedMusic());
+                    if (!mScannerViewModel.isStarted()) {
+                        return;
+                    }
+
+                    // 扫描到的歌曲已在扫描过程中分批添加到了 “本地音乐” 歌单中
+                    int scannedCount = mScannerViewModel.getScannedCount();
+                    MusicStore.getInstance().notifyScanComplete();
+                    if (scannedCount > 0 && updatePlaylist()) {
+                        setLocalMusicPlaylist(activity);
                     }
+                    showScanResultDialog(activity, scannedCount);
                 });
     }
 
@@ -292,12 +279,12 @@ public class ScannerDialog extends BottomDialog {
         private boolean mStarted;
         private boolean mCancelled;
         private int mProgress;
-        private MediaStoreHelper.Scanner<Music> mMusicScanner;
+        private AudioScanner<Music> mMusicScanner;
 
         public final MutableLiveData<Boolean> mFinished;
         public final MutableLiveData<Integer> mScanPercent;
 
-        private List<Music> mScannedMusic;
+        private final AtomicInteger mScannedCount;
 
         public ScannerViewModel(@NonNull Application application) {
             super(application);
@@ -306,7 +293,7 @@ public class ScannerDialog extends BottomDialog {
             mCancelled = false;
             mFinished = new MutableLiveData<>(false);
             mScanPercent = new MutableLiveData<>(0);
-            mScannedMusic = Collections.emptyList();
+            mScannedCount = new AtomicInteger();
         }
 
         @Override
@@ -323,25 +310,35 @@ public class ScannerDialog extends BottomDialog {
 
             mStarted = true;
 
-            mMusicScanner = MediaStoreHelper.scanAudio(getApplication().getContentResolver(), new MusicDecoder(getApplication()))
-                    .updateThreshold(1000)
-                    .selection(MediaStore.Audio.Media.DURATION + ">=?")
-                    .selectionArgs(new String[]{String.valueOf(minDuration)});
+            mMusicScanner = new AudioScanner<>(getApplication(), new MusicConverter(getApplication()));
+            mMusicScanner.setQueryParams(null,
+                    MediaStore.Audio.Media.DURATION + ">=?",
+                    new String[]{String.valueOf(minDuration)},
+                    null);
 
-            mMusicScanner.scan(new MediaStoreHelper.OnScanCallback<Music>() {
+            mMusicScanner.scan(AudioScanner.DEFAULT_BATCH_SIZE, new AudioScanner.OnBatchScannedListener<Music>() {
                 @Override
-                public void onStartScan() {
+                public void onStart() {
                     mScanPercent.setValue(0);
                 }
 
                 @Override
-                public void onUpdateProgress(int progress, int max, Music item) {
+                public void onProgressUpdate(int progress) {
                     mProgress = progress;
                     mScanPercent.setValue(progress);
                 }
 
                 @Override
-                public void onFinished(List<Music> items) {
+                public void onBatchScanned(@NonNull List<Music> batch) {
+                    // 每扫描到一批歌曲就追加到 “本地音乐” 歌单中，不在内存中保存全部扫描结果
+                    MusicStore musicStore = MusicStore.getInstance();
+                    List<Music> allNoLocalMusic = musicStore.putScannedMusic(batch);
+                    musicStore.addAllMusic(MusicStore.MUSIC_LIST_LOCAL_MUSIC, allNoLocalMusic);
+                    mScannedCount.addAndGet(allNoLocalMusic.size());
+                }
+
+                @Override
+                public void onEnd(boolean cancelled) {
                     if (mCancelled) {
                         return;
                     }
@@ -349,8 +346,6 @@ public class ScannerDialog extends BottomDialog {
                     mProgress = 100;
                     mScanPercent.setValue(100);
                     mFinished.setValue(true);
-
-                    updateLocalMusicList(items);
                 }
             });
         }
@@ -379,70 +374,44 @@ public class ScannerDialog extends BottomDialog {
             return mProgress;
         }
 
-        public List<Music> getScannedMusic() {
-            return mScannedMusic;
-        }
-
-        @SuppressWarnings("ResultOfMethodCallIgnored")
-        @SuppressLint("CheckResult")
-        private void updateLocalMusicList(List<Music> items) {
-            Single.create((SingleOnSubscribe<List<Music>>) emitter -> {
-                MusicStore.getInstance().putAllMusic(getAllNewMusic(items));
-                emitter.onSuccess(getAllNoLocalMusic(items));
-            }).subscribeOn(Schedulers.io())
-                    .observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(musicList -> mScannedMusic = musicList);
-        }
-
-        private List<Music> getAllNewMusic(List<Music> items) {
-            MusicStore musicStore = MusicStore.getInstance();
-            List<Music> allNewMusic = new ArrayList<>();
-            for (Music music : items) {
-                long id = musicStore.getId(music.getUri());
-                music.id = id;
-                if (id <= 0) {
-                    allNewMusic.add(music);
-                }
-            }
-            return allNewMusic;
-        }
-
-        private List<Music> getAllNoLocalMusic(List<Music> items) {
-            MusicStore musicStore = MusicStore.getInstance();
-            List<Music> allNoLocalMusic = new ArrayList<>();
-
-            for (Music music : items) {
-                if (!musicStore.isLocalMusic(music.getUri())) {
-                    allNoLocalMusic.add(music);
-                }
-            }
-
-            return allNoLocalMusic;
+        /**
+         * 获取已添加到 “本地音乐” 歌单中的新歌曲的数量。
+         */
+        public int getScannedCount() {
+            return mScannedCount.get();
         }
     }
 
-    private static class MusicDecoder extends MediaStoreHelper.Decoder<Music> {
+    private static class MusicConverter implements AudioScanner.SchemaConverter<Music> {
         private final Context mContext;
 
-        MusicDecoder(Context context) {
+        MusicConverter(Context context) {
             mContext = context;
         }
 
         @Override
-        public Music decode(Cursor cursor) {
+        public Music convert(@NonNull Cursor cursor) {
+            return convert(cursor, new AudioScanner.CursorSchema(cursor));
+        }
+
+        @Override
+        public Music convert(@NonNull Cursor cursor, @NonNull AudioScanner.CursorSchema schema) {
             return new Music(0,
-                    getFileName(cursor),
-                    optimizeText(getAudioArtist(cursor), snow.player.R.string.snow_music_item_unknown_artist),
-                    optimizeText(getAudioAlbum(cursor), snow.player.R.string.snow_music_item_unknown_album),
-                    getAudioUri(cursor).toString(),
+                    getFileName(schema.getDisplayName(cursor)),
+                    optimizeText(schema.getArtist(cursor), snow.player.R.string.snow_music_item_unknown_artist),
+                    optimizeText(schema.getAlbum(cursor), snow.player.R.string.snow_music_item_unknown_album),
+                    schema.getUri(cursor).toString(),
                     "",
-                    getDuration(cursor),
-                    getDateModified(cursor));
+                    schema.getDuration(cursor),
+                    schema.getDateModified(cursor));
         }
 
-        private String getFileName(Cursor cursor) {
-            String displayName = getDisplayName(cursor);
-            return displayName.substring(0, displayName.lastIndexOf("."));
+        private String getFileName(String displayName) {
+            int index = displayName.lastIndexOf(".");
+            if (index < 0) {
+                return displayName;
+            }
+            return displayName.substring(0, index);
         }
 
         public String optimizeText(String text, int stringId) {
@@ -113,7 +113,9 @@ public abstract class BaseMusicListFragment extends Fragment {
                         return;
                     }
 
-                    mMusicListAdapter.setMusicList(musicList, mMusicListViewModel.consumeIgnoreDiffUtil());
+                    mMusicListAdapter.setMusicList(musicList,
+                            mMusicListViewModel.consumeIgnoreDiffUtil(),
+                            mMusicListViewModel.consumeDiffResult());
 
                     MusicItem musicItem = mPlayerViewModel.getPlayerClient().getPlayingMusicItem();
 
@@ -179,43 +181,65 @@ public abstract class BaseMusicListFragment extends Fragment {
     }
 
     private void onMusicListItemClicked(int position) {
+        Music music = getMusicListItems().get(position);
+        if (music == null) {
+            // 占位符，歌曲尚未加载
+            return;
+        }
+
         if (matchPlaylistName() && matchPlaylistToken()) {
             mPlayerViewModel.getPlayerClient().playPause(position);
             return;
         }
 
-        if (matchPlaylistName() && isPlayingMusic(position)) {
+        if (matchPlaylistName() && isPlayingMusic(music)) {
             mPlayerViewModel.getPlayerClient().playPause();
             return;
         }
 
-        mPlayerViewModel.setPlaylist(
-                MusicListUtil.asPlaylist(mMusicListViewModel.getMusicListName(), getMusicListItems(), position),
-                position,
-                true);
+        mMusicListViewModel.requireAllMusicListItems(musicListItems ->
+                mPlayerViewModel.setPlaylist(
+                        MusicListUtil.asPlaylist(mMusicListViewModel.getMusicListName(), musicListItems, position),
+                        position,
+                        true));
     }
 
-    private boolean isPlayingMusic(int position) {
-        MusicItem musicItem = MusicUtil.asMusicItem(getMusicListItems().get(position));
+    private boolean isPlayingMusic(@NonNull Music music) {
+        MusicItem musicItem = MusicUtil.asMusicItem(music);
         return musicItem.equals(mPlayerViewModel.getPlayerClient().getPlayingMusicItem());
     }
 
     private void onMusicListItemMenuClicked(int position) {
-        showItemOptionMenu(getMusicListItems().get(position));
+        Music music = getMusicListItems().get(position);
+        if (music == null) {
+            return;
+        }
+
+        showItemOptionMenu(music);
     }
 
     private void onMusicListItemLongClicked(int position) {
-        MultiChoiceStateHolder stateHolder = MultiChoiceStateHolder.getInstance();
+        if (getMusicListItems().get(position) == null) {
+            return;
+        }
+
+        mMusicListViewModel.requireAllMusicListItems(musicListItems -> {
+            if (!isAdded()) {
+                return;
+            }
+
+            MultiChoiceStateHolder stateHolder = MultiChoiceStateHolder.getInstance();
 
-        stateHolder.setMusicList(Objects.requireNonNull(mMusicListViewModel.getMusicListItems().getValue()));
-        stateHolder.setFavorite(isFavorite());
-        stateHolder.setItemRemovable(isItemRemovable());
-        stateHolder.setLayoutManagerState(mLinearLayoutManager.onSaveInstanceState());
-        stateHolder.setMusicListName(mMusicListViewModel.getMusicListName());
-        stateHolder.setPosition(position);
+            stateHolder.setMusicList(musicListItems);
+            stateHolder.setFavorite(isFavorite());
+            stateHolder.setItemRemovable(isItemRemovable());
+            stateHolder.setLayoutManagerState(mLinearLayoutManager.onSaveInstanceState());
+            stateHolder.setMusicListName(mMusicListViewModel.getMusicListName());
+            stateHolder.setPosition(position);
 
-        Intent intent = new Intent(getContext(), MusicMultiChoiceActivity.class);
-        startActivityForResult(intent, REQUEST_CODE_MULTI_CHOICE);
+            Intent intent = new Intent(getContext(), MusicMultiChoiceActivity.class);
+            startActivityForResult(intent, REQUEST_CODE_MULTI_CHOICE);
+        });
     }
 
     private boolean isFavorite() {
@@ -1,9 +1,11 @@
 package snow.music.fragment.musiclist;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
+import androidx.recyclerview.widget.DiffUtil;
 
 import com.google.common.base.Preconditions;
 
@@ -15,14 +17,25 @@ import java.util.Objects;
 import io.reactivex.Single;
 import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 import snow.music.activity.multichoice.MultiChoiceStateHolder;
 import snow.music.store.Music;
 import snow.music.store.MusicList;
+import snow.player.util.CacheRegistry;
 import snow.player.util.MusicItemUtil;
 
 public abstract class BaseMusicListViewModel extends ViewModel {
+    /**
+     * 分页加载时每页的大小。
+     */
+    protected static final int PAGE_SIZE = 100;
+    /**
+     * 分页加载时的预取距离。
+     */
+    protected static final int PREFETCH_DISTANCE = PAGE_SIZE / 2;
+
     private final MutableLiveData<List<Music>> mMusicListItems;
     private final MutableLiveData<Boolean> mLoadingMusicList;
     private String mMusicListName = "";
@@ -30,12 +43,21 @@ public abstract class BaseMusicListViewModel extends ViewModel {
 
     private boolean mInitialized;
     private Disposable mLoadMusicListDisposable;
+    private Disposable mCalculateDiffDisposable;
+    private Disposable mLoadAllDisposable;
+    private final CompositeDisposable mLoadPageDisposables;
 
     private boolean mIgnoreDiffUtil;
+    @Nullable
+    private DiffUtil.DiffResult mDiffResult;
+    // 已注册到 CacheRegistry 的分页列表，内存不足时会卸载其中距离可见区域较远的分页
+    @Nullable
+    private PagedMusicList mTrimmablePagedList;
 
     public BaseMusicListViewModel() {
         mMusicListItems = new MutableLiveData<>(Collections.emptyList());
         mLoadingMusicList = new MutableLiveData<>(false);
+        mLoadPageDisposables = new CompositeDisposable();
     }
 
     public void init(@NonNull String musicListName) {
@@ -58,6 +80,9 @@ public abstract class BaseMusicListViewModel extends ViewModel {
         }
 
         cancelLastLoading();
+        disposeQuietly(mCalculateDiffDisposable);
+        disposeQuietly(mLoadAllDisposable);
+        updateTrimmablePagedList(null);
 
         MultiChoiceStateHolder.getInstance()
                 .release();
@@ -107,14 +132,30 @@ public abstract class BaseMusicListViewModel extends ViewModel {
     }
 
     /**
-     * 加载歌单中的所有歌曲
+     * 获取并清除在异步线程中预先计算好的 DiffResult，如果没有，则返回 null。
+     * <p>
+     * 如果该方法返回的 DiffResult 不为 null，则应直接使用它来更新 RecyclerView，而不是重新计算。
+     */
+    @Nullable
+    public DiffUtil.DiffResult consumeDiffResult() {
+        DiffUtil.DiffResult result = mDiffResult;
+        mDiffResult = null;
+
+        return result;
+    }
+
+    /**
+     * 加载歌单中的歌曲。
+     * <p>
+     * 如果子类支持分页加载（即 {@link #loadMusicListSize()} 的返回值不小于 0），则只会先加载第一页，
+     * 其余部分会在访问时按需加载。
      */
     private void loadMusicList() {
         cancelLastLoading();
 
         mLoadingMusicList.setValue(true);
         mLoadMusicListDisposable = Single.create((SingleOnSubscribe<List<Music>>) emitter -> {
-            List<Music> musicList = loadMusicListItems();
+            List<Music> musicList = loadFirstPage();
             if (emitter.isDisposed()) {
                 return;
             }
@@ -127,9 +168,41 @@ public abstract class BaseMusicListViewModel extends ViewModel {
                 });
     }
 
+    private List<Music> loadFirstPage() {
+        int size = loadMusicListSize();
+        if (size < 0) {
+            return loadMusicListItems();
+        }
+
+        if (size <= PAGE_SIZE) {
+            return loadMusicListItems(0, size);
+        }
+
+        PagedMusicList pagedMusicList = new PagedMusicList(size, PAGE_SIZE, PREFETCH_DISTANCE, this::loadPage);
+        pagedMusicList.setItems(0, loadMusicListItems(0, PAGE_SIZE));
+        return pagedMusicList;
+    }
+
+    private void loadPage(int offset, int limit, @NonNull PagedMusicList.PageCallback callback) {
+        mLoadPageDisposables.add(Single.create((SingleOnSubscribe<List<Music>>) emitter -> {
+            List<Music> musicList = loadMusicListItems(offset, limit);
+            if (emitter.isDisposed()) {
+                return;
+            }
+            emitter.onSuccess(musicList);
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(callback::onPageLoaded, Throwable::printStackTrace));
+    }
+
     private void cancelLastLoading() {
-        if (mLoadMusicListDisposable != null && mLoadMusicListDisposable.isDisposed()) {
-            mLoadMusicListDisposable.dispose();
+        disposeQuietly(mLoadMusicListDisposable);
+        mLoadPageDisposables.clear();
+    }
+
+    private void disposeQuietly(Disposable disposable) {
+        if (disposable != null && !disposable.isDisposed()) {
+            disposable.dispose();
         }
     }
 
@@ -137,13 +210,126 @@ public abstract class BaseMusicListViewModel extends ViewModel {
         loadMusicList();
     }
 
+    /**
+     * 获取歌单中的全部歌曲。
+     * <p>
+     * 如果歌单是分页加载的，并且还没有加载完毕，则会在异步线程中加载剩余的歌曲，加载完成后再调用 callback。
+     * callback 会在主线程中调用。
+     */
+    public void requireAllMusicListItems(@NonNull AllMusicListItemsCallback callback) {
+        Preconditions.checkNotNull(callback);
+
+        List<Music> musicList = Objects.requireNonNull(mMusicListItems.getValue());
+        if (!(musicList instanceof PagedMusicList) || ((PagedMusicList) musicList).isFullyLoaded()) {
+            callback.onResult(musicList);
+            return;
+        }
+
+        disposeQuietly(mLoadAllDisposable);
+        mLoadAllDisposable = Single.create((SingleOnSubscribe<List<Music>>) emitter -> {
+            List<Music> allMusic = loadMusicListItems();
+            if (emitter.isDisposed()) {
+                return;
+            }
+            emitter.onSuccess(allMusic);
+        }).subscribeOn(Schedulers.io())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(allMusic -> {
+                    if (mMusicListItems.getValue() != musicList) {
+                        // 歌单已发生改变，丢弃本次加载结果
+                        return;
+                    }
+
+                    mIgnoreDiffUtil = true;
+                    notifyMusicItemsChanged(allMusic);
+                    callback.onResult(Objects.requireNonNull(mMusicListItems.getValue()));
+                });
+    }
+
+    /**
+     * 从列表中移除一首歌曲，只会更新 {@link #getMusicListItems()} 中的数据，不会修改数据库。
+     */
+    protected final void removeMusicListItem(@NonNull Music music) {
+        Preconditions.checkNotNull(music);
+
+        List<Music> musicList = Objects.requireNonNull(mMusicListItems.getValue());
+        if (musicList instanceof PagedMusicList) {
+            int index = musicList.indexOf(music);
+            if (index > -1) {
+                musicList.remove(index);
+                mMusicListItems.setValue(musicList);
+            }
+            return;
+        }
+
+        List<Music> newMusicList = new ArrayList<>(musicList);
+        if (newMusicList.remove(music)) {
+            notifyMusicItemsChanged(newMusicList);
+        }
+    }
+
+    /**
+     * 更新列表中的歌曲。
+     * <p>
+     * 如果新旧列表都不为空，并且不需要忽略 DiffUtil，则会先在异步线程中计算好 DiffResult（可通过
+     * {@link #consumeDiffResult()} 获取），然后再更新 {@link #getMusicListItems()} 中的数据。
+     */
     protected void notifyMusicItemsChanged(@NonNull List<Music> musicListItems) {
         Preconditions.checkNotNull(musicListItems);
-        mMusicListToken = MusicItemUtil.generateToken(musicListItems, item -> {
-            String uri = item.getUri();
-            return uri == null ? "" : uri;
-        });
-        mMusicListItems.setValue(new ArrayList<>(musicListItems));
+        disposeQuietly(mCalculateDiffDisposable);
+
+        List<Music> newMusicList = musicListItems instanceof PagedMusicList ?
+                musicListItems : new ArrayList<>(musicListItems);
+        List<Music> oldMusicList = Objects.requireNonNull(mMusicListItems.getValue());
+
+        boolean paged = (newMusicList instanceof PagedMusicList) || (oldMusicList instanceof PagedMusicList);
+        if (mIgnoreDiffUtil || paged || oldMusicList.isEmpty() || newMusicList.isEmpty()) {
+            publishMusicItems(newMusicList, null);
+            return;
+        }
+
+        mCalculateDiffDisposable = Single.create((SingleOnSubscribe<DiffUtil.DiffResult>) emitter -> {
+            DiffUtil.DiffResult diffResult =
+                    DiffUtil.calculateDiff(new MusicListAdapter.OrderMusicDiffCallback(oldMusicList, newMusicList));
+            if (emitter.isDisposed()) {
+                return;
+            }
+            emitter.onSuccess(diffResult);
+        }).subscribeOn(Schedulers.computation())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(diffResult -> publishMusicItems(newMusicList, diffResult));
+    }
+
+    private void publishMusicItems(@NonNull List<Music> musicListItems, @Nullable DiffUtil.DiffResult diffResult) {
+        if (musicListItems instanceof PagedMusicList && !((PagedMusicList) musicListItems).isFullyLoaded()) {
+            // 歌单尚未全部加载，此时无法计算 token
+            mMusicListToken = "";
+        } else {
+            mMusicListToken = MusicItemUtil.generateToken(musicListItems, item -> {
+                String uri = item.getUri();
+                return uri == null ? "" : uri;
+            });
+        }
+
+        mDiffResult = diffResult;
+        updateTrimmablePagedList(musicListItems instanceof PagedMusicList ? (PagedMusicList) musicListItems : null);
+        mMusicListItems.setValue(musicListItems);
+    }
+
+    private void updateTrimmablePagedList(@Nullable PagedMusicList pagedMusicList) {
+        if (mTrimmablePagedList == pagedMusicList) {
+            return;
+        }
+
+        if (mTrimmablePagedList != null) {
+            CacheRegistry.getDefault().unregister(mTrimmablePagedList);
+        }
+
+        mTrimmablePagedList = pagedMusicList;
+        if (pagedMusicList != null) {
+            CacheRegistry.getDefault().register("PagedMusicList:" + mMusicListName,
+                    CacheRegistry.TrimPolicy.NORMAL, pagedMusicList);
+        }
     }
 
     protected int indexOf(Music music) {
@@ -167,6 +353,34 @@ public abstract class BaseMusicListViewModel extends ViewModel {
     @NonNull
     protected abstract List<Music> loadMusicListItems();
 
+    /**
+     * 获取歌单的大小，用于分页加载。
+     * <p>
+     * 该方法会在异步线程中调用。如果返回值小于 0，则表示不支持分页加载，此时会调用
+     * {@link #loadMusicListItems()} 方法一次性加载歌单中的所有歌曲。默认返回 -1。
+     */
+    protected int loadMusicListSize() {
+        return -1;
+    }
+
+    /**
+     * 加载歌单中位于 [offset, offset + limit) 范围内的歌曲，仅在 {@link #loadMusicListSize()} 的返回值
+     * 不小于 0 时才会调用该方法。
+     * <p>
+     * 该方法会在异步线程中调用，因此可以直接在该方法中访问数据库。默认实现会调用 {@link #loadMusicListItems()}
+     * 加载所有歌曲后再截取指定范围。
+     */
+    @NonNull
+    protected List<Music> loadMusicListItems(int offset, int limit) {
+        List<Music> allMusic = loadMusicListItems();
+        int end = Math.min(offset + limit, allMusic.size());
+        if (offset >= end) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<>(allMusic.subList(offset, end));
+    }
+
     /**
      * 要移除歌单中的一首歌曲时会调用该方法。
      *
@@ -188,4 +402,16 @@ public abstract class BaseMusicListViewModel extends ViewModel {
 
     @NonNull
     protected abstract MusicList.SortOrder getSortOrder();
+
+    /**
+     * 用于接收 {@link #requireAllMusicListItems(AllMusicListItemsCallback)} 方法的结果。
+     */
+    public interface AllMusicListItemsCallback {
+        /**
+         * 该方法会在主线程中调用。
+         *
+         * @param musicListItems 歌单中的全部歌曲
+         */
+        void onResult(@NonNull List<Music> musicListItems);
+    }
 }
@@ -8,6 +8,7 @@ import android.widget.ImageButton;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -35,28 +36,74 @@ public class MusicListAdapter extends RecyclerView.Adapter<MusicListAdapter.View
 
     private boolean mLoading;
 
+    private final PagedMusicList.Callback mPagedCallback;
+
     public MusicListAdapter(@NonNull List<Music> musicList) {
         Preconditions.checkNotNull(musicList);
 
-        mMusicList = new ArrayList<>(musicList);
-
         mItemClickHelper = new ItemClickHelper();
         mSelectableHelper = new SelectableHelper(this);
         mPositionHelper = new PositionHelper<>(this);
+
+        mPagedCallback = new PagedMusicList.Callback() {
+            @Override
+            public void onItemRangeLoaded(int positionStart, int itemCount) {
+                notifyItemRangeChanged(positionStart, itemCount);
+            }
+
+            @Override
+            public void onItemRangeRemoved(int positionStart, int itemCount) {
+                if (mMusicList.isEmpty()) {
+                    notifyItemChanged(0);
+                    return;
+                }
+                notifyItemRangeRemoved(positionStart, itemCount);
+            }
+        };
+
+        mMusicList = copyMusicList(musicList);
+    }
+
+    private List<Music> copyMusicList(List<Music> musicList) {
+        if (musicList instanceof PagedMusicList) {
+            ((PagedMusicList) musicList).addCallback(mPagedCallback);
+            return musicList;
+        }
+
+        return new ArrayList<>(musicList);
     }
 
+    /**
+     * 设置要显示的歌曲列表。
+     *
+     * @param musicList      歌曲列表，可以是一个 {@link PagedMusicList}，此时未加载的歌曲会显示为占位符，并在显示时按需加载
+     * @param ignoreDiffUtil 是否忽略 DiffUtil，直接调用 notifyDataSetChanged() 方法
+     * @param diffResult     预先计算好的 DiffResult，如果为 null，则会在必要时在当前线程计算
+     */
     @SuppressLint("NotifyDataSetChanged")
-    public void setMusicList(@NonNull List<Music> musicList, boolean ignoreDiffUtil) {
+    public void setMusicList(@NonNull List<Music> musicList, boolean ignoreDiffUtil, @Nullable DiffUtil.DiffResult diffResult) {
         Preconditions.checkNotNull(musicList);
 
-        if (ignoreDiffUtil || mMusicList.isEmpty() || musicList.isEmpty()) {
-            mMusicList = new ArrayList<>(musicList);
+        if (musicList == mMusicList) {
+            // PagedMusicList 的变化已通过 PagedMusicList.Callback 通知
+            return;
+        }
+
+        if (mMusicList instanceof PagedMusicList) {
+            ((PagedMusicList) mMusicList).removeCallback(mPagedCallback);
+        }
+
+        boolean paged = (musicList instanceof PagedMusicList) || (mMusicList instanceof PagedMusicList);
+        if (ignoreDiffUtil || paged || mMusicList.isEmpty() || musicList.isEmpty()) {
+            mMusicList = copyMusicList(musicList);
             notifyDataSetChanged();
         } else {
             List<Music> newMusicList = new ArrayList<>(musicList);
-            DiffUtil.DiffResult diffResult = DiffUtil.calculateDiff(new OrderMusicDiffCallback(mMusicList, newMusicList));
-            diffResult.dispatchUpdatesTo(this);
+            if (diffResult == null) {
+                diffResult = DiffUtil.calculateDiff(new OrderMusicDiffCallback(mMusicList, newMusicList));
+            }
             mMusicList = newMusicList;
+            diffResult.dispatchUpdatesTo(this);
         }
     }
 
@@ -127,11 +174,21 @@ public class MusicListAdapter extends RecyclerView.Adapter<MusicListAdapter.View
             return;
         }
 
+        if (mMusicList instanceof PagedMusicList) {
+            ((PagedMusicList) mMusicList).loadAround(position);
+        }
+
         Music music = mMusicList.get(position);
 
         holder.tvPosition.setText(String.valueOf(position + 1));
-        holder.tvTitle.setText(music.getTitle());
-        holder.tvArtistAndAlbum.setText(music.getArtist() + " - " + music.getAlbum());
+        if (music == null) {
+            // 占位符
+            holder.tvTitle.setText("");
+            holder.tvArtistAndAlbum.setText("");
+        } else {
+            holder.tvTitle.setText(music.getTitle());
+            holder.tvArtistAndAlbum.setText(music.getArtist() + " - " + music.getAlbum());
+        }
 
         mItemClickHelper.bindClickListener(holder.musicListItem, holder.btnOptionMenu);
         mItemClickHelper.bindLongClickListener(holder.musicListItem);
@@ -240,7 +297,7 @@ public class MusicListAdapter extends RecyclerView.Adapter<MusicListAdapter.View
         }
     }
 
-    private static class OrderMusicDiffCallback extends DiffUtil.Callback {
+    static class OrderMusicDiffCallback extends DiffUtil.Callback {
         private final List<Music> mOldMusicList;
         private final List<Music> mNewMusicList;
 
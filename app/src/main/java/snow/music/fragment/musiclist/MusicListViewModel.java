@@ -43,6 +43,38 @@ public class MusicListViewModel extends BaseMusicListViewModel {
     @NonNull
     @Override
     protected List<Music> loadMusicListItems() {
+        loadMusicListObject();
+
+        if (mMusicList == null) {
+            return Collections.emptyList();
+        }
+
+        return mMusicList.getMusicElements();
+    }
+
+    @Override
+    protected int loadMusicListSize() {
+        loadMusicListObject();
+
+        if (mMusicList == null) {
+            return 0;
+        }
+
+        return mMusicList.getSize();
+    }
+
+    @NonNull
+    @Override
+    protected List<Music> loadMusicListItems(int offset, int limit) {
+        MusicList musicList = mMusicList;
+        if (musicList == null) {
+            return Collections.emptyList();
+        }
+
+        return MusicStore.getInstance().getMusicListItems(musicList, offset, limit);
+    }
+
+    private void loadMusicListObject() {
         if (getMusicListName().equals(MusicStore.MUSIC_LIST_LOCAL_MUSIC)) {
             mMusicList = MusicStore.getInstance().getLocalMusicList();
             MusicStore.getInstance().setOnScanCompleteListener(() -> {
@@ -52,12 +84,6 @@ public class MusicListViewModel extends BaseMusicListViewModel {
         } else {
             mMusicList = MusicStore.getInstance().getCustomMusicList(getMusicListName());
         }
-
-        if (mMusicList == null) {
-            return Collections.emptyList();
-        }
-
-        return mMusicList.getMusicElements();
     }
 
     @Override
@@ -66,10 +92,11 @@ public class MusicListViewModel extends BaseMusicListViewModel {
             return;
         }
 
-        mMusicList.getMusicElements().remove(music);
-        notifyMusicItemsChanged(mMusicList.getMusicElements());
+        MusicList musicList = mMusicList;
+        removeMusicListItem(music);
         Single.create((SingleOnSubscribe<Boolean>) emitter -> {
-            MusicStore.getInstance().updateMusicList(mMusicList);
+            // 只修改歌单排列顺序中包含该歌曲的分页，不会加载整个歌单
+            MusicStore.getInstance().removeAllMusic(musicList.getName(), Collections.singletonList(music));
             emitter.onSuccess(true);
         }).subscribeOn(Schedulers.io()).subscribe();
 
@@ -83,7 +110,7 @@ public class MusicListViewModel extends BaseMusicListViewModel {
             return;
         }
 
-        MusicStore.getInstance().sort(mMusicList, sortOrder, () -> notifyMusicItemsChanged(mMusicList.getMusicElements()));
+        MusicStore.getInstance().sort(mMusicList, sortOrder, this::reloadMusicList);
     }
 
     @NonNull
@@ -0,0 +1,283 @@
+package snow.music.fragment.musiclist;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import snow.music.store.Music;
+import snow.player.util.CacheRegistry;
+
+/**
+ * 分页加载的歌曲列表。
+ * <p>
+ * 列表的大小在创建时就已确定，尚未加载的位置会返回 null（占位符）。当访问某个位置时，可以调用
+ * {@link #loadAround(int)} 方法加载该位置附近（预取距离内）尚未加载的歌曲，加载完成后会通知所有已注册的
+ * {@link Callback} 回调。
+ * <p>
+ * 内存不足时，可以通过 {@link #trimToSize(long)} 方法卸载距离最近一次访问位置较远的分页，被卸载的分页会在再次访问时重新加载。
+ * <p>
+ * 该类不是线程安全的，只应在主线程中访问。
+ */
+public class PagedMusicList extends AbstractList<Music> implements CacheRegistry.TrimmableCache {
+    // 每首歌曲的估算内存占用（单位：字节），只用于内存不足时卸载分页
+    private static final int ESTIMATED_MUSIC_SIZE = 512;
+
+    private final List<Music> mItems;
+    private final int mPageSize;
+    private final int mPrefetchDistance;
+    private final PageLoader mPageLoader;
+
+    private final Set<Integer> mRequestedPages;
+    private final List<Callback> mAllCallback;
+
+    private int mLoadedCount;
+    private int mVersion;
+    private int mLastPosition;
+
+    /**
+     * 创建一个 {@link PagedMusicList} 对象。
+     *
+     * @param size             列表的大小
+     * @param pageSize         每页的大小，必须大于 0
+     * @param prefetchDistance 预取距离，不能小于 0
+     * @param pageLoader       用于加载分页数据，不能为 null
+     */
+    public PagedMusicList(int size, int pageSize, int prefetchDistance, @NonNull PageLoader pageLoader) {
+        Preconditions.checkArgument(size >= 0, "size must >= 0");
+        Preconditions.checkArgument(pageSize > 0, "pageSize must > 0");
+        Preconditions.checkArgument(prefetchDistance >= 0, "prefetchDistance must >= 0");
+        Preconditions.checkNotNull(pageLoader);
+
+        mItems = new ArrayList<>(Collections.nCopies(size, null));
+        mPageSize = pageSize;
+        mPrefetchDistance = prefetchDistance;
+        mPageLoader = pageLoader;
+        mRequestedPages = new HashSet<>();
+        mAllCallback = new ArrayList<>();
+    }
+
+    /**
+     * 获取指定位置的歌曲，如果该位置的歌曲尚未加载，则返回 null。
+     */
+    @Nullable
+    @Override
+    public Music get(int index) {
+        return mItems.get(index);
+    }
+
+    @Override
+    public int size() {
+        return mItems.size();
+    }
+
+    /**
+     * 移除指定位置的歌曲。
+     * <p>
+     * 移除后所有正在加载的分页的结果都将被丢弃，并在下次调用 {@link #loadAround(int)} 时重新加载。
+     */
+    @Override
+    public Music remove(int index) {
+        Music music = mItems.remove(index);
+        if (music != null) {
+            mLoadedCount -= 1;
+        }
+
+        mVersion += 1;
+        mRequestedPages.clear();
+
+        for (Callback callback : new ArrayList<>(mAllCallback)) {
+            callback.onItemRangeRemoved(index, 1);
+        }
+
+        return music;
+    }
+
+    /**
+     * 指定位置的歌曲是否已加载。
+     */
+    public boolean isLoaded(int position) {
+        return mItems.get(position) != null;
+    }
+
+    /**
+     * 是否已加载列表中的全部歌曲。
+     */
+    public boolean isFullyLoaded() {
+        return mLoadedCount >= mItems.size();
+    }
+
+    /**
+     * 设置从 offset 处开始的歌曲。
+     * <p>
+     * 一般用于在创建 {@link PagedMusicList} 后设置第一页的数据。
+     */
+    public void setItems(int offset, @NonNull List<Music> items) {
+        Preconditions.checkNotNull(items);
+
+        int count = Math.min(items.size(), mItems.size() - offset);
+        for (int i = 0; i < count; i++) {
+            Music music = items.get(i);
+            if (mItems.set(offset + i, music) == null && music != null) {
+                mLoadedCount += 1;
+            }
+        }
+
+        mRequestedPages.add(offset / mPageSize);
+    }
+
+    /**
+     * 加载指定位置附近（预取距离内）尚未加载的歌曲。
+     */
+    public void loadAround(int position) {
+        mLastPosition = position;
+
+        if (mItems.isEmpty() || isFullyLoaded()) {
+            return;
+        }
+
+        int firstPage = Math.max(position - mPrefetchDistance, 0) / mPageSize;
+        int lastPage = Math.min(position + mPrefetchDistance, mItems.size() - 1) / mPageSize;
+
+        for (int page = firstPage; page <= lastPage; page++) {
+            if (mRequestedPages.contains(page) || isPageLoaded(page)) {
+                continue;
+            }
+
+            loadPage(page);
+        }
+    }
+
+    private boolean isPageLoaded(int page) {
+        int end = Math.min((page + 1) * mPageSize, mItems.size());
+        for (int i = page * mPageSize; i < end; i++) {
+            if (mItems.get(i) == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void loadPage(int page) {
+        mRequestedPages.add(page);
+
+        final int version = mVersion;
+        final int offset = page * mPageSize;
+        final int limit = Math.min(mPageSize, mItems.size() - offset);
+
+        mPageLoader.loadPage(offset, limit, items -> {
+            if (version != mVersion) {
+                return;
+            }
+
+            setItems(offset, items);
+
+            for (Callback callback : new ArrayList<>(mAllCallback)) {
+                callback.onItemRangeLoaded(offset, limit);
+            }
+        });
+    }
+
+    @Override
+    public long getSizeInBytes() {
+        return (long) mLoadedCount * ESTIMATED_MUSIC_SIZE;
+    }
+
+    /**
+     * 从距离最近一次访问位置最远的分页开始卸载，直到估算的内存占用不超过 maxSizeInBytes。
+     * <p>
+     * 最近一次访问位置附近（预取距离内）的分页不会被卸载。
+     */
+    @Override
+    public void trimToSize(long maxSizeInBytes) {
+        if (mItems.isEmpty()) {
+            return;
+        }
+
+        int position = Math.min(mLastPosition, mItems.size() - 1);
+        int keepFirst = Math.max(position - mPrefetchDistance, 0) / mPageSize;
+        int keepLast = Math.min(position + mPrefetchDistance, mItems.size() - 1) / mPageSize;
+
+        int first = 0;
+        int last = (mItems.size() - 1) / mPageSize;
+        while (getSizeInBytes() > maxSizeInBytes && (first < keepFirst || last > keepLast)) {
+            if (last > keepLast && (first >= keepFirst || last - keepLast >= keepFirst - first)) {
+                unloadPage(last--);
+            } else {
+                unloadPage(first++);
+            }
+        }
+    }
+
+    private void unloadPage(int page) {
+        int end = Math.min((page + 1) * mPageSize, mItems.size());
+        for (int i = page * mPageSize; i < end; i++) {
+            if (mItems.set(i, null) != null) {
+                mLoadedCount -= 1;
+            }
+        }
+
+        mRequestedPages.remove(page);
+    }
+
+    /**
+     * 注册一个 {@link Callback} 回调，如果已注册，则忽略本次调用。
+     */
+    public void addCallback(@NonNull Callback callback) {
+        Preconditions.checkNotNull(callback);
+
+        if (mAllCallback.contains(callback)) {
+            return;
+        }
+
+        mAllCallback.add(callback);
+    }
+
+    /**
+     * 取消注册一个已注册的 {@link Callback} 回调。
+     */
+    public void removeCallback(Callback callback) {
+        mAllCallback.remove(callback);
+    }
+
+    /**
+     * 分页数据加载器。
+     */
+    public interface PageLoader {
+        /**
+         * 加载位于 [offset, offset + limit) 范围内的歌曲。
+         * <p>
+         * 该方法会在主线程中调用，加载完成后必须在主线程中调用 {@link PageCallback#onPageLoaded(List)} 方法。
+         */
+        void loadPage(int offset, int limit, @NonNull PageCallback callback);
+    }
+
+    /**
+     * 分页数据加载完成时的回调接口。
+     */
+    public interface PageCallback {
+        void onPageLoaded(@NonNull List<Music> items);
+    }
+
+    /**
+     * 用于监听 {@link PagedMusicList} 的数据变化。
+     */
+    public interface Callback {
+        /**
+         * 位于 [positionStart, positionStart + itemCount) 范围内的歌曲已加载完成。
+         */
+        void onItemRangeLoaded(int positionStart, int itemCount);
+
+        /**
+         * 位于 [positionStart, positionStart + itemCount) 范围内的歌曲已被移除。
+         */
+        void onItemRangeRemoved(int positionStart, int itemCount);
+    }
+}
@@ -12,8 +12,6 @@ import androidx.annotation.Nullable;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.res.ResourcesCompat;
 
-import io.reactivex.Single;
-import io.reactivex.schedulers.Schedulers;
 import snow.music.R;
 import snow.music.activity.player.PlayerActivity;
 import snow.music.store.MusicStore;
@@ -29,7 +27,6 @@ import snow.player.ui.equalizer.AndroidAudioEffectManager;
 
 @PersistenceId("AppPlayerService")
 public class AppPlayerService extends PlayerService {
-    private MusicStore mMusicStore;
     private FavoriteObserver mFavoriteObserver;
 
     @Override
@@ -41,7 +38,6 @@ public class AppPlayerService extends PlayerService {
         super.onCreate();
 
         setMaxIDLETime(5);
-        mMusicStore = MusicStore.getInstance();
     }
 
     @Override
@@ -49,6 +45,9 @@ public class AppPlayerService extends PlayerService {
         super.onDestroy();
 
         mFavoriteObserver.unsubscribe();
+        if (MusicStore.isReady()) {
+            MusicStore.getInstance().flushHistory();
+        }
     }
 
     @Nullable
@@ -60,9 +59,8 @@ public class AppPlayerService extends PlayerService {
     @Nullable
     @Override
     protected HistoryRecorder onCreateHistoryRecorder() {
-        return musicItem -> Single.create(emitter -> mMusicStore.addHistory(MusicUtil.asMusic(musicItem)))
-                .subscribeOn(Schedulers.io())
-                .subscribe();
+        // MusicStore 可能尚未初始化完成，此时会在初始化完成后再记录
+        return musicItem -> MusicStore.whenReady(musicStore -> musicStore.recordHistory(MusicUtil.asMusic(musicItem)));
     }
 
     @Nullable
@@ -76,6 +74,8 @@ public class AppPlayerService extends PlayerService {
         private static final String ACTION_SWITCH_PLAY_MODE = "switch_play_mode";
 
         private FavoriteObserver mFavoriteObserver;
+        // 通知中显示的 “我喜欢” 状态，只有该状态改变时才需要更新通知
+        private boolean mShownFavorite;
         private PendingIntent mToggleFavorite;
         private PendingIntent mSwitchPlayMode;
 
@@ -85,11 +85,15 @@ public class AppPlayerService extends PlayerService {
         protected void onInit(Context context) {
             super.onInit(context);
 
-            mFavoriteObserver = new FavoriteObserver(favorite -> invalidate());
+            mFavoriteObserver = new FavoriteObserver(favorite -> {
+                if (favorite != mShownFavorite) {
+                    invalidate();
+                }
+            });
             mFavoriteObserver.subscribe();
 
             mToggleFavorite = buildCustomAction(ACTION_TOGGLE_FAVORITE, (player, extras) ->
-                    MusicStore.getInstance().toggleFavorite(MusicUtil.asMusic(getPlayingMusicItem())));
+                    MusicStore.whenReady(musicStore -> musicStore.toggleFavorite(MusicUtil.asMusic(getPlayingMusicItem()))));
 
             mSwitchPlayMode = buildCustomAction(ACTION_SWITCH_PLAY_MODE, (player, extras) -> {
                 switch (getPlayMode()) {
@@ -179,7 +183,8 @@ public class AppPlayerService extends PlayerService {
         }
 
         private void addToggleFavorite(NotificationCompat.Builder builder) {
-            if (mFavoriteObserver.isFavorite()) {
+            mShownFavorite = mFavoriteObserver.isFavorite();
+            if (mShownFavorite) {
                 builder.addAction(R.mipmap.ic_notif_favorite_true, "favorite", mToggleFavorite);
             } else {
                 builder.addAction(R.mipmap.ic_notif_favorite_false, "don't favorite", mToggleFavorite);
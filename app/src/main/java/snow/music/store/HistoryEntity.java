@@ -5,6 +5,14 @@ import io.objectbox.annotation.Id;
 import io.objectbox.annotation.Index;
 import io.objectbox.relation.ToOne;
 
+/**
+ * 历史记录。
+ * <p>
+ * 每首歌曲只会有一条历史记录，{@link #getTimestamp()} 是歌曲最近一次播放的时间，
+ * {@link #getPlayCount()} 是歌曲的累计播放次数。
+ * <p>
+ * 注意！关联的 {@code musicId} 属性由 ObjectBox 自动创建索引。
+ */
 @Entity
 public class HistoryEntity {
     @Id
@@ -12,17 +20,38 @@ public class HistoryEntity {
     ToOne<Music> music;
     @Index
     long timestamp;
+    @Index
+    int playCount;
 
     public HistoryEntity() {
     }
 
     public HistoryEntity(long id, long musicId, long timestamp) {
+        this(id, musicId, timestamp, 1);
+    }
+
+    public HistoryEntity(long id, long musicId, long timestamp, int playCount) {
         this.id = id;
         this.music.setTargetId(musicId);
         this.timestamp = timestamp;
+        this.playCount = playCount;
     }
 
     public Music getMusic() {
         return music.getTarget();
     }
+
+    /**
+     * 获取歌曲最近一次播放的时间。
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 获取歌曲的累计播放次数。
+     */
+    public int getPlayCount() {
+        return playCount;
+    }
 }
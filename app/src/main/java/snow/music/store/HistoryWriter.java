@@ -0,0 +1,109 @@
+package snow.music.store;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Scheduler;
+
+/**
+ * 历史记录写入器。
+ * <p>
+ * 会将一段时间内（{@link #FLUSH_DELAY_MS}）的所有播放记录合并（同一首歌曲只保留最近一次播放时间，
+ * 并累加播放次数），然后在后台线程中通过一个事务批量写入数据库。
+ * <p>
+ * 写入操作运行在构造时传入的 {@link Scheduler} 上，该类不会创建或持有自己的线程。
+ */
+final class HistoryWriter {
+    private static final long FLUSH_DELAY_MS = 3_000;
+
+    private final MusicStore mMusicStore;
+    private final Scheduler mScheduler;
+    private final Map<Long, HistoryRecord> mPendingRecords;
+
+    private boolean mFlushScheduled;
+
+    HistoryWriter(@NonNull MusicStore musicStore, @NonNull Scheduler scheduler) {
+        mMusicStore = musicStore;
+        mScheduler = scheduler;
+        mPendingRecords = new LinkedHashMap<>();
+    }
+
+    /**
+     * 记录一次播放，不会阻塞调用者线程。
+     */
+    synchronized void record(@NonNull Music music, long timestamp) {
+        HistoryRecord record = mPendingRecords.remove(music.getId());
+        if (record == null) {
+            record = new HistoryRecord(music);
+        }
+
+        record.timestamp = timestamp;
+        record.playCount += 1;
+        mPendingRecords.put(music.getId(), record);
+
+        if (!mFlushScheduled) {
+            mFlushScheduled = true;
+            mScheduler.scheduleDirect(this::flush, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 在当前线程中立即写入所有尚未写入的播放记录。
+     * <p>
+     * 取出与写入播放记录时会持有 {@link MusicStore} 的锁，与 {@link MusicStore#clearHistory()}、
+     * {@link MusicStore#removeHistory(HistoryEntity)} 互斥，避免已取出但尚未写入的播放记录在清空后被重新写入。
+     * 加锁顺序始终是先 {@link MusicStore} 后 {@link HistoryWriter}。
+     */
+    void flush() {
+        synchronized (mMusicStore) {
+            List<HistoryRecord> records;
+            synchronized (this) {
+                mFlushScheduled = false;
+                if (mPendingRecords.isEmpty()) {
+                    return;
+                }
+
+                records = new ArrayList<>(mPendingRecords.values());
+                mPendingRecords.clear();
+            }
+
+            mMusicStore.putHistory(records);
+        }
+    }
+
+    /**
+     * 在后台线程中写入所有尚未写入的播放记录。
+     */
+    void flushAsync() {
+        mScheduler.scheduleDirect(this::flush);
+    }
+
+    /**
+     * 丢弃指定歌曲尚未写入的播放记录。
+     */
+    synchronized void discard(long musicId) {
+        mPendingRecords.remove(musicId);
+    }
+
+    /**
+     * 丢弃所有尚未写入的播放记录。
+     */
+    synchronized void discardAll() {
+        mPendingRecords.clear();
+    }
+
+    static class HistoryRecord {
+        final Music music;
+        long timestamp;
+        int playCount;
+
+        HistoryRecord(@NonNull Music music) {
+            this.music = music;
+        }
+    }
+}
@@ -4,9 +4,13 @@ import androidx.annotation.NonNull;
 
 import com.google.common.base.Objects;
 
+import io.objectbox.annotation.Backlink;
 import io.objectbox.annotation.Entity;
 import io.objectbox.annotation.Id;
+import io.objectbox.annotation.Index;
+import io.objectbox.annotation.IndexType;
 import io.objectbox.annotation.Unique;
+import io.objectbox.relation.ToMany;
 
 @Entity
 public class Music {
@@ -22,6 +26,20 @@ public class Music {
     private int duration;
     private long addTime;
 
+    // 排序键，会在第一次使用时或者存储到数据库前生成，详见 SortKeyHelper
+    @Index(type = IndexType.VALUE)
+    private String titleKey;
+    @Index(type = IndexType.VALUE)
+    private String artistKey;
+    @Index(type = IndexType.VALUE)
+    private String albumKey;
+    // 生成排序键时的排序规则版本，版本改变后需要重新生成排序键，详见 SortKeyHelper#getVersion()
+    private String sortKeyVersion;
+
+    // 包含该歌曲的所有歌单，用于在不加载歌单中其他歌曲的情况下添加或移除歌单与歌曲之间的关系
+    @Backlink(to = "musicElements")
+    ToMany<MusicListEntity> musicLists;
+
     public Music(long id, String title, String artist, String album, String uri, String iconUri, int duration, long addTime) {
         this.id = id;
         this.title = title;
@@ -33,6 +51,16 @@ public class Music {
         this.addTime = addTime;
     }
 
+    // ObjectBox 专用
+    Music(long id, String title, String artist, String album, String uri, String iconUri, int duration, long addTime,
+          String titleKey, String artistKey, String albumKey, String sortKeyVersion) {
+        this(id, title, artist, album, uri, iconUri, duration, addTime);
+        this.titleKey = titleKey;
+        this.artistKey = artistKey;
+        this.albumKey = albumKey;
+        this.sortKeyVersion = sortKeyVersion;
+    }
+
     public long getId() {
         return id;
     }
@@ -43,6 +71,7 @@ public class Music {
 
     public void setTitle(String title) {
         this.title = title;
+        this.titleKey = null;
     }
 
     public String getArtist() {
@@ -51,6 +80,7 @@ public class Music {
 
     public void setArtist(String artist) {
         this.artist = artist;
+        this.artistKey = null;
     }
 
     public String getAlbum() {
@@ -59,6 +89,7 @@ public class Music {
 
     public void setAlbum(String album) {
         this.album = album;
+        this.albumKey = null;
     }
 
     public String getUri() {
@@ -93,6 +124,86 @@ public class Music {
         this.addTime = addTime;
     }
 
+    /**
+     * 获取歌曲名的排序键。
+     * <p>
+     * 排序键已忽略大小写，并且中文字符会按拼音进行排序，直接比较两个排序键的大小即可。
+     */
+    @NonNull
+    public String getTitleKey() {
+        checkSortKeyVersion();
+        if (titleKey == null) {
+            titleKey = SortKeyHelper.getSortKey(title);
+        }
+        return titleKey;
+    }
+
+    /**
+     * 获取歌手名的排序键。
+     *
+     * @see #getTitleKey()
+     */
+    @NonNull
+    public String getArtistKey() {
+        checkSortKeyVersion();
+        if (artistKey == null) {
+            artistKey = SortKeyHelper.getSortKey(artist);
+        }
+        return artistKey;
+    }
+
+    /**
+     * 获取专辑名的排序键。
+     *
+     * @see #getTitleKey()
+     */
+    @NonNull
+    public String getAlbumKey() {
+        checkSortKeyVersion();
+        if (albumKey == null) {
+            albumKey = SortKeyHelper.getSortKey(album);
+        }
+        return albumKey;
+    }
+
+    // ObjectBox 专用
+    String getSortKeyVersion() {
+        return sortKeyVersion;
+    }
+
+    // 排序规则的版本改变后，丢弃所有旧的排序键
+    private void checkSortKeyVersion() {
+        String version = SortKeyHelper.getVersion();
+        if (sortKeyVersion == version) {
+            return;
+        }
+
+        if (!version.equals(sortKeyVersion)) {
+            titleKey = null;
+            artistKey = null;
+            albumKey = null;
+        }
+
+        // 使用同一个字符串对象，以便下次直接比较引用
+        sortKeyVersion = version;
+    }
+
+    /**
+     * 生成所有缺失或者过时（排序规则的版本已改变）的排序键。
+     *
+     * @return 如果生成了新的排序键则返回 true，否则返回 false
+     */
+    boolean ensureSortKeys() {
+        boolean changed = !SortKeyHelper.getVersion().equals(sortKeyVersion)
+                || titleKey == null || artistKey == null || albumKey == null;
+
+        getTitleKey();
+        getArtistKey();
+        getAlbumKey();
+
+        return changed;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -7,18 +7,21 @@ import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
 
-import pinyin.util.PinyinComparator;
+import io.objectbox.Box;
 
 /**
  * 用于表示一个歌单。
@@ -27,14 +30,20 @@ import pinyin.util.PinyinComparator;
  */
 public class MusicList {
     final MusicListEntity musicListEntity;
+    private final Box<MusicListOrderPage> mOrderPageBox;
     private ElementList mElementList;
 
-    MusicList(@NonNull MusicListEntity musicListEntity) {
+    MusicList(@NonNull MusicListEntity musicListEntity, @NonNull Box<MusicListOrderPage> orderPageBox) {
         Preconditions.checkNotNull(musicListEntity);
+        Preconditions.checkNotNull(orderPageBox);
 
         this.musicListEntity = musicListEntity;
+        mOrderPageBox = orderPageBox;
     }
 
+    /**
+     * 将歌单的修改应用到 {@link #musicListEntity} 上，需要在存储 {@link #musicListEntity} 前调用。
+     */
     synchronized void applyChanges() {
         if (mElementList == null) {
             return;
@@ -43,6 +52,84 @@ public class MusicList {
         mElementList.applyChanges();
     }
 
+    /**
+     * 存储歌单中歌曲的排列顺序，只会写入发生变化的部分。需要在存储 {@link #musicListEntity} 后于同一个事务中调用，
+     * 以确保所有新歌曲都已分配 ID。
+     * <p>
+     * 如果在加载歌单后，数据库中的排列顺序已被其他 {@link MusicList} 对象或者 {@link MusicStore} 的批量方法
+     * （例如 {@link MusicStore#addAllMusic(String, List)}）修改，则会先将这些修改合并到当前的排列顺序中，以免丢失。
+     *
+     * @return 如果合并后歌单的大小与 {@link #musicListEntity} 中的大小不一致（此时已更新 {@link #musicListEntity}
+     * 的大小，调用者需要再次存储 {@link #musicListEntity}），则返回 true，否则返回 false
+     */
+    synchronized boolean persistOrder() {
+        if (mElementList == null) {
+            return false;
+        }
+
+        return mElementList.persistOrder();
+    }
+
+    // 不缓存排列顺序，每次都从数据库中读取，确保读取到的是其他对象写入后的最新顺序。
+    // 在事务中调用时，读取的是该事务中的最新顺序。
+    private MusicListOrder getOrder() {
+        return MusicListOrder.load(mOrderPageBox, musicListEntity.id);
+    }
+
+    /**
+     * 获取歌单中位于 [offset, offset + limit) 范围内的歌曲的 ID，该方法不会加载歌单中的歌曲。
+     *
+     * @return 歌曲 ID 数组，如果歌单的排序信息缺失（例如旧版本的歌单），则返回 null
+     */
+    @Nullable
+    synchronized long[] getOrderIds(int offset, int limit) {
+        Preconditions.checkArgument(offset >= 0, "offset must >= 0");
+        Preconditions.checkArgument(limit >= 0, "limit must >= 0");
+
+        if (mElementList != null) {
+            int end = Math.min(offset + limit, mElementList.size());
+            long[] ids = new long[Math.max(end - offset, 0)];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = mElementList.get(offset + i).id;
+            }
+            return ids;
+        }
+
+        MusicListOrder order = getOrder();
+        if (!order.isEmpty()) {
+            return order.getMusicIds(offset, limit);
+        }
+
+        byte[] orderBytes = musicListEntity.orderBytes;
+        if (orderBytes == null || orderBytes.length <= 0) {
+            return null;
+        }
+
+        try {
+            ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(orderBytes));
+
+            for (int i = 0; i < offset && input.available() > 0; i++) {
+                input.readLong();
+            }
+
+            long[] ids = new long[limit];
+            int count = 0;
+            while (count < limit && input.available() > 0) {
+                long id = input.readLong();
+                if (id <= 0) {
+                    return null;
+                }
+                ids[count++] = id;
+            }
+
+            input.close();
+            return count == limit ? ids : Arrays.copyOf(ids, count);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
     /**
      * 获取歌单的 ID.
      */
@@ -123,57 +210,143 @@ public class MusicList {
 
     private class ElementList implements List<Music> {
         private List<Music> mOrderedList;
+        // 加载时数据库中分页存储的排列顺序，用于在存储时检测其他对象写入的修改
+        private long[] mBaseIds;
 
         ElementList() {
+            MusicListOrder order = getOrder();
+            mBaseIds = order.getAllMusicIds();
+            if (!order.isEmpty()) {
+                mOrderedList = getOrderedList(mBaseIds);
+                return;
+            }
+
             if (musicListEntity.orderBytes == null || musicListEntity.orderBytes.length <= 0) {
                 mOrderedList = new ArrayList<>(musicListEntity.musicElements);
                 return;
             }
 
+            // 兼容旧版本的歌单
             try {
                 ByteArrayInputStream byteInput = new ByteArrayInputStream(musicListEntity.orderBytes);
                 ObjectInputStream input = new ObjectInputStream(byteInput);
 
-                mOrderedList = new ArrayList<>();
+                List<Long> ids = new ArrayList<>();
                 while (input.available() > 0) {
                     long id = input.readLong();
                     if (id <= 0) {
                         mOrderedList = new ArrayList<>(musicListEntity.musicElements);
                         return;
                     }
-                    mOrderedList.add(musicListEntity.musicElements.getById(id));
+                    ids.add(id);
                 }
 
                 input.close();
+
+                long[] orderIds = new long[ids.size()];
+                for (int i = 0; i < orderIds.length; i++) {
+                    orderIds[i] = ids.get(i);
+                }
+                mOrderedList = getOrderedList(orderIds);
             } catch (IOException e) {
                 mOrderedList = new ArrayList<>(musicListEntity.musicElements);
                 e.printStackTrace();
             }
         }
 
+        private List<Music> getOrderedList(long[] orderIds) {
+            Map<Long, Music> allMusic = new HashMap<>(musicListEntity.musicElements.size());
+            for (Music music : musicListEntity.musicElements) {
+                allMusic.put(music.id, music);
+            }
+
+            List<Music> orderedList = new ArrayList<>(orderIds.length);
+            for (long id : orderIds) {
+                Music music = allMusic.get(id);
+                if (music != null) {
+                    orderedList.add(music);
+                }
+            }
+
+            return orderedList;
+        }
+
         void applyChanges() {
-            musicListEntity.orderBytes = getOrderBytes();
+            // 排列顺序已改为分页存储，见 persistOrder()
+            musicListEntity.orderBytes = null;
             musicListEntity.size = mOrderedList.size();
         }
 
-        @NonNull
-        private byte[] getOrderBytes() {
-            try {
-                ByteArrayOutputStream byteOutput = new ByteArrayOutputStream(mOrderedList.size() * 4);
-                ObjectOutputStream output = new ObjectOutputStream(byteOutput);
+        boolean persistOrder() {
+            long[] ids = new long[mOrderedList.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = mOrderedList.get(i).id;
+            }
 
-                for (Music music : mOrderedList) {
-                    output.writeLong(music.id);
+            MusicListOrder order = getOrder();
+            long[] currentIds = order.getAllMusicIds();
+            if (!Arrays.equals(currentIds, mBaseIds)) {
+                // musicListEntity 已在调用本方法前存储，此时可以安全地丢弃 ToMany 中缓存的歌曲并重新加载，
+                // 以便获取其他对象添加的歌曲
+                musicListEntity.musicElements.reset();
+                mOrderedList = getOrderedList(rebase(ids, mBaseIds, currentIds));
+
+                ids = new long[mOrderedList.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = mOrderedList.get(i).id;
                 }
+            }
 
-                output.flush();
-                output.close();
-                return byteOutput.toByteArray();
-            } catch (IOException e) {
-                e.printStackTrace();
+            order.update(ids);
+            mBaseIds = ids;
+
+            if (musicListEntity.size == ids.length) {
+                return false;
+            }
+
+            musicListEntity.size = ids.length;
+            return true;
+        }
+
+        /**
+         * 将其他对象在加载之后写入的修改（currentIds 相对于 baseIds 的增删）合并到 ids 中：
+         * 被其他对象移除的歌曲会被移除，被其他对象添加的歌曲会追加到末尾。
+         */
+        private long[] rebase(long[] ids, long[] baseIds, long[] currentIds) {
+            Set<Long> base = toSet(baseIds);
+            Set<Long> current = toSet(currentIds);
+
+            List<Long> result = new ArrayList<>(ids.length + currentIds.length);
+            Set<Long> added = new HashSet<>();
+            for (long id : ids) {
+                if (base.contains(id) && !current.contains(id)) {
+                    // 已被其他对象移除
+                    continue;
+                }
+                result.add(id);
+                added.add(id);
+            }
+
+            for (long id : currentIds) {
+                if (!base.contains(id) && !added.contains(id)) {
+                    result.add(id);
+                    added.add(id);
+                }
+            }
+
+            long[] rebasedIds = new long[result.size()];
+            for (int i = 0; i < rebasedIds.length; i++) {
+                rebasedIds[i] = result.get(i);
             }
+            return rebasedIds;
+        }
 
-            return new byte[0];
+        private Set<Long> toSet(long[] ids) {
+            Set<Long> set = new HashSet<>(ids.length);
+            for (long id : ids) {
+                set.add(id);
+            }
+            return set;
         }
 
         @Override
@@ -416,6 +589,9 @@ public class MusicList {
 
     /**
      * 歌单中歌曲的排列顺序。
+     * <p>
+     * 按歌曲名、歌手名、专辑名排序时，比较的是 {@link Music} 预先生成的排序键（见 {@link Music#getTitleKey()}），
+     * 不会在每次比较时将中文字符转换为拼音。
      */
     public enum SortOrder {
         /**
@@ -435,14 +611,7 @@ public class MusicList {
             @NonNull
             @Override
             public Comparator<Music> comparator() {
-                return new Comparator<Music>() {
-                    private final PinyinComparator mPinyinComparator = new PinyinComparator();
-
-                    @Override
-                    public int compare(Music o1, Music o2) {
-                        return mPinyinComparator.compare(o1.getTitle(), o2.getTitle());
-                    }
-                };
+                return (o1, o2) -> o1.getTitleKey().compareTo(o2.getTitleKey());
             }
         },
         /**
@@ -452,14 +621,7 @@ public class MusicList {
             @NonNull
             @Override
             public Comparator<Music> comparator() {
-                return new Comparator<Music>() {
-                    private final PinyinComparator mPinyinComparator = new PinyinComparator();
-
-                    @Override
-                    public int compare(Music o1, Music o2) {
-                        return mPinyinComparator.compare(o1.getArtist(), o2.getArtist());
-                    }
-                };
+                return (o1, o2) -> o1.getArtistKey().compareTo(o2.getArtistKey());
             }
         },
         /**
@@ -469,14 +631,7 @@ public class MusicList {
             @NonNull
             @Override
             public Comparator<Music> comparator() {
-                return new Comparator<Music>() {
-                    private final PinyinComparator mPinyinComparator = new PinyinComparator();
-
-                    @Override
-                    public int compare(Music o1, Music o2) {
-                        return mPinyinComparator.compare(o1.getAlbum(), o2.getAlbum());
-                    }
-                };
+                return (o1, o2) -> o1.getAlbumKey().compareTo(o2.getAlbumKey());
             }
         };
 
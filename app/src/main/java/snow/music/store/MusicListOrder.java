@@ -0,0 +1,318 @@
+package snow.music.store;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import io.objectbox.Box;
+
+/**
+ * 歌单中歌曲的排列顺序。
+ * <p>
+ * 歌曲 ID 会按顺序拆分成多个分页（{@link MusicListOrderPage}）进行存储，每个分页最多包含 {@link #PAGE_MAX_SIZE}
+ * 个歌曲 ID。更新排列顺序时，会先跳过开头与末尾未发生变化的分页，然后只重写中间发生变化的分页，因此修改大歌单中的少量歌曲时，
+ * 只需要写入一两个分页（几 KB）的数据。
+ * <p>
+ * 注意！{@link #update(long[])}、{@link #appendMusicIds(Box, long, long[])} 与
+ * {@link #removeMusicIds(Box, long, Set)} 方法应该在事务中调用。
+ */
+final class MusicListOrder {
+    static final int PAGE_MAX_SIZE = 256;
+    private static final long ORDER_KEY_STEP = 1L << 20;
+
+    private final Box<MusicListOrderPage> mPageBox;
+    private final long mMusicListId;
+    private final List<MusicListOrderPage> mPages;
+
+    private MusicListOrder(Box<MusicListOrderPage> pageBox, long musicListId, List<MusicListOrderPage> pages) {
+        mPageBox = pageBox;
+        mMusicListId = musicListId;
+        mPages = pages;
+    }
+
+    /**
+     * 从数据库中加载指定歌单的排列顺序。
+     */
+    @NonNull
+    static MusicListOrder load(@NonNull Box<MusicListOrderPage> pageBox, long musicListId) {
+        Preconditions.checkNotNull(pageBox);
+
+        List<MusicListOrderPage> pages = pageBox.query()
+                .equal(MusicListOrderPage_.musicListId, musicListId)
+                .order(MusicListOrderPage_.orderKey)
+                .build()
+                .find();
+
+        return new MusicListOrder(pageBox, musicListId, new ArrayList<>(pages));
+    }
+
+    /**
+     * 从数据库中移除指定歌单的排列顺序。
+     */
+    static void remove(@NonNull Box<MusicListOrderPage> pageBox, long musicListId) {
+        Preconditions.checkNotNull(pageBox);
+
+        pageBox.query()
+                .equal(MusicListOrderPage_.musicListId, musicListId)
+                .build()
+                .remove();
+    }
+
+    /**
+     * 将 ids 追加到指定歌单的排列顺序的末尾。
+     * <p>
+     * 只会读取并重写最后一个分页，放不下的歌曲 ID 会写入新的分页，不会加载其他分页。
+     */
+    static void appendMusicIds(@NonNull Box<MusicListOrderPage> pageBox, long musicListId, @NonNull long[] ids) {
+        Preconditions.checkNotNull(pageBox);
+        Preconditions.checkNotNull(ids);
+
+        if (ids.length <= 0) {
+            return;
+        }
+
+        MusicListOrderPage lastPage = pageBox.query()
+                .equal(MusicListOrderPage_.musicListId, musicListId)
+                .orderDesc(MusicListOrderPage_.orderKey)
+                .build()
+                .findFirst();
+
+        List<MusicListOrderPage> changedPages = new ArrayList<>();
+        long orderKey = 0;
+        int offset = 0;
+
+        if (lastPage != null) {
+            orderKey = lastPage.orderKey;
+
+            long[] pageIds = lastPage.getMusicIds();
+            int count = Math.min(PAGE_MAX_SIZE - pageIds.length, ids.length);
+            if (count > 0) {
+                long[] newPageIds = Arrays.copyOf(pageIds, pageIds.length + count);
+                System.arraycopy(ids, 0, newPageIds, pageIds.length, count);
+                lastPage.setMusicIds(newPageIds);
+                changedPages.add(lastPage);
+                offset = count;
+            }
+        }
+
+        while (offset < ids.length) {
+            int end = Math.min(offset + PAGE_MAX_SIZE, ids.length);
+            orderKey += ORDER_KEY_STEP;
+
+            MusicListOrderPage page = new MusicListOrderPage(0, musicListId, orderKey, null);
+            page.setMusicIds(Arrays.copyOfRange(ids, offset, end));
+            changedPages.add(page);
+            offset = end;
+        }
+
+        pageBox.put(changedPages);
+    }
+
+    /**
+     * 从指定歌单的排列顺序中移除 ids 中包含的歌曲 ID。
+     * <p>
+     * 只会读取分页中存储的歌曲 ID，不会加载歌曲；只会重写包含被移除歌曲的分页，变为空的分页会被删除。
+     *
+     * @return 被移除的歌曲 ID 的数量
+     */
+    static int removeMusicIds(@NonNull Box<MusicListOrderPage> pageBox, long musicListId, @NonNull Set<Long> ids) {
+        Preconditions.checkNotNull(pageBox);
+        Preconditions.checkNotNull(ids);
+
+        if (ids.isEmpty()) {
+            return 0;
+        }
+
+        List<MusicListOrderPage> pages = pageBox.query()
+                .equal(MusicListOrderPage_.musicListId, musicListId)
+                .build()
+                .find();
+
+        List<MusicListOrderPage> changedPages = new ArrayList<>();
+        List<MusicListOrderPage> emptyPages = new ArrayList<>();
+        int removedCount = 0;
+
+        for (MusicListOrderPage page : pages) {
+            long[] pageIds = page.getMusicIds();
+            long[] newPageIds = new long[pageIds.length];
+
+            int count = 0;
+            for (long id : pageIds) {
+                if (!ids.contains(id)) {
+                    newPageIds[count++] = id;
+                }
+            }
+
+            if (count == pageIds.length) {
+                continue;
+            }
+
+            removedCount += pageIds.length - count;
+            if (count == 0) {
+                emptyPages.add(page);
+            } else {
+                page.setMusicIds(Arrays.copyOf(newPageIds, count));
+                changedPages.add(page);
+            }
+        }
+
+        pageBox.remove(emptyPages);
+        pageBox.put(changedPages);
+        return removedCount;
+    }
+
+    /**
+     * 数据库中是否没有存储该歌单的排列顺序（例如旧版本的歌单或者空歌单）。
+     */
+    boolean isEmpty() {
+        return mPages.isEmpty();
+    }
+
+    int size() {
+        int size = 0;
+        for (MusicListOrderPage page : mPages) {
+            size += page.size();
+        }
+        return size;
+    }
+
+    /**
+     * 获取位于 [offset, offset + limit) 范围内的歌曲 ID。
+     */
+    @NonNull
+    long[] getMusicIds(int offset, int limit) {
+        long[] ids = new long[Math.max(Math.min(limit, size() - offset), 0)];
+
+        int count = 0;
+        int pageStart = 0;
+        for (MusicListOrderPage page : mPages) {
+            if (count >= ids.length) {
+                break;
+            }
+
+            long[] pageIds = page.getMusicIds();
+            int pageEnd = pageStart + pageIds.length;
+            if (pageEnd > offset) {
+                int from = Math.max(offset - pageStart, 0);
+                int length = Math.min(pageIds.length - from, ids.length - count);
+                System.arraycopy(pageIds, from, ids, count, length);
+                count += length;
+            }
+            pageStart = pageEnd;
+        }
+
+        return ids;
+    }
+
+    /**
+     * 获取歌单中所有歌曲的 ID。
+     */
+    @NonNull
+    long[] getAllMusicIds() {
+        return getMusicIds(0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * 将歌单的排列顺序更新为 ids，只会重写发生变化的分页。
+     */
+    void update(@NonNull long[] ids) {
+        Preconditions.checkNotNull(ids);
+
+        int pageCount = mPages.size();
+
+        // 跳过开头未发生变化的分页
+        int first = 0;
+        int start = 0;
+        while (first < pageCount && regionMatches(mPages.get(first).getMusicIds(), ids, start)) {
+            start += mPages.get(first).size();
+            first++;
+        }
+
+        // 跳过末尾未发生变化的分页
+        int last = pageCount - 1;
+        int end = ids.length;
+        while (last >= first) {
+            int size = mPages.get(last).size();
+            if (end - size < start || !regionMatches(mPages.get(last).getMusicIds(), ids, end - size)) {
+                break;
+            }
+            end -= size;
+            last--;
+        }
+
+        if (first > last && start == end) {
+            return;
+        }
+
+        // 合并相邻的未满分页，避免逐首追加歌曲时产生大量很小的分页
+        if (first > 0 && mPages.get(first - 1).size() + (end - start) <= PAGE_MAX_SIZE) {
+            first--;
+            start -= mPages.get(first).size();
+        }
+
+        if (last + 1 < pageCount && mPages.get(last + 1).size() + (end - start) <= PAGE_MAX_SIZE) {
+            last++;
+            end += mPages.get(last).size();
+        }
+
+        int length = end - start;
+        int newPageCount = (length + PAGE_MAX_SIZE - 1) / PAGE_MAX_SIZE;
+
+        long lowKey = first > 0 ? mPages.get(first - 1).orderKey : 0;
+        long highKey = last + 1 < pageCount ? mPages.get(last + 1).orderKey : lowKey + (newPageCount + 1) * ORDER_KEY_STEP;
+
+        if (highKey - lowKey <= newPageCount) {
+            // 没有足够的排序键可用，重写全部分页
+            mPageBox.remove(mPages);
+            mPages.clear();
+            update(ids);
+            return;
+        }
+
+        List<MusicListOrderPage> oldPages = new ArrayList<>(mPages.subList(first, last + 1));
+        List<MusicListOrderPage> newPages = new ArrayList<>(newPageCount);
+
+        for (int i = 0; i < newPageCount; i++) {
+            int from = start + (int) ((long) length * i / newPageCount);
+            int to = start + (int) ((long) length * (i + 1) / newPageCount);
+
+            MusicListOrderPage page;
+            if (i < oldPages.size()) {
+                page = oldPages.get(i);
+            } else {
+                page = new MusicListOrderPage(0, mMusicListId, 0, null);
+            }
+
+            page.orderKey = lowKey + (highKey - lowKey) * (i + 1) / (newPageCount + 1);
+            page.setMusicIds(Arrays.copyOfRange(ids, from, to));
+            newPages.add(page);
+        }
+
+        if (oldPages.size() > newPageCount) {
+            mPageBox.remove(oldPages.subList(newPageCount, oldPages.size()));
+        }
+        mPageBox.put(newPages);
+
+        mPages.subList(first, last + 1).clear();
+        mPages.addAll(first, newPages);
+    }
+
+    private static boolean regionMatches(long[] pageIds, long[] ids, int offset) {
+        if (offset < 0 || offset + pageIds.length > ids.length) {
+            return false;
+        }
+
+        for (int i = 0; i < pageIds.length; i++) {
+            if (pageIds[i] != ids[offset + i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,64 @@
+package snow.music.store;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
+import io.objectbox.annotation.Entity;
+import io.objectbox.annotation.Id;
+import io.objectbox.annotation.Index;
+import io.objectbox.annotation.Transient;
+
+/**
+ * 这是一个 ObjectBox Entity, 请不要直接用于该类。
+ * <p>
+ * 歌单排列顺序中的一个分页，按顺序保存了歌单中一段连续歌曲的 ID，同一个歌单的所有分页按 {@link #orderKey} 排序。
+ *
+ * @see MusicListOrder
+ */
+@Entity
+public class MusicListOrderPage {
+    @Id
+    long id;
+    @Index
+    long musicListId;
+    long orderKey;
+    byte[] musicIds;
+
+    @Transient
+    private long[] mMusicIds;
+
+    public MusicListOrderPage() {
+    }
+
+    public MusicListOrderPage(long id, long musicListId, long orderKey, byte[] musicIds) {
+        this.id = id;
+        this.musicListId = musicListId;
+        this.orderKey = orderKey;
+        this.musicIds = musicIds;
+    }
+
+    int size() {
+        return getMusicIds().length;
+    }
+
+    @NonNull
+    long[] getMusicIds() {
+        if (mMusicIds == null) {
+            mMusicIds = new long[musicIds == null ? 0 : musicIds.length / 8];
+            if (mMusicIds.length > 0) {
+                ByteBuffer.wrap(musicIds).asLongBuffer().get(mMusicIds);
+            }
+        }
+
+        return mMusicIds;
+    }
+
+    void setMusicIds(@NonNull long[] ids) {
+        ByteBuffer buffer = ByteBuffer.allocate(ids.length * 8);
+        buffer.asLongBuffer().put(ids);
+
+        musicIds = buffer.array();
+        mMusicIds = ids;
+    }
+}
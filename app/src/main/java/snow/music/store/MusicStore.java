@@ -5,6 +5,7 @@ import android.os.Looper;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
 
 import com.google.common.base.Preconditions;
 
@@ -13,19 +14,25 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
 
 import android.os.Handler;
 import android.util.Log;
 
 import io.objectbox.Box;
 import io.objectbox.BoxStore;
+import io.objectbox.query.Query;
 import io.objectbox.query.QueryBuilder;
 import io.reactivex.Single;
-import io.reactivex.schedulers.Schedulers;
+import snow.player.PlayerSchedulers;
 
 /**
  * 歌曲数据库，用于存储本地音乐与本地歌单。
@@ -35,8 +42,14 @@ import io.reactivex.schedulers.Schedulers;
  *     <li>{@link #getInstance()}</li>
  *     <li>{@link #init(Context)}</li>
  *     <li>{@link #init(BoxStore)}</li>
+ *     <li>{@link #initAsync(Context)}</li>
+ *     <li>{@link #isReady()}</li>
+ *     <li>{@link #whenReady(OnReadyListener)}</li>
+ *     <li>{@link #ready()}</li>
  *     <li>{@link #isBuiltInName(String)}</li>
  *     <li>{@link #getBoxStore()}</li>
+ *     <li>{@link #recordHistory(Music)}</li>
+ *     <li>{@link #flushHistory()}</li>
  * </ul>
  * <p>
  * 还有就是 {@link #sort(MusicList, MusicList.SortOrder, SortCallback)} 方法，该方法虽然会访问数据库，
@@ -48,13 +61,22 @@ public class MusicStore {
     public static final String MUSIC_LIST_FAVORITE = "__favorite";
 
     public static final int NAME_MAX_LENGTH = 40;
+    public static final int HISTORY_DEFAULT_MAX_SIZE = 500;
 
-    private static MusicStore mInstance;
+    private static volatile MusicStore mInstance;
+
+    // 异步初始化（见 initAsync(Context)）时，用于让过早调用 getInstance() 的后台线程等待初始化完成
+    private static CountDownLatch mInitLatch;
+    private static Throwable mInitError;
+    private static final List<OnReadyListener> mPendingReadyListeners = new ArrayList<>();
 
     private final BoxStore mBoxStore;
     private final Box<Music> mMusicBox;
     private final Box<MusicListEntity> mMusicListEntityBox;
+    private final Box<MusicListOrderPage> mMusicListOrderPageBox;
     private final Box<HistoryEntity> mHistoryEntityBox;
+    private final HistoryWriter mHistoryWriter;
+    private volatile int mHistoryMaxSize = HISTORY_DEFAULT_MAX_SIZE;
 
     private final Handler mMainHandler;
 
@@ -68,13 +90,19 @@ public class MusicStore {
         mBoxStore = boxStore;
         mMusicBox = boxStore.boxFor(Music.class);
         mMusicListEntityBox = boxStore.boxFor(MusicListEntity.class);
+        mMusicListOrderPageBox = boxStore.boxFor(MusicListOrderPage.class);
         mHistoryEntityBox = boxStore.boxFor(HistoryEntity.class);
+        mHistoryWriter = new HistoryWriter(this, PlayerSchedulers.getDefault().persistence());
         mMainHandler = new Handler(Looper.getMainLooper());
         mAllFavoriteChangeListener = new ArrayList<>();
         mAllCustomMusicListUpdateListener = new ArrayList<>();
         mAllCustomMusicListName = new HashSet<>();
+    }
 
+    // 在 MusicStore 对象发布（赋值给 mInstance）后调用，避免未被采用的对象访问已关闭的数据库
+    private void startBackgroundTasks() {
         loadAllMusicListName();
+        updateStaleSortKeys();
     }
 
     private void loadAllMusicListName() {
@@ -92,12 +120,49 @@ public class MusicStore {
 
             mAllCustomMusicListName.addAll(Arrays.asList(allName));
 
-        }).subscribeOn(Schedulers.io())
+        }).subscribeOn(PlayerSchedulers.getDefault().maintenance())
                 .subscribe();
     }
 
+    // 为旧版本数据库中没有排序键的歌曲生成排序键，并在排序规则的版本改变（例如系统更新）后重新生成所有的排序键
+    private void updateStaleSortKeys() {
+        Single.create(emitter -> rebuildStaleSortKeys())
+                .subscribeOn(PlayerSchedulers.getDefault().maintenance())
+                .subscribe();
+    }
+
+    @VisibleForTesting
+    void rebuildStaleSortKeys() {
+        mBoxStore.runInTx(() -> {
+            List<Music> allMusic = mMusicBox.query()
+                    .isNull(Music_.titleKey)
+                    .or()
+                    .isNull(Music_.artistKey)
+                    .or()
+                    .isNull(Music_.albumKey)
+                    .or()
+                    .isNull(Music_.sortKeyVersion)
+                    .or()
+                    .notEqual(Music_.sortKeyVersion, SortKeyHelper.getVersion(), QueryBuilder.StringOrder.CASE_SENSITIVE)
+                    .build()
+                    .find();
+
+            if (allMusic.isEmpty()) {
+                return;
+            }
+
+            for (Music music : allMusic) {
+                music.ensureSortKeys();
+            }
+
+            mMusicBox.put(allMusic);
+        });
+    }
+
     /**
      * 初始化 {@link MusicStore}
+     * <p>
+     * 该方法会在当前线程中打开数据库，如果不希望阻塞应用程序的启动，请使用 {@link #initAsync(Context)} 方法。
      *
      * @param context Context 对象，不能为 null
      */
@@ -108,11 +173,13 @@ public class MusicStore {
             return;
         }
 
-        BoxStore boxStore = MyObjectBox.builder()
+        init(openBoxStore(context));
+    }
+
+    private static BoxStore openBoxStore(Context context) {
+        return MyObjectBox.builder()
                 .directory(new File(context.getFilesDir(), "music_store"))
                 .build();
-
-        init(boxStore);
     }
 
     /**
@@ -120,17 +187,213 @@ public class MusicStore {
      *
      * @param boxStore BoxStore 对象，不能为 null
      */
-    public synchronized static void init(@NonNull BoxStore boxStore) {
+    public static void init(@NonNull BoxStore boxStore) {
         Preconditions.checkNotNull(boxStore);
 
-        mInstance = new MusicStore(boxStore);
+        publish(new MusicStore(boxStore), true);
+    }
+
+    // 在锁外创建 MusicStore 对象，只在发布时持有锁，以免阻塞主线程中调用的 whenReady(OnReadyListener) 等方法
+    private static boolean publish(MusicStore musicStore, boolean replace) {
+        synchronized (MusicStore.class) {
+            if (!replace && mInstance != null) {
+                return false;
+            }
+
+            mInstance = musicStore;
+            notifyReady();
+        }
+
+        musicStore.startBackgroundTasks();
+        return true;
+    }
+
+    /**
+     * 在后台线程中初始化 {@link MusicStore}，该方法会立即返回，不会阻塞当前线程。
+     * <p>
+     * 初始化完成前：
+     * <ul>
+     *     <li>可以使用 {@link #whenReady(OnReadyListener)} 方法在初始化完成后访问 {@link MusicStore}；</li>
+     *     <li>在后台线程中调用 {@link #getInstance()} 方法会阻塞，直到初始化完成。</li>
+     * </ul>
+     * <p>
+     * 如果初始化失败，则会在主线程中抛出 {@link IllegalStateException}。
+     *
+     * @param context Context 对象，不能为 null
+     */
+    public static void initAsync(@NonNull Context context) {
+        Preconditions.checkNotNull(context);
+
+        Context applicationContext = context.getApplicationContext();
+        initAsync(() -> openBoxStore(applicationContext), true);
+    }
+
+    /**
+     * 在后台线程中初始化 {@link MusicStore}。
+     *
+     * @param boxStoreOpener 用于打开数据库，会在后台线程中调用
+     * @param crashOnFailure 初始化失败时是否在主线程中抛出 {@link IllegalStateException}
+     */
+    @VisibleForTesting
+    static void initAsync(@NonNull Callable<BoxStore> boxStoreOpener, boolean crashOnFailure) {
+        Preconditions.checkNotNull(boxStoreOpener);
+
+        synchronized (MusicStore.class) {
+            if (mInstance != null || mInitLatch != null) {
+                return;
+            }
+
+            mInitLatch = new CountDownLatch(1);
+        }
+
+        // 使用专用的线程，而不是播放器的线程池，以免与播放相关的任务相互等待
+        Thread initThread = new Thread(() -> {
+            MusicStore musicStore;
+            try {
+                musicStore = new MusicStore(boxStoreOpener.call());
+            } catch (Exception e) {
+                onInitFailed(e, crashOnFailure);
+                return;
+            }
+
+            if (!publish(musicStore, false)) {
+                // 已经被 init 方法同步初始化
+                musicStore.mBoxStore.close();
+            }
+        }, "MusicStore-init");
+        initThread.start();
+    }
+
+    private static void notifyReady() {
+        if (mInitLatch != null) {
+            mInitLatch.countDown();
+        }
+
+        List<OnReadyListener> listeners = new ArrayList<>(mPendingReadyListeners);
+        mPendingReadyListeners.clear();
+
+        MusicStore musicStore = mInstance;
+        for (OnReadyListener listener : listeners) {
+            musicStore.mMainHandler.post(() -> listener.onReady(musicStore));
+        }
+    }
+
+    private synchronized static void onInitFailed(Exception e, boolean crash) {
+        Log.e(TAG, "init music store failed", e);
+
+        mInitError = e;
+        mInitLatch.countDown();
+        mPendingReadyListeners.clear();
+
+        if (!crash) {
+            return;
+        }
+
+        // 与同步初始化失败时一样，让应用程序崩溃，而不是在之后的某次访问中才暴露问题
+        new Handler(Looper.getMainLooper()).post(() -> {
+            throw new IllegalStateException("music store init failed", e);
+        });
     }
 
+    // 重置初始化状态，仅用于测试
+    @VisibleForTesting
+    synchronized static void resetForTesting() {
+        mInstance = null;
+        mInitLatch = null;
+        mInitError = null;
+        mPendingReadyListeners.clear();
+    }
+
+    /**
+     * {@link MusicStore} 是否已初始化完成。
+     */
+    public static boolean isReady() {
+        return mInstance != null;
+    }
+
+    /**
+     * 在 {@link MusicStore} 初始化完成后执行指定的操作。
+     * <p>
+     * 该方法不会阻塞当前线程：如果 {@link MusicStore} 已初始化完成，并且当前线程是主线程，则会立即调用 listener；
+     * 否则会在初始化完成后在主线程中调用 listener。
+     *
+     * @param listener 要执行的操作，不能为 null
+     * @see #removeOnReadyListener(OnReadyListener)
+     */
+    public static void whenReady(@NonNull OnReadyListener listener) {
+        Preconditions.checkNotNull(listener);
+
+        MusicStore musicStore;
+        synchronized (MusicStore.class) {
+            musicStore = mInstance;
+            if (musicStore == null) {
+                mPendingReadyListeners.add(listener);
+                return;
+            }
+        }
+
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            listener.onReady(musicStore);
+        } else {
+            musicStore.mMainHandler.post(() -> listener.onReady(musicStore));
+        }
+    }
+
+    /**
+     * 移除尚未执行的 {@link OnReadyListener}。
+     */
+    public synchronized static void removeOnReadyListener(@Nullable OnReadyListener listener) {
+        mPendingReadyListeners.remove(listener);
+    }
+
+    /**
+     * 返回一个在 {@link MusicStore} 初始化完成时发射 {@link MusicStore} 对象的 {@link Single}，结果会在主线程中发射。
+     * <p>
+     * 在初始化完成前取消订阅时，会移除对应的 {@link OnReadyListener}。
+     */
+    @NonNull
+    public static Single<MusicStore> ready() {
+        return Single.create(emitter -> {
+            OnReadyListener listener = emitter::onSuccess;
+            emitter.setCancellable(() -> removeOnReadyListener(listener));
+            whenReady(listener);
+        });
+    }
+
+    /**
+     * 获取 {@link MusicStore} 对象。
+     * <p>
+     * 如果正在使用 {@link #initAsync(Context)} 异步初始化，则会阻塞当前线程直到初始化完成，因此请尽量避免在主线程中
+     * 过早地调用该方法，而是使用 {@link #whenReady(OnReadyListener)} 方法。
+     *
+     * @throws IllegalStateException 如果 {@link MusicStore} 尚未初始化，或者初始化失败
+     */
     public static MusicStore getInstance() throws IllegalStateException {
-        if (mInstance == null) {
+        MusicStore musicStore = mInstance;
+        if (musicStore != null) {
+            return musicStore;
+        }
+
+        CountDownLatch initLatch;
+        synchronized (MusicStore.class) {
+            initLatch = mInitLatch;
+        }
+
+        if (initLatch == null) {
             throw new IllegalStateException("music store not init yet.");
         }
 
+        try {
+            initLatch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for music store init.", e);
+        }
+
+        if (mInstance == null) {
+            throw new IllegalStateException("music store init failed.", mInitError);
+        }
+
         return mInstance;
     }
 
@@ -289,7 +552,7 @@ public class MusicStore {
         mAllCustomMusicListName.add(name);
         MusicListEntity entity = new MusicListEntity(0, name, 0, MusicList.SortOrder.BY_ADD_TIME, new byte[0]);
         mMusicListEntityBox.put(entity);
-        return new MusicList(entity);
+        return new MusicList(entity, mMusicListOrderPageBox);
     }
 
     /**
@@ -313,7 +576,106 @@ public class MusicStore {
             return null;
         }
 
-        return new MusicList(entity);
+        return new MusicList(entity, mMusicListOrderPageBox);
+    }
+
+    /**
+     * 获取歌单中位于 [offset, offset + limit) 范围内的歌曲。
+     * <p>
+     * 该方法只会加载指定范围内的歌曲，不会加载整个歌单，适用于分页加载大歌单。
+     * <p>
+     * 如果歌单的排列顺序中包含已从数据库中移除的歌曲，则会先将这些歌曲从歌单中移除（同时更新歌单的大小，
+     * 见 {@link MusicList#getSize()}），然后再重新读取指定范围内的歌曲，确保返回的歌曲与歌单的大小一致。
+     *
+     * @param musicList {@link MusicList} 对象，不能为 null
+     * @param offset    偏移量，不能小于 0
+     * @param limit     最大数量，不能小于 0
+     * @return 指定范围内的歌曲，不为 null
+     */
+    @NonNull
+    public synchronized List<Music> getMusicListItems(@NonNull MusicList musicList, int offset, int limit) {
+        Preconditions.checkNotNull(musicList);
+        checkThread();
+
+        long[] ids = musicList.getOrderIds(offset, limit);
+        if (ids != null) {
+            List<Music> items = mMusicBox.get(ids);
+            if (items.size() == ids.length) {
+                return items;
+            }
+
+            // Box.get(long[]) 会跳过不存在的歌曲，先修复歌单，再重新读取，以免返回的歌曲与歌单的位置错开
+            removeMissingMusic(musicList, ids, items);
+            ids = musicList.getOrderIds(offset, limit);
+            return ids == null ? Collections.emptyList() : mMusicBox.get(ids);
+        }
+
+        List<Music> allMusic = musicList.getMusicElements();
+        int end = Math.min(offset + limit, allMusic.size());
+        if (offset >= end) {
+            return Collections.emptyList();
+        }
+
+        return new ArrayList<>(allMusic.subList(offset, end));
+    }
+
+    // 将已从数据库中移除的歌曲从歌单的排列顺序中移除，并更新歌单的大小
+    private void removeMissingMusic(MusicList musicList, long[] ids, List<Music> existingMusic) {
+        Set<Long> missingIds = new HashSet<>(ids.length);
+        for (long id : ids) {
+            missingIds.add(id);
+        }
+        for (Music music : existingMusic) {
+            missingIds.remove(music.id);
+        }
+
+        MusicListEntity entity = musicList.musicListEntity;
+        mBoxStore.runInTx(() -> {
+            if (hasPagedOrder(entity)) {
+                int count = MusicListOrder.removeMusicIds(mMusicListOrderPageBox, entity.id, missingIds);
+                entity.size = Math.max(entity.size - count, 0);
+                mMusicListEntityBox.put(entity);
+                return;
+            }
+
+            // 旧版本的歌单：加载整个歌单（会忽略已移除的歌曲），然后以分页的形式重新存储排列顺序
+            MusicList legacyMusicList = new MusicList(entity, mMusicListOrderPageBox);
+            legacyMusicList.getMusicElements();
+            putMusicList(legacyMusicList);
+        });
+    }
+
+    // 将歌曲从所有包含它们的歌单的排列顺序中移除，并更新这些歌单的大小。需要在移除歌曲的事务中调用
+    private void removeFromAllMusicListOrder(Collection<Long> musicIds) {
+        Map<Long, MusicListEntity> allEntity = new HashMap<>();
+        Map<Long, Set<Long>> allRemovedIds = new HashMap<>();
+
+        for (Music music : mMusicBox.get(musicIds)) {
+            for (MusicListEntity entity : music.musicLists) {
+                allEntity.put(entity.id, entity);
+
+                Set<Long> removedIds = allRemovedIds.get(entity.id);
+                if (removedIds == null) {
+                    removedIds = new HashSet<>();
+                    allRemovedIds.put(entity.id, removedIds);
+                }
+                removedIds.add(music.id);
+            }
+        }
+
+        for (MusicListEntity entity : allEntity.values()) {
+            Set<Long> removedIds = Objects.requireNonNull(allRemovedIds.get(entity.id));
+            if (!hasPagedOrder(entity)) {
+                // 旧版本的歌单会在加载时忽略已移除的歌曲，这里只更新歌单的大小
+                entity.size = Math.max(entity.size - removedIds.size(), 0);
+                mMusicListEntityBox.put(entity);
+                continue;
+            }
+
+            int count = MusicListOrder.removeMusicIds(mMusicListOrderPageBox, entity.id, removedIds);
+            entity.size = Math.max(entity.size - count, 0);
+            mMusicListEntityBox.put(entity);
+        }
     }
 
     /**
@@ -333,8 +695,117 @@ public class MusicStore {
             notifyCustomMusicListUpdated(name);
         }
 
+        mBoxStore.runInTx(() -> putMusicList(musicList));
+    }
+
+    // 只会写入歌单中发生变化的部分，必须在事务中调用
+    private void putMusicList(MusicList musicList) {
         musicList.applyChanges();
         mMusicListEntityBox.put(musicList.musicListEntity);
+        if (musicList.persistOrder()) {
+            // 合并了其他对象写入的修改，歌单的大小已改变
+            mMusicListEntityBox.put(musicList.musicListEntity);
+        }
+    }
+
+    @Nullable
+    private MusicListEntity findMusicListEntity(String name) {
+        return mMusicListEntityBox.query()
+                .equal(MusicListEntity_.name, name, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .build()
+                .findUnique();
+    }
+
+    // 如果歌单的排列顺序已分页存储，则返回 true；旧版本的歌单会返回 false，需要加载整个歌单后再修改
+    private boolean hasPagedOrder(MusicListEntity entity) {
+        if (entity.orderBytes != null && entity.orderBytes.length > 0) {
+            return false;
+        }
+
+        if (entity.size <= 0) {
+            return true;
+        }
+
+        return mMusicListOrderPageBox.query()
+                .equal(MusicListOrderPage_.musicListId, entity.id)
+                .build()
+                .count() > 0;
+    }
+
+    // 返回歌曲在数据库中的最新版本（已去重），如果有任何歌曲尚未存储到数据库中，则返回 null
+    @Nullable
+    private List<Music> getAllStoredMusic(List<Music> allMusic) {
+        Set<Long> ids = new LinkedHashSet<>(allMusic.size());
+        for (Music music : allMusic) {
+            if (music.id <= 0) {
+                return null;
+            }
+            ids.add(music.id);
+        }
+
+        long[] idArray = new long[ids.size()];
+        int i = 0;
+        for (long id : ids) {
+            idArray[i++] = id;
+        }
+
+        List<Music> allStoredMusic = mMusicBox.get(idArray);
+        for (Music music : allStoredMusic) {
+            if (music == null) {
+                return null;
+            }
+        }
+
+        return allStoredMusic;
+    }
+
+    // 将歌曲追加到歌单的末尾，必须在事务中调用。
+    // 如果 allStoredMusic 不为 null，并且歌单的排列顺序已分页存储，则只会追加排列顺序的最后一个分页，并在歌曲一端
+    // 添加关系，不会加载歌单中已有的歌曲，此时调用者需要在修改完所有歌单后存储 allStoredMusic；否则会加载整个歌单。
+    private void appendToMusicList(MusicListEntity entity, List<Music> allMusic, @Nullable List<Music> allStoredMusic) {
+        if (allStoredMusic == null || !hasPagedOrder(entity)) {
+            MusicList musicList = new MusicList(entity, mMusicListOrderPageBox);
+            musicList.getMusicElements().addAll(allMusic);
+            putMusicList(musicList);
+            return;
+        }
+
+        long[] ids = new long[allStoredMusic.size()];
+        int count = 0;
+        for (Music music : allStoredMusic) {
+            if (containsMusicList(music, entity.id)) {
+                continue;
+            }
+            music.musicLists.add(entity);
+            ids[count++] = music.id;
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        MusicListOrder.appendMusicIds(mMusicListOrderPageBox, entity.id, Arrays.copyOf(ids, count));
+        entity.size += count;
+        mMusicListEntityBox.put(entity);
+    }
+
+    private static boolean containsMusicList(Music music, long musicListId) {
+        for (MusicListEntity entity : music.musicLists) {
+            if (entity.id == musicListId) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean removeMusicListRelation(Music music, long musicListId) {
+        for (MusicListEntity entity : music.musicLists) {
+            if (entity.id == musicListId) {
+                music.musicLists.remove(entity);
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -351,10 +822,10 @@ public class MusicStore {
         }
 
         mAllCustomMusicListName.remove(musicList.getName());
-        mMusicListEntityBox.query()
-                .equal(MusicListEntity_.id, musicList.getId())
-                .build()
-                .remove();
+        mBoxStore.runInTx(() -> {
+            mMusicListEntityBox.remove(musicList.getId());
+            MusicListOrder.remove(mMusicListOrderPageBox, musicList.getId());
+        });
     }
 
     /**
@@ -370,10 +841,19 @@ public class MusicStore {
             return;
         }
 
-        mMusicListEntityBox.query()
-                .equal(MusicListEntity_.name, name, QueryBuilder.StringOrder.CASE_SENSITIVE)
-                .build()
-                .remove();
+        mBoxStore.runInTx(() -> {
+            MusicListEntity entity = mMusicListEntityBox.query()
+                    .equal(MusicListEntity_.name, name, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                    .build()
+                    .findUnique();
+
+            if (entity == null) {
+                return;
+            }
+
+            mMusicListEntityBox.remove(entity);
+            MusicListOrder.remove(mMusicListOrderPageBox, entity.id);
+        });
     }
 
     /**
@@ -420,7 +900,7 @@ public class MusicStore {
         List<MusicList> allMusicList = new ArrayList<>(allEntity.size());
 
         for (MusicListEntity entity : allEntity) {
-            allMusicList.add(new MusicList(entity));
+            allMusicList.add(new MusicList(entity, mMusicListOrderPageBox));
         }
 
         return allMusicList;
@@ -429,6 +909,9 @@ public class MusicStore {
     /**
      * 将 {@link Music} 对象添加到 musicListNames 包含的所有歌单中。
      *
+     * 该方法只会追加歌单排列顺序的最后一个分页，不会加载歌单中已有的歌曲，详见
+     * {@link #addToAllMusicList(List, List)}。
+     *
      * @param music            {@link Music} 对象，不能为 null
      * @param allMusicListName {@link Music} 对象要添加到的所有歌单的名称，不能为 null。
      */
@@ -436,24 +919,14 @@ public class MusicStore {
         Preconditions.checkNotNull(music);
         Preconditions.checkNotNull(allMusicListName);
 
-        List<MusicListEntity> entityList = new ArrayList<>();
-        for (String name : allMusicListName) {
-            MusicList musicList = getCustomMusicList(name);
-            if (musicList == null) {
-                continue;
-            }
-            musicList.getMusicElements().add(music);
-            musicList.applyChanges();
-            entityList.add(musicList.musicListEntity);
-        }
-
-        mMusicListEntityBox.put(entityList);
-
-        notifyCustomMusicListUpdated(allMusicListName);
+        addToAllMusicList(Collections.singletonList(music), allMusicListName);
     }
 
     /**
      * 将多首歌曲添加到多个歌单中。
+     * <p>
+     * 歌曲会被追加到歌单的末尾，已存在于歌单中的歌曲会被忽略。该方法只会追加歌单排列顺序的最后一个分页，
+     * 并通过歌曲一端的关系添加歌单与歌曲之间的关系，不会加载歌单中已有的歌曲，因此耗时与歌单的大小无关。
      *
      * @param allMusic         所有要添加的歌曲
      * @param allMusicListName 要添加到的歌单的名称
@@ -461,19 +934,28 @@ public class MusicStore {
     public synchronized void addToAllMusicList(@NonNull List<Music> allMusic, @NonNull List<String> allMusicListName) {
         Preconditions.checkNotNull(allMusic);
         Preconditions.checkNotNull(allMusicListName);
+        checkThread();
 
-        List<MusicListEntity> entityList = new ArrayList<>();
-        for (String name : allMusicListName) {
-            MusicList musicList = getCustomMusicList(name);
-            if (musicList == null) {
-                continue;
+        mBoxStore.runInTx(() -> {
+            List<Music> allStoredMusic = getAllStoredMusic(allMusic);
+
+            for (String name : allMusicListName) {
+                if (isBuiltInName(name)) {
+                    continue;
+                }
+
+                MusicListEntity entity = findMusicListEntity(name);
+                if (entity == null) {
+                    continue;
+                }
+
+                appendToMusicList(entity, allMusic, allStoredMusic);
             }
-            musicList.getMusicElements().addAll(allMusic);
-            musicList.applyChanges();
-            entityList.add(musicList.musicListEntity);
-        }
 
-        mMusicListEntityBox.put(entityList);
+            if (allStoredMusic != null) {
+                mMusicBox.put(allStoredMusic);
+            }
+        });
 
         notifyCustomMusicListUpdated(allMusicListName);
     }
@@ -523,6 +1005,9 @@ public class MusicStore {
 
     /**
      * 将歌曲添加到 “我喜欢” 歌单。
+     * <p>
+     * 只会追加歌单排列顺序的最后一个分页，不会加载 “我喜欢” 歌单中已有的歌曲，详见
+     * {@link #addAllMusic(String, List)}。
      */
     public synchronized void addToFavorite(@NonNull Music music) {
         Preconditions.checkNotNull(music);
@@ -532,23 +1017,22 @@ public class MusicStore {
             return;
         }
 
-        MusicList favorite = getFavoriteMusicList();
-        favorite.getMusicElements().add(music);
-        updateMusicList(favorite);
+        addAllMusic(MUSIC_LIST_FAVORITE, Collections.singletonList(music));
         notifyFavoriteChanged();
     }
 
     /**
      * 将歌曲从 “我喜欢” 歌单中移除。
+     * <p>
+     * 只会修改歌单排列顺序中包含该歌曲的分页，不会加载 “我喜欢” 歌单中的其他歌曲，详见
+     * {@link #removeAllMusic(String, List)}。
      */
     public synchronized void removeFromFavorite(@NonNull Music music) {
         Preconditions.checkNotNull(music);
         checkThread();
 
         if (isFavorite(music)) {
-            MusicList favorite = getFavoriteMusicList();
-            favorite.getMusicElements().remove(music);
-            updateMusicList(favorite);
+            removeAllMusic(MUSIC_LIST_FAVORITE, Collections.singletonList(music));
             notifyFavoriteChanged();
         }
     }
@@ -678,6 +1162,50 @@ public class MusicStore {
                 name.equalsIgnoreCase(MUSIC_LIST_FAVORITE);
     }
 
+    /**
+     * 设置历史记录的最大数量，超出部分会在下次写入历史记录时按时间从旧到新移除。
+     * <p>
+     * 默认为 {@link #HISTORY_DEFAULT_MAX_SIZE}。
+     *
+     * @param maxSize 历史记录的最大数量，必须大于 0
+     */
+    public void setHistoryMaxSize(int maxSize) {
+        Preconditions.checkArgument(maxSize > 0, "maxSize must > 0");
+        mHistoryMaxSize = maxSize;
+    }
+
+    /**
+     * 获取历史记录的最大数量。
+     */
+    public int getHistoryMaxSize() {
+        return mHistoryMaxSize;
+    }
+
+    /**
+     * 记录一次播放。
+     * <p>
+     * 与 {@link #addHistory(Music)} 不同，该方法不会访问数据库，可以在 UI 线程调用。播放记录会先缓存在内存中，
+     * 然后在后台线程中合并、批量写入数据库。未存储到数据库中的歌曲（ID 小于等于 0）会被忽略。
+     */
+    public void recordHistory(@NonNull Music music) {
+        Preconditions.checkNotNull(music);
+
+        if (music.getId() <= 0) {
+            return;
+        }
+
+        mHistoryWriter.record(music, System.currentTimeMillis());
+    }
+
+    /**
+     * 在后台线程中立即写入所有使用 {@link #recordHistory(Music)} 记录的、尚未写入的播放记录。
+     * <p>
+     * 该方法不会访问数据库，可以在 UI 线程调用。
+     */
+    public void flushHistory() {
+        mHistoryWriter.flushAsync();
+    }
+
     /**
      * 添加一条历史记录。
      */
@@ -685,18 +1213,52 @@ public class MusicStore {
         Preconditions.checkNotNull(music);
         checkThread();
 
-        HistoryEntity historyEntity = mHistoryEntityBox.query()
-                .equal(HistoryEntity_.musicId, music.id)
-                .build()
-                .findFirst();
+        HistoryWriter.HistoryRecord record = new HistoryWriter.HistoryRecord(music);
+        record.timestamp = System.currentTimeMillis();
+        record.playCount = 1;
+
+        putHistory(Collections.singletonList(record));
+    }
 
-        if (historyEntity == null) {
-            historyEntity = new HistoryEntity();
-            historyEntity.music.setTarget(music);
+    // 在一个事务中批量写入历史记录，并裁剪超出最大数量的历史记录
+    synchronized void putHistory(@NonNull List<HistoryWriter.HistoryRecord> records) {
+        mBoxStore.runInTx(() -> {
+            Query<HistoryEntity> query = mHistoryEntityBox.query()
+                    .equal(HistoryEntity_.musicId, 0)
+                    .build();
+
+            List<HistoryEntity> entities = new ArrayList<>(records.size());
+            for (HistoryWriter.HistoryRecord record : records) {
+                HistoryEntity historyEntity = query.setParameter(HistoryEntity_.musicId, record.music.id)
+                        .findFirst();
+
+                if (historyEntity == null) {
+                    historyEntity = new HistoryEntity();
+                    historyEntity.music.setTarget(record.music);
+                }
+
+                historyEntity.timestamp = Math.max(historyEntity.timestamp, record.timestamp);
+                historyEntity.playCount += record.playCount;
+                entities.add(historyEntity);
+            }
+
+            mHistoryEntityBox.put(entities);
+            trimHistory();
+        });
+    }
+
+    private void trimHistory() {
+        long overflow = mHistoryEntityBox.count() - mHistoryMaxSize;
+        if (overflow <= 0) {
+            return;
         }
-        historyEntity.timestamp = System.currentTimeMillis();
 
-        mHistoryEntityBox.put(historyEntity);
+        long[] ids = mHistoryEntityBox.query()
+                .order(HistoryEntity_.timestamp)
+                .build()
+                .findIds(0, overflow);
+
+        mHistoryEntityBox.remove(ids);
     }
 
     /**
@@ -706,6 +1268,7 @@ public class MusicStore {
         Preconditions.checkNotNull(historyEntity);
         checkThread();
 
+        mHistoryWriter.discard(historyEntity.music.getTargetId());
         mHistoryEntityBox.query()
                 .equal(HistoryEntity_.id, historyEntity.id)
                 .build()
@@ -718,6 +1281,7 @@ public class MusicStore {
     public synchronized void clearHistory() {
         checkThread();
 
+        mHistoryWriter.discardAll();
         mHistoryEntityBox.query()
                 .build()
                 .remove();
@@ -729,13 +1293,119 @@ public class MusicStore {
     @NonNull
     public synchronized List<HistoryEntity> getAllHistory() {
         checkThread();
+        mHistoryWriter.flush();
 
         return mHistoryEntityBox.query()
                 .orderDesc(HistoryEntity_.timestamp)
+                .eager(HistoryEntity_.music)
                 .build()
                 .find();
     }
 
+    /**
+     * 获取在给定的 offset 偏移量和 limit 限制之间的历史记录，按播放时间从新到旧排列。
+     */
+    @NonNull
+    public synchronized List<HistoryEntity> getHistory(long offset, long limit) {
+        checkThread();
+        mHistoryWriter.flush();
+
+        return mHistoryEntityBox.query()
+                .orderDesc(HistoryEntity_.timestamp)
+                .orderDesc(HistoryEntity_.id)
+                .eager(HistoryEntity_.music)
+                .build()
+                .find(offset, limit);
+    }
+
+    /**
+     * 获取比指定的历史记录更早的历史记录，按播放时间从新到旧排列，用于分页加载历史记录。
+     * <p>
+     * 与 {@link #getHistory(long, long)} 不同，该方法根据上一页最后一条历史记录的播放时间（播放时间相同时，根据 ID）
+     * 定位下一页，因此在分页加载期间添加、移除历史记录时，不会导致重复或者遗漏。
+     *
+     * @param last  上一页的最后一条历史记录，为 null 时获取第一页
+     * @param limit 最大数量
+     */
+    @NonNull
+    public synchronized List<HistoryEntity> getHistoryBefore(@Nullable HistoryEntity last, long limit) {
+        checkThread();
+        mHistoryWriter.flush();
+
+        if (last == null) {
+            return getHistory(0, limit);
+        }
+
+        // 播放时间相同，但 ID 更小的历史记录
+        List<HistoryEntity> history = new ArrayList<>(mHistoryEntityBox.query()
+                .equal(HistoryEntity_.timestamp, last.timestamp)
+                .less(HistoryEntity_.id, last.id)
+                .orderDesc(HistoryEntity_.id)
+                .eager(HistoryEntity_.music)
+                .build()
+                .find(0, limit));
+
+        if (history.size() >= limit) {
+            return history;
+        }
+
+        history.addAll(mHistoryEntityBox.query()
+                .less(HistoryEntity_.timestamp, last.timestamp)
+                .orderDesc(HistoryEntity_.timestamp)
+                .orderDesc(HistoryEntity_.id)
+                .eager(HistoryEntity_.music)
+                .build()
+                .find(0, limit - history.size()));
+
+        return history;
+    }
+
+    /**
+     * 获取历史记录的数量。
+     */
+    public synchronized long getHistoryCount() {
+        checkThread();
+        mHistoryWriter.flush();
+
+        return mHistoryEntityBox.count();
+    }
+
+    /**
+     * 获取播放次数最多的歌曲的历史记录，按播放次数从多到少排列，播放次数相同时，最近播放的排在前面。
+     *
+     * @param limit 最大数量
+     */
+    @NonNull
+    public synchronized List<HistoryEntity> getMostPlayedHistory(long limit) {
+        checkThread();
+        mHistoryWriter.flush();
+
+        return mHistoryEntityBox.query()
+                .orderDesc(HistoryEntity_.playCount)
+                .orderDesc(HistoryEntity_.timestamp)
+                .eager(HistoryEntity_.music)
+                .build()
+                .find(0, limit);
+    }
+
+    /**
+     * 获取歌曲的历史记录，如果歌曲没有历史记录，则返回 null。
+     * <p>
+     * 可以通过 {@link HistoryEntity#getPlayCount()} 与 {@link HistoryEntity#getTimestamp()} 获取歌曲的播放次数与
+     * 最近一次播放的时间。
+     */
+    @Nullable
+    public synchronized HistoryEntity getHistory(@NonNull Music music) {
+        Preconditions.checkNotNull(music);
+        checkThread();
+        mHistoryWriter.flush();
+
+        return mHistoryEntityBox.query()
+                .equal(HistoryEntity_.musicId, music.getId())
+                .build()
+                .findFirst();
+    }
+
     /**
      * 存储/更新一个 {@link Music} 对象到数据库中。
      * <p>
@@ -744,6 +1414,7 @@ public class MusicStore {
     public synchronized void putMusic(@NonNull Music music) {
         checkThread();
         Preconditions.checkNotNull(music);
+        music.ensureSortKeys();
         mMusicBox.put(music);
     }
 
@@ -795,7 +1466,16 @@ public class MusicStore {
      */
     public synchronized boolean removeMusic(@NonNull Music music) {
         checkThread();
-        return mMusicBox.remove(music.getId());
+
+        long id = music.getId();
+        if (id <= 0) {
+            return false;
+        }
+
+        return mBoxStore.callInTxNoException(() -> {
+            removeFromAllMusicListOrder(Collections.singletonList(id));
+            return mMusicBox.remove(id);
+        });
     }
 
     /**
@@ -805,7 +1485,18 @@ public class MusicStore {
      */
     public synchronized void removeMusic(Collection<Music> musics) {
         checkThread();
-        mMusicBox.remove(musics);
+
+        List<Long> ids = new ArrayList<>(musics.size());
+        for (Music music : musics) {
+            if (music.getId() > 0) {
+                ids.add(music.getId());
+            }
+        }
+
+        mBoxStore.runInTx(() -> {
+            removeFromAllMusicListOrder(ids);
+            mMusicBox.remove(musics);
+        });
     }
 
     /**
@@ -816,9 +1507,46 @@ public class MusicStore {
     public synchronized void putAllMusic(@NonNull Collection<Music> musics) {
         Preconditions.checkNotNull(musics);
         checkThread();
+        for (Music music : musics) {
+            music.ensureSortKeys();
+        }
         mMusicBox.put(musics);
     }
 
+    /**
+     * 在同一个事务中存储一批扫描到的歌曲。
+     * <p>
+     * 已存储在数据库中的歌曲（uri 相同）不会被重复存储，而是将其 id 设置为数据库中已有歌曲的 id 值；其余歌曲会被存储到数据库中。
+     * 该方法一般配合 {@code AudioScanner#scan(int, OnBatchScannedListener)} 方法使用，以便在扫描的同时将扫描到的歌曲分批存储到数据库中。
+     *
+     * @param scannedMusic 扫描到的歌曲，不能为 null
+     * @return 所有尚未添加到 “本地音乐” 歌单中的歌曲
+     */
+    @NonNull
+    public synchronized List<Music> putScannedMusic(@NonNull List<Music> scannedMusic) {
+        Preconditions.checkNotNull(scannedMusic);
+        checkThread();
+
+        List<Music> allNoLocalMusic = new ArrayList<>();
+        mBoxStore.runInTx(() -> {
+            List<Music> allNewMusic = new ArrayList<>();
+            for (Music music : scannedMusic) {
+                long id = getId(music.getUri());
+                music.id = id;
+                if (id <= 0) {
+                    allNewMusic.add(music);
+                    allNoLocalMusic.add(music);
+                } else if (!isLocalMusic(music.getUri())) {
+                    allNoLocalMusic.add(music);
+                }
+            }
+
+            putAllMusic(allNewMusic);
+        });
+
+        return allNoLocalMusic;
+    }
+
     /**
      * 将列表中的全部音乐添加到具有指定名称的歌单中（包括内置歌单与自建歌单）。
      *
@@ -828,20 +1556,31 @@ public class MusicStore {
     public synchronized void addAllMusic(@NonNull String musicListName, @NonNull List<Music> allMusic) {
         Preconditions.checkNotNull(musicListName);
         Preconditions.checkNotNull(allMusic);
+        checkThread();
 
-        MusicList musicList;
+        MusicListEntity entity;
         if (isBuiltInName(musicListName)) {
-            musicList = getBuiltInMusicList(musicListName);
+            entity = getBuiltInMusicList(musicListName).musicListEntity;
         } else {
-            musicList = getCustomMusicList(musicListName);
+            entity = findMusicListEntity(musicListName);
         }
 
-        if (musicList == null) {
+        if (entity == null) {
             return;
         }
 
-        musicList.getMusicElements().addAll(allMusic);
-        updateMusicList(musicList);
+        mBoxStore.runInTx(() -> {
+            List<Music> allStoredMusic = getAllStoredMusic(allMusic);
+            appendToMusicList(entity, allMusic, allStoredMusic);
+
+            if (allStoredMusic != null) {
+                mMusicBox.put(allStoredMusic);
+            }
+        });
+
+        if (!isBuiltInName(musicListName)) {
+            notifyCustomMusicListUpdated(musicListName);
+        }
     }
 
     /**
@@ -853,20 +1592,42 @@ public class MusicStore {
     public synchronized void removeAllMusic(@NonNull String musicListName, @NonNull List<Music> allMusic) {
         Preconditions.checkNotNull(musicListName);
         Preconditions.checkNotNull(allMusic);
+        checkThread();
 
-        MusicList musicList;
-        if (isBuiltInName(musicListName)) {
-            musicList = getBuiltInMusicList(musicListName);
-        } else {
-            musicList = getCustomMusicList(musicListName);
-        }
-
-        if (musicList == null) {
+        MusicListEntity entity = findMusicListEntity(musicListName);
+        if (entity == null) {
             return;
         }
 
-        musicList.getMusicElements().removeAll(allMusic);
-        updateMusicList(musicList);
+        mBoxStore.runInTx(() -> {
+            List<Music> allStoredMusic = getAllStoredMusic(allMusic);
+            if (allStoredMusic == null || !hasPagedOrder(entity)) {
+                MusicList musicList = new MusicList(entity, mMusicListOrderPageBox);
+                musicList.getMusicElements().removeAll(allMusic);
+                putMusicList(musicList);
+                return;
+            }
+
+            Set<Long> removedIds = new HashSet<>();
+            for (Music music : allStoredMusic) {
+                if (removeMusicListRelation(music, entity.id)) {
+                    removedIds.add(music.id);
+                }
+            }
+
+            if (removedIds.isEmpty()) {
+                return;
+            }
+
+            int count = MusicListOrder.removeMusicIds(mMusicListOrderPageBox, entity.id, removedIds);
+            entity.size = Math.max(entity.size - count, 0);
+            mMusicListEntityBox.put(entity);
+            mMusicBox.put(allStoredMusic);
+        });
+
+        if (!isBuiltInName(musicListName)) {
+            notifyCustomMusicListUpdated(musicListName);
+        }
     }
 
     /**
@@ -953,7 +1714,7 @@ public class MusicStore {
     }
 
     /**
-     * 获取指定歌手在给定的 offset 偏移量和 limit 限制间的全部音乐。
+     * 获取指定歌手在给定的 offset 偏移量和 limit 限制间的全部音乐，结果会按歌曲名排序。
      *
      * @param artist 歌手名，不能为 null
      * @return 在给定的 offset 偏移量和 limit 限制间的全部音乐，不为 null
@@ -964,10 +1725,26 @@ public class MusicStore {
 
         return mMusicBox.query()
                 .equal(Music_.artist, artist, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .order(Music_.titleKey)
                 .build()
                 .find(offset, limit);
     }
 
+    /**
+     * 获取指定歌手的歌曲数量。
+     *
+     * @param artist 歌手名，不能为 null
+     */
+    public synchronized long getArtistMusicCount(@NonNull String artist) {
+        Preconditions.checkNotNull(artist);
+        checkThread();
+
+        return mMusicBox.query()
+                .equal(Music_.artist, artist, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .build()
+                .count();
+    }
+
     /**
      * 获取指定专辑的全部音乐。
      *
@@ -986,7 +1763,7 @@ public class MusicStore {
     }
 
     /**
-     * 获取指定专辑在给定的 offset 偏移量和 limit 限制间的全部音乐。
+     * 获取指定专辑在给定的 offset 偏移量和 limit 限制间的全部音乐，结果会按歌曲名排序。
      *
      * @param album 专辑名，不能为 null
      * @return 在给定的 offset 偏移量和 limit 限制间的全部音乐，不为 null
@@ -997,10 +1774,26 @@ public class MusicStore {
 
         return mMusicBox.query()
                 .equal(Music_.album, album, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .order(Music_.titleKey)
                 .build()
                 .find(offset, limit);
     }
 
+    /**
+     * 获取指定专辑的歌曲数量。
+     *
+     * @param album 专辑名，不能为 null
+     */
+    public synchronized long getAlbumMusicCount(@NonNull String album) {
+        Preconditions.checkNotNull(album);
+        checkThread();
+
+        return mMusicBox.query()
+                .equal(Music_.album, album, QueryBuilder.StringOrder.CASE_SENSITIVE)
+                .build()
+                .count();
+    }
+
     @NonNull
     private synchronized MusicList getBuiltInMusicList(String name) {
         if (!isBuiltInName(name)) {
@@ -1013,12 +1806,12 @@ public class MusicStore {
                 .findUnique();
 
         if (entity != null) {
-            return new MusicList(entity);
+            return new MusicList(entity, mMusicListOrderPageBox);
         }
 
         entity = createBuiltInMusicList(name);
 
-        return new MusicList(entity);
+        return new MusicList(entity, mMusicListOrderPageBox);
     }
 
     private MusicListEntity createBuiltInMusicList(String name) {
@@ -1121,6 +1914,22 @@ public class MusicStore {
                 .find();
     }
 
+    /**
+     * 用于在 {@link MusicStore} 初始化完成后访问 {@link MusicStore}。
+     *
+     * @see #whenReady(OnReadyListener)
+     */
+    public interface OnReadyListener {
+        /**
+         * {@link MusicStore} 初始化完成时会调用该方法。
+         * <p>
+         * 该回调方法会在应用程序主线程调用，请不要直接在该方法中访问数据库。
+         *
+         * @param musicStore 已初始化完成的 {@link MusicStore} 对象
+         */
+        void onReady(@NonNull MusicStore musicStore);
+    }
+
     /**
      * 用于监听 “我喜欢” 歌单的修改事件。
      * <p>
@@ -0,0 +1,83 @@
+package snow.music.store;
+
+import android.os.Build;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.text.Collator;
+import java.util.Locale;
+
+/**
+ * 用于生成 {@link Music} 的排序键。
+ * <p>
+ * 排序键是字符串在中文（拼音）排序规则下的二进制排序键（已忽略大小写）的十六进制形式，因此只需直接比较两个排序键的
+ * 字符串大小即可得到与拼音排序一致的结果，避免在每次比较时将中文字符转换为拼音。
+ * <p>
+ * 排序规则会随系统（ICU）更新而改变，不同排序规则生成的排序键无法直接比较，因此每个排序键都需要与生成它时的
+ * {@link #getVersion() 版本} 一起保存，版本改变时需要重新生成所有的排序键。
+ */
+final class SortKeyHelper {
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+    // 排序键格式的版本，修改了排序键的生成方式（例如排序强度）时需要增加该值
+    private static final int KEY_FORMAT = 1;
+    private static final Collator COLLATOR;
+    private static final String VERSION;
+
+    static {
+        COLLATOR = Collator.getInstance(Locale.CHINA);
+        COLLATOR.setStrength(Collator.SECONDARY);
+        VERSION = KEY_FORMAT + ":" + getCollatorVersion();
+    }
+
+    private SortKeyHelper() {
+        throw new AssertionError();
+    }
+
+    /**
+     * 获取当前排序键的版本，由排序键的格式与系统排序规则的版本组成。
+     */
+    @NonNull
+    static String getVersion() {
+        return VERSION;
+    }
+
+    private static String getCollatorVersion() {
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.N) {
+            // java.text.Collator 与 android.icu.text.Collator 使用的是同一份 ICU 排序规则
+            return android.icu.text.Collator.getInstance(android.icu.util.ULocale.CHINA)
+                    .getVersion()
+                    .toString();
+        }
+
+        // 低版本系统无法获取排序规则的版本，只能在系统更新后重新生成排序键
+        return Build.FINGERPRINT;
+    }
+
+    /**
+     * 生成指定字符串的排序键。
+     *
+     * @param source 要生成排序键的字符串，为 null 时将返回空字符串
+     * @return 排序键，不为 null
+     */
+    @NonNull
+    static String getSortKey(@Nullable String source) {
+        if (source == null || source.isEmpty()) {
+            return "";
+        }
+
+        byte[] keyBytes;
+        synchronized (COLLATOR) {
+            keyBytes = COLLATOR.getCollationKey(source).toByteArray();
+        }
+
+        char[] hex = new char[keyBytes.length * 2];
+        for (int i = 0; i < keyBytes.length; i++) {
+            int value = keyBytes[i] & 0xFF;
+            hex[i * 2] = HEX_DIGITS[value >>> 4];
+            hex[i * 2 + 1] = HEX_DIGITS[value & 0x0F];
+        }
+
+        return new String(hex);
+    }
+}
@@ -10,8 +10,8 @@ import io.reactivex.Single;
 import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
 import snow.music.store.MusicStore;
+import snow.player.PlayerSchedulers;
 import snow.player.audio.MusicItem;
 
 /**
@@ -28,6 +28,8 @@ public class FavoriteObserver {
     private boolean mSubscribed;
     private final MusicStore.OnFavoriteChangeListener mFavoriteChangeListener;
     private Disposable mCheckFavoriteDisposable;
+    // MusicStore 可能尚未初始化完成，因此会在初始化完成后再添加监听器
+    private final MusicStore.OnReadyListener mSubscribeTask;
 
     /**
      * 创建一个 {@link FavoriteObserver} 对象。
@@ -39,6 +41,11 @@ public class FavoriteObserver {
         mListener = listener;
 
         mFavoriteChangeListener = this::checkMusicFavoriteState;
+        mSubscribeTask = musicStore -> {
+            if (mSubscribed) {
+                musicStore.addOnFavoriteChangeListener(mFavoriteChangeListener);
+            }
+        };
     }
 
     /**
@@ -83,7 +90,7 @@ public class FavoriteObserver {
         }
 
         mSubscribed = true;
-        MusicStore.getInstance().addOnFavoriteChangeListener(mFavoriteChangeListener);
+        MusicStore.whenReady(mSubscribeTask);
     }
 
     /**
@@ -92,7 +99,12 @@ public class FavoriteObserver {
     public void unsubscribe() {
         mSubscribed = false;
         disposeCheckFavorite();
-        MusicStore.getInstance().removeOnFavoriteChangeListener(mFavoriteChangeListener);
+
+        if (MusicStore.isReady()) {
+            MusicStore.getInstance().removeOnFavoriteChangeListener(mFavoriteChangeListener);
+        } else {
+            MusicStore.removeOnReadyListener(mSubscribeTask);
+        }
     }
 
     private synchronized void setFavorite(boolean favorite) {
@@ -123,7 +135,7 @@ public class FavoriteObserver {
             }
 
             emitter.onSuccess(result);
-        }).subscribeOn(Schedulers.io())
+        }).subscribeOn(PlayerSchedulers.getDefault().currentTrack())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(this::setFavorite);
     }
@@ -0,0 +1,39 @@
+plugins {
+    alias(libs.plugins.android.library)
+    alias(libs.plugins.androidx.benchmark)
+}
+
+// 运行：./gradlew :benchmark:connectedReleaseAndroidTest
+// 测试结果（JSON）会输出到 build/outputs/connected_android_test_additional_output 目录下
+android {
+    namespace = "snow.benchmark"
+
+    compileSdk = 36
+
+    defaultConfig {
+        minSdk = 23
+
+        testInstrumentationRunner = "androidx.benchmark.junit4.AndroidBenchmarkRunner"
+    }
+
+    testBuildType = "release"
+
+    buildTypes {
+        release {
+            isMinifyEnabled = false
+            isDefault = true
+        }
+    }
+
+    compileOptions {
+        sourceCompatibility = JavaVersion.VERSION_1_8
+        targetCompatibility = JavaVersion.VERSION_1_8
+    }
+}
+
+dependencies {
+    androidTestImplementation(project(path = ":player"))
+
+    androidTestImplementation(libs.androidx.junit)
+    androidTestImplementation(libs.androidx.benchmark.junit4)
+}
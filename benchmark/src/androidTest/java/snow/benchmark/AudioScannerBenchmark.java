@@ -0,0 +1,154 @@
+package snow.benchmark;
+
+import android.annotation.SuppressLint;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.os.Build;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import snow.player.util.AudioScanner;
+
+@RunWith(AndroidJUnit4.class)
+public class AudioScannerBenchmark {
+    // 一次查询的常见结果数量
+    private static final int CURSOR_SIZE = 5_000;
+
+    @SuppressLint("InlinedApi")
+    private static final String[] COLUMNS = new String[]{
+            MediaStore.MediaColumns._ID,
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.TITLE,
+            MediaStore.Audio.AudioColumns.ARTIST,
+            MediaStore.Audio.AudioColumns.ARTIST_ID,
+            MediaStore.Audio.AudioColumns.ALBUM,
+            MediaStore.Audio.AudioColumns.ALBUM_ID,
+            MediaStore.MediaColumns.MIME_TYPE,
+            MediaStore.MediaColumns.DURATION,
+            MediaStore.MediaColumns.DATE_ADDED,
+            MediaStore.MediaColumns.DATE_MODIFIED,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.Audio.AudioColumns.TRACK,
+            MediaStore.Audio.AudioColumns.YEAR,
+            MediaStore.Audio.AudioColumns.IS_ALARM,
+            MediaStore.Audio.AudioColumns.IS_AUDIOBOOK,
+            MediaStore.Audio.AudioColumns.IS_NOTIFICATION,
+            MediaStore.Audio.AudioColumns.IS_PODCAST,
+            MediaStore.Audio.AudioColumns.IS_RINGTONE
+    };
+
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    private MatrixCursor mCursor;
+
+    @Before
+    public void setUp() {
+        mCursor = new MatrixCursor(COLUMNS, CURSOR_SIZE);
+
+        for (int i = 0; i < CURSOR_SIZE; i++) {
+            mCursor.addRow(new Object[]{
+                    i + 1,
+                    "audio" + i + ".mp3",
+                    "title" + i,
+                    "artist" + (i % 100),
+                    i % 100,
+                    "album" + (i % 500),
+                    i % 500,
+                    "audio/mpeg",
+                    180_000 + i,
+                    1_600_000_000 + i,
+                    1_600_000_000 + i,
+                    4_096_000 + i,
+                    i % 20,
+                    2000 + (i % 20),
+                    0,
+                    0,
+                    0,
+                    i % 2,
+                    0
+            });
+        }
+    }
+
+    @After
+    public void tearDown() {
+        mCursor.close();
+    }
+
+    @Test
+    public void convert_getColumnIndex() {
+        AudioScanner.Converter<AudioScanner.AudioItem> converter = new LegacyAudioItemConverter();
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mCursor.moveToPosition(-1);
+            while (mCursor.moveToNext()) {
+                converter.convert(mCursor);
+            }
+        }
+    }
+
+    @Test
+    public void convert_cursorSchema() {
+        AudioScanner.AudioItemConverter converter = new AudioScanner.AudioItemConverter();
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            mCursor.moveToPosition(-1);
+            // 与 AudioScanner 一致：每次查询只解析一次列索引
+            AudioScanner.CursorSchema schema = new AudioScanner.CursorSchema(mCursor);
+            while (mCursor.moveToNext()) {
+                converter.convert(mCursor, schema);
+            }
+        }
+    }
+
+    /**
+     * 每一行数据都重新查找一次列索引的转换器，仅用于对比。
+     */
+    private static class LegacyAudioItemConverter implements AudioScanner.Converter<AudioScanner.AudioItem> {
+        @Nullable
+        @Override
+        public AudioScanner.AudioItem convert(@NonNull Cursor cursor) {
+            boolean audioBook = false;
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+                audioBook = AudioScanner.isAudioBook(cursor);
+            }
+
+            return new AudioScanner.AudioItem(
+                    AudioScanner.getId(cursor),
+                    AudioScanner.getDisplayName(cursor),
+                    AudioScanner.getTitle(cursor),
+                    AudioScanner.getArtist(cursor),
+                    AudioScanner.getArtistId(cursor),
+                    AudioScanner.getAlbum(cursor),
+                    AudioScanner.getAlbumId(cursor),
+                    AudioScanner.getMimeType(cursor),
+                    AudioScanner.getUri(cursor).toString(),
+                    AudioScanner.getDuration(cursor),
+                    AudioScanner.getDateAdded(cursor),
+                    AudioScanner.getDateModified(cursor),
+                    AudioScanner.getSize(cursor),
+                    AudioScanner.getTrack(cursor),
+                    AudioScanner.getYear(cursor),
+                    AudioScanner.isAlarm(cursor),
+                    audioBook,
+                    AudioScanner.isNotification(cursor),
+                    AudioScanner.isPodcast(cursor),
+                    AudioScanner.isRingtone(cursor)
+            );
+        }
+    }
+}
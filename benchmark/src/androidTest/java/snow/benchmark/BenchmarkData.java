@@ -0,0 +1,53 @@
+package snow.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import snow.player.audio.MusicItem;
+
+/**
+ * 用于生成基准测试数据。
+ */
+final class BenchmarkData {
+    /**
+     * 播放列表的常见大小。
+     */
+    static final int PLAYLIST_SIZE = 1000;
+
+    private BenchmarkData() {
+        throw new AssertionError();
+    }
+
+    static MusicItem createMusicItem(int id) {
+        return new MusicItem.Builder()
+                .setMusicId(String.valueOf(id))
+                .setTitle("title_" + id)
+                .setArtist("artist_" + (id % 50))
+                .setAlbum("album_" + (id % 200))
+                .setUri("/storage/emulated/0/Music/artist_" + (id % 50) + "/title_" + id + ".mp3")
+                .setIconUri("https://www.example.com/icon/" + id + ".jpg")
+                .setDuration(180_000 + id)
+                .build();
+    }
+
+    /**
+     * 创建一个包含 size 首歌曲的列表，其中每隔 repeatInterval 首歌曲会包含一首重复的歌曲。
+     */
+    static List<MusicItem> createMusicItems(int size, int repeatInterval) {
+        List<MusicItem> musicItems = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            if (repeatInterval > 0 && i > 0 && i % repeatInterval == 0) {
+                musicItems.add(createMusicItem(i - 1));
+            } else {
+                musicItems.add(createMusicItem(i));
+            }
+        }
+
+        return musicItems;
+    }
+
+    static List<MusicItem> createMusicItems(int size) {
+        return createMusicItems(size, 0);
+    }
+}
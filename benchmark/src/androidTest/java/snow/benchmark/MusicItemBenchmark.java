@@ -0,0 +1,58 @@
+package snow.benchmark;
+
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import snow.player.audio.MusicItem;
+
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class MusicItemBenchmark {
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void musicItem_equals() {
+        MusicItem musicItem = BenchmarkData.createMusicItem(1);
+        MusicItem other = new MusicItem(musicItem);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        boolean equals = false;
+        while (state.keepRunning()) {
+            equals = musicItem.equals(other);
+        }
+
+        assertTrue(equals);
+    }
+
+    @Test
+    public void musicItem_hashCode() {
+        MusicItem musicItem = BenchmarkData.createMusicItem(1);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            musicItem.hashCode();
+        }
+    }
+
+    @Test
+    public void musicItem_hashSet() {
+        List<MusicItem> musicItems = BenchmarkData.createMusicItems(BenchmarkData.PLAYLIST_SIZE);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            Set<MusicItem> set = new HashSet<>(musicItems.size() * 2);
+            set.addAll(musicItems);
+        }
+    }
+}
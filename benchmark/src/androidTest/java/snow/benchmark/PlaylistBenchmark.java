@@ -0,0 +1,91 @@
+package snow.benchmark;
+
+import androidx.annotation.NonNull;
+import androidx.benchmark.BenchmarkState;
+import androidx.benchmark.junit4.BenchmarkRule;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import snow.player.audio.MusicItem;
+import snow.player.playlist.Playlist;
+import snow.player.util.MovablePlaylist;
+import snow.player.util.MusicItemUtil;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class PlaylistBenchmark {
+    @Rule
+    public BenchmarkRule mBenchmarkRule = new BenchmarkRule();
+
+    @Test
+    public void createPlaylist() {
+        List<MusicItem> musicItems = BenchmarkData.createMusicItems(BenchmarkData.PLAYLIST_SIZE);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new Playlist("benchmark", musicItems, true, null);
+        }
+    }
+
+    @Test
+    public void createPlaylist_withRepeatItems() {
+        // 每 10 首歌曲包含 1 首重复的歌曲
+        List<MusicItem> musicItems = BenchmarkData.createMusicItems(BenchmarkData.PLAYLIST_SIZE, 10);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new Playlist("benchmark", musicItems, true, null);
+        }
+    }
+
+    @Test
+    public void createPlaylist_trim() {
+        List<MusicItem> musicItems = BenchmarkData.createMusicItems(Playlist.MAX_SIZE * 5);
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            new Playlist("benchmark", musicItems, musicItems.size() / 2, true, null);
+        }
+    }
+
+    @Test
+    public void generateToken() {
+        List<MusicItem> musicItems = BenchmarkData.createMusicItems(BenchmarkData.PLAYLIST_SIZE);
+        MusicItemUtil.GetUriFunction<MusicItem> function = new MusicItemUtil.GetUriFunction<MusicItem>() {
+            @NonNull
+            @Override
+            public String getUri(MusicItem item) {
+                return item.getUri();
+            }
+        };
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            MusicItemUtil.generateToken(musicItems, function);
+        }
+    }
+
+    @Test
+    public void movablePlaylist_move() {
+        Playlist playlist = new Playlist("benchmark",
+                BenchmarkData.createMusicItems(BenchmarkData.PLAYLIST_SIZE), true, null);
+        MovablePlaylist movablePlaylist = new MovablePlaylist(playlist, BenchmarkData.PLAYLIST_SIZE / 2);
+
+        int last = movablePlaylist.size() - 1;
+
+        BenchmarkState state = mBenchmarkRule.getState();
+        while (state.keepRunning()) {
+            // 往返移动，保证每次迭代的初始状态相同
+            movablePlaylist.move(0, last);
+            movablePlaylist.move(last, 0);
+        }
+
+        assertEquals(BenchmarkData.PLAYLIST_SIZE / 2, movablePlaylist.getPlayPosition());
+    }
+}
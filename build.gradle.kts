@@ -18,4 +18,5 @@ allprojects {
 plugins {
     alias(libs.plugins.android.application) apply false
     alias(libs.plugins.android.library) apply false
+    alias(libs.plugins.androidx.benchmark) apply false
 }
\ No newline at end of file
@@ -44,6 +44,7 @@ public class MainActivity extends AppCompatActivity {
     private boolean mStartScannerOnGranted;
 
     private ProgressBar mScannerProgress;
+    private TextView mTvPlaybackMetrics;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -58,6 +59,8 @@ public class MainActivity extends AppCompatActivity {
 
         mAudioScanner = new AudioScanner<>(this, new AudioScanner.AudioItemConverter());
         mScannerProgress = findViewById(R.id.scanner_progress);
+        mTvPlaybackMetrics = findViewById(R.id.tv_playback_metrics);
+        mTvPlaybackMetrics.setText(MyPlayerService.PLAYBACK_METRICS.getSummary());
 
         binding.btnStartAudioEffect.setOnClickListener(new View.OnClickListener() {
             @Override
@@ -185,6 +188,17 @@ public class MainActivity extends AppCompatActivity {
 
         if (id == R.id.btn_cancel_scanner) {
             mAudioScanner.cancel();
+            return;
+        }
+
+        if (id == R.id.btn_refresh_metrics) {
+            mTvPlaybackMetrics.setText(MyPlayerService.PLAYBACK_METRICS.getSummary());
+            return;
+        }
+
+        if (id == R.id.btn_reset_metrics) {
+            MyPlayerService.PLAYBACK_METRICS.reset();
+            mTvPlaybackMetrics.setText(MyPlayerService.PLAYBACK_METRICS.getSummary());
         }
     }
 
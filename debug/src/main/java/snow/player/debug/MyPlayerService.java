@@ -12,15 +12,20 @@ import snow.player.effect.AudioEffectManager;
 import snow.player.exo.ExoMusicPlayer;
 import snow.player.audio.MusicItem;
 import snow.player.audio.MusicPlayer;
+import snow.player.metrics.PlaybackMetricsAggregator;
 import snow.player.ui.equalizer.AndroidAudioEffectManager;
 
 public class MyPlayerService extends PlayerService {
+    // PlayerService 与 MainActivity 运行在同一个进程中，因此可以直接共享
+    static final PlaybackMetricsAggregator PLAYBACK_METRICS = new PlaybackMetricsAggregator();
+
     @Override
     public void onCreate() {
         super.onCreate();
 
         setMaxIDLETime(10);
         setIgnoreAudioFocus(false);
+        setPlaybackMetricsListener(PLAYBACK_METRICS);
     }
 
     @NonNull
@@ -17,6 +17,7 @@ import com.google.android.exoplayer2.MediaItem;
 import com.google.android.exoplayer2.PlaybackException;
 import com.google.android.exoplayer2.PlaybackParameters;
 import com.google.android.exoplayer2.Player;
+import com.google.android.exoplayer2.SeekParameters;
 import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.MediaSourceFactory;
 
@@ -26,7 +27,7 @@ import snow.player.audio.MusicPlayer;
 /**
  * 封装了一个 SimpleExoPlayer
  */
-public class ExoMusicPlayer implements MusicPlayer {
+public class ExoMusicPlayer implements MusicPlayer, MusicPlayer.FastSeekable {
     private static final String TAG = "ExoMusicPlayer";
 
     private ExoPlayer mExoPlayer;
@@ -54,6 +55,7 @@ public class ExoMusicPlayer implements MusicPlayer {
     private boolean mPlayerReady;
 
     private float mVolume = 1.0F;
+    private boolean mFastSeek;
 
     /**
      * 创建一个 {@link ExoMusicPlayer} 对象。
@@ -305,6 +307,21 @@ public class ExoMusicPlayer implements MusicPlayer {
 
     @Override
     public void seekTo(int pos) {
+        if (mFastSeek) {
+            mFastSeek = false;
+            mExoPlayer.setSeekParameters(SeekParameters.EXACT);
+        }
+
+        mExoPlayer.seekTo(pos);
+    }
+
+    @Override
+    public void fastSeekTo(int pos) {
+        if (!mFastSeek) {
+            mFastSeek = true;
+            mExoPlayer.setSeekParameters(SeekParameters.CLOSEST_SYNC);
+        }
+
         mExoPlayer.seekTo(pos);
     }
 
@@ -30,6 +30,11 @@ android {
         targetCompatibility = JavaVersion.VERSION_1_8
     }
 
+    testOptions {
+        // EqualizerAudioProcessor 的单元测试运行在 JVM 上，media3 的部分工具类会访问 android.os.Build
+        unitTests.isReturnDefaultValues = true
+    }
+
     publishing {
         singleVariant("release") {
             withSourcesJar()
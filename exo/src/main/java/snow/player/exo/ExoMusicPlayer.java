@@ -12,23 +12,29 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
 import androidx.annotation.OptIn;
+import androidx.media3.common.audio.AudioProcessor;
 import androidx.media3.common.util.UnstableApi;
+import androidx.media3.exoplayer.DefaultRenderersFactory;
 import androidx.media3.exoplayer.ExoPlaybackException;
 import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.SeekParameters;
 import androidx.media3.common.MediaItem;
 import androidx.media3.common.PlaybackException;
 import androidx.media3.common.PlaybackParameters;
 import androidx.media3.common.Player;
+import androidx.media3.exoplayer.audio.AudioSink;
+import androidx.media3.exoplayer.audio.DefaultAudioSink;
 import androidx.media3.exoplayer.source.MediaSource;
 import androidx.media3.exoplayer.source.MediaSourceFactory;
 
 import snow.player.audio.ErrorCode;
 import snow.player.audio.MusicPlayer;
+import snow.player.exo.effect.SoftwareEqualizer;
 
 /**
  * 封装了一个 SimpleExoPlayer
  */
-public class ExoMusicPlayer implements MusicPlayer {
+public class ExoMusicPlayer implements MusicPlayer, MusicPlayer.FastSeekable {
     private static final String TAG = "ExoMusicPlayer";
 
     private ExoPlayer mExoPlayer;
@@ -56,6 +62,7 @@ public class ExoMusicPlayer implements MusicPlayer {
     private boolean mPlayerReady;
 
     private float mVolume = 1.0F;
+    private boolean mFastSeek;
 
     /**
      * 创建一个 {@link ExoMusicPlayer} 对象。
@@ -79,10 +86,27 @@ public class ExoMusicPlayer implements MusicPlayer {
      */
     @OptIn(markerClass = UnstableApi.class)
     public ExoMusicPlayer(@NonNull Context context, @NonNull MediaSource.Factory mediaSourceFactory, @NonNull Uri uri) {
+        this(context, mediaSourceFactory, MediaItem.fromUri(uri), null);
+    }
+
+    /**
+     * 创建一个使用软件均衡器的 {@link ExoMusicPlayer} 对象。
+     *
+     * @param context            Context 对象，不能为 null
+     * @param mediaSourceFactory MediaSourceFactory 对象，为 null 时使用默认的 MediaSourceFactory
+     * @param mediaItem          要播放的 MediaItem，不能为 null
+     * @param softwareEqualizer  软件均衡器，为 null 时不使用软件均衡器
+     * @see snow.player.exo.effect.SoftwareAudioEffectManager
+     */
+    @OptIn(markerClass = UnstableApi.class)
+    public ExoMusicPlayer(@NonNull Context context,
+                          @Nullable MediaSource.Factory mediaSourceFactory,
+                          @NonNull MediaItem mediaItem,
+                          @Nullable SoftwareEqualizer softwareEqualizer) {
         initEventListener();
-        initExoPlayer(context, mediaSourceFactory);
+        initExoPlayer(context, mediaSourceFactory, softwareEqualizer);
 
-        mExoPlayer.setMediaItem(MediaItem.fromUri(uri));
+        mExoPlayer.setMediaItem(mediaItem);
     }
 
     /**
@@ -104,10 +128,7 @@ public class ExoMusicPlayer implements MusicPlayer {
      */
     @OptIn(markerClass = UnstableApi.class)
     public ExoMusicPlayer(@NonNull Context context, @NonNull MediaItem mediaItem) {
-        initEventListener();
-        initExoPlayer(context, null);
-
-        mExoPlayer.setMediaItem(mediaItem);
+        this(context, null, mediaItem, null);
     }
 
     private void initEventListener() {
@@ -216,7 +237,9 @@ public class ExoMusicPlayer implements MusicPlayer {
     }
 
     @OptIn(markerClass = UnstableApi.class)
-    private void initExoPlayer(Context context, @Nullable MediaSource.Factory mediaSourceFactory) {
+    private void initExoPlayer(Context context,
+                               @Nullable MediaSource.Factory mediaSourceFactory,
+                               @Nullable SoftwareEqualizer softwareEqualizer) {
         ExoPlayer.Builder builder = new ExoPlayer.Builder(context)
                 .setWakeMode(WAKE_MODE_NETWORK)
                 .setLooper(Looper.getMainLooper());
@@ -225,10 +248,31 @@ public class ExoMusicPlayer implements MusicPlayer {
             builder.setMediaSourceFactory(mediaSourceFactory);
         }
 
+        if (softwareEqualizer != null) {
+            builder.setRenderersFactory(createRenderersFactory(context, softwareEqualizer));
+        }
+
         mExoPlayer = builder.build();
         mExoPlayer.addListener(mEventListener);
     }
 
+    @OptIn(markerClass = UnstableApi.class)
+    private static DefaultRenderersFactory createRenderersFactory(Context context,
+                                                                  final SoftwareEqualizer softwareEqualizer) {
+        return new DefaultRenderersFactory(context) {
+            @Override
+            protected AudioSink buildAudioSink(@NonNull Context context,
+                                               boolean enableFloatOutput,
+                                               boolean enableAudioTrackPlaybackParams) {
+                return new DefaultAudioSink.Builder(context)
+                        .setEnableFloatOutput(enableFloatOutput)
+                        .setEnableAudioTrackPlaybackParams(enableAudioTrackPlaybackParams)
+                        .setAudioProcessors(new AudioProcessor[]{softwareEqualizer.createAudioProcessor()})
+                        .build();
+            }
+        };
+    }
+
     private void notifyPrepared() {
         if (mPreparing && isPrepared()) {
             mPreparing = false;
@@ -327,8 +371,25 @@ public class ExoMusicPlayer implements MusicPlayer {
         mExoPlayer.release();
     }
 
+    @OptIn(markerClass = UnstableApi.class)
     @Override
     public void seekTo(int pos) {
+        if (mFastSeek) {
+            mFastSeek = false;
+            mExoPlayer.setSeekParameters(SeekParameters.EXACT);
+        }
+
+        mExoPlayer.seekTo(pos);
+    }
+
+    @OptIn(markerClass = UnstableApi.class)
+    @Override
+    public void fastSeekTo(int pos) {
+        if (!mFastSeek) {
+            mFastSeek = true;
+            mExoPlayer.setSeekParameters(SeekParameters.CLOSEST_SYNC);
+        }
+
         mExoPlayer.seekTo(pos);
     }
 
@@ -0,0 +1,164 @@
+package snow.player.exo.effect;
+
+/**
+ * 二阶 IIR 滤波器（biquad），系数的计算方式参考 RBJ Audio EQ Cookbook。
+ * <p>
+ * 使用转置直接 II 型结构，每个声道独立保存两个状态值，状态数组会在创建时预先分配，处理采样时不会创建任何对象。
+ * <p>
+ * 该类不是线程安全的。
+ */
+final class BiquadFilter {
+    private double mB0 = 1;
+    private double mB1;
+    private double mB2;
+    private double mA1;
+    private double mA2;
+
+    private boolean mBypass = true;
+
+    private final double[] mZ1;
+    private final double[] mZ2;
+
+    /**
+     * 创建一个 {@link BiquadFilter} 对象，默认不会对信号做任何处理。
+     *
+     * @param channelCount 声道数
+     */
+    BiquadFilter(int channelCount) {
+        mZ1 = new double[channelCount];
+        mZ2 = new double[channelCount];
+    }
+
+    int getChannelCount() {
+        return mZ1.length;
+    }
+
+    /**
+     * 滤波器的增益是否为 0dB，如果是，则可以跳过该滤波器。
+     */
+    boolean isBypass() {
+        return mBypass;
+    }
+
+    /**
+     * 将滤波器设置为峰值均衡器（peaking EQ）。
+     *
+     * @param sampleRate 采样率
+     * @param frequency  中心频率（单位：Hz）
+     * @param q          品质因数
+     * @param gainDb     增益（单位：dB）
+     */
+    void setPeaking(int sampleRate, double frequency, double q, double gainDb) {
+        if (gainDb == 0) {
+            setBypass();
+            return;
+        }
+
+        double a = Math.pow(10, gainDb / 40);
+        double w0 = 2 * Math.PI * clampFrequency(sampleRate, frequency) / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / (2 * q);
+
+        double a0 = 1 + alpha / a;
+        setCoefficients(
+                (1 + alpha * a) / a0,
+                (-2 * cos) / a0,
+                (1 - alpha * a) / a0,
+                (-2 * cos) / a0,
+                (1 - alpha / a) / a0);
+    }
+
+    /**
+     * 将滤波器设置为低频搁架滤波器（low shelf），斜率为 1。
+     *
+     * @param sampleRate 采样率
+     * @param frequency  转折频率（单位：Hz）
+     * @param gainDb     增益（单位：dB）
+     */
+    void setLowShelf(int sampleRate, double frequency, double gainDb) {
+        if (gainDb == 0) {
+            setBypass();
+            return;
+        }
+
+        double a = Math.pow(10, gainDb / 40);
+        double w0 = 2 * Math.PI * clampFrequency(sampleRate, frequency) / sampleRate;
+        double cos = Math.cos(w0);
+        double alpha = Math.sin(w0) / 2 * Math.sqrt(2);
+        double beta = 2 * Math.sqrt(a) * alpha;
+
+        double a0 = (a + 1) + (a - 1) * cos + beta;
+        setCoefficients(
+                a * ((a + 1) - (a - 1) * cos + beta) / a0,
+                2 * a * ((a - 1) - (a + 1) * cos) / a0,
+                a * ((a + 1) - (a - 1) * cos - beta) / a0,
+                -2 * ((a - 1) + (a + 1) * cos) / a0,
+                ((a + 1) + (a - 1) * cos - beta) / a0);
+    }
+
+    private void setBypass() {
+        setCoefficients(1, 0, 0, 0, 0);
+        mBypass = true;
+    }
+
+    private void setCoefficients(double b0, double b1, double b2, double a1, double a2) {
+        // 只修改系数，保留状态值，以避免调节增益时产生爆音
+        mB0 = b0;
+        mB1 = b1;
+        mB2 = b2;
+        mA1 = a1;
+        mA2 = a2;
+        mBypass = false;
+    }
+
+    private static double clampFrequency(int sampleRate, double frequency) {
+        // 中心频率必须低于奈奎斯特频率
+        return Math.min(frequency, sampleRate * 0.45);
+    }
+
+    /**
+     * 获取滤波器在指定频率处的幅度响应（线性值，1 表示 0dB）。
+     *
+     * @param sampleRate 采样率
+     * @param frequency  频率（单位：Hz）
+     */
+    double getMagnitude(int sampleRate, double frequency) {
+        if (mBypass) {
+            return 1;
+        }
+
+        double w = 2 * Math.PI * frequency / sampleRate;
+        double cos1 = Math.cos(w);
+        double sin1 = Math.sin(w);
+        double cos2 = Math.cos(2 * w);
+        double sin2 = Math.sin(2 * w);
+
+        double numeratorRe = mB0 + mB1 * cos1 + mB2 * cos2;
+        double numeratorIm = mB1 * sin1 + mB2 * sin2;
+        double denominatorRe = 1 + mA1 * cos1 + mA2 * cos2;
+        double denominatorIm = mA1 * sin1 + mA2 * sin2;
+
+        return Math.sqrt((numeratorRe * numeratorRe + numeratorIm * numeratorIm)
+                / (denominatorRe * denominatorRe + denominatorIm * denominatorIm));
+    }
+
+    /**
+     * 处理指定声道的一个采样。
+     */
+    double process(double x, int channel) {
+        double y = mB0 * x + mZ1[channel];
+        mZ1[channel] = mB1 * x - mA1 * y + mZ2[channel];
+        mZ2[channel] = mB2 * x - mA2 * y;
+        return y;
+    }
+
+    /**
+     * 清空所有声道的状态值。
+     */
+    void reset() {
+        for (int i = 0; i < mZ1.length; i++) {
+            mZ1[i] = 0;
+            mZ2[i] = 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package snow.player.exo.effect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media3.common.C;
+import androidx.media3.common.audio.BaseAudioProcessor;
+import androidx.media3.common.util.UnstableApi;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 由多个级联的 biquad 滤波器组成的参数均衡器与低音增强。
+ * <p>
+ * 支持 16 位整数与 32 位浮点 PCM，输出格式与输入格式一致。滤波器与输出缓冲区只会在音频格式或者频段数量改变时分配，
+ * 处理音频时不会创建任何对象。
+ * <p>
+ * 为了避免提升增益后削波，滤波前会先衰减信号，衰减量等于所有滤波器级联后的最大增益（即预留与最大提升量相同的余量），
+ * 因此提升某个频段相当于衰减其他频段，响应曲线的形状保持不变。
+ * <p>
+ * 请使用 {@link SoftwareEqualizer#createAudioProcessor()} 方法创建该类的对象。
+ */
+@UnstableApi
+public final class EqualizerAudioProcessor extends BaseAudioProcessor {
+    /**
+     * 各个频段的峰值均衡器的品质因数。
+     */
+    private static final double BAND_Q = 1.0;
+
+    // 计算最大增益时，在 20Hz 到 20kHz 之间按对数均匀采样的频率点数量
+    private static final int RESPONSE_POINTS = 128;
+    private static final double MIN_RESPONSE_FREQUENCY = 20;
+    private static final double MAX_RESPONSE_FREQUENCY = 20000;
+
+    private static final BiquadFilter[] EMPTY = new BiquadFilter[0];
+
+    private final SoftwareEqualizer mSoftwareEqualizer;
+
+    @Nullable
+    private SoftwareEqualizer.Parameters mAppliedParameters;
+    // 前面的是各个频段的滤波器，最后一个是低音增强的滤波器
+    private BiquadFilter[] mFilters;
+    // 滤波前的衰减量（线性值），用于预留余量
+    private double mPreGain;
+    private boolean mBypass;
+
+    EqualizerAudioProcessor(@NonNull SoftwareEqualizer softwareEqualizer) {
+        mSoftwareEqualizer = softwareEqualizer;
+        mFilters = EMPTY;
+        mPreGain = 1;
+        mBypass = true;
+    }
+
+    @NonNull
+    @Override
+    protected AudioFormat onConfigure(@NonNull AudioFormat inputAudioFormat) throws UnhandledAudioFormatException {
+        if (inputAudioFormat.encoding != C.ENCODING_PCM_16BIT && inputAudioFormat.encoding != C.ENCODING_PCM_FLOAT) {
+            throw new UnhandledAudioFormatException(inputAudioFormat);
+        }
+
+        return inputAudioFormat;
+    }
+
+    @Override
+    public void queueInput(@NonNull ByteBuffer inputBuffer) {
+        int remaining = inputBuffer.remaining();
+        if (remaining == 0) {
+            return;
+        }
+
+        updateFiltersIfNeeded();
+
+        ByteBuffer outputBuffer = replaceOutputBuffer(remaining);
+        if (mBypass) {
+            outputBuffer.put(inputBuffer);
+        } else if (inputAudioFormat.encoding == C.ENCODING_PCM_16BIT) {
+            processPcm16(inputBuffer, outputBuffer);
+        } else {
+            processPcmFloat(inputBuffer, outputBuffer);
+        }
+        outputBuffer.flip();
+    }
+
+    private void updateFiltersIfNeeded() {
+        SoftwareEqualizer.Parameters parameters = mSoftwareEqualizer.getParameters();
+        if (parameters == mAppliedParameters) {
+            return;
+        }
+
+        mAppliedParameters = parameters;
+        mBypass = parameters.isBypass();
+
+        int channelCount = inputAudioFormat.channelCount;
+        int filterCount = parameters.mBandGains.length + 1;
+        if (mFilters.length != filterCount) {
+            // 只有频段数量改变时才需要重新分配
+            mFilters = new BiquadFilter[filterCount];
+            for (int i = 0; i < filterCount; i++) {
+                mFilters[i] = new BiquadFilter(channelCount);
+            }
+        }
+
+        int sampleRate = inputAudioFormat.sampleRate;
+        int bandCount = parameters.mBandGains.length;
+        for (int band = 0; band < bandCount; band++) {
+            mFilters[band].setPeaking(sampleRate,
+                    parameters.mBandFrequencies[band],
+                    BAND_Q,
+                    parameters.mBandGains[band]);
+        }
+
+        mFilters[bandCount].setLowShelf(sampleRate, SoftwareEqualizer.BASS_BOOST_FREQUENCY, parameters.mBassGain);
+
+        mPreGain = 1 / Math.max(1, getMaxMagnitude(sampleRate, parameters.mBandFrequencies));
+    }
+
+    // 所有滤波器级联后的最大增益（线性值），只在参数改变时计算
+    private double getMaxMagnitude(int sampleRate, float[] bandFrequencies) {
+        double maxFrequency = Math.min(MAX_RESPONSE_FREQUENCY, sampleRate * 0.45);
+        double max = 0;
+
+        for (int i = 0; i < RESPONSE_POINTS; i++) {
+            double frequency = MIN_RESPONSE_FREQUENCY
+                    * Math.pow(maxFrequency / MIN_RESPONSE_FREQUENCY, i * 1.0 / (RESPONSE_POINTS - 1));
+            max = Math.max(max, getMagnitude(sampleRate, frequency));
+        }
+
+        // 峰值均衡器的最大增益位于中心频率处
+        for (float frequency : bandFrequencies) {
+            if (frequency < maxFrequency) {
+                max = Math.max(max, getMagnitude(sampleRate, frequency));
+            }
+        }
+
+        return max;
+    }
+
+    private double getMagnitude(int sampleRate, double frequency) {
+        double magnitude = 1;
+        for (BiquadFilter filter : mFilters) {
+            magnitude *= filter.getMagnitude(sampleRate, frequency);
+        }
+        return magnitude;
+    }
+
+    private void processPcm16(ByteBuffer inputBuffer, ByteBuffer outputBuffer) {
+        int channelCount = inputAudioFormat.channelCount;
+
+        while (inputBuffer.hasRemaining()) {
+            for (int channel = 0; channel < channelCount; channel++) {
+                double sample = applyFilters(inputBuffer.getShort() / 32768.0, channel);
+                outputBuffer.putShort((short) Math.round(clamp(sample) * 32767));
+            }
+        }
+    }
+
+    private void processPcmFloat(ByteBuffer inputBuffer, ByteBuffer outputBuffer) {
+        int channelCount = inputAudioFormat.channelCount;
+
+        while (inputBuffer.hasRemaining()) {
+            for (int channel = 0; channel < channelCount; channel++) {
+                double sample = applyFilters(inputBuffer.getFloat(), channel);
+                outputBuffer.putFloat((float) clamp(sample));
+            }
+        }
+    }
+
+    private double applyFilters(double sample, int channel) {
+        sample *= mPreGain;
+        for (BiquadFilter filter : mFilters) {
+            if (!filter.isBypass()) {
+                sample = filter.process(sample, channel);
+            }
+        }
+        return sample;
+    }
+
+    private static double clamp(double sample) {
+        return Math.max(-1.0, Math.min(sample, 1.0));
+    }
+
+    @Override
+    protected void onFlush() {
+        if (mFilters.length > 0 && mFilters[0].getChannelCount() != inputAudioFormat.channelCount) {
+            mFilters = EMPTY;
+        }
+
+        for (BiquadFilter filter : mFilters) {
+            filter.reset();
+        }
+
+        // 采样率可能已改变，需要重新计算滤波器的系数
+        mAppliedParameters = null;
+    }
+
+    @Override
+    protected void onReset() {
+        mFilters = EMPTY;
+        mAppliedParameters = null;
+        mPreGain = 1;
+        mBypass = true;
+    }
+}
@@ -0,0 +1,176 @@
+package snow.player.exo.effect;
+
+import android.os.Bundle;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.Objects;
+
+import snow.player.effect.AudioEffectManager;
+
+/**
+ * 使用 {@link SoftwareEqualizer} 实现的音频特效管理器。
+ * <p>
+ * 与 {@code AndroidAudioEffectManager} 使用相同格式的配置（均衡器与低音增强的 {@code Settings} 字符串），
+ * 因此可以直接配合 {@code EqualizerActivity} 使用。环绕声（Virtualizer）不受支持，会被忽略。
+ * <p>
+ * 使用方法：
+ * <ol>
+ *     <li>创建一个 {@link SoftwareEqualizer} 对象，并在 {@code PlayerService} 的
+ *     {@code onCreateAudioEffectManager()} 方法中返回一个使用该对象的 {@link SoftwareAudioEffectManager}；</li>
+ *     <li>在创建 {@link snow.player.exo.ExoMusicPlayer} 时传入同一个 {@link SoftwareEqualizer} 对象。</li>
+ * </ol>
+ * <p>
+ * 由于软件均衡器直接处理解码后的 PCM 数据，因此在 {@code audio session id} 改变时不需要重新创建任何对象。
+ */
+public class SoftwareAudioEffectManager implements AudioEffectManager {
+    // 与 AndroidAudioEffectConfigUtil 中的 key 保持一致
+    private static final String KEY_SETTING_EQUALIZER = "setting_equalizer";
+    private static final String KEY_SETTING_BASS_BOOST = "setting_bass_boost";
+    private static final String KEY_TAKE_CONTROL = "take_control";
+    private static final String KEY_EQUALIZER_CENTER_FREQ = "equalizer_center_freq";
+
+    private final SoftwareEqualizer mSoftwareEqualizer;
+
+    private boolean mAttached;
+    private boolean mTakeControl;
+
+    /**
+     * 创建一个 {@link SoftwareAudioEffectManager} 对象。
+     *
+     * @param softwareEqualizer 要管理的软件均衡器，不能为 null
+     */
+    public SoftwareAudioEffectManager(@NonNull SoftwareEqualizer softwareEqualizer) {
+        mSoftwareEqualizer = Objects.requireNonNull(softwareEqualizer);
+    }
+
+    @Override
+    public void init(@NonNull Bundle config) {
+        applyConfig(config);
+    }
+
+    @Override
+    public void updateConfig(@NonNull Bundle config) {
+        applyConfig(config);
+    }
+
+    private void applyConfig(Bundle config) {
+        // UI 端获取控制权时会使用 Android 平台的音频特效实时预览，此时需要跳过软件均衡器，以免效果叠加
+        mTakeControl = config.getBoolean(KEY_TAKE_CONTROL, false);
+
+        short[] bandLevels = parseBandLevels(config.getString(KEY_SETTING_EQUALIZER));
+        if (bandLevels != null) {
+            // 使用 UI 端 Equalizer 的中心频率，使软件均衡器的频段与 UI 显示的频段一致
+            float[] centerFrequencies = parseCenterFrequencies(config.getIntArray(KEY_EQUALIZER_CENTER_FREQ),
+                    bandLevels.length);
+            mSoftwareEqualizer.setBandLevels(bandLevels, centerFrequencies);
+        }
+
+        mSoftwareEqualizer.setBassBoostStrength(parseBassBoostStrength(config.getString(KEY_SETTING_BASS_BOOST)));
+        updateEnabled();
+    }
+
+    @Override
+    public void attachAudioEffect(int audioSessionId) {
+        mAttached = true;
+        updateEnabled();
+    }
+
+    @Override
+    public void detachAudioEffect() {
+        mAttached = false;
+        updateEnabled();
+    }
+
+    @Override
+    public void release() {
+        mAttached = false;
+        updateEnabled();
+    }
+
+    private void updateEnabled() {
+        mSoftwareEqualizer.setEnabled(mAttached && !mTakeControl);
+    }
+
+    /**
+     * 解析 {@code Equalizer.Settings} 字符串中各个频段的增益。
+     * <p>
+     * 字符串格式为：{@code Equalizer;curPreset=-1;numBands=5;band1Level=300;band2Level=0;...}
+     *
+     * @return 各个频段的增益（单位：毫贝），如果字符串无效，则返回 null
+     */
+    @Nullable
+    static short[] parseBandLevels(@Nullable String settings) {
+        if (settings == null || !settings.startsWith("Equalizer;")) {
+            return null;
+        }
+
+        String[] fields = settings.split(";");
+        try {
+            int numBands = Integer.parseInt(getValue(fields, "numBands"));
+            if (numBands < 0) {
+                return null;
+            }
+
+            short[] bandLevels = new short[numBands];
+            for (int i = 0; i < numBands; i++) {
+                bandLevels[i] = Short.parseShort(getValue(fields, "band" + (i + 1) + "Level"));
+            }
+            return bandLevels;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 将 UI 端 Equalizer 的中心频率（单位：毫赫兹）转换为软件均衡器的中心频率（单位：Hz）。
+     *
+     * @return 各个频段的中心频率，如果 centerFreqs 为 null 或者长度与频段数量不同，则返回 null
+     */
+    @Nullable
+    static float[] parseCenterFrequencies(@Nullable int[] centerFreqs, int numBands) {
+        if (centerFreqs == null || centerFreqs.length != numBands) {
+            return null;
+        }
+
+        float[] frequencies = new float[numBands];
+        for (int i = 0; i < numBands; i++) {
+            if (centerFreqs[i] <= 0) {
+                return null;
+            }
+            frequencies[i] = centerFreqs[i] / 1000F;
+        }
+        return frequencies;
+    }
+
+    /**
+     * 解析 {@code BassBoost.Settings} 字符串中的强度。
+     * <p>
+     * 字符串格式为：{@code BassBoost;strength=500}
+     *
+     * @return 低音增强的强度，如果字符串无效，则返回 0
+     */
+    static short parseBassBoostStrength(@Nullable String settings) {
+        if (settings == null || !settings.startsWith("BassBoost;")) {
+            return 0;
+        }
+
+        try {
+            return Short.parseShort(getValue(settings.split(";"), "strength"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String getValue(String[] fields, String key) {
+        String prefix = key + "=";
+        for (String field : fields) {
+            if (field.startsWith(prefix)) {
+                return field.substring(prefix.length());
+            }
+        }
+
+        throw new NumberFormatException("missing " + key);
+    }
+}
@@ -0,0 +1,169 @@
+package snow.player.exo.effect;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+
+/**
+ * 软件均衡器。
+ * <p>
+ * 用于保存软件均衡器的参数，并创建使用这些参数的 {@link EqualizerAudioProcessor}。与 Android 平台的
+ * {@code Equalizer} 不同，软件均衡器的频段数量与效果不依赖于设备，并且不需要在 {@code audio session id}
+ * 改变时重新创建。
+ * <p>
+ * 参数可以在任意线程中修改，修改后会在 {@link EqualizerAudioProcessor} 处理下一个音频缓冲区时生效。
+ *
+ * @see SoftwareAudioEffectManager
+ */
+public final class SoftwareEqualizer {
+    /**
+     * 低音增强强度为最大值（1000）时的增益（单位：dB）。
+     */
+    public static final float MAX_BASS_BOOST_GAIN = 12;
+
+    /**
+     * 低音增强的转折频率（单位：Hz）。
+     */
+    public static final float BASS_BOOST_FREQUENCY = 100;
+
+    // 与 Android 平台默认的 5 个频段的中心频率保持一致
+    private static final float[] DEFAULT_CENTER_FREQUENCIES = new float[]{60, 230, 910, 3600, 14000};
+
+    private volatile Parameters mParameters;
+
+    public SoftwareEqualizer() {
+        mParameters = new Parameters(false, new float[0], new float[0], 0);
+    }
+
+    /**
+     * 设置是否启用软件均衡器。
+     */
+    public synchronized void setEnabled(boolean enabled) {
+        Parameters p = mParameters;
+        mParameters = new Parameters(enabled, p.mBandFrequencies, p.mBandGains, p.mBassGain);
+    }
+
+    /**
+     * 设置所有频段的增益。
+     * <p>
+     * 频段的中心频率会根据频段数量自动确定，详见 {@link #getCenterFrequencies(int)}。
+     *
+     * @param bandLevels 所有频段的增益（单位：毫贝，与 Android 平台的 {@code Equalizer} 一致），不能为 null
+     */
+    public void setBandLevels(@NonNull short[] bandLevels) {
+        setBandLevels(bandLevels, null);
+    }
+
+    /**
+     * 设置所有频段的增益与中心频率。
+     *
+     * @param bandLevels        所有频段的增益（单位：毫贝，与 Android 平台的 {@code Equalizer} 一致），不能为 null
+     * @param centerFrequencies 所有频段的中心频率（单位：Hz），通常与 UI 显示的频段一致；如果为 null 或者长度与
+     *                          bandLevels 不同，则会根据频段数量自动确定，详见 {@link #getCenterFrequencies(int)}
+     */
+    public synchronized void setBandLevels(@NonNull short[] bandLevels, @Nullable float[] centerFrequencies) {
+        float[] gains = new float[bandLevels.length];
+        for (int i = 0; i < bandLevels.length; i++) {
+            gains[i] = bandLevels[i] / 100F;
+        }
+
+        float[] frequencies;
+        if (centerFrequencies != null && centerFrequencies.length == bandLevels.length) {
+            frequencies = centerFrequencies.clone();
+        } else {
+            frequencies = getCenterFrequencies(bandLevels.length);
+        }
+
+        Parameters p = mParameters;
+        mParameters = new Parameters(p.mEnabled, frequencies, gains, p.mBassGain);
+    }
+
+    /**
+     * 设置低音增强的强度。
+     *
+     * @param strength 低音增强的强度，范围为 [0, 1000]（与 Android 平台的 {@code BassBoost} 一致）
+     */
+    public synchronized void setBassBoostStrength(short strength) {
+        int value = Math.max(0, Math.min(strength, 1000));
+
+        Parameters p = mParameters;
+        mParameters = new Parameters(p.mEnabled, p.mBandFrequencies, p.mBandGains, MAX_BASS_BOOST_GAIN * value / 1000);
+    }
+
+    @NonNull
+    Parameters getParameters() {
+        return mParameters;
+    }
+
+    /**
+     * 创建一个使用当前软件均衡器参数的 {@link EqualizerAudioProcessor}。
+     * <p>
+     * 每个 ExoPlayer 都应该使用一个单独的 {@link EqualizerAudioProcessor}。
+     */
+    @OptIn(markerClass = UnstableApi.class)
+    @NonNull
+    public EqualizerAudioProcessor createAudioProcessor() {
+        return new EqualizerAudioProcessor(this);
+    }
+
+    /**
+     * 获取指定频段数量时各个频段的中心频率（单位：Hz）。
+     * <p>
+     * 如果频段数量为 5，则使用与 Android 平台默认一致的中心频率，否则在 60Hz 到 14kHz 之间按对数均匀分布。
+     */
+    @NonNull
+    public static float[] getCenterFrequencies(int numberOfBands) {
+        if (numberOfBands == DEFAULT_CENTER_FREQUENCIES.length) {
+            return DEFAULT_CENTER_FREQUENCIES.clone();
+        }
+
+        float[] frequencies = new float[numberOfBands];
+        if (numberOfBands == 1) {
+            frequencies[0] = DEFAULT_CENTER_FREQUENCIES[2];
+            return frequencies;
+        }
+
+        float min = DEFAULT_CENTER_FREQUENCIES[0];
+        float max = DEFAULT_CENTER_FREQUENCIES[DEFAULT_CENTER_FREQUENCIES.length - 1];
+        for (int i = 0; i < numberOfBands; i++) {
+            frequencies[i] = (float) (min * Math.pow(max / min, i * 1.0 / (numberOfBands - 1)));
+        }
+
+        return frequencies;
+    }
+
+    /**
+     * 软件均衡器的参数（不可变）。
+     */
+    static final class Parameters {
+        final boolean mEnabled;
+        final float[] mBandFrequencies;
+        final float[] mBandGains;
+        final float mBassGain;
+
+        Parameters(boolean enabled, float[] bandFrequencies, float[] bandGains, float bassGain) {
+            mEnabled = enabled;
+            mBandFrequencies = bandFrequencies;
+            mBandGains = bandGains;
+            mBassGain = bassGain;
+        }
+
+        /**
+         * 是否不需要对音频做任何处理。
+         */
+        boolean isBypass() {
+            if (!mEnabled) {
+                return true;
+            }
+
+            for (float gain : mBandGains) {
+                if (gain != 0) {
+                    return false;
+                }
+            }
+
+            return mBassGain == 0;
+        }
+    }
+}
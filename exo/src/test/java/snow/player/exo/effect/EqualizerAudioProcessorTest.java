@@ -0,0 +1,257 @@
+package snow.player.exo.effect;
+
+import androidx.media3.common.C;
+import androidx.media3.common.audio.AudioProcessor;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class EqualizerAudioProcessorTest {
+    private static final int SAMPLE_RATE = 44100;
+    private static final int CHANNEL_COUNT = 2;
+    private static final int FRAME_COUNT = SAMPLE_RATE / 2;
+
+    private SoftwareEqualizer mSoftwareEqualizer;
+    private EqualizerAudioProcessor mAudioProcessor;
+
+    @Before
+    public void setUp() throws AudioProcessor.UnhandledAudioFormatException {
+        mSoftwareEqualizer = new SoftwareEqualizer();
+        mAudioProcessor = mSoftwareEqualizer.createAudioProcessor();
+
+        mAudioProcessor.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNEL_COUNT, C.ENCODING_PCM_16BIT));
+        mAudioProcessor.flush();
+    }
+
+    @Test(expected = AudioProcessor.UnhandledAudioFormatException.class)
+    public void unsupportedEncoding() throws AudioProcessor.UnhandledAudioFormatException {
+        mSoftwareEqualizer.createAudioProcessor()
+                .configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNEL_COUNT, C.ENCODING_PCM_24BIT));
+    }
+
+    @Test
+    public void bypassWhenDisabled() {
+        mSoftwareEqualizer.setBandLevels(new short[]{1200, 1200, 1200, 1200, 1200});
+
+        ByteBuffer output = process(createSinePcm16(1000, 0.25));
+
+        assertEquals(createSinePcm16(1000, 0.25), output);
+    }
+
+    @Test
+    public void bypassWhenFlat() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[5]);
+
+        ByteBuffer output = process(createSinePcm16(1000, 0.25));
+
+        assertEquals(createSinePcm16(1000, 0.25), output);
+    }
+
+    @Test
+    public void peakingBoostsCenterFrequency() {
+        mSoftwareEqualizer.setEnabled(true);
+        // 910Hz 的频段提升 6dB
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 0, 600, 0, 0});
+
+        double centerGain = gain(910);
+        double distantGain = gain(8000);
+
+        // 6dB 约为 2 倍
+        assertEquals(2.0, centerGain / distantGain, 0.15);
+    }
+
+    @Test
+    public void peakingKeepsDistantFrequency() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{600, 0, 0, 0, 0});
+
+        // 远离中心频率的信号只会被预留的余量（6dB，约 0.5 倍）衰减
+        assertEquals(0.5, gain(8000), 0.05);
+    }
+
+    @Test
+    public void bassBoostOnlyAffectsLowFrequency() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBassBoostStrength((short) 1000);
+
+        double lowGain = gain(30);
+        double highGain = gain(5000);
+
+        // 最大增益为 12dB（约 4 倍），高频只会被预留的余量衰减
+        assertTrue(lowGain / highGain > 2.5);
+        assertEquals(0.25, highGain, 0.05);
+    }
+
+    @Test
+    public void headroomPreventsClipping() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 0, 1500, 0, 0});
+
+        ByteBuffer output = process(createSinePcm16(910, 0.9));
+
+        // 提升 15dB 后仍然不会削波，中心频率的幅度保持不变
+        int saturated = 0;
+        while (output.hasRemaining()) {
+            short sample = output.getShort();
+            if (sample == 32767 || sample == -32767) {
+                saturated++;
+            }
+        }
+        assertEquals(0, saturated);
+        assertEquals(1.0, gain(910), 0.1);
+    }
+
+    @Test
+    public void headroomMatchesCombinedBoost() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{600, 600, 0, 0, 0});
+        mSoftwareEqualizer.setBassBoostStrength((short) 500);
+
+        // 相邻频段与低音增强叠加后的最大增益也不会超过 0dB
+        for (double frequency : new double[]{40, 60, 100, 150, 230, 910, 8000}) {
+            assertTrue(gain(frequency) <= 1.02);
+        }
+    }
+
+    @Test
+    public void clampInsteadOfWrapAround() throws AudioProcessor.UnhandledAudioFormatException {
+        mAudioProcessor.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNEL_COUNT, C.ENCODING_PCM_FLOAT));
+        mAudioProcessor.flush();
+
+        mSoftwareEqualizer.setEnabled(true);
+        // 只衰减，不需要预留余量
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 0, 0, 0, -100});
+
+        ByteBuffer input = createSinePcmFloat(100, 1.5);
+        mAudioProcessor.queueInput(input);
+        ByteBuffer output = mAudioProcessor.getOutput();
+
+        // 超出 [-1, 1] 的采样会被限制为最大值
+        float max = 0;
+        while (output.hasRemaining()) {
+            max = Math.max(max, Math.abs(output.getFloat()));
+        }
+        assertEquals(1.0, max, 0);
+    }
+
+    @Test
+    public void customCenterFrequencies() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 600, 0}, new float[]{100, 2000, 10000});
+
+        assertEquals(2.0, gain(2000) / gain(10000), 0.15);
+    }
+
+    @Test
+    public void reuseOutputBuffer() {
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{300, 0, 0, 0, 300});
+
+        ByteBuffer first = process(createSinePcm16(1000, 0.25));
+        ByteBuffer second = process(createSinePcm16(1000, 0.25));
+
+        // 输入大小不变时不会重新分配输出缓冲区
+        assertSame(first, second);
+    }
+
+    @Test
+    public void parameterChangeAppliedOnNextBuffer() {
+        mSoftwareEqualizer.setEnabled(true);
+
+        double before = rms(process(createSinePcm16(910, 0.25)));
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 0, -600, 0, 0});
+        double after = rms(process(createSinePcm16(910, 0.25)));
+
+        assertTrue(after < before * 0.7);
+    }
+
+    @Test
+    public void processPcmFloat() throws AudioProcessor.UnhandledAudioFormatException {
+        mAudioProcessor.configure(new AudioProcessor.AudioFormat(SAMPLE_RATE, CHANNEL_COUNT, C.ENCODING_PCM_FLOAT));
+        mAudioProcessor.flush();
+
+        mSoftwareEqualizer.setEnabled(true);
+        mSoftwareEqualizer.setBandLevels(new short[]{0, 0, 600, 0, 0});
+
+        ByteBuffer input = createSinePcmFloat(910, 0.25);
+        mAudioProcessor.queueInput(input);
+        ByteBuffer output = mAudioProcessor.getOutput();
+
+        double sum = 0;
+        int count = 0;
+        skipWarmUp(output, 4);
+        while (output.hasRemaining()) {
+            float sample = output.getFloat();
+            sum += sample * sample;
+            count++;
+        }
+
+        // 中心频率提升 6dB，同时预留了 6dB 的余量
+        assertEquals(1.0, Math.sqrt(sum / count) / (0.25 / Math.sqrt(2)), 0.1);
+    }
+
+    private ByteBuffer process(ByteBuffer input) {
+        mAudioProcessor.queueInput(input);
+        assertFalse(input.hasRemaining());
+        return mAudioProcessor.getOutput();
+    }
+
+    /**
+     * 计算指定频率的正弦信号经过处理后的增益。
+     */
+    private double gain(double frequency) {
+        return rms(process(createSinePcm16(frequency, 0.1))) / rms(createSinePcm16(frequency, 0.1));
+    }
+
+    private static ByteBuffer createSinePcmFloat(double frequency, double amplitude) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FRAME_COUNT * CHANNEL_COUNT * 4).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            float sample = (float) (amplitude * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+            for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+                buffer.putFloat(sample);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer createSinePcm16(double frequency, double amplitude) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(FRAME_COUNT * CHANNEL_COUNT * 2).order(ByteOrder.nativeOrder());
+        for (int i = 0; i < FRAME_COUNT; i++) {
+            short sample = (short) Math.round(amplitude * 32767 * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+            for (int channel = 0; channel < CHANNEL_COUNT; channel++) {
+                buffer.putShort(sample);
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * 计算 16 位 PCM 的均方根，跳过滤波器的瞬态响应。
+     */
+    private static double rms(ByteBuffer buffer) {
+        ByteBuffer pcm = buffer.duplicate().order(ByteOrder.nativeOrder());
+        skipWarmUp(pcm, 2);
+
+        double sum = 0;
+        int count = 0;
+        while (pcm.hasRemaining()) {
+            double sample = pcm.getShort() / 32768.0;
+            sum += sample * sample;
+            count++;
+        }
+        return Math.sqrt(sum / count);
+    }
+
+    private static void skipWarmUp(ByteBuffer buffer, int bytesPerSample) {
+        // 跳过前 100ms
+        buffer.position(buffer.position() + SAMPLE_RATE / 10 * CHANNEL_COUNT * bytesPerSample);
+    }
+}
@@ -0,0 +1,67 @@
+package snow.player.exo.effect;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SoftwareAudioEffectManagerTest {
+
+    @Test
+    public void parseBandLevels() {
+        String settings = "Equalizer;curPreset=-1;numBands=5;band1Level=300;band2Level=0;band3Level=-150;band4Level=0;band5Level=1500";
+
+        short[] bandLevels = SoftwareAudioEffectManager.parseBandLevels(settings);
+
+        assertArrayEquals(new short[]{300, 0, -150, 0, 1500}, bandLevels);
+    }
+
+    @Test
+    public void parseInvalidBandLevels() {
+        assertNull(SoftwareAudioEffectManager.parseBandLevels(null));
+        assertNull(SoftwareAudioEffectManager.parseBandLevels(""));
+        assertNull(SoftwareAudioEffectManager.parseBandLevels("BassBoost;strength=500"));
+        assertNull(SoftwareAudioEffectManager.parseBandLevels("Equalizer;curPreset=-1;numBands=2;band1Level=300"));
+    }
+
+    @Test
+    public void parseBassBoostStrength() {
+        assertEquals(500, SoftwareAudioEffectManager.parseBassBoostStrength("BassBoost;strength=500"));
+        assertEquals(0, SoftwareAudioEffectManager.parseBassBoostStrength(null));
+        assertEquals(0, SoftwareAudioEffectManager.parseBassBoostStrength("BassBoost;strength=abc"));
+    }
+
+    @Test
+    public void centerFrequencies() {
+        assertArrayEquals(new float[]{60, 230, 910, 3600, 14000}, SoftwareEqualizer.getCenterFrequencies(5), 0);
+
+        float[] frequencies = SoftwareEqualizer.getCenterFrequencies(10);
+        assertEquals(60, frequencies[0], 0.01);
+        assertEquals(14000, frequencies[9], 0.01);
+        for (int i = 1; i < frequencies.length; i++) {
+            assertTrue(frequencies[i] > frequencies[i - 1]);
+        }
+    }
+
+    @Test
+    public void parseCenterFrequencies() {
+        int[] centerFreqs = new int[]{60_000, 230_000, 910_000, 3_600_000, 14_000_000};
+
+        assertArrayEquals(new float[]{60, 230, 910, 3600, 14000},
+                SoftwareAudioEffectManager.parseCenterFrequencies(centerFreqs, 5), 0);
+        assertNull(SoftwareAudioEffectManager.parseCenterFrequencies(null, 5));
+        assertNull(SoftwareAudioEffectManager.parseCenterFrequencies(centerFreqs, 10));
+        assertNull(SoftwareAudioEffectManager.parseCenterFrequencies(new int[]{0, 1000}, 2));
+    }
+
+    @Test
+    public void customCenterFrequencies() {
+        SoftwareEqualizer softwareEqualizer = new SoftwareEqualizer();
+
+        softwareEqualizer.setBandLevels(new short[]{0, 300, 0}, new float[]{100, 1000, 10000});
+        assertArrayEquals(new float[]{100, 1000, 10000}, softwareEqualizer.getParameters().mBandFrequencies, 0);
+
+        // 中心频率的数量与频段数量不同时，会根据频段数量自动确定
+        softwareEqualizer.setBandLevels(new short[5], new float[]{100, 1000, 10000});
+        assertArrayEquals(SoftwareEqualizer.getCenterFrequencies(5), softwareEqualizer.getParameters().mBandFrequencies, 0);
+    }
+}
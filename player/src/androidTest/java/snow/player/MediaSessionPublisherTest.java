@@ -0,0 +1,74 @@
+package snow.player;
+
+import android.graphics.Bitmap;
+import android.support.v4.media.session.PlaybackStateCompat;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import snow.player.audio.MusicItem;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class MediaSessionPublisherTest {
+
+    @Test
+    public void samePlaybackState() {
+        PlaybackStateCompat.Builder builder = new PlaybackStateCompat.Builder()
+                .setActions(PlaybackStateCompat.ACTION_PLAY | PlaybackStateCompat.ACTION_PAUSE);
+
+        PlaybackStateCompat a = builder.setState(PlaybackStateCompat.STATE_PLAYING, 1000, 1.0F, 5000).build();
+        PlaybackStateCompat b = builder.setState(PlaybackStateCompat.STATE_PLAYING, 1000, 1.0F, 5000).build();
+        PlaybackStateCompat paused = builder.setState(PlaybackStateCompat.STATE_PAUSED, 1000, 1.0F, 5000).build();
+        PlaybackStateCompat seek = builder.setState(PlaybackStateCompat.STATE_PLAYING, 3000, 1.0F, 6000).build();
+        PlaybackStateCompat speed = builder.setState(PlaybackStateCompat.STATE_PLAYING, 1000, 2.0F, 5000).build();
+
+        assertTrue(MediaSessionPublisher.isSamePlaybackState(a, b));
+        assertFalse(MediaSessionPublisher.isSamePlaybackState(a, paused));
+        assertFalse(MediaSessionPublisher.isSamePlaybackState(a, seek));
+        assertFalse(MediaSessionPublisher.isSamePlaybackState(a, speed));
+
+        PlaybackStateCompat error = builder.setState(PlaybackStateCompat.STATE_PLAYING, 1000, 1.0F, 5000)
+                .setErrorMessage(PlaybackStateCompat.ERROR_CODE_APP_ERROR, "error")
+                .build();
+        assertFalse(MediaSessionPublisher.isSamePlaybackState(a, error));
+    }
+
+    @Test
+    public void scaleBitmap() {
+        Bitmap small = Bitmap.createBitmap(300, 200, Bitmap.Config.ARGB_8888);
+        assertSame(small, MediaSessionPublisher.scaleBitmap(small, 512));
+
+        Bitmap large = Bitmap.createBitmap(2048, 1024, Bitmap.Config.ARGB_8888);
+        Bitmap scaled = MediaSessionPublisher.scaleBitmap(large, 512);
+        assertEquals(512, scaled.getWidth());
+        assertEquals(256, scaled.getHeight());
+
+        // 小于等于 0 时不缩放
+        assertSame(large, MediaSessionPublisher.scaleBitmap(large, 0));
+    }
+
+    @Test
+    public void metadataEquals() {
+        MusicItem musicItem = new MusicItem.Builder()
+                .setTitle("title")
+                .setArtist("artist")
+                .setAlbum("album")
+                .setUri("https://www.test.com/test.mp3")
+                .build();
+
+        Bitmap artwork = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        Bitmap otherArtwork = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+
+        MediaSessionPublisher.Metadata a = new MediaSessionPublisher.Metadata(musicItem, 60_000, artwork);
+
+        assertEquals(a, new MediaSessionPublisher.Metadata(new MusicItem(musicItem), 60_000, artwork));
+        assertNotEquals(a, new MediaSessionPublisher.Metadata(musicItem, 120_000, artwork));
+        // 歌曲图片按引用比较
+        assertNotEquals(a, new MediaSessionPublisher.Metadata(musicItem, 60_000, otherArtwork));
+        assertNotEquals(a, MediaSessionPublisher.Metadata.EMPTY);
+    }
+}
@@ -0,0 +1,119 @@
+package snow.player;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PendingCommandQueueTest {
+    private PendingCommandQueue mQueue;
+    private List<String> mExecuted;
+
+    @Before
+    public void setUp() {
+        mQueue = new PendingCommandQueue();
+        mExecuted = new ArrayList<>();
+    }
+
+    @Test
+    public void flushInOrder() {
+        enqueue(PendingCommandQueue.TYPE_OTHER, "a");
+        enqueue(PendingCommandQueue.TYPE_OTHER, "b");
+        enqueue(PendingCommandQueue.TYPE_NAVIGATE, "c");
+
+        mQueue.flush();
+
+        assertEquals(Arrays.asList("a", "b", "c"), mExecuted);
+        assertEquals(0, mQueue.size());
+
+        // 已执行的命令不会再次执行
+        mQueue.flush();
+        assertEquals(3, mExecuted.size());
+    }
+
+    @Test
+    public void latestSeekWins() {
+        enqueue(PendingCommandQueue.TYPE_SEEK, "seek1");
+        enqueue(PendingCommandQueue.TYPE_PLAYBACK, "play");
+        enqueue(PendingCommandQueue.TYPE_SEEK, "seek2");
+        enqueue(PendingCommandQueue.TYPE_SEEK, "seek3");
+
+        mQueue.flush();
+
+        assertEquals(Arrays.asList("play", "seek3"), mExecuted);
+        assertEquals(4, mQueue.getQueuedCount());
+        assertEquals(2, mQueue.getMergedCount());
+    }
+
+    @Test
+    public void latestSettingWinsPerKey() {
+        mQueue.enqueue(PendingCommandQueue.TYPE_SETTING, "speed", record("speed1"));
+        mQueue.enqueue(PendingCommandQueue.TYPE_SETTING, "playMode", record("playMode"));
+        mQueue.enqueue(PendingCommandQueue.TYPE_SETTING, "speed", record("speed2"));
+
+        mQueue.flush();
+
+        assertEquals(Arrays.asList("playMode", "speed2"), mExecuted);
+    }
+
+    @Test
+    public void setPlaylistSupersedesEdits() {
+        enqueue(PendingCommandQueue.TYPE_PLAYLIST_EDIT, "append");
+        enqueue(PendingCommandQueue.TYPE_NAVIGATE, "next");
+        enqueue(PendingCommandQueue.TYPE_SEEK, "seek");
+        enqueue(PendingCommandQueue.TYPE_SETTING, "playMode");
+        enqueue(PendingCommandQueue.TYPE_SET_PLAYLIST, "setPlaylist");
+        enqueue(PendingCommandQueue.TYPE_PLAYLIST_EDIT, "insert");
+
+        mQueue.flush();
+
+        assertEquals(Arrays.asList("playMode", "setPlaylist", "insert"), mExecuted);
+        assertEquals(3, mQueue.getMergedCount());
+    }
+
+    @Test
+    public void playPauseToggleCollapse() {
+        enqueue(PendingCommandQueue.TYPE_PLAY_PAUSE, "toggle1");
+        enqueue(PendingCommandQueue.TYPE_PLAY_PAUSE, "toggle2");
+        assertEquals(0, mQueue.size());
+
+        enqueue(PendingCommandQueue.TYPE_PLAYBACK, "play");
+        enqueue(PendingCommandQueue.TYPE_PLAY_PAUSE, "toggle3");
+        enqueue(PendingCommandQueue.TYPE_PLAYBACK, "pause");
+
+        mQueue.flush();
+
+        assertEquals(Arrays.asList("pause"), mExecuted);
+        assertEquals(4, mQueue.getMergedCount());
+    }
+
+    @Test
+    public void clear() {
+        enqueue(PendingCommandQueue.TYPE_OTHER, "a");
+        mQueue.clear();
+        mQueue.flush();
+
+        assertTrue(mExecuted.isEmpty());
+    }
+
+    private void enqueue(int type, String name) {
+        mQueue.enqueue(type, record(name));
+    }
+
+    private Runnable record(final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                mExecuted.add(name);
+            }
+        };
+    }
+}
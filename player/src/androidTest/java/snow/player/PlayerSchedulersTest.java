@@ -0,0 +1,172 @@
+package snow.player;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.disposables.Disposable;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class PlayerSchedulersTest {
+    private PlayerSchedulers mSchedulers;
+
+    @Before
+    public void setUp() {
+        mSchedulers = new PlayerSchedulers(1, 1);
+    }
+
+    @After
+    public void tearDown() {
+        mSchedulers.shutdown();
+    }
+
+    @Test(timeout = 5000)
+    public void runByPriority() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(3);
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        // 占用唯一的后台线程
+        mSchedulers.persistence().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        mSchedulers.maintenance().scheduleDirect(record("maintenance", executed, finished));
+        mSchedulers.persistence().scheduleDirect(record("persistence", executed, finished));
+        mSchedulers.prefetch().scheduleDirect(record("prefetch", executed, finished));
+
+        assertEquals(1, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.MAINTENANCE));
+
+        blocker.countDown();
+        assertTrue(finished.await(3, TimeUnit.SECONDS));
+
+        assertEquals(Arrays.asList("prefetch", "persistence", "maintenance"), executed);
+        assertEquals(0, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.MAINTENANCE));
+    }
+
+    @Test(timeout = 5000)
+    public void foregroundNotBlockedByBackground() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+
+        mSchedulers.maintenance().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        mSchedulers.interactive().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                finished.countDown();
+            }
+        });
+
+        assertTrue(finished.await(3, TimeUnit.SECONDS));
+        blocker.countDown();
+    }
+
+    @Test(timeout = 5000)
+    public void skipDisposedTask() throws InterruptedException {
+        final CountDownLatch blocker = new CountDownLatch(1);
+        final CountDownLatch finished = new CountDownLatch(1);
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        mSchedulers.interactive().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    blocker.await();
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+
+        Disposable obsolete = mSchedulers.interactive().scheduleDirect(record("obsolete", executed, finished));
+        mSchedulers.interactive().scheduleDirect(record("latest", executed, finished));
+        obsolete.dispose();
+
+        blocker.countDown();
+        assertTrue(finished.await(3, TimeUnit.SECONDS));
+
+        assertEquals(Collections.singletonList("latest"), executed);
+    }
+
+    @Test(timeout = 5000)
+    public void shutdownDropsQueuedTasks() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        final List<String> executed = Collections.synchronizedList(new ArrayList<String>());
+
+        mSchedulers.maintenance().scheduleDirect(new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    Thread.sleep(Long.MAX_VALUE);
+                } catch (InterruptedException e) {
+                    // shutdown
+                }
+            }
+        });
+        assertTrue(started.await(3, TimeUnit.SECONDS));
+
+        mSchedulers.maintenance().scheduleDirect(record("maintenance", executed, new CountDownLatch(1)));
+        mSchedulers.persistence().scheduleDirect(record("persistence", executed, new CountDownLatch(1)));
+        assertEquals(1, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.MAINTENANCE));
+        assertEquals(1, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.PERSISTENCE));
+
+        mSchedulers.shutdown();
+
+        assertEquals(0, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.MAINTENANCE));
+        assertEquals(0, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.PERSISTENCE));
+        assertTrue(executed.isEmpty());
+    }
+
+    @Test
+    public void executeAfterShutdown() {
+        mSchedulers.shutdown();
+
+        // 不会抛出 RejectedExecutionException
+        mSchedulers.interactive().scheduleDirect(record("interactive", new ArrayList<String>(), new CountDownLatch(1)));
+        mSchedulers.maintenance().scheduleDirect(record("maintenance", new ArrayList<String>(), new CountDownLatch(1)));
+
+        assertEquals(2, mSchedulers.getRejectedCount());
+        assertEquals(0, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.INTERACTIVE));
+        assertEquals(0, mSchedulers.getQueueDepth(PlayerSchedulers.Priority.MAINTENANCE));
+    }
+
+    private static Runnable record(final String name, final List<String> executed, final CountDownLatch finished) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                executed.add(name);
+                finished.countDown();
+            }
+        };
+    }
+}
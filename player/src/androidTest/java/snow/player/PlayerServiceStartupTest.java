@@ -0,0 +1,106 @@
+package snow.player;
+
+import android.app.Instrumentation;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * 测量 {@link PlayerService} 的冷启动耗时。
+ * <p>
+ * 可以使用 systrace/Perfetto 查看 "PlayerService." 开头的 trace section，以定位启动过程中的耗时操作。
+ */
+@RunWith(AndroidJUnit4.class)
+public class PlayerServiceStartupTest {
+    private static final String TAG = "PlayerServiceStartup";
+
+    // 从 onCreate 开始到响应第一个客户端的同步请求的耗时上限（单位：毫秒），留有余量以适应较慢的测试设备
+    private static final long MAX_FIRST_SYNC_TIME = 1000;
+    // 从客户端发起连接到连接成功的耗时上限（单位：毫秒），包括启动 Service 进程内组件与 Binder 通信的耗时
+    private static final long MAX_CONNECT_TIME = 1500;
+
+    private PlayerClient mPlayerClient;
+
+    @After
+    public void tearDown() {
+        if (mPlayerClient == null) {
+            return;
+        }
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mPlayerClient.shutdown();
+                mPlayerClient.disconnect();
+            }
+        });
+    }
+
+    @Test(timeout = 10_000)
+    public void coldStart() throws InterruptedException {
+        final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        final CountDownLatch connectedLatch = new CountDownLatch(1);
+        final boolean[] connected = new boolean[1];
+        final long[] connectStartTime = new long[1];
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                mPlayerClient = PlayerClient.newInstance(instrumentation.getContext(), StartupTestPlayerService.class);
+                connectStartTime[0] = SystemClock.elapsedRealtime();
+                mPlayerClient.connect(new PlayerClient.OnConnectCallback() {
+                    @Override
+                    public void onConnected(boolean success) {
+                        connected[0] = success;
+                        connectedLatch.countDown();
+                    }
+                });
+            }
+        });
+
+        assertTrue(connectedLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(connected[0]);
+        long connectTime = SystemClock.elapsedRealtime() - connectStartTime[0];
+
+        final StartupTestPlayerService service = StartupTestPlayerService.sInstance;
+        assertNotNull(service);
+
+        long criticalStartupTime = service.getCriticalStartupTime();
+        long startupTime = service.getStartupTime();
+        long firstSyncTime = service.getFirstSyncTime();
+        Log.i(TAG, "criticalStartupTime=" + criticalStartupTime +
+                "ms, startupTime=" + startupTime +
+                "ms, firstSyncTime=" + firstSyncTime +
+                "ms, connectTime=" + connectTime + "ms");
+
+        // 客户端连接成功时，播放器一定已经初始化完成，并且已响应了客户端的同步请求
+        assertTrue(startupTime >= 0);
+        assertTrue(criticalStartupTime <= startupTime);
+        assertTrue(startupTime <= firstSyncTime);
+
+        assertTrue("firstSyncTime=" + firstSyncTime + "ms", firstSyncTime < MAX_FIRST_SYNC_TIME);
+        assertTrue("connectTime=" + connectTime + "ms", connectTime < MAX_CONNECT_TIME);
+
+        // 延迟的初始化会在第一次同步后，于主线程空闲时执行
+        instrumentation.waitForIdleSync();
+        final boolean[] deferredStartupCompleted = new boolean[1];
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                deferredStartupCompleted[0] = service.isDeferredStartupCompleted();
+            }
+        });
+        assertTrue(deferredStartupCompleted[0]);
+    }
+}
@@ -3,18 +3,34 @@ package snow.player;
 import org.junit.runner.RunWith;
 import org.junit.runners.Suite;
 
+import snow.player.appwidget.AppWidgetPlayerStatePublisherTest;
 import snow.player.audio.MusicItemTest;
+import snow.player.metrics.LatencyHistogramTest;
 import snow.player.playlist.PlaylistTest;
+import snow.player.util.AudioScannerTest;
+import snow.player.util.CacheRegistryTest;
 
 @Suite.SuiteClasses({
         // snow.player
         PlayerStateTest.class,
         PersistentPlayerStateTest.class,
         PlayerConfigTest.class,
+        MediaSessionPublisherTest.class,
+        PendingCommandQueueTest.class,
+        PlayerSchedulersTest.class,
+        PlayerServiceStartupTest.class,
+        ScrubberTest.class,
+        // snow.player.appwidget
+        AppWidgetPlayerStatePublisherTest.class,
         // snow.player.media
         MusicItemTest.class,
         // snow.player.playlist
-        PlaylistTest.class
+        PlaylistTest.class,
+        // snow.player.metrics
+        LatencyHistogramTest.class,
+        // snow.player.util
+        AudioScannerTest.class,
+        CacheRegistryTest.class
 })
 @RunWith(Suite.class)
 public class RunAllTest {
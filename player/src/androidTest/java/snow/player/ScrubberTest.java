@@ -0,0 +1,135 @@
+package snow.player;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class ScrubberTest {
+    private Scrubber mScrubber;
+    private List<String> mSeeks;
+    private boolean mReady;
+
+    @Before
+    public void setUp() {
+        mSeeks = new ArrayList<>();
+        mReady = true;
+
+        mScrubber = new Scrubber(new Scrubber.Target() {
+            @Override
+            public boolean isReady() {
+                return mReady;
+            }
+
+            @Override
+            public void fastSeekTo(int progress) {
+                mSeeks.add("fast:" + progress);
+            }
+
+            @Override
+            public void seekTo(int progress) {
+                // 与 SnowPlayer 一致：普通 seek 会被记录为尚未完成的 seek
+                mScrubber.onSeekIssued();
+                mSeeks.add("exact:" + progress);
+            }
+        });
+    }
+
+    @Test
+    public void beginScrubEnd() {
+        mScrubber.begin();
+        assertTrue(mScrubber.isScrubbing());
+
+        mScrubber.scrubTo(1000);
+        // 上一次快速 seek 尚未完成，只记录最新的播放进度
+        mScrubber.scrubTo(2000);
+        mScrubber.scrubTo(3000);
+        assertEquals(Collections.singletonList("fast:1000"), mSeeks);
+
+        assertTrue(mScrubber.onSeekComplete());
+        assertEquals(Arrays.asList("fast:1000", "fast:3000"), mSeeks);
+
+        // 快速 seek 完成前结束拖动，会在其完成后再精确 seek
+        mScrubber.end();
+        assertFalse(mScrubber.isScrubbing());
+        assertEquals(2, mSeeks.size());
+
+        assertTrue(mScrubber.onSeekComplete());
+        assertEquals(Arrays.asList("fast:1000", "fast:3000", "exact:3000"), mSeeks);
+
+        // 精确 seek 的完成事件需要通知
+        assertFalse(mScrubber.onSeekComplete());
+    }
+
+    @Test
+    public void endWithoutSeekInFlight() {
+        mScrubber.begin();
+        mScrubber.scrubTo(1000);
+        assertTrue(mScrubber.onSeekComplete());
+
+        mScrubber.end();
+        assertEquals(Arrays.asList("fast:1000", "exact:1000"), mSeeks);
+        assertFalse(mScrubber.onSeekComplete());
+    }
+
+    @Test
+    public void seekDuringScrubIsNotSwallowed() {
+        mScrubber.begin();
+        mScrubber.scrubTo(1000);
+
+        // 拖动期间发起的普通 seek（例如来自其他客户端）
+        mScrubber.onSeekIssued();
+
+        assertTrue(mScrubber.onSeekComplete());
+        assertFalse(mScrubber.onSeekComplete());
+    }
+
+    @Test
+    public void cancel() {
+        mScrubber.begin();
+        mScrubber.scrubTo(1000);
+        mScrubber.scrubTo(2000);
+
+        // 例如切换了歌曲，音乐播放器被释放
+        mScrubber.reset();
+        assertFalse(mScrubber.isScrubbing());
+
+        mScrubber.end();
+        assertEquals(Collections.singletonList("fast:1000"), mSeeks);
+
+        // 新的音乐播放器的 seek 完成事件不会被当作快速 seek
+        mScrubber.onSeekIssued();
+        assertFalse(mScrubber.onSeekComplete());
+    }
+
+    @Test
+    public void scrubWhileNotReady() {
+        mReady = false;
+
+        mScrubber.begin();
+        mScrubber.scrubTo(1000);
+        mScrubber.scrubTo(2000);
+        assertTrue(mSeeks.isEmpty());
+
+        mReady = true;
+        mScrubber.end();
+        assertEquals(Collections.singletonList("exact:2000"), mSeeks);
+    }
+
+    @Test
+    public void seekCompleteWithoutScrub() {
+        assertFalse(mScrubber.onSeekComplete());
+
+        mScrubber.end();
+        assertTrue(mSeeks.isEmpty());
+    }
+}
@@ -0,0 +1,29 @@
+package snow.player;
+
+import androidx.annotation.Nullable;
+
+/**
+ * 用于测试冷启动耗时的 {@link PlayerService}，不显示通知栏控制器。
+ */
+public class StartupTestPlayerService extends PlayerService {
+    @Nullable
+    static StartupTestPlayerService sInstance;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        sInstance = this;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        sInstance = null;
+    }
+
+    @Nullable
+    @Override
+    protected NotificationView onCreateNotificationView() {
+        return null;
+    }
+}
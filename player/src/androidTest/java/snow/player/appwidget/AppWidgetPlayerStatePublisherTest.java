@@ -0,0 +1,88 @@
+package snow.player.appwidget;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import snow.player.PlayMode;
+import snow.player.PlaybackState;
+import snow.player.audio.MusicItem;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class AppWidgetPlayerStatePublisherTest {
+
+    @Test
+    public void sameStateWhenPlayingProgressFollowsTime() {
+        MusicItem musicItem = createMusicItem("Song 1");
+
+        AppWidgetPlayerState a = createState(PlaybackState.PLAYING, musicItem, 1.0F, 10_000, 100_000, false);
+        AppWidgetPlayerState b = createState(PlaybackState.PLAYING, musicItem, 1.0F, 15_000, 105_000, false);
+        AppWidgetPlayerState c = createState(PlaybackState.PLAYING, musicItem, 2.0F, 20_000, 105_000, false);
+
+        assertTrue(AppWidgetPlayerStatePublisher.isSameState(a, b));
+        // 播放速度改变
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a, c));
+
+        // 跳转了播放进度
+        AppWidgetPlayerState seek = createState(PlaybackState.PLAYING, musicItem, 1.0F, 60_000, 105_000, false);
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a, seek));
+    }
+
+    @Test
+    public void pausedStateIgnoresUpdateTime() {
+        MusicItem musicItem = createMusicItem("Song 1");
+
+        AppWidgetPlayerState a = createState(PlaybackState.PAUSED, musicItem, 1.0F, 10_000, 100_000, false);
+        AppWidgetPlayerState b = createState(PlaybackState.PAUSED, musicItem, 1.0F, 10_000, 200_000, false);
+        AppWidgetPlayerState c = createState(PlaybackState.PAUSED, musicItem, 1.0F, 12_000, 200_000, false);
+
+        assertTrue(AppWidgetPlayerStatePublisher.isSameState(a, b));
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a, c));
+    }
+
+    @Test
+    public void differentStateWhenFieldChanged() {
+        MusicItem musicItem = createMusicItem("Song 1");
+
+        AppWidgetPlayerState a = createState(PlaybackState.PLAYING, musicItem, 1.0F, 10_000, 100_000, false);
+
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a,
+                createState(PlaybackState.PLAYING, musicItem, 1.0F, 10_000, 100_000, true)));
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a,
+                createState(PlaybackState.PAUSED, musicItem, 1.0F, 10_000, 100_000, false)));
+        assertFalse(AppWidgetPlayerStatePublisher.isSameState(a,
+                createState(PlaybackState.PLAYING, createMusicItem("Song 2"), 1.0F, 10_000, 100_000, false)));
+        assertTrue(AppWidgetPlayerStatePublisher.isSameState(a,
+                createState(PlaybackState.PLAYING, createMusicItem("Song 1"), 1.0F, 10_000, 100_000, false)));
+    }
+
+    private static MusicItem createMusicItem(String title) {
+        return new MusicItem.Builder()
+                .setTitle(title)
+                .setArtist("artist")
+                .setUri("https://www.test.com/" + title + ".mp3")
+                .build();
+    }
+
+    private static AppWidgetPlayerState createState(PlaybackState playbackState,
+                                                    MusicItem musicItem,
+                                                    float speed,
+                                                    long playProgress,
+                                                    long updateTime,
+                                                    boolean stalled) {
+        return new AppWidgetPlayerState(
+                playbackState,
+                musicItem,
+                PlayMode.PLAYLIST_LOOP,
+                speed,
+                playProgress,
+                updateTime,
+                false,
+                true,
+                stalled,
+                "");
+    }
+}
@@ -9,6 +9,10 @@ import androidx.test.ext.junit.runners.AndroidJUnit4;
 
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 @RunWith(AndroidJUnit4.class)
@@ -126,4 +130,57 @@ public class MusicItemTest {
         // assert
         assertEquals(musicItem, other);
     }
+
+    @Test
+    public void hashCodeInvalidatedBySetter() {
+        MusicItem musicItem = new MusicItem();
+        musicItem.setTitle("test");
+
+        int oldHashCode = musicItem.hashCode();
+        musicItem.setArtist("other_artist");
+
+        MusicItem expected = new MusicItem();
+        expected.setTitle("test");
+        expected.setArtist("other_artist");
+
+        assertNotEquals(oldHashCode, musicItem.hashCode());
+        assertEquals(expected.hashCode(), musicItem.hashCode());
+    }
+
+    @Test
+    public void internSharedFields() {
+        final int size = 10_000;
+        final int artistCount = 20;
+
+        List<MusicItem> musicItems = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            MusicItem musicItem = new MusicItem();
+            musicItem.setMusicId("id_" + i);
+            musicItem.setTitle("title_" + i);
+            // 使用 new String 确保序列化前每个值都是不同的对象
+            musicItem.setArtist(new String("artist_" + (i % artistCount)));
+            musicItem.setAlbum(new String("album_" + (i % artistCount)));
+            musicItem.setIconUri(new String("https://www.test.com/icon.png"));
+            musicItems.add(musicItem);
+        }
+
+        Parcel parcel = Parcel.obtain();
+        parcel.writeTypedList(musicItems);
+        parcel.setDataPosition(0);
+        List<MusicItem> others = parcel.createTypedArrayList(MusicItem.CREATOR);
+        parcel.recycle();
+
+        assertEquals(musicItems, others);
+
+        IdentityHashMap<String, Boolean> distinct = new IdentityHashMap<>();
+        for (MusicItem musicItem : others) {
+            distinct.put(musicItem.getArtist(), Boolean.TRUE);
+            distinct.put(musicItem.getAlbum(), Boolean.TRUE);
+            distinct.put(musicItem.getIconUri(), Boolean.TRUE);
+        }
+
+        // 20 个歌手 + 20 个专辑 + 1 个图标链接
+        assertEquals(artistCount * 2 + 1, distinct.size());
+        assertSame(others.get(0).getArtist(), others.get(artistCount).getArtist());
+    }
 }
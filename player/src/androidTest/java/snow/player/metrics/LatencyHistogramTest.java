@@ -0,0 +1,58 @@
+package snow.player.metrics;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class LatencyHistogramTest {
+
+    @Test
+    public void record() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-1);
+        assertEquals(0, histogram.getCount());
+
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50, histogram.getMean());
+        assertEquals(100, histogram.getMax());
+    }
+
+    @Test
+    public void getPercentile() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(50));
+
+        for (int i = 0; i < 90; i++) {
+            histogram.record(15);
+        }
+
+        for (int i = 0; i < 10; i++) {
+            histogram.record(800);
+        }
+
+        assertEquals(20, histogram.getPercentile(50));
+        assertEquals(20, histogram.getPercentile(90));
+        assertEquals(800, histogram.getPercentile(99));
+    }
+
+    @Test
+    public void reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMean());
+        assertEquals(0, histogram.getMax());
+    }
+}
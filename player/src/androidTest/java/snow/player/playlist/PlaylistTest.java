@@ -1,5 +1,6 @@
 package snow.player.playlist;
 
+import android.os.BadParcelableException;
 import android.os.Bundle;
 import android.os.Parcel;
 
@@ -241,4 +242,73 @@ public class PlaylistTest {
         assertEquals(value, other.getExtra().getString(key));
         parcel.recycle();
     }
+
+    @Test
+    public void compactParcelTest() {
+        List<MusicItem> items = new ArrayList<>();
+        for (int i = 0; i < Playlist.MAX_SIZE; i++) {
+            MusicItem musicItem = generateMusicItem(i);
+            musicItem.setArtist("artist_" + (i % 10));
+            musicItem.setAlbum("album_" + (i % 10));
+            musicItem.setIconUri("https://www.test.com/icon.png");
+            items.add(musicItem);
+        }
+
+        Playlist playlist = new Playlist("test_name", items, true, null);
+
+        Parcel compact = Parcel.obtain();
+        playlist.writeToParcel(compact, 0);
+        int compactSize = compact.dataSize();
+
+        compact.setDataPosition(0);
+        Playlist other = new Playlist(compact);
+        compact.recycle();
+
+        Parcel legacy = Parcel.obtain();
+        legacy.writeTypedList(items);
+        int legacySize = legacy.dataSize();
+        legacy.recycle();
+
+        assertEquals(playlist, other);
+        assertSame(other.get(0).getArtist(), other.get(10).getArtist());
+        assertSame(other.get(0).getIconUri(), other.get(1).getIconUri());
+        assertTrue(compactSize < legacySize);
+    }
+
+    @Test
+    public void legacyParcelTest() {
+        final String name = "test_name";
+
+        Parcel parcel = Parcel.obtain();
+        parcel.writeString(name);
+        parcel.writeString(mPlaylist.getToken());
+        parcel.writeTypedList(mItems);
+        parcel.writeByte((byte) 1);
+        parcel.writeBundle(null);
+
+        parcel.setDataPosition(0);
+        Playlist other = new Playlist(parcel);
+        parcel.recycle();
+
+        assertEquals(name, other.getName());
+        assertEquals(mPlaylist.getToken(), other.getToken());
+        assertEquals(mItems, other.getAllMusicItem());
+        assertTrue(other.isEditable());
+    }
+
+    @Test(expected = BadParcelableException.class)
+    public void unknownCodecVersionTest() {
+        Parcel parcel = Parcel.obtain();
+        parcel.writeString("test_name");
+        parcel.writeString(Playlist.PARCEL_VERSION_2);
+        parcel.writeString(mPlaylist.getToken());
+        parcel.writeInt(PlaylistCodec.VERSION + 1);
+
+        parcel.setDataPosition(0);
+        try {
+            new Playlist(parcel);
+        } finally {
+            parcel.recycle();
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package snow.player.util;
+
+import android.annotation.SuppressLint;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.provider.MediaStore;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class AudioScannerTest {
+    @SuppressLint("InlinedApi")
+    private static final String[] COLUMNS = new String[]{
+            MediaStore.MediaColumns._ID,
+            MediaStore.MediaColumns.DISPLAY_NAME,
+            MediaStore.MediaColumns.TITLE,
+            MediaStore.Audio.AudioColumns.ARTIST,
+            MediaStore.Audio.AudioColumns.ARTIST_ID,
+            MediaStore.Audio.AudioColumns.ALBUM,
+            MediaStore.Audio.AudioColumns.ALBUM_ID,
+            MediaStore.MediaColumns.MIME_TYPE,
+            MediaStore.MediaColumns.DURATION,
+            MediaStore.MediaColumns.DATE_ADDED,
+            MediaStore.MediaColumns.DATE_MODIFIED,
+            MediaStore.MediaColumns.SIZE,
+            MediaStore.Audio.AudioColumns.TRACK,
+            MediaStore.Audio.AudioColumns.YEAR,
+            MediaStore.Audio.AudioColumns.IS_ALARM,
+            MediaStore.Audio.AudioColumns.IS_AUDIOBOOK,
+            MediaStore.Audio.AudioColumns.IS_NOTIFICATION,
+            MediaStore.Audio.AudioColumns.IS_PODCAST,
+            MediaStore.Audio.AudioColumns.IS_RINGTONE
+    };
+
+    private static MatrixCursor createCursor(int size) {
+        MatrixCursor cursor = new MatrixCursor(COLUMNS, size);
+
+        for (int i = 0; i < size; i++) {
+            cursor.addRow(new Object[]{
+                    i + 1,
+                    "audio" + i + ".mp3",
+                    "title" + i,
+                    "artist" + (i % 100),
+                    i % 100,
+                    "album" + (i % 500),
+                    i % 500,
+                    "audio/mpeg",
+                    180_000 + i,
+                    1_600_000_000 + i,
+                    1_600_000_000 + i,
+                    4_096_000 + i,
+                    i % 20,
+                    2000 + (i % 20),
+                    0,
+                    0,
+                    0,
+                    i % 2,
+                    0
+            });
+        }
+
+        return cursor;
+    }
+
+    @Test
+    public void cursorSchema() {
+        MatrixCursor cursor = createCursor(1);
+        assertTrue(cursor.moveToFirst());
+
+        AudioScanner.CursorSchema schema = new AudioScanner.CursorSchema(cursor);
+
+        assertEquals(AudioScanner.getId(cursor), schema.getId(cursor));
+        assertEquals(AudioScanner.getTitle(cursor), schema.getTitle(cursor));
+        assertEquals(AudioScanner.getArtist(cursor), schema.getArtist(cursor));
+        assertEquals(AudioScanner.getAlbum(cursor), schema.getAlbum(cursor));
+        assertEquals(AudioScanner.getDuration(cursor), schema.getDuration(cursor));
+        assertEquals(AudioScanner.isPodcast(cursor), schema.isPodcast(cursor));
+        assertEquals(AudioScanner.getUri(cursor), schema.getUri(cursor));
+
+        cursor.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cursorSchemaMissingColumn() {
+        MatrixCursor cursor = new MatrixCursor(new String[]{MediaStore.MediaColumns._ID});
+        cursor.addRow(new Object[]{1});
+        assertTrue(cursor.moveToFirst());
+
+        AudioScanner.CursorSchema schema = new AudioScanner.CursorSchema(cursor);
+        assertEquals(1, schema.getId(cursor));
+
+        try {
+            schema.getTitle(cursor);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Test
+    public void convertWithCursorSchema() {
+        MatrixCursor cursor = createCursor(100);
+
+        AudioScanner.Converter<AudioScanner.AudioItem> legacyConverter = new LegacyAudioItemConverter();
+        AudioScanner.AudioItemConverter schemaConverter = new AudioScanner.AudioItemConverter();
+
+        List<AudioScanner.AudioItem> legacyResult = new ArrayList<>();
+        while (cursor.moveToNext()) {
+            legacyResult.add(legacyConverter.convert(cursor));
+        }
+
+        List<AudioScanner.AudioItem> schemaResult = new ArrayList<>();
+        cursor.moveToPosition(-1);
+        AudioScanner.CursorSchema schema = new AudioScanner.CursorSchema(cursor);
+        while (cursor.moveToNext()) {
+            schemaResult.add(schemaConverter.convert(cursor, schema));
+        }
+
+        cursor.close();
+
+        assertEquals(100, schemaResult.size());
+        assertEquals(legacyResult, schemaResult);
+    }
+
+    /**
+     * 每一行数据都重新查找一次列索引的转换器，仅用于对比。
+     */
+    private static class LegacyAudioItemConverter implements AudioScanner.Converter<AudioScanner.AudioItem> {
+        @Nullable
+        @Override
+        public AudioScanner.AudioItem convert(@NonNull Cursor cursor) {
+            boolean audioBook = false;
+            if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
+                audioBook = AudioScanner.isAudioBook(cursor);
+            }
+
+            return new AudioScanner.AudioItem(
+                    AudioScanner.getId(cursor),
+                    AudioScanner.getDisplayName(cursor),
+                    AudioScanner.getTitle(cursor),
+                    AudioScanner.getArtist(cursor),
+                    AudioScanner.getArtistId(cursor),
+                    AudioScanner.getAlbum(cursor),
+                    AudioScanner.getAlbumId(cursor),
+                    AudioScanner.getMimeType(cursor),
+                    AudioScanner.getUri(cursor).toString(),
+                    AudioScanner.getDuration(cursor),
+                    AudioScanner.getDateAdded(cursor),
+                    AudioScanner.getDateModified(cursor),
+                    AudioScanner.getSize(cursor),
+                    AudioScanner.getTrack(cursor),
+                    AudioScanner.getYear(cursor),
+                    AudioScanner.isAlarm(cursor),
+                    audioBook,
+                    AudioScanner.isNotification(cursor),
+                    AudioScanner.isPodcast(cursor),
+                    AudioScanner.isRingtone(cursor)
+            );
+        }
+    }
+}
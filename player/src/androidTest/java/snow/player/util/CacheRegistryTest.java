@@ -0,0 +1,105 @@
+package snow.player.util;
+
+import android.content.ComponentCallbacks2;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class CacheRegistryTest {
+    private static final long SIZE = 1000;
+
+    private CacheRegistry mRegistry;
+    private FakeCache mLowCache;
+    private FakeCache mNormalCache;
+    private FakeCache mHighCache;
+
+    @Before
+    public void setUp() {
+        mRegistry = new CacheRegistry();
+        mLowCache = new FakeCache(SIZE);
+        mNormalCache = new FakeCache(SIZE);
+        mHighCache = new FakeCache(SIZE);
+
+        mRegistry.register("low", CacheRegistry.TrimPolicy.LOW, mLowCache);
+        mRegistry.register("normal", CacheRegistry.TrimPolicy.NORMAL, mNormalCache);
+        mRegistry.register("high", CacheRegistry.TrimPolicy.HIGH, mHighCache);
+    }
+
+    @Test
+    public void getSizeInBytes() {
+        assertEquals(SIZE * 3, mRegistry.getSizeInBytes());
+
+        // 重复注册会被忽略
+        mRegistry.register("low", CacheRegistry.TrimPolicy.LOW, mLowCache);
+        assertEquals(SIZE * 3, mRegistry.getSizeInBytes());
+
+        mRegistry.unregister(mLowCache);
+        assertEquals(SIZE * 2, mRegistry.getSizeInBytes());
+    }
+
+    @Test
+    public void trimMemory_runningModerate() {
+        mRegistry.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE);
+
+        assertEquals(SIZE / 2, mLowCache.getSizeInBytes());
+        assertEquals(SIZE, mNormalCache.getSizeInBytes());
+        assertEquals(SIZE, mHighCache.getSizeInBytes());
+    }
+
+    @Test
+    public void trimMemory_uiHidden() {
+        mRegistry.trimMemory(ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN);
+
+        assertEquals(0, mLowCache.getSizeInBytes());
+        assertEquals(SIZE / 2, mNormalCache.getSizeInBytes());
+        assertEquals(SIZE, mHighCache.getSizeInBytes());
+    }
+
+    @Test
+    public void trimMemory_runningCritical() {
+        mRegistry.trimMemory(ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL);
+
+        assertEquals(0, mLowCache.getSizeInBytes());
+        assertEquals(0, mNormalCache.getSizeInBytes());
+        assertEquals(SIZE / 2, mHighCache.getSizeInBytes());
+    }
+
+    @Test
+    public void trimMemory_complete() {
+        mRegistry.trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+
+        assertEquals(0, mRegistry.getSizeInBytes());
+    }
+
+    @Test
+    public void getSummary() {
+        String summary = mRegistry.getSummary();
+
+        assertTrue(summary.contains("low(LOW)=" + SIZE));
+        assertTrue(summary.contains("total=" + SIZE * 3));
+    }
+
+    private static class FakeCache implements CacheRegistry.TrimmableCache {
+        private long mSize;
+
+        FakeCache(long size) {
+            mSize = size;
+        }
+
+        @Override
+        public long getSizeInBytes() {
+            return mSize;
+        }
+
+        @Override
+        public void trimToSize(long maxSizeInBytes) {
+            mSize = Math.min(mSize, maxSizeInBytes);
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package snow.player;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.media.MediaMetadataCompat;
+import android.support.v4.media.session.MediaSessionCompat;
+import android.support.v4.media.session.PlaybackStateCompat;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+import java.util.List;
+
+import snow.player.audio.MusicItem;
+
+/**
+ * 用于向 {@link MediaSessionCompat} 发布播放状态与媒体元数据。
+ * <p>
+ * MediaSession 的每次更新都会通过 Binder 分发给所有的 MediaController（例如蓝牙、车载、手表、锁屏等），
+ * 因此该类会：
+ * <ol>
+ *     <li>将同一次消息循环中的多次状态改变合并为一次，只发布最后的状态；</li>
+ *     <li>只有在播放状态或者媒体元数据真正改变时才会发布；</li>
+ *     <li>将歌曲图片缩放到不超过 {@link #setMaxArtworkSize(int)} 的大小，每张图片只会缩放一次。</li>
+ * </ol>
+ * <p>
+ * 该类的所有方法都应该在主线程中调用。
+ */
+class MediaSessionPublisher {
+    /**
+     * 歌曲图片默认的最大尺寸（单位：像素）。
+     */
+    static final int DEFAULT_MAX_ARTWORK_SIZE = 512;
+
+    private final MediaSessionCompat mMediaSession;
+    private final Handler mHandler;
+    private final Runnable mPublishTask;
+    private boolean mPublishPending;
+
+    @Nullable
+    private PlaybackStateCompat mPendingPlaybackState;
+    @Nullable
+    private PlaybackStateCompat mPublishedPlaybackState;
+
+    @Nullable
+    private Metadata mPendingMetadata;
+    @Nullable
+    private Metadata mPublishedMetadata;
+
+    private int mMaxArtworkSize;
+    @Nullable
+    private Bitmap mArtworkSource;
+    @Nullable
+    private Bitmap mScaledArtwork;
+
+    private boolean mReleased;
+
+    MediaSessionPublisher(@NonNull MediaSessionCompat mediaSession) {
+        Preconditions.checkNotNull(mediaSession);
+
+        mMediaSession = mediaSession;
+        mMaxArtworkSize = DEFAULT_MAX_ARTWORK_SIZE;
+        mHandler = new Handler(Looper.getMainLooper());
+        mPublishTask = new Runnable() {
+            @Override
+            public void run() {
+                publish();
+            }
+        };
+    }
+
+    /**
+     * 设置播放状态，会在当前消息处理完成后发布。
+     */
+    void setPlaybackState(@NonNull PlaybackStateCompat playbackState) {
+        Preconditions.checkNotNull(playbackState);
+
+        mPendingPlaybackState = playbackState;
+        schedulePublish();
+    }
+
+    /**
+     * 获取最新的播放状态（包括尚未发布的播放状态），例如 {@link PlaybackStateCompat#STATE_PLAYING}。
+     */
+    int getPlaybackState() {
+        if (mPendingPlaybackState != null) {
+            return mPendingPlaybackState.getState();
+        }
+
+        if (mPublishedPlaybackState != null) {
+            return mPublishedPlaybackState.getState();
+        }
+
+        return PlaybackStateCompat.STATE_NONE;
+    }
+
+    /**
+     * 设置媒体元数据，会在当前消息处理完成后发布。
+     *
+     * @param musicItem 正在播放的歌曲，为 null 时会发布空的媒体元数据
+     * @param duration  歌曲的持续时间
+     * @param artwork   歌曲图片，可以为 null
+     */
+    void setMetadata(@Nullable MusicItem musicItem, long duration, @Nullable Bitmap artwork) {
+        if (musicItem == null) {
+            mPendingMetadata = Metadata.EMPTY;
+        } else {
+            mPendingMetadata = new Metadata(musicItem, duration, scaleArtwork(artwork));
+        }
+
+        schedulePublish();
+    }
+
+    /**
+     * 设置歌曲图片的最大尺寸（单位：像素），超出该尺寸的图片会被等比缩小，小于等于 0 时不会缩放图片。
+     * <p>
+     * 新的尺寸会在下一次设置媒体元数据时生效。
+     */
+    void setMaxArtworkSize(int maxArtworkSize) {
+        if (mMaxArtworkSize == maxArtworkSize) {
+            return;
+        }
+
+        mMaxArtworkSize = maxArtworkSize;
+        mArtworkSource = null;
+        mScaledArtwork = null;
+    }
+
+    /**
+     * 立即发布尚未发布的播放状态与媒体元数据。
+     */
+    void flush() {
+        if (mPublishPending) {
+            mHandler.removeCallbacks(mPublishTask);
+            publish();
+        }
+    }
+
+    /**
+     * 取消尚未发布的播放状态与媒体元数据，调用该方法后将不再发布任何内容。
+     */
+    void release() {
+        mReleased = true;
+        mHandler.removeCallbacks(mPublishTask);
+        mPublishPending = false;
+    }
+
+    private void schedulePublish() {
+        if (mPublishPending || mReleased) {
+            return;
+        }
+
+        mPublishPending = true;
+        mHandler.post(mPublishTask);
+    }
+
+    private void publish() {
+        mPublishPending = false;
+
+        // 先发布媒体元数据，再发布播放状态，与合并前的顺序保持一致
+        Metadata metadata = mPendingMetadata;
+        mPendingMetadata = null;
+        if (metadata != null && !metadata.equals(mPublishedMetadata)) {
+            mMediaSession.setMetadata(metadata.build());
+            mPublishedMetadata = metadata;
+        }
+
+        PlaybackStateCompat playbackState = mPendingPlaybackState;
+        mPendingPlaybackState = null;
+        if (playbackState != null &&
+                (mPublishedPlaybackState == null || !isSamePlaybackState(mPublishedPlaybackState, playbackState))) {
+            mMediaSession.setPlaybackState(playbackState);
+            mPublishedPlaybackState = playbackState;
+        }
+    }
+
+    // 同一张图片只会缩放一次，并且总是返回同一个 Bitmap 对象，因此可以按引用比较
+    @Nullable
+    private Bitmap scaleArtwork(@Nullable Bitmap artwork) {
+        if (artwork == null) {
+            return null;
+        }
+
+        if (artwork == mArtworkSource) {
+            return mScaledArtwork;
+        }
+
+        mArtworkSource = artwork;
+        mScaledArtwork = scaleBitmap(artwork, mMaxArtworkSize);
+        return mScaledArtwork;
+    }
+
+    @VisibleForTesting
+    static Bitmap scaleBitmap(@NonNull Bitmap bitmap, int maxSize) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+
+        if (maxSize <= 0 || (width <= maxSize && height <= maxSize)) {
+            return bitmap;
+        }
+
+        float scale = maxSize * 1.0F / Math.max(width, height);
+        return Bitmap.createScaledBitmap(bitmap,
+                Math.max(Math.round(width * scale), 1),
+                Math.max(Math.round(height * scale), 1),
+                true);
+    }
+
+    @VisibleForTesting
+    static boolean isSamePlaybackState(@NonNull PlaybackStateCompat a, @NonNull PlaybackStateCompat b) {
+        if (a.getState() != b.getState() ||
+                a.getPosition() != b.getPosition() ||
+                Float.compare(a.getPlaybackSpeed(), b.getPlaybackSpeed()) != 0 ||
+                a.getLastPositionUpdateTime() != b.getLastPositionUpdateTime() ||
+                a.getBufferedPosition() != b.getBufferedPosition() ||
+                a.getActions() != b.getActions() ||
+                a.getErrorCode() != b.getErrorCode() ||
+                !Objects.equal(a.getErrorMessage(), b.getErrorMessage())) {
+            return false;
+        }
+
+        List<PlaybackStateCompat.CustomAction> customActionsA = a.getCustomActions();
+        List<PlaybackStateCompat.CustomAction> customActionsB = b.getCustomActions();
+        if (customActionsA.size() != customActionsB.size()) {
+            return false;
+        }
+
+        for (int i = 0; i < customActionsA.size(); i++) {
+            if (!customActionsA.get(i).getAction().equals(customActionsB.get(i).getAction())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * 媒体元数据中会发布的字段，歌曲图片按引用比较。
+     */
+    @VisibleForTesting
+    static final class Metadata {
+        static final Metadata EMPTY = new Metadata(null, null, null, null, 0, null);
+
+        @Nullable
+        private final String mTitle;
+        @Nullable
+        private final String mArtist;
+        @Nullable
+        private final String mAlbum;
+        @Nullable
+        private final String mIconUri;
+        private final long mDuration;
+        @Nullable
+        private final Bitmap mArtwork;
+
+        Metadata(@NonNull MusicItem musicItem, long duration, @Nullable Bitmap artwork) {
+            this(musicItem.getTitle(), musicItem.getArtist(), musicItem.getAlbum(), musicItem.getIconUri(), duration, artwork);
+        }
+
+        private Metadata(@Nullable String title,
+                         @Nullable String artist,
+                         @Nullable String album,
+                         @Nullable String iconUri,
+                         long duration,
+                         @Nullable Bitmap artwork) {
+            mTitle = title;
+            mArtist = artist;
+            mAlbum = album;
+            mIconUri = iconUri;
+            mDuration = duration;
+            mArtwork = artwork;
+        }
+
+        MediaMetadataCompat build() {
+            if (this == EMPTY) {
+                return new MediaMetadataCompat.Builder().build();
+            }
+
+            return new MediaMetadataCompat.Builder()
+                    .putString(MediaMetadataCompat.METADATA_KEY_TITLE, mTitle)
+                    .putString(MediaMetadataCompat.METADATA_KEY_ARTIST, mArtist)
+                    .putString(MediaMetadataCompat.METADATA_KEY_ALBUM, mAlbum)
+                    .putString(MediaMetadataCompat.METADATA_KEY_DISPLAY_ICON_URI, mIconUri)
+                    .putLong(MediaMetadataCompat.METADATA_KEY_DURATION, mDuration)
+                    .putBitmap(MediaMetadataCompat.METADATA_KEY_ALBUM_ART, mArtwork)
+                    .build();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Metadata other = (Metadata) o;
+            return mDuration == other.mDuration &&
+                    mArtwork == other.mArtwork &&
+                    Objects.equal(mTitle, other.mTitle) &&
+                    Objects.equal(mArtist, other.mArtist) &&
+                    Objects.equal(mAlbum, other.mAlbum) &&
+                    Objects.equal(mIconUri, other.mIconUri);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(mTitle, mArtist, mAlbum, mIconUri, mDuration, System.identityHashCode(mArtwork));
+        }
+    }
+}
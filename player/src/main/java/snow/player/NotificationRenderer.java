@@ -0,0 +1,129 @@
+package snow.player;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * 用于合并与去重通知栏控制器的更新。
+ * <p>
+ * 在 {@link #RENDER_INTERVAL} 毫秒内到达的多次更新请求会被合并为一次；更新前会先计算通知内容的签名，
+ * 如果签名与上一次发布的通知相同，则会跳过本次更新，以减少 {@code NotificationManager.notify} 的调用次数。
+ * <p>
+ * 该类的所有方法都应该在主线程中调用。
+ */
+class NotificationRenderer {
+    /**
+     * 两次更新通知的最小时间间隔（单位：毫秒）。
+     */
+    static final int RENDER_INTERVAL = 100;
+
+    private final Callback mCallback;
+    private final Handler mHandler;
+    private final Runnable mRenderTask;
+
+    private boolean mRenderPending;
+    private boolean mForce;
+    private long mLastRenderTime;
+
+    @Nullable
+    private Object mRenderedSignature;
+    private int mSuppressedCount;
+
+    NotificationRenderer(@NonNull Callback callback) {
+        Preconditions.checkNotNull(callback);
+
+        mCallback = callback;
+        mHandler = new Handler(Looper.getMainLooper());
+        mRenderTask = new Runnable() {
+            @Override
+            public void run() {
+                render();
+            }
+        };
+    }
+
+    /**
+     * 请求更新通知。
+     *
+     * @param force 是否强制更新通知。如果为 false，则只有在通知内容的签名改变时才会更新通知；如果通知的内容依赖于签名之外的状态
+     *              （例如由 NotificationView 的子类自行维护的状态），则应该传入 true。
+     */
+    void requestRender(boolean force) {
+        mForce |= force;
+
+        if (mRenderPending) {
+            // 与尚未执行的更新合并
+            mSuppressedCount++;
+            return;
+        }
+
+        mRenderPending = true;
+
+        long elapsedTime = SystemClock.elapsedRealtime() - mLastRenderTime;
+        mHandler.postDelayed(mRenderTask, Math.max(RENDER_INTERVAL - elapsedTime, 0));
+    }
+
+    private void render() {
+        boolean force = mForce;
+
+        mRenderPending = false;
+        mForce = false;
+
+        if (!force && mRenderedSignature != null && mRenderedSignature.equals(mCallback.getContentSignature())) {
+            mSuppressedCount++;
+            return;
+        }
+
+        mLastRenderTime = SystemClock.elapsedRealtime();
+        mCallback.render();
+    }
+
+    /**
+     * 通知已发布，signature 是已发布的通知的内容签名。
+     */
+    void onRendered(@NonNull Object signature) {
+        mRenderedSignature = signature;
+    }
+
+    /**
+     * 通知已被移除，下一次更新时总是会重新发布通知。
+     */
+    void reset() {
+        mRenderedSignature = null;
+    }
+
+    /**
+     * 取消尚未执行的更新。
+     */
+    void cancel() {
+        mHandler.removeCallbacks(mRenderTask);
+        mRenderPending = false;
+        mForce = false;
+    }
+
+    /**
+     * 获取被合并或者因内容未改变而跳过的通知更新的次数。
+     */
+    int getSuppressedCount() {
+        return mSuppressedCount;
+    }
+
+    interface Callback {
+        /**
+         * 获取当前通知内容的签名，签名相同（{@code equals} 返回 true）的通知会被认为是相同的。
+         */
+        @NonNull
+        Object getContentSignature();
+
+        /**
+         * 发布通知。
+         */
+        void render();
+    }
+}
@@ -0,0 +1,222 @@
+package snow.player;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * 用于在 {@link PlayerClient} 尚未连接时缓存需要执行的命令，并在连接成功后按顺序一次性执行。
+ * <p>
+ * 入队时会按照以下规则合并命令，以减少连接成功后的 Binder 调用次数：
+ * <ol>
+ *     <li>{@link #TYPE_SETTING}：相同 key 的设置只保留最后一次；</li>
+ *     <li>{@link #TYPE_SEEK}：只保留最后一次 seek；</li>
+ *     <li>{@link #TYPE_SET_PLAYLIST}：设置新的播放列表会丢弃之前所有针对旧播放列表的修改、切歌与 seek；</li>
+ *     <li>{@link #TYPE_PLAYBACK}：play/pause/stop 会丢弃之前所有的播放/暂停命令；</li>
+ *     <li>{@link #TYPE_PLAY_PAUSE}：连续两次播放/暂停会相互抵消。</li>
+ * </ol>
+ * <p>
+ * 该类的所有方法都应该在主线程中调用。
+ */
+class PendingCommandQueue {
+    /**
+     * 不参与合并的命令。
+     */
+    static final int TYPE_OTHER = 0;
+    /**
+     * 设置类命令（例如播放模式、播放速度），相同 key 的设置只保留最后一次。
+     */
+    static final int TYPE_SETTING = 1;
+    /**
+     * seek 命令。
+     */
+    static final int TYPE_SEEK = 2;
+    /**
+     * 切歌命令（例如下一曲、上一曲）。
+     */
+    static final int TYPE_NAVIGATE = 3;
+    /**
+     * 修改播放列表的命令（例如插入、移除歌曲）。
+     */
+    static final int TYPE_PLAYLIST_EDIT = 4;
+    /**
+     * 设置新的播放列表。
+     */
+    static final int TYPE_SET_PLAYLIST = 5;
+    /**
+     * 播放、暂停、停止命令。
+     */
+    static final int TYPE_PLAYBACK = 6;
+    /**
+     * 播放/暂停命令。
+     */
+    static final int TYPE_PLAY_PAUSE = 7;
+
+    private final LinkedList<Command> mCommands;
+
+    private int mQueuedCount;
+    private int mMergedCount;
+
+    PendingCommandQueue() {
+        mCommands = new LinkedList<>();
+    }
+
+    /**
+     * 将命令加入队列。
+     *
+     * @param type   命令的类型
+     * @param action 要执行的命令
+     */
+    void enqueue(int type, @NonNull Runnable action) {
+        enqueue(type, null, action);
+    }
+
+    /**
+     * 将命令加入队列。
+     *
+     * @param type   命令的类型
+     * @param key    设置类命令（{@link #TYPE_SETTING}）的 key，其他类型的命令会忽略该参数
+     * @param action 要执行的命令
+     */
+    void enqueue(int type, @Nullable String key, @NonNull Runnable action) {
+        Preconditions.checkNotNull(action);
+
+        mQueuedCount++;
+
+        switch (type) {
+            case TYPE_SETTING:
+                removeSetting(key);
+                break;
+            case TYPE_SEEK:
+                removeAll(TYPE_SEEK);
+                break;
+            case TYPE_SET_PLAYLIST:
+                removeAll(TYPE_SET_PLAYLIST, TYPE_PLAYLIST_EDIT, TYPE_NAVIGATE, TYPE_SEEK);
+                break;
+            case TYPE_PLAYBACK:
+                removeAll(TYPE_PLAYBACK, TYPE_PLAY_PAUSE);
+                break;
+            case TYPE_PLAY_PAUSE:
+                if (cancelLastPlayPause()) {
+                    return;
+                }
+                break;
+        }
+
+        mCommands.add(new Command(type, key, action));
+    }
+
+    /**
+     * 按顺序执行并清空队列中的所有命令。
+     */
+    void flush() {
+        if (mCommands.isEmpty()) {
+            return;
+        }
+
+        // 执行命令时可能会再次入队，因此先复制
+        List<Command> commands = new ArrayList<>(mCommands);
+        mCommands.clear();
+
+        for (Command command : commands) {
+            command.mAction.run();
+        }
+    }
+
+    /**
+     * 清空队列中的所有命令。
+     */
+    void clear() {
+        mCommands.clear();
+    }
+
+    /**
+     * 获取队列中尚未执行的命令的数量。
+     */
+    int size() {
+        return mCommands.size();
+    }
+
+    /**
+     * 获取入队命令的总数。
+     */
+    int getQueuedCount() {
+        return mQueuedCount;
+    }
+
+    /**
+     * 获取因合并而被丢弃的命令的总数。
+     */
+    int getMergedCount() {
+        return mMergedCount;
+    }
+
+    private void removeSetting(@Nullable String key) {
+        Iterator<Command> iterator = mCommands.iterator();
+        while (iterator.hasNext()) {
+            Command command = iterator.next();
+            if (command.mType == TYPE_SETTING && Objects.equal(command.mKey, key)) {
+                iterator.remove();
+                mMergedCount++;
+            }
+        }
+    }
+
+    private void removeAll(int... types) {
+        Iterator<Command> iterator = mCommands.iterator();
+        while (iterator.hasNext()) {
+            if (contains(types, iterator.next().mType)) {
+                iterator.remove();
+                mMergedCount++;
+            }
+        }
+    }
+
+    private static boolean contains(int[] types, int type) {
+        for (int t : types) {
+            if (t == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 如果最后一个播放/暂停相关的命令也是 TYPE_PLAY_PAUSE，则两者相互抵消
+    private boolean cancelLastPlayPause() {
+        Iterator<Command> iterator = mCommands.descendingIterator();
+        while (iterator.hasNext()) {
+            Command command = iterator.next();
+            if (command.mType == TYPE_PLAYBACK) {
+                return false;
+            }
+
+            if (command.mType == TYPE_PLAY_PAUSE) {
+                iterator.remove();
+                mMergedCount += 2;
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static final class Command {
+        final int mType;
+        @Nullable
+        final String mKey;
+        final Runnable mAction;
+
+        Command(int type, @Nullable String key, Runnable action) {
+            mType = type;
+            mKey = key;
+            mAction = action;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package snow.player;
+
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+
+import snow.player.audio.ErrorCode;
+import snow.player.audio.MusicItem;
+import snow.player.metrics.PlaybackMetrics;
+
+/**
+ * 记录播放会话的性能指标，并在会话结束时通知 {@link PlaybackMetrics.Listener}。
+ * <p>
+ * 只有设置了 {@link PlaybackMetrics.Listener} 时才会创建该类的对象，因此在未启用时没有任何开销。
+ * 该类的所有方法都应该在主线程中调用。
+ */
+final class PlaybackMetricsRecorder {
+    private static final long NONE = PlaybackMetrics.NOT_MEASURED;
+
+    private final PlaybackMetrics.Listener mListener;
+
+    @Nullable
+    private MusicItem mMusicItem;
+    private long mStartTime;
+
+    private long mPrepareMusicItemStart;
+    private long mPrepareMusicItemTime;
+    private long mRetrieveUriStart;
+    private long mRetrieveUriTime;
+    private long mPrepareStart;
+    private long mPrepareTime;
+    private long mAudioFocusStart;
+    private long mAudioFocusTime;
+    private long mStartupTime;
+
+    private boolean mPlaying;
+    private long mPlayingSince;
+    private long mPlayDuration;
+    private long mStalledSince;
+    private int mStallCount;
+    private long mStallDuration;
+    private int mErrorCode;
+
+    PlaybackMetricsRecorder(@NonNull PlaybackMetrics.Listener listener) {
+        Preconditions.checkNotNull(listener);
+        mListener = listener;
+    }
+
+    /**
+     * 切换歌曲时调用，会结束当前播放会话，并为新的歌曲开始一个新的播放会话。
+     */
+    void onMusicItemChanged(@Nullable MusicItem musicItem) {
+        endSession();
+
+        if (musicItem != null) {
+            beginSession(musicItem);
+            mPrepareMusicItemStart = mStartTime;
+        }
+    }
+
+    void onMusicItemPrepared() {
+        if (mMusicItem != null && mPrepareMusicItemStart != NONE) {
+            mPrepareMusicItemTime = now() - mPrepareMusicItemStart;
+            mPrepareMusicItemStart = NONE;
+        }
+    }
+
+    /**
+     * 请求播放时调用，如果当前没有播放会话，则开始一个新的播放会话（例如停止后重新播放）。
+     */
+    void onPlayRequested(@NonNull MusicItem musicItem) {
+        if (mMusicItem == null) {
+            beginSession(musicItem);
+        }
+    }
+
+    void onAudioFocusRequestStart() {
+        mAudioFocusStart = now();
+    }
+
+    void onAudioFocusRequestEnd() {
+        if (mMusicItem == null || mAudioFocusStart == NONE) {
+            return;
+        }
+
+        mAudioFocusTime = Math.max(mAudioFocusTime, 0) + (now() - mAudioFocusStart);
+        mAudioFocusStart = NONE;
+    }
+
+    void onRetrieveUriStart() {
+        mRetrieveUriStart = now();
+    }
+
+    void onRetrieveUriEnd() {
+        if (mMusicItem != null && mRetrieveUriStart != NONE) {
+            mRetrieveUriTime = now() - mRetrieveUriStart;
+            mRetrieveUriStart = NONE;
+        }
+    }
+
+    void onPrepareStart() {
+        mPrepareStart = now();
+    }
+
+    void onPrepared() {
+        if (mMusicItem != null && mPrepareStart != NONE) {
+            mPrepareTime = now() - mPrepareStart;
+            mPrepareStart = NONE;
+        }
+    }
+
+    void onPlaying(boolean stalled) {
+        if (mMusicItem == null) {
+            return;
+        }
+
+        long now = now();
+        mPlaying = true;
+
+        if (stalled) {
+            if (mStalledSince == NONE) {
+                mStalledSince = now;
+                if (mStartupTime != NONE) {
+                    mStallCount += 1;
+                }
+            }
+            return;
+        }
+
+        onAudible(now);
+    }
+
+    void onStalledChanged(boolean stalled) {
+        if (mMusicItem == null || !mPlaying) {
+            return;
+        }
+
+        long now = now();
+
+        if (stalled) {
+            accumulatePlayDuration(now);
+            if (mStalledSince == NONE) {
+                mStalledSince = now;
+                if (mStartupTime != NONE) {
+                    mStallCount += 1;
+                }
+            }
+            return;
+        }
+
+        closeStall(now);
+        onAudible(now);
+    }
+
+    void onPaused() {
+        if (mMusicItem == null) {
+            return;
+        }
+
+        long now = now();
+        accumulatePlayDuration(now);
+        closeStall(now);
+        mPlaying = false;
+    }
+
+    void onStopped() {
+        endSession();
+    }
+
+    void onError(int errorCode) {
+        if (mMusicItem == null) {
+            return;
+        }
+
+        mErrorCode = errorCode;
+        endSession();
+    }
+
+    void release() {
+        endSession();
+    }
+
+    private void beginSession(@NonNull MusicItem musicItem) {
+        mMusicItem = musicItem;
+        mStartTime = now();
+
+        mPrepareMusicItemStart = NONE;
+        mPrepareMusicItemTime = NONE;
+        mRetrieveUriStart = NONE;
+        mRetrieveUriTime = NONE;
+        mPrepareStart = NONE;
+        mPrepareTime = NONE;
+        mAudioFocusStart = NONE;
+        mAudioFocusTime = NONE;
+        mStartupTime = NONE;
+
+        mPlaying = false;
+        mPlayingSince = NONE;
+        mPlayDuration = 0;
+        mStalledSince = NONE;
+        mStallCount = 0;
+        mStallDuration = 0;
+        mErrorCode = ErrorCode.NO_ERROR;
+    }
+
+    private void endSession() {
+        MusicItem musicItem = mMusicItem;
+        if (musicItem == null) {
+            return;
+        }
+
+        long now = now();
+        accumulatePlayDuration(now);
+        closeStall(now);
+        mMusicItem = null;
+
+        // 只报告成功开始播放或者发生错误的会话
+        if (mStartupTime == NONE && mErrorCode == ErrorCode.NO_ERROR) {
+            return;
+        }
+
+        mListener.onPlaybackMetrics(new PlaybackMetrics.Builder(musicItem, mStartTime)
+                .setPrepareMusicItemTime(mPrepareMusicItemTime)
+                .setRetrieveUriTime(mRetrieveUriTime)
+                .setPrepareTime(mPrepareTime)
+                .setAudioFocusTime(mAudioFocusTime)
+                .setStartupTime(mStartupTime)
+                .setStallCount(mStallCount)
+                .setStallDuration(mStallDuration)
+                .setPlayDuration(mPlayDuration)
+                .setErrorCode(mErrorCode)
+                .build());
+    }
+
+    private void onAudible(long now) {
+        if (mStartupTime == NONE) {
+            mStartupTime = now - mStartTime;
+            // 开始输出声音前的缓冲属于启动耗时，不计入卡顿
+            mStalledSince = NONE;
+        }
+
+        if (mPlayingSince == NONE) {
+            mPlayingSince = now;
+        }
+    }
+
+    private void accumulatePlayDuration(long now) {
+        if (mPlayingSince != NONE) {
+            mPlayDuration += now - mPlayingSince;
+            mPlayingSince = NONE;
+        }
+    }
+
+    private void closeStall(long now) {
+        if (mStalledSince == NONE) {
+            return;
+        }
+
+        if (mStartupTime != NONE) {
+            mStallDuration += now - mStalledSince;
+        }
+
+        mStalledSince = NONE;
+    }
+
+    private static long now() {
+        return SystemClock.elapsedRealtime();
+    }
+}
@@ -42,6 +42,31 @@ public interface Player {
      */
     void seekTo(int progress);
 
+    /**
+     * 开始拖动播放进度。
+     * <p>
+     * 开始拖动后，请使用 {@link #scrubTo(int)} 方法调整播放进度，并在拖动结束时调用 {@link #endScrub()} 方法。
+     */
+    void beginScrub();
+
+    /**
+     * 拖动播放进度。
+     * <p>
+     * 拖动期间会使用快速 seek（调整到附近的关键帧处），并且只有上一次 seek 完成后才会 seek 到最新的播放进度，
+     * 中间的播放进度会被丢弃，也不会通知播放进度改变。如果没有调用 {@link #beginScrub()} 方法，则等同于
+     * {@link #seekTo(int)} 方法。
+     *
+     * @param progress 要调整到的播放进度
+     */
+    void scrubTo(int progress);
+
+    /**
+     * 结束拖动播放进度。
+     * <p>
+     * 会精确地调整到最后一次 {@link #scrubTo(int)} 的播放进度，并通知播放进度改变。
+     */
+    void endScrub();
+
     /**
      * 快进。
      */
@@ -33,6 +33,7 @@ import snow.player.playlist.Playlist;
 import snow.player.playlist.PlaylistEditor;
 import snow.player.playlist.PlaylistManager;
 import snow.player.audio.ErrorCode;
+import snow.player.util.CacheRegistry;
 
 /**
  * 播放器客户端，用于向 {@link PlayerService} 发送各种控制命令，已经监听 {@link PlayerService} 的状态改变。
@@ -68,7 +69,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
 
     private boolean mConnecting;
     private boolean mAutoConnect;
-    private Runnable mConnectedAction;
+    private final PendingCommandQueue mPendingCommands;
 
     private final List<Player.OnPlaybackStateChangeListener> mAllPlaybackStateChangeListener;
     private final List<Player.OnPrepareListener> mAllPrepareListener;
@@ -97,6 +98,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         mPersistentId = PlayerService.getPersistenceId(playerService);
 
         mPlayerConfig = new PlayerConfig(context, mPersistentId);
+        mPendingCommands = new PendingCommandQueue();
 
         mAllPlaybackStateChangeListener = new ArrayList<>();
         mAllPrepareListener = new ArrayList<>();
@@ -169,6 +171,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
 
                     @Override
                     public void onConnectionFailed() {
+                        mPendingCommands.clear();
                         onDisconnected();
 
                         if (mConnectCallback != null) {
@@ -243,12 +246,22 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
 
     private void notifyConnectStateChanged(boolean connected) {
         mConnecting = false;
+
+        // 客户端缓存的播放列表只在连接期间使用，内存不足时可以丢弃
+        if (connected) {
+            CacheRegistry.getDefault().register("PlayerClient.playlist",
+                    CacheRegistry.TrimPolicy.LOW,
+                    mPlaylistManager.getTrimmableCache());
+        } else {
+            CacheRegistry.getDefault().unregister(mPlaylistManager.getTrimmableCache());
+        }
+
         for (OnConnectStateChangeListener listener : mAllConnectStateChangeListener) {
             listener.onConnectStateChanged(connected);
         }
 
-        if (connected && mConnectedAction != null) {
-            mConnectedAction.run();
+        if (connected) {
+            mPendingCommands.flush();
         }
     }
 
@@ -310,6 +323,10 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
      * 如果启用了 {@link PlayerClient} 的自动连接功能，那么在调用定义在 {@link Player} 接口与
      * {@link PlaylistEditor} 接口中的方法时，如果 {@link PlayerClient} 还没有连接到 {@link PlayerService}，
      * 或者连接已断开，则 {@link PlayerClient} 会尝试自动建立连接，并且会在连接成功后再去执行对应的方法。
+     * <p>
+     * 连接成功前调用的方法会按顺序加入队列，并在连接成功后一次性执行。入队时会合并可以合并的命令，例如多次 seek
+     * 只会保留最后一次、设置新的播放列表会丢弃之前对播放列表的修改、连续两次 {@link #playPause()} 会相互抵消。
+     * 如果连接失败，则会丢弃队列中的所有命令。
      *
      * @param autoConnect 是否启用自动连接功能，为 true 时启用自动连接，为 false 时不启用。
      * @see Player
@@ -487,6 +504,24 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         mPlayerManager.setAudioEffectConfig(config);
     }
 
+    /**
+     * 修改音频特效的配置，配置会立即生效，但会延迟保存。
+     * <p>
+     * 适用于频繁修改配置的场景（例如：拖动均衡器的频段），修改完成后应调用
+     * {@link #setAudioEffectConfig(Bundle)} 方法立即保存最终的配置。
+     *
+     * @param config 要设置的音频特效配置，不能为 null。
+     */
+    @Override
+    public void updateAudioEffectConfig(@NonNull Bundle config) {
+        Preconditions.checkNotNull(config);
+        if (!isConnected()) {
+            return;
+        }
+
+        mPlayerManager.updateAudioEffectConfig(config);
+    }
+
     /**
      * 设置是否启用音频特效（如：均衡器）（默认为 false）。
      * <p>
@@ -649,7 +684,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         }
 
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_SET_PLAYLIST, new Runnable() {
                 @Override
                 public void run() {
                     setPlaylist(playlist, position, play);
@@ -932,7 +967,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void skipToNext() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_NAVIGATE, new Runnable() {
                 @Override
                 public void run() {
                     skipToNext();
@@ -952,7 +987,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void skipToPrevious() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_NAVIGATE, new Runnable() {
                 @Override
                 public void run() {
                     skipToPrevious();
@@ -979,7 +1014,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         }
 
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_NAVIGATE, new Runnable() {
                 @Override
                 public void run() {
                     skipToPosition(position);
@@ -1006,7 +1041,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         }
 
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_NAVIGATE, new Runnable() {
                 @Override
                 public void run() {
                     playPause(position);
@@ -1029,7 +1064,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     public void setPlayMode(@NonNull final PlayMode playMode) {
         Preconditions.checkNotNull(playMode);
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_SETTING, "playMode", new Runnable() {
                 @Override
                 public void run() {
                     setPlayMode(playMode);
@@ -1049,7 +1084,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void setSpeed(final float speed) {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_SETTING, "speed", new Runnable() {
                 @Override
                 public void run() {
                     setSpeed(speed);
@@ -1064,7 +1099,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void setVolume(float volume) {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_SETTING, "volume", new Runnable() {
                 @Override
                 public void run() {
                     setVolume(volume);
@@ -1076,20 +1111,49 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         mPlayer.setVolume(volume);
     }
 
-    private void tryAutoConnect(@Nullable Runnable connectedAction) {
+    private void tryAutoConnect(int commandType, @NonNull Runnable connectedAction) {
+        tryAutoConnect(commandType, null, connectedAction);
+    }
+
+    // 尚未连接时，命令会加入队列，并在连接成功后按顺序一次性执行，见 PendingCommandQueue
+    private void tryAutoConnect(int commandType, @Nullable String key, @NonNull Runnable connectedAction) {
         if (!mAutoConnect) {
             return;
         }
 
-        if (isConnected() && connectedAction != null) {
+        if (isConnected()) {
             connectedAction.run();
             return;
         }
 
-        mConnectedAction = connectedAction;
+        mPendingCommands.enqueue(commandType, key, connectedAction);
         connect();
     }
 
+    /**
+     * 获取自动连接期间加入队列的命令的总数。
+     * <p>
+     * 启用自动连接功能后（见 {@link #setAutoConnect(boolean)}），未连接时调用的命令会加入队列，并在连接成功后一次性执行。
+     *
+     * @return 自动连接期间加入队列的命令的总数
+     * @see #getMergedCommandCount()
+     */
+    public int getQueuedCommandCount() {
+        return mPendingCommands.getQueuedCount();
+    }
+
+    /**
+     * 获取自动连接期间因合并而被丢弃的命令的总数。
+     * <p>
+     * 例如，连接成功前多次调用 {@link #seekTo(int)} 方法时，只有最后一次会被执行。
+     *
+     * @return 自动连接期间因合并而被丢弃的命令的总数
+     * @see #getQueuedCommandCount()
+     */
+    public int getMergedCommandCount() {
+        return mPendingCommands.getMergedCount();
+    }
+
     /**
      * 开始播放。
      * <p>
@@ -1098,7 +1162,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void play() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYBACK, new Runnable() {
                 @Override
                 public void run() {
                     play();
@@ -1118,7 +1182,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void pause() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYBACK, new Runnable() {
                 @Override
                 public void run() {
                     pause();
@@ -1138,7 +1202,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void stop() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYBACK, new Runnable() {
                 @Override
                 public void run() {
                     stop();
@@ -1158,7 +1222,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void playPause() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAY_PAUSE, new Runnable() {
                 @Override
                 public void run() {
                     playPause();
@@ -1180,7 +1244,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void seekTo(final int progress) {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_SEEK, new Runnable() {
                 @Override
                 public void run() {
                     seekTo(progress);
@@ -1192,6 +1256,70 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         mPlayer.seekTo(progress);
     }
 
+    /**
+     * 开始拖动播放进度（例如开始拖动进度条时）。
+     * <p>
+     * 拖动期间请使用 {@link #scrubTo(int)} 方法代替 {@link #seekTo(int)} 方法，并在拖动结束时调用 {@link #endScrub()} 方法。
+     * <p>
+     * 该方法只在连接到播放器后（{@link #isConnected()} 返回 true）才有效。
+     */
+    @Override
+    public void beginScrub() {
+        if (notConnected()) {
+            tryAutoConnect(PendingCommandQueue.TYPE_OTHER, new Runnable() {
+                @Override
+                public void run() {
+                    beginScrub();
+                }
+            });
+            return;
+        }
+
+        mPlayer.beginScrub();
+    }
+
+    /**
+     * 拖动播放进度（单位：毫秒）。
+     * <p>
+     * 拖动期间只会 seek 到最新的播放进度，并且不会通知播放进度改变。
+     * <p>
+     * 该方法只在连接到播放器后（{@link #isConnected()} 返回 true）才有效。
+     */
+    @Override
+    public void scrubTo(final int progress) {
+        if (notConnected()) {
+            tryAutoConnect(PendingCommandQueue.TYPE_SEEK, new Runnable() {
+                @Override
+                public void run() {
+                    scrubTo(progress);
+                }
+            });
+            return;
+        }
+
+        mPlayer.scrubTo(progress);
+    }
+
+    /**
+     * 结束拖动播放进度，会精确地调整到最后一次 {@link #scrubTo(int)} 的播放进度。
+     * <p>
+     * 该方法只在连接到播放器后（{@link #isConnected()} 返回 true）才有效。
+     */
+    @Override
+    public void endScrub() {
+        if (notConnected()) {
+            tryAutoConnect(PendingCommandQueue.TYPE_OTHER, new Runnable() {
+                @Override
+                public void run() {
+                    endScrub();
+                }
+            });
+            return;
+        }
+
+        mPlayer.endScrub();
+    }
+
     /**
      * 当前正在播放的歌曲是否禁用了所有 seek 操作。
      * <p>
@@ -1235,7 +1363,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void fastForward() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_OTHER, new Runnable() {
                 @Override
                 public void run() {
                     fastForward();
@@ -1255,7 +1383,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void rewind() {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_OTHER, new Runnable() {
                 @Override
                 public void run() {
                     rewind();
@@ -2171,7 +2299,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         Preconditions.checkNotNull(musicItem);
 
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     insertMusicItem(position, musicItem);
@@ -2187,7 +2315,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     public void appendMusicItem(@NonNull final MusicItem musicItem) {
         Preconditions.checkNotNull(musicItem);
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     appendMusicItem(musicItem);
@@ -2218,7 +2346,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
         }
 
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     moveMusicItem(fromPosition, toPosition);
@@ -2234,7 +2362,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     public void removeMusicItem(@NonNull final MusicItem musicItem) {
         Preconditions.checkNotNull(musicItem);
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     removeMusicItem(musicItem);
@@ -2249,7 +2377,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     @Override
     public void removeMusicItem(final int position) {
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     removeMusicItem(position);
@@ -2265,7 +2393,7 @@ public class PlayerClient implements Player, PlayerManager, PlaylistManager, Pla
     public void setNextPlay(@NonNull final MusicItem musicItem) {
         Preconditions.checkNotNull(musicItem);
         if (notConnected()) {
-            tryAutoConnect(new Runnable() {
+            tryAutoConnect(PendingCommandQueue.TYPE_PLAYLIST_EDIT, new Runnable() {
                 @Override
                 public void run() {
                     setNextPlay(musicItem);
@@ -29,6 +29,15 @@ public interface PlayerManager {
      */
     void setAudioEffectConfig(Bundle config);
 
+    /**
+     * 修改音频特效的配置，但不会立即保存。
+     * <p>
+     * 配置会立即生效，但只有在一段时间内（{@link PlayerService#AUDIO_EFFECT_CONFIG_PERSIST_DELAY}）
+     * 没有再次修改配置时才会被保存。适用于拖动均衡器频段等会频繁修改配置的场景，拖动结束后应调用
+     * {@link #setAudioEffectConfig(Bundle)} 方法立即保存最终的配置。
+     */
+    void updateAudioEffectConfig(Bundle config);
+
     /**
      * 设置是否启用音频特效（如：均衡器）（默认为 false）。
      *
@@ -0,0 +1,365 @@
+package snow.player;
+
+import android.os.Process;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+import snow.player.metrics.LatencyHistogram;
+
+/**
+ * 播放器专用的调度器。
+ * <p>
+ * 与共享的 {@code Schedulers.io()} 不同，该类的线程数是有限的，并且任务会按照 {@link Priority} 的优先级执行：
+ * 前台线程池只执行 {@link Priority#INTERACTIVE} 与 {@link Priority#CURRENT_TRACK} 任务，后台线程池执行其他任务，
+ * 因此耗时较长的后台任务（例如扫描本地歌曲）不会延迟用户刚刚点击的歌曲的准备工作。
+ * <p>
+ * 在任务开始执行前取消订阅（dispose）时，任务会被直接跳过，因此过时的任务（例如用户已经切换到下一首歌曲时，
+ * 上一首歌曲的播放链接的获取任务）不会占用线程。已经开始执行的任务不会被中断，以免在任务中抛出无法处理的异常。
+ * <p>
+ * 调用 {@link #shutdown()} 方法后提交的任务会被直接丢弃（不会抛出 {@link RejectedExecutionException}），
+ * 可以使用 {@link #getRejectedCount()} 方法获取被丢弃的任务的数量。
+ * <p>
+ * 可以覆盖 {@link PlayerService#onCreatePlayerSchedulers()} 方法为播放器提供自定义的 {@link PlayerSchedulers}
+ * （例如在测试中使用单线程的调度器）。
+ */
+public final class PlayerSchedulers {
+    /**
+     * 前台线程池默认的线程数。
+     */
+    public static final int DEFAULT_FOREGROUND_THREADS = 2;
+    /**
+     * 后台线程池默认的线程数。
+     */
+    public static final int DEFAULT_BACKGROUND_THREADS = 2;
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static PlayerSchedulers sDefault;
+
+    private final ThreadPoolExecutor mForegroundPool;
+    private final ThreadPoolExecutor mBackgroundPool;
+    private final AtomicLong mSequence;
+    private final AtomicLong mRejectedCount;
+
+    private final Map<Priority, Scheduler> mSchedulers;
+    private final Map<Priority, AtomicInteger> mQueueDepths;
+    private final Map<Priority, LatencyHistogram> mWaitTimes;
+
+    /**
+     * 任务的优先级，优先级从高到低依次为：
+     * {@link #INTERACTIVE} > {@link #CURRENT_TRACK} > {@link #PREFETCH} > {@link #PERSISTENCE} > {@link #MAINTENANCE}。
+     */
+    public enum Priority {
+        /**
+         * 用户正在等待结果的任务，例如准备用户刚刚点击的歌曲、获取歌曲的播放链接。
+         */
+        INTERACTIVE,
+        /**
+         * 与正在播放的歌曲相关的 I/O 任务，例如加载歌曲图片、读取播放列表。
+         */
+        CURRENT_TRACK,
+        /**
+         * 预加载任务，例如为 MediaBrowser 加载媒体内容。
+         */
+        PREFETCH,
+        /**
+         * 持久化任务，例如保存播放列表、写入数据库。
+         */
+        PERSISTENCE,
+        /**
+         * 维护任务，例如扫描本地歌曲、更新数据库索引。
+         */
+        MAINTENANCE;
+
+        boolean isForeground() {
+            return this == INTERACTIVE || this == CURRENT_TRACK;
+        }
+    }
+
+    /**
+     * 使用默认的线程数（见 {@link #DEFAULT_FOREGROUND_THREADS}、{@link #DEFAULT_BACKGROUND_THREADS}）创建一个
+     * {@link PlayerSchedulers} 对象。
+     */
+    public PlayerSchedulers() {
+        this(DEFAULT_FOREGROUND_THREADS, DEFAULT_BACKGROUND_THREADS);
+    }
+
+    /**
+     * 创建一个 {@link PlayerSchedulers} 对象。
+     *
+     * @param foregroundThreads 前台线程池的线程数，必须大于 0
+     * @param backgroundThreads 后台线程池的线程数，必须大于 0
+     */
+    public PlayerSchedulers(int foregroundThreads, int backgroundThreads) {
+        Preconditions.checkArgument(foregroundThreads > 0, "foregroundThreads must > 0");
+        Preconditions.checkArgument(backgroundThreads > 0, "backgroundThreads must > 0");
+
+        mForegroundPool = createThreadPool(foregroundThreads, "fg", Process.THREAD_PRIORITY_DEFAULT);
+        mBackgroundPool = createThreadPool(backgroundThreads, "bg", Process.THREAD_PRIORITY_BACKGROUND);
+        mSequence = new AtomicLong();
+        mRejectedCount = new AtomicLong();
+
+        mSchedulers = new EnumMap<>(Priority.class);
+        mQueueDepths = new EnumMap<>(Priority.class);
+        mWaitTimes = new EnumMap<>(Priority.class);
+
+        for (Priority priority : Priority.values()) {
+            mQueueDepths.put(priority, new AtomicInteger());
+            mWaitTimes.put(priority, new LatencyHistogram());
+            mSchedulers.put(priority, Schedulers.from(new PriorityExecutor(priority)));
+        }
+    }
+
+    /**
+     * 获取默认的 {@link PlayerSchedulers} 对象。
+     */
+    @NonNull
+    public static synchronized PlayerSchedulers getDefault() {
+        if (sDefault == null) {
+            sDefault = new PlayerSchedulers();
+        }
+
+        return sDefault;
+    }
+
+    private static ThreadPoolExecutor createThreadPool(int threads, String name, int threadPriority) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<Runnable>(),
+                new PlayerThreadFactory(name, threadPriority));
+
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * 获取指定优先级的调度器。
+     */
+    @NonNull
+    public Scheduler get(@NonNull Priority priority) {
+        Preconditions.checkNotNull(priority);
+        return mSchedulers.get(priority);
+    }
+
+    /**
+     * 获取 {@link Priority#INTERACTIVE} 优先级的调度器。
+     */
+    @NonNull
+    public Scheduler interactive() {
+        return get(Priority.INTERACTIVE);
+    }
+
+    /**
+     * 获取 {@link Priority#CURRENT_TRACK} 优先级的调度器。
+     */
+    @NonNull
+    public Scheduler currentTrack() {
+        return get(Priority.CURRENT_TRACK);
+    }
+
+    /**
+     * 获取 {@link Priority#PREFETCH} 优先级的调度器。
+     */
+    @NonNull
+    public Scheduler prefetch() {
+        return get(Priority.PREFETCH);
+    }
+
+    /**
+     * 获取 {@link Priority#PERSISTENCE} 优先级的调度器。
+     */
+    @NonNull
+    public Scheduler persistence() {
+        return get(Priority.PERSISTENCE);
+    }
+
+    /**
+     * 获取 {@link Priority#MAINTENANCE} 优先级的调度器。
+     */
+    @NonNull
+    public Scheduler maintenance() {
+        return get(Priority.MAINTENANCE);
+    }
+
+    /**
+     * 获取指定优先级的任务中，已提交但尚未开始执行的任务的数量。
+     */
+    public int getQueueDepth(@NonNull Priority priority) {
+        Preconditions.checkNotNull(priority);
+        return mQueueDepths.get(priority).get();
+    }
+
+    /**
+     * 获取调用 {@link #shutdown()} 方法后提交的、被直接丢弃的任务的数量。
+     */
+    public long getRejectedCount() {
+        return mRejectedCount.get();
+    }
+
+    /**
+     * 获取指定优先级的任务从提交到开始执行的平均等待时间（单位：毫秒）。
+     */
+    public long getMeanWaitTime(@NonNull Priority priority) {
+        LatencyHistogram histogram = getWaitTimeHistogram(priority);
+        synchronized (histogram) {
+            return histogram.getMean();
+        }
+    }
+
+    /**
+     * 获取指定优先级的任务从提交到开始执行的等待时间的百分位数（单位：毫秒）。
+     *
+     * @param priority   任务的优先级
+     * @param percentile 百分位，范围为 (0, 100]，例如 99 表示 P99
+     */
+    public long getWaitTimePercentile(@NonNull Priority priority, double percentile) {
+        LatencyHistogram histogram = getWaitTimeHistogram(priority);
+        synchronized (histogram) {
+            return histogram.getPercentile(percentile);
+        }
+    }
+
+    /**
+     * 获取指定优先级的任务的等待时间统计摘要。
+     */
+    @NonNull
+    public String getSummary(@NonNull Priority priority) {
+        LatencyHistogram histogram = getWaitTimeHistogram(priority);
+        synchronized (histogram) {
+            return priority + "{queueDepth=" + getQueueDepth(priority) + ", waitTime=" + histogram + "}";
+        }
+    }
+
+    private LatencyHistogram getWaitTimeHistogram(Priority priority) {
+        Preconditions.checkNotNull(priority);
+        return mWaitTimes.get(priority);
+    }
+
+    /**
+     * 关闭所有线程，尚未执行的任务会被丢弃，之后提交的任务也会被丢弃。
+     * <p>
+     * 不能关闭默认的 {@link PlayerSchedulers} 对象（见 {@link #getDefault()}）。
+     */
+    public void shutdown() {
+        synchronized (PlayerSchedulers.class) {
+            Preconditions.checkState(this != sDefault, "can't shutdown the default PlayerSchedulers");
+        }
+
+        onDropped(mForegroundPool.shutdownNow());
+        onDropped(mBackgroundPool.shutdownNow());
+    }
+
+    // 被丢弃的任务不会再执行，因此需要从队列深度中减去
+    private void onDropped(List<Runnable> droppedTasks) {
+        for (Runnable task : droppedTasks) {
+            mQueueDepths.get(((PriorityTask) task).mPriority).decrementAndGet();
+        }
+    }
+
+    private class PriorityExecutor implements Executor {
+        private final Priority mPriority;
+
+        PriorityExecutor(Priority priority) {
+            mPriority = priority;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            mQueueDepths.get(mPriority).incrementAndGet();
+
+            PriorityTask task = new PriorityTask(command, mPriority, mSequence.getAndIncrement());
+            try {
+                if (mPriority.isForeground()) {
+                    mForegroundPool.execute(task);
+                } else {
+                    mBackgroundPool.execute(task);
+                }
+            } catch (RejectedExecutionException e) {
+                // 已调用 shutdown()，直接丢弃任务，以免 RxJava 将异常交给 RxJavaPlugins 导致崩溃
+                mQueueDepths.get(mPriority).decrementAndGet();
+                mRejectedCount.incrementAndGet();
+            }
+        }
+    }
+
+    private class PriorityTask implements Runnable, Comparable<PriorityTask> {
+        private final Runnable mCommand;
+        private final Priority mPriority;
+        private final long mSequence;
+        private final long mSubmitTime;
+
+        PriorityTask(Runnable command, Priority priority, long sequence) {
+            mCommand = command;
+            mPriority = priority;
+            mSequence = sequence;
+            mSubmitTime = SystemClock.elapsedRealtime();
+        }
+
+        @Override
+        public void run() {
+            mQueueDepths.get(mPriority).decrementAndGet();
+
+            LatencyHistogram histogram = mWaitTimes.get(mPriority);
+            synchronized (histogram) {
+                histogram.record(SystemClock.elapsedRealtime() - mSubmitTime);
+            }
+
+            mCommand.run();
+        }
+
+        // 优先级高的任务先执行，优先级相同的任务按提交顺序执行
+        @Override
+        public int compareTo(PriorityTask other) {
+            int result = mPriority.compareTo(other.mPriority);
+            if (result != 0) {
+                return result;
+            }
+
+            if (mSequence == other.mSequence) {
+                return 0;
+            }
+
+            return mSequence < other.mSequence ? -1 : 1;
+        }
+    }
+
+    private static class PlayerThreadFactory implements ThreadFactory {
+        private final String mName;
+        private final int mThreadPriority;
+        private final AtomicInteger mCount;
+
+        PlayerThreadFactory(String name, int threadPriority) {
+            mName = name;
+            mThreadPriority = threadPriority;
+            mCount = new AtomicInteger();
+        }
+
+        @Override
+        public Thread newThread(@NonNull final Runnable r) {
+            return new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Process.setThreadPriority(mThreadPriority);
+                    r.run();
+                }
+            }, "PlayerSchedulers-" + mName + "-" + mCount.incrementAndGet());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package snow.player;
 
+import android.annotation.SuppressLint;
 import android.app.ActivityManager;
 import android.app.AlarmManager;
 import android.app.Notification;
@@ -25,10 +26,9 @@ import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.HandlerThread;
 import android.os.IBinder;
 import android.os.Looper;
-import android.os.Message;
+import android.os.MessageQueue;
 import android.os.SystemClock;
 import android.support.v4.media.MediaBrowserCompat;
 import android.support.v4.media.session.MediaSessionCompat;
@@ -44,6 +44,7 @@ import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
 import androidx.core.app.NotificationCompat;
 import androidx.core.content.res.ResourcesCompat;
+import androidx.core.os.TraceCompat;
 import androidx.media.MediaBrowserServiceCompat;
 import androidx.media.session.MediaButtonReceiver;
 
@@ -53,12 +54,12 @@ import com.google.common.base.Preconditions;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 
 import channel.helper.ChannelHelper;
@@ -74,10 +75,12 @@ import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Cancellable;
 import io.reactivex.functions.Consumer;
-import io.reactivex.schedulers.Schedulers;
 import media.helper.HeadsetHookHelper;
 
 import snow.player.annotation.PersistenceId;
+import snow.player.browse.MediaArtworkProvider;
+import snow.player.browse.MediaBrowseTree;
+import snow.player.metrics.PlaybackMetrics;
 import snow.player.effect.AudioEffectManager;
 import snow.player.audio.MediaMusicPlayer;
 import snow.player.audio.MusicItem;
@@ -88,6 +91,7 @@ import snow.player.audio.ErrorCode;
 import snow.player.playlist.PlaylistManager;
 import snow.player.util.MusicItemUtil;
 import snow.player.util.AsyncResult;
+import snow.player.util.CacheRegistry;
 
 /**
  * 提供了基本的 {@code player service} 实现，用于在后台播放音乐。
@@ -123,6 +127,12 @@ public class PlayerService extends MediaBrowserServiceCompat
      */
     public static final String SESSION_EVENT_ON_SHUTDOWN = "snow.player.session_event.ON_SHUTDOWN";
 
+    /**
+     * 调用 {@link #updateAudioEffectConfig(Bundle)} 修改音频特效配置后，如果在该时间内（单位：毫秒）
+     * 没有再次修改配置，则保存配置。
+     */
+    public static final long AUDIO_EFFECT_CONFIG_PERSIST_DELAY = 1000;
+
     private static final String CUSTOM_ACTION_NAME = "snow.player.action.ACTION_NAME";
 
     private String mPersistentId;
@@ -132,7 +142,11 @@ public class PlayerService extends MediaBrowserServiceCompat
     private ServicePlayerStateHelper mPlayerStateHelper;
 
     private PlaylistManagerImp mPlaylistManager;
+    private PlayerSchedulers mPlayerSchedulers;
     private SnowPlayer mPlayer;
+
+    private MediaBrowseTree mMediaBrowseTree;
+    private boolean mMediaBrowseTreeCreated;
     private CustomActionPipe mCustomActionDispatcher;
 
     private PlayerStateListener mPlayerStateListener;
@@ -150,6 +164,7 @@ public class PlayerService extends MediaBrowserServiceCompat
 
     @Nullable
     private NotificationView mNotificationView;
+    private NotificationRenderer mNotificationRenderer;
 
     @Nullable
     private AudioEffectManager mAudioEffectManager;
@@ -172,51 +187,135 @@ public class PlayerService extends MediaBrowserServiceCompat
 
     private SnowPlayer.OnStateChangeListener mOnStateChangeListener;
 
-    private HandlerThread mSyncPlayerStateHandlerThread;
-    private Handler mSyncPlayerStateHandler;
-    private CountDownLatch mPlayerPrepareLatch;
+    // 播放器初始化完成前收到的同步请求，会在初始化完成后统一响应
+    private final List<String> mPendingSyncClientTokens = new ArrayList<>();
+    private boolean mPlayerInitialized;
+
+    // 分阶段启动：onCreate 中只执行响应客户端同步请求与播放命令所必需的初始化，其余的初始化会在播放器初始化完成、
+    // 并响应了所有等待中的同步请求后，于主线程空闲时执行
+    private final MessageQueue.IdleHandler mDeferredStartupTask = () -> {
+        completeDeferredStartup();
+        return false;
+    };
+    private boolean mDeferredStartupCompleted;
+    private boolean mNotificationChannelCreated;
+    private long mCreateTime;
+    private long mCriticalStartupTime;
+    private long mStartupTime = -1;
+    private long mFirstSyncTime = -1;
 
     private long mIDLEShutdownTime;
     private final List<PlaybackStateCompat.CustomAction> mMediaCustomActions = new ArrayList<>();
 
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    @Nullable
+    private Bundle mPendingAudioEffectConfig;
+    private final Runnable mPersistAudioEffectConfigTask = this::persistAudioEffectConfig;
+
     @Override
     public void onCreate() {
         super.onCreate();
 
-        mPersistentId = getPersistenceId(this.getClass());
-        mAllCustomAction = new HashMap<>();
-        mKeepAliveIntent = new Intent(this, this.getClass());
-        mKeepAliveConnection = new KeepAliveConnection();
-        mPlayerPrepareLatch = new CountDownLatch(1);
-        mPlayerStateSynchronizer = clientToken -> {
-            Message message = mSyncPlayerStateHandler.obtainMessage();
-            message.obj = clientToken;
-            mSyncPlayerStateHandler.sendMessage(message);
-        };
+        mCreateTime = SystemClock.elapsedRealtime();
+        TraceCompat.beginSection("PlayerService.onCreate");
+        try {
+            mPersistentId = getPersistenceId(this.getClass());
+            mAllCustomAction = new HashMap<>();
+            mKeepAliveIntent = new Intent(this, this.getClass());
+            mKeepAliveConnection = new KeepAliveConnection();
+            mPlayerStateSynchronizer = this::syncPlayerState;
+
+            initNotificationManager();
+            trace("initPlayerConfig", this::initPlayerConfig);
+            trace("initPlayerState", this::initPlayerState);
+            initPlayerStateHelper();
+            initPlayerSchedulers();
+            trace("initPlaylistManager", this::initPlaylistManager);
+            trace("initNotificationView", this::initNotificationView);
+            initOnStateChangeListener();
+            trace("initPlayer", this::initPlayer);
+            initCustomActionDispatcher();
+            initHeadsetHookHelper();
+            trace("initMediaSession", this::initMediaSession);
+            initSessionEventEmitter();
+
+            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
+                startForegroundAPI31();
+            }
 
-        initNotificationManager();
-        initPlayerConfig();
-        initPlayerState();
-        initPlayerStateHelper();
-        initPlaylistManager();
-        initNotificationView();
-        initOnStateChangeListener();
-        initPlayer();
-        initAudioEffectManager();
-        initCustomActionDispatcher();
-        initHeadsetHookHelper();
-        initMediaSession();
-        initSessionEventEmitter();
-        initHistoryRecorder();
-        initCustomActionReceiver();
-        initSyncPlayerStateHandler();
+            preparePlayer();
+        } finally {
+            TraceCompat.endSection();
+        }
 
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-            startForegroundAPI31();
+        mCriticalStartupTime = SystemClock.elapsedRealtime() - mCreateTime;
+    }
+
+    // 执行启动过程中可以延迟的初始化，会在响应了所有等待中的同步请求后于主线程空闲时执行
+    private void completeDeferredStartup() {
+        if (mDeferredStartupCompleted) {
+            return;
+        }
+
+        mDeferredStartupCompleted = true;
+
+        TraceCompat.beginSection("PlayerService.deferredStartup");
+        try {
+            trace("initAudioEffectManager", this::initAudioEffectManager);
+            initHistoryRecorder();
+            initCustomActionReceiver();
+            keepServiceAlive();
+            CacheRegistry.getDefault().install(this);
+        } finally {
+            TraceCompat.endSection();
+        }
+    }
+
+    private static void trace(String sectionName, Runnable action) {
+        TraceCompat.beginSection("PlayerService." + sectionName);
+        try {
+            action.run();
+        } finally {
+            TraceCompat.endSection();
         }
+    }
+
+    /**
+     * 获取启动的关键路径（即 {@link #onCreate()} 方法）的耗时（单位：毫秒）。
+     * <p>
+     * 可用于测试与监控冷启动的性能。
+     *
+     * @see #getStartupTime()
+     */
+    public final long getCriticalStartupTime() {
+        return mCriticalStartupTime;
+    }
+
+    /**
+     * 获取从 {@link #onCreate()} 开始到播放器初始化完成（可以响应客户端的连接请求）的耗时（单位：毫秒）。
+     *
+     * @return 如果播放器尚未初始化完成，则返回 -1
+     * @see #getCriticalStartupTime()
+     */
+    public final long getStartupTime() {
+        return mStartupTime;
+    }
 
-        preparePlayer();
-        keepServiceAlive();
+    /**
+     * 获取从 {@link #onCreate()} 开始到响应第一个客户端的同步请求的耗时（单位：毫秒）。
+     *
+     * @return 如果尚未响应任何客户端的同步请求，则返回 -1
+     * @see #getStartupTime()
+     */
+    public final long getFirstSyncTime() {
+        return mFirstSyncTime;
+    }
+
+    /**
+     * 启动过程中可以延迟的初始化（例如音频特效、历史记录）是否已执行。
+     */
+    public final boolean isDeferredStartupCompleted() {
+        return mDeferredStartupCompleted;
     }
 
     @Override
@@ -238,12 +337,139 @@ public class PlayerService extends MediaBrowserServiceCompat
     @Nullable
     @Override
     public BrowserRoot onGetRoot(@NonNull String clientPackageName, int clientUid, @Nullable Bundle rootHints) {
-        return new BrowserRoot(DEFAULT_MEDIA_ROOT_ID, null);
+        MediaBrowseTree mediaBrowseTree = getMediaBrowseTree();
+        if (mediaBrowseTree == null) {
+            return new BrowserRoot(DEFAULT_MEDIA_ROOT_ID, null);
+        }
+
+        return new BrowserRoot(mediaBrowseTree.getRootId(), null);
     }
 
     @Override
     public void onLoadChildren(@NonNull String parentId, @NonNull Result<List<MediaBrowserCompat.MediaItem>> result) {
-        result.sendResult(Collections.emptyList());
+        loadChildren(parentId, 0, MediaBrowseTree.DEFAULT_MAX_CHILDREN, result);
+    }
+
+    @Override
+    public void onLoadChildren(@NonNull String parentId,
+                               @NonNull Result<List<MediaBrowserCompat.MediaItem>> result,
+                               @NonNull Bundle options) {
+        int page = options.getInt(MediaBrowserCompat.EXTRA_PAGE, -1);
+        int pageSize = options.getInt(MediaBrowserCompat.EXTRA_PAGE_SIZE, -1);
+
+        if (page < 0 || pageSize < 1) {
+            onLoadChildren(parentId, result);
+            return;
+        }
+
+        loadChildren(parentId, page * pageSize, pageSize, result);
+    }
+
+    @SuppressLint("CheckResult")
+    private void loadChildren(@NonNull final String parentId,
+                              final int offset,
+                              final int limit,
+                              @NonNull final Result<List<MediaBrowserCompat.MediaItem>> result) {
+        final MediaBrowseTree mediaBrowseTree = getMediaBrowseTree();
+        if (mediaBrowseTree == null) {
+            result.sendResult(Collections.<MediaBrowserCompat.MediaItem>emptyList());
+            return;
+        }
+
+        // 只能在 onLoadChildren 方法中获取当前客户端的信息
+        final String browserPackage = getCurrentBrowserInfo().getPackageName();
+
+        List<MediaBrowserCompat.MediaItem> cachedChildren = mediaBrowseTree.getCachedChildren(parentId, offset, limit);
+        if (cachedChildren != null) {
+            grantArtworkPermission(browserPackage, cachedChildren);
+            result.sendResult(cachedChildren);
+            return;
+        }
+
+        result.detach();
+        Single.create(new SingleOnSubscribe<List<MediaBrowserCompat.MediaItem>>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<List<MediaBrowserCompat.MediaItem>> emitter) {
+                emitter.onSuccess(mediaBrowseTree.loadChildren(parentId, offset, limit));
+            }
+        }).subscribeOn(getPlayerSchedulers().prefetch())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Consumer<List<MediaBrowserCompat.MediaItem>>() {
+                    @Override
+                    public void accept(List<MediaBrowserCompat.MediaItem> mediaItems) {
+                        grantArtworkPermission(browserPackage, mediaItems);
+                        result.sendResult(mediaItems);
+                    }
+                }, new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable throwable) {
+                        throwable.printStackTrace();
+                        result.sendResult(null);
+                    }
+                });
+    }
+
+    @SuppressLint("CheckResult")
+    @Override
+    public void onSearch(@NonNull final String query,
+                         @Nullable final Bundle extras,
+                         @NonNull final Result<List<MediaBrowserCompat.MediaItem>> result) {
+        final MediaBrowseTree mediaBrowseTree = getMediaBrowseTree();
+        if (mediaBrowseTree == null) {
+            result.sendResult(Collections.<MediaBrowserCompat.MediaItem>emptyList());
+            return;
+        }
+
+        final String browserPackage = getCurrentBrowserInfo().getPackageName();
+
+        result.detach();
+        Single.create(new SingleOnSubscribe<List<MediaBrowserCompat.MediaItem>>() {
+            @Override
+            public void subscribe(@NonNull SingleEmitter<List<MediaBrowserCompat.MediaItem>> emitter) {
+                emitter.onSuccess(mediaBrowseTree.search(query, extras));
+            }
+        }).subscribeOn(getPlayerSchedulers().prefetch())
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(new Consumer<List<MediaBrowserCompat.MediaItem>>() {
+                    @Override
+                    public void accept(List<MediaBrowserCompat.MediaItem> mediaItems) {
+                        grantArtworkPermission(browserPackage, mediaItems);
+                        result.sendResult(mediaItems);
+                    }
+                }, new Consumer<Throwable>() {
+                    @Override
+                    public void accept(Throwable throwable) {
+                        throwable.printStackTrace();
+                        result.sendResult(null);
+                    }
+                });
+    }
+
+    // MediaArtworkProvider 不会被导出，因此需要为客户端授予封面图片 uri 的临时读取权限
+    private void grantArtworkPermission(String packageName, List<MediaBrowserCompat.MediaItem> mediaItems) {
+        if (packageName == null || packageName.equals(getPackageName())) {
+            return;
+        }
+
+        for (MediaBrowserCompat.MediaItem mediaItem : mediaItems) {
+            Uri iconUri = mediaItem.getDescription().getIconUri();
+            if (MediaArtworkProvider.isArtworkUri(this, iconUri)) {
+                grantUriPermission(packageName, iconUri, Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            }
+        }
+    }
+
+    @Nullable
+    private MediaBrowseTree getMediaBrowseTree() {
+        if (!mMediaBrowseTreeCreated) {
+            mMediaBrowseTreeCreated = true;
+            mMediaBrowseTree = onCreateMediaBrowseTree();
+            if (mMediaBrowseTree != null) {
+                mMediaBrowseTree.attach(this);
+            }
+        }
+
+        return mMediaBrowseTree;
     }
 
     @Override
@@ -257,9 +483,17 @@ public class PlayerService extends MediaBrowserServiceCompat
     public void onDestroy() {
         super.onDestroy();
 
-        mSyncPlayerStateHandlerThread.quit();
+        Looper.myQueue().removeIdleHandler(mDeferredStartupTask);
+        mDeferredStartupCompleted = true;
+        mPendingSyncClientTokens.clear();
+
+        mMainHandler.removeCallbacks(mPersistAudioEffectConfigTask);
+        persistAudioEffectConfig();
+
+        mPlayerStateHelper.flushAppWidgetPlayerState();
 
         if (!noNotificationView()) {
+            mNotificationRenderer.cancel();
             stopForegroundEx(true);
             mNotificationView.release();
             mNotificationManager.cancel(mNotificationView.getNotificationId());
@@ -267,7 +501,9 @@ public class PlayerService extends MediaBrowserServiceCompat
 
         cancelIDLEAlarm();
 
-        unregisterReceiver(mCustomActionReceiver);
+        if (mCustomActionReceiver != null) {
+            unregisterReceiver(mCustomActionReceiver);
+        }
         mMediaSession.release();
         mPlayer.release();
 
@@ -276,6 +512,10 @@ public class PlayerService extends MediaBrowserServiceCompat
         if (mAudioEffectManager != null) {
             mAudioEffectManager.release();
         }
+
+        if (mMediaBrowseTree != null) {
+            mMediaBrowseTree.detach();
+        }
     }
 
     private void checkIDLEShutdownTime() {
@@ -303,7 +543,40 @@ public class PlayerService extends MediaBrowserServiceCompat
     }
 
     private void preparePlayer() {
-        mPlayer.initialize(() -> mPlayerPrepareLatch.countDown());
+        mPlayer.initialize(this::onPlayerInitialized);
+    }
+
+    // 无论第一首歌曲是否准备成功，都会调用该方法，因此等待中的同步请求总会被响应，延迟的初始化也总会被执行
+    private void onPlayerInitialized() {
+        if (mPlayerInitialized) {
+            return;
+        }
+
+        mPlayerInitialized = true;
+        mStartupTime = SystemClock.elapsedRealtime() - mCreateTime;
+
+        // 先响应等待中的客户端，再在主线程空闲时执行延迟的初始化，避免其阻塞第一次同步
+        for (String clientToken : mPendingSyncClientTokens) {
+            syncPlayerState(clientToken);
+        }
+        mPendingSyncClientTokens.clear();
+
+        if (!mDeferredStartupCompleted) {
+            Looper.myQueue().addIdleHandler(mDeferredStartupTask);
+        }
+    }
+
+    private void syncPlayerState(String clientToken) {
+        if (!mPlayerInitialized) {
+            mPendingSyncClientTokens.add(clientToken);
+            return;
+        }
+
+        mSyncPlayerStateListener.onSyncPlayerState(clientToken, new PlayerState(mPlayerState));
+
+        if (mFirstSyncTime < 0) {
+            mFirstSyncTime = SystemClock.elapsedRealtime() - mCreateTime;
+        }
     }
 
     private void dismissKeepServiceAlive() {
@@ -315,7 +588,15 @@ public class PlayerService extends MediaBrowserServiceCompat
 
     private void initNotificationManager() {
         mNotificationManager = (NotificationManager) getSystemService(NOTIFICATION_SERVICE);
+    }
+
+    // 通知渠道会在第一次显示通知时创建，没有通知栏控制器时不会创建
+    private void ensureNotificationChannel() {
+        if (mNotificationChannelCreated) {
+            return;
+        }
 
+        mNotificationChannelCreated = true;
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
             NotificationChannel channel = new NotificationChannel(
                     NotificationView.CHANNEL_ID,
@@ -351,49 +632,53 @@ public class PlayerService extends MediaBrowserServiceCompat
         );
     }
 
+    private void initPlayerSchedulers() {
+        mPlayerSchedulers = onCreatePlayerSchedulers();
+    }
+
     private void initPlaylistManager() {
-        mPlaylistManager = new PlaylistManagerImp(this, mPersistentId);
+        mPlaylistManager = new PlaylistManagerImp(this, mPersistentId, mPlayerSchedulers);
     }
 
     private void initOnStateChangeListener() {
         mOnStateChangeListener = new SnowPlayer.OnStateChangeListener() {
             @Override
             public void onPreparing() {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
                 PlayerService.this.cancelIDLEAlarm();
             }
 
             @Override
             public void onPrepared(int audioSessionId) {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
             }
 
             @Override
             public void onPlaying(int progress, long updateTime) {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
                 PlayerService.this.cancelIDLEAlarm();
             }
 
             @Override
             public void onPaused() {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
                 PlayerService.this.startIDLEAlarm();
             }
 
             @Override
             public void onStalledChanged(boolean stalled) {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
             }
 
             @Override
             public void onStopped() {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
                 PlayerService.this.startIDLEAlarm();
             }
 
             @Override
             public void onError(int errorCode, String errorMessage) {
-                PlayerService.this.updateNotificationView();
+                PlayerService.this.updateNotificationViewIfChanged();
             }
 
             @Override
@@ -451,7 +736,8 @@ public class PlayerService extends MediaBrowserServiceCompat
                 this.getClass(),
                 mOnStateChangeListener,
                 factory,
-                callback
+                callback,
+                mPlayerSchedulers
         );
     }
 
@@ -496,6 +782,18 @@ public class PlayerService extends MediaBrowserServiceCompat
         }
 
         mNotificationView = notificationView;
+        mNotificationRenderer = new NotificationRenderer(new NotificationRenderer.Callback() {
+            @NonNull
+            @Override
+            public Object getContentSignature() {
+                return getNotificationContentSignature();
+            }
+
+            @Override
+            public void render() {
+                renderNotification();
+            }
+        });
     }
 
     private void initHeadsetHookHelper() {
@@ -538,6 +836,9 @@ public class PlayerService extends MediaBrowserServiceCompat
         Bundle config = mPlayerConfig.getAudioEffectConfig();
         mAudioEffectManager.init(config);
         mPlayer.setAudioEffectManager(mAudioEffectManager);
+
+        // 延迟初始化前可能已经开始播放，此时需要将音频特效应用到当前的 audio session
+        mPlayer.notifyAudioEffectEnableChanged();
     }
 
     private void initHistoryRecorder() {
@@ -563,24 +864,6 @@ public class PlayerService extends MediaBrowserServiceCompat
         }
     }
 
-    private void initSyncPlayerStateHandler() {
-        mSyncPlayerStateHandlerThread = new HandlerThread("PlayerStateSyncThread");
-        mSyncPlayerStateHandlerThread.start();
-
-        mSyncPlayerStateHandler = new Handler(mSyncPlayerStateHandlerThread.getLooper()) {
-            @Override
-            public void handleMessage(@NonNull Message msg) {
-                try {
-                    mPlayerPrepareLatch.await();
-                    mSyncPlayerStateListener.onSyncPlayerState((String) msg.obj, new PlayerState(mPlayerState));
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-        };
-    }
-
-
     /**
      * 设置 MediaSessionCompat 的 Flags。
      * <p>
@@ -626,6 +909,42 @@ public class PlayerService extends MediaBrowserServiceCompat
         return null;
     }
 
+    /**
+     * 创建媒体浏览树，用于向 Android Auto、Wear OS 等 {@link MediaBrowserCompat} 客户端提供可浏览的媒体内容。
+     * <p>
+     * 媒体浏览树会在第一个客户端请求浏览内容时创建。
+     *
+     * @return 如果返回 null，则不提供可浏览的媒体内容（默认返回 null）
+     * @see MediaBrowseTree
+     */
+    @Nullable
+    protected MediaBrowseTree onCreateMediaBrowseTree() {
+        return null;
+    }
+
+    /**
+     * 创建播放器使用的调度器。
+     * <p>
+     * 播放器的所有后台任务（例如获取歌曲的播放链接、保存播放列表、加载通知栏图标）都会按照优先级在该调度器中执行。
+     * 默认返回 {@link PlayerSchedulers#getDefault()}，可以覆盖该方法并返回自定义的调度器（例如在测试中使用单线程的调度器）。
+     *
+     * @return {@link PlayerSchedulers} 对象，不能为 null
+     */
+    @NonNull
+    protected PlayerSchedulers onCreatePlayerSchedulers() {
+        return PlayerSchedulers.getDefault();
+    }
+
+    /**
+     * 获取播放器使用的调度器。
+     *
+     * @see #onCreatePlayerSchedulers()
+     */
+    @NonNull
+    public final PlayerSchedulers getPlayerSchedulers() {
+        return mPlayerSchedulers;
+    }
+
     /**
      * 创建历史记录器，用于记录播放器的播放历史。
      *
@@ -691,10 +1010,36 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        mMainHandler.removeCallbacks(mPersistAudioEffectConfigTask);
+        mPendingAudioEffectConfig = null;
+
         mAudioEffectManager.updateConfig(config);
         mPlayerConfig.setAudioEffectConfig(config);
     }
 
+    @Override
+    public void updateAudioEffectConfig(Bundle config) {
+        if (noAudioEffectManager() || !mPlayerConfig.isAudioEffectEnabled()) {
+            return;
+        }
+
+        mAudioEffectManager.updateConfig(config);
+
+        // 频繁修改时只保存最后一次的配置
+        mPendingAudioEffectConfig = config;
+        mMainHandler.removeCallbacks(mPersistAudioEffectConfigTask);
+        mMainHandler.postDelayed(mPersistAudioEffectConfigTask, AUDIO_EFFECT_CONFIG_PERSIST_DELAY);
+    }
+
+    private void persistAudioEffectConfig() {
+        if (mPendingAudioEffectConfig == null) {
+            return;
+        }
+
+        mPlayerConfig.setAudioEffectConfig(mPendingAudioEffectConfig);
+        mPendingAudioEffectConfig = null;
+    }
+
     /**
      * 当耳机上的按钮被点击时会调用该方法。
      * <p>
@@ -802,6 +1147,36 @@ public class PlayerService extends MediaBrowserServiceCompat
         return mPlayerConfig.isIgnoreAudioFocus();
     }
 
+    /**
+     * 设置播放会话性能指标监听器。
+     * <p>
+     * 设置监听器后，播放器会记录每次播放会话各个阶段（准备歌曲、获取播放链接、准备播放器、请求音频焦点）的耗时、
+     * 启动耗时（从请求播放到开始输出声音）、卡顿次数与时长以及错误码，并在播放会话结束时在主线程中通知监听器。
+     * 未设置监听器时不会记录任何数据，也没有任何额外开销。
+     * <p>
+     * 该方法必须在 {@link #onCreate()} 方法之后调用。
+     *
+     * @param listener 播放会话性能指标监听器，为 null 时会关闭性能指标的记录
+     * @see snow.player.metrics.PlaybackMetricsAggregator
+     */
+    public final void setPlaybackMetricsListener(@Nullable PlaybackMetrics.Listener listener) {
+        mPlayer.setPlaybackMetricsListener(listener);
+    }
+
+    /**
+     * 设置发布到 MediaSession 的歌曲图片的最大尺寸（单位：像素）。
+     * <p>
+     * 歌曲图片会通过 Binder 发送给所有的 MediaController（例如蓝牙、车载、锁屏等），超出该尺寸的图片会被等比缩小，
+     * 并且每张图片只会缩放一次。默认值为 512，小于等于 0 时不会缩放图片。
+     * <p>
+     * 该方法必须在 {@link #onCreate()} 方法之后调用，新的尺寸会在下一次更新媒体元数据时生效。
+     *
+     * @param maxArtworkSize 歌曲图片的最大尺寸（单位：像素）
+     */
+    public final void setMaxArtworkSize(int maxArtworkSize) {
+        mPlayer.setMaxArtworkSize(maxArtworkSize);
+    }
+
     /**
      * 设置 {@link PlayerService} 处于空闲状态（暂停或者停止后）的最大存活时间。
      * <p>
@@ -1054,10 +1429,21 @@ public class PlayerService extends MediaBrowserServiceCompat
 
     /**
      * 要求 Service 更新 NotificationView，如果没有设置 NotificationView，则忽略本次操作。
+     * <p>
+     * 短时间内的多次更新会被合并为一次。
      */
     public final void updateNotificationView() {
+        updateNotificationView(true);
+    }
+
+    // 播放器状态改变时调用，只有在通知的内容签名改变时才会更新通知
+    private void updateNotificationViewIfChanged() {
+        updateNotificationView(false);
+    }
+
+    private void updateNotificationView(boolean force) {
         if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.S) {
-            updateNotificationViewAPI31();
+            updateNotificationViewAPI31(force);
             return;
         }
 
@@ -1084,10 +1470,10 @@ public class PlayerService extends MediaBrowserServiceCompat
             stopForegroundEx(false);
         }
 
-        updateNotification();
+        mNotificationRenderer.requestRender(force);
     }
 
-    private void updateNotificationViewAPI31() {
+    private void updateNotificationViewAPI31(boolean force) {
         if (noNotificationView()) {
             return;
         }
@@ -1096,9 +1482,55 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        mNotificationRenderer.requestRender(force);
+    }
+
+    // 由 NotificationRenderer 调用，状态可能已在等待期间改变，因此需要重新检查
+    private void renderNotification() {
+        if (noNotificationView() || mNotificationView.isReleased()) {
+            return;
+        }
+
+        if (mNotificationView.checkIconExpired()) {
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.S && (getPlayingMusicItem() == null || shouldClearNotification())) {
+            stopForegroundEx(true);
+            return;
+        }
+
         updateNotification();
     }
 
+    // 通知内容的签名，只包含 NotificationView 用于构建通知的播放器状态。
+    // 图标按引用比较，因此图标加载完成后签名也会改变。
+    private Object getNotificationContentSignature() {
+        return Arrays.asList(
+                getPlayingMusicItem(),
+                mPlayerState.getPlaybackState(),
+                mPlayerState.isPreparing(),
+                mPlayerState.isStalled(),
+                mPlayerState.getErrorCode(),
+                mPlayerState.getPlayMode(),
+                mNotificationView == null ? null : mNotificationView.getIcon(),
+                mForeground
+        );
+    }
+
+    /**
+     * 获取被合并或者因内容未改变而跳过的通知栏更新的次数。
+     * <p>
+     * 可用于评估通知栏更新的频率，如果没有设置 NotificationView，则总是返回 0。
+     */
+    public final int getSuppressedNotificationCount() {
+        if (noNotificationView()) {
+            return 0;
+        }
+
+        return mNotificationRenderer.getSuppressedCount();
+    }
+
     private boolean shouldClearNotification() {
         if (mNotificationView == null) {
             return true;
@@ -1135,6 +1567,8 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        ensureNotificationChannel();
+
         if (getPlayingMusicItem() == null) {
             stopForegroundEx(true);
             return;
@@ -1159,6 +1593,8 @@ public class PlayerService extends MediaBrowserServiceCompat
                     mNotificationView.createNotification()
             );
         }
+
+        mNotificationRenderer.onRendered(getNotificationContentSignature());
     }
 
     @RequiresApi(Build.VERSION_CODES.S)
@@ -1167,6 +1603,8 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        ensureNotificationChannel();
+
         if (isBackgroundRestricted()) {
             mForeground = false;
             updateNotification();
@@ -1198,6 +1636,7 @@ public class PlayerService extends MediaBrowserServiceCompat
                 mNotificationView.createNotification(),
                 ServiceInfo.FOREGROUND_SERVICE_TYPE_MEDIA_PLAYBACK
         );
+        mNotificationRenderer.onRendered(getNotificationContentSignature());
     }
 
     private boolean isBackgroundRestricted() {
@@ -1217,6 +1656,10 @@ public class PlayerService extends MediaBrowserServiceCompat
     protected final void stopForegroundEx(boolean removeNotification) {
         mForeground = false;
         stopForeground(removeNotification);
+
+        if (removeNotification && mNotificationRenderer != null) {
+            mNotificationRenderer.reset();
+        }
     }
 
     /**
@@ -1328,6 +1771,8 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        ensureNotificationChannel();
+
         if (getPlayingMusicItem() == null) {
             stopForegroundEx(true);
             return;
@@ -1337,6 +1782,7 @@ public class PlayerService extends MediaBrowserServiceCompat
                 mNotificationView.getNotificationId(),
                 mNotificationView.createNotification()
         );
+        mNotificationRenderer.onRendered(getNotificationContentSignature());
     }
 
     @RequiresApi(Build.VERSION_CODES.S)
@@ -1345,11 +1791,14 @@ public class PlayerService extends MediaBrowserServiceCompat
             return;
         }
 
+        ensureNotificationChannel();
+
         if (getPlayingMusicItem() == null) {
             mNotificationManager.notify(
                     mNotificationView.getNotificationId(),
                     mNotificationView.createPlaceHolderNotification(getString(R.string.snow_waiting_to_play))
             );
+            mNotificationRenderer.onRendered(getNotificationContentSignature());
             return;
         }
 
@@ -1357,6 +1806,7 @@ public class PlayerService extends MediaBrowserServiceCompat
                 mNotificationView.getNotificationId(),
                 mNotificationView.createNotification()
         );
+        mNotificationRenderer.onRendered(getNotificationContentSignature());
     }
 
     /**
@@ -1741,6 +2191,7 @@ public class PlayerService extends MediaBrowserServiceCompat
         private boolean mReleased;
 
         private int mPendingIntentRequestCode;
+        private final Map<String, PendingIntent> mCustomActionPendingIntents = new HashMap<>();
         private boolean mInitialized = false;
 
         void init(PlayerService playerService) {
@@ -1810,7 +2261,7 @@ public class PlayerService extends MediaBrowserServiceCompat
                                 }
                             });
                         }
-                    }).subscribeOn(Schedulers.io())
+                    }).subscribeOn(mPlayerService.getPlayerSchedulers().currentTrack())
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribe(this::setIcon);
         }
@@ -1838,7 +2289,7 @@ public class PlayerService extends MediaBrowserServiceCompat
         @Deprecated
         @NonNull
         protected IconLoader onCreateIconLoader(@NonNull Context context) {
-            return new IconLoaderImp(context, getDefaultIcon());
+            return new IconLoaderImp(context, getDefaultIcon(), mPlayerService.getPlayerSchedulers());
         }
 
         @NonNull
@@ -1892,6 +2343,12 @@ public class PlayerService extends MediaBrowserServiceCompat
         public final PendingIntent buildCustomAction(String actionName, CustomAction customAction) {
             addCustomAction(actionName, customAction);
 
+            // 同一个自定义动作的 PendingIntent 只会创建一次
+            PendingIntent pendingIntent = mCustomActionPendingIntents.get(actionName);
+            if (pendingIntent != null) {
+                return pendingIntent;
+            }
+
             mPendingIntentRequestCode += 1;
 
             Intent intent = mPlayerService.buildCustomActionIntent(actionName);
@@ -1903,10 +2360,13 @@ public class PlayerService extends MediaBrowserServiceCompat
                 flags = PendingIntent.FLAG_UPDATE_CURRENT;
             }
 
-            return PendingIntent.getBroadcast(getContext(),
+            pendingIntent = PendingIntent.getBroadcast(getContext(),
                     mPendingIntentRequestCode,
                     intent,
                     flags);
+
+            mCustomActionPendingIntents.put(actionName, pendingIntent);
+            return pendingIntent;
         }
 
         /**
@@ -2402,12 +2862,14 @@ public class PlayerService extends MediaBrowserServiceCompat
 
         private static class IconLoaderImp extends IconLoader {
             private Context mContext;
+            private PlayerSchedulers mSchedulers;
             private Disposable mLoadIconDisposable;
             private FutureTarget<Bitmap> mFutureTarget;
 
-            IconLoaderImp(Context context, Bitmap defaultIcon) {
+            IconLoaderImp(Context context, Bitmap defaultIcon, PlayerSchedulers schedulers) {
                 super(defaultIcon);
                 mContext = context;
+                mSchedulers = schedulers;
             }
 
             @Override
@@ -2446,7 +2908,7 @@ public class PlayerService extends MediaBrowserServiceCompat
 
                                 emitter.onSuccess(bitmap);
                             }
-                        }).subscribeOn(Schedulers.io())
+                        }).subscribeOn(mSchedulers.currentTrack())
                         .observeOn(AndroidSchedulers.mainThread())
                         .subscribe(new Consumer<Bitmap>() {
                             @Override
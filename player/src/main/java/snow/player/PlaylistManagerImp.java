@@ -15,9 +15,9 @@ import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Consumer;
-import io.reactivex.schedulers.Schedulers;
 import snow.player.playlist.Playlist;
 import snow.player.playlist.PlaylistManager;
+import snow.player.util.CacheRegistry;
 
 /**
  * 用于获取和持久化保存播放器的播放列表。
@@ -29,10 +29,37 @@ class PlaylistManagerImp implements PlaylistManager {
     private static final String KEY_TOKEN = "token";
     private static final String KEY_EDITABLE = "editable";
     private static final String KEY_LAST_MODIFIED = "last_modified";
+    private static final String KEY_VERSION = "version";
+
+    // 估算的每首歌曲占用的内存大小（单位：字节），用于统计缓存的播放列表占用的内存
+    private static final int ESTIMATED_MUSIC_ITEM_SIZE = 1024;
 
     private final MMKV mMMKV;
+    private final PlayerSchedulers mSchedulers;
     private Disposable mSaveDisposable;
 
+    // 最后一次读取或保存的播放列表，只有当播放列表的版本号改变时才会重新从 MMKV 中解码
+    private Playlist mCachedPlaylist;
+    private long mCachedVersion;
+    private final CacheRegistry.TrimmableCache mTrimmableCache = new CacheRegistry.TrimmableCache() {
+        @Override
+        public long getSizeInBytes() {
+            synchronized (PlaylistManagerImp.this) {
+                return mCachedPlaylist == null ? 0 : (long) mCachedPlaylist.size() * ESTIMATED_MUSIC_ITEM_SIZE;
+            }
+        }
+
+        @Override
+        public void trimToSize(long maxSizeInBytes) {
+            // 播放列表只能整个缓存或者整个丢弃，丢弃后下次读取时会重新从 MMKV 中解码
+            synchronized (PlaylistManagerImp.this) {
+                if (getSizeInBytes() > maxSizeInBytes) {
+                    mCachedPlaylist = null;
+                }
+            }
+        }
+    };
+
     /**
      * 创建一个 PlaylistManagerImp 对象。
      *
@@ -42,8 +69,22 @@ class PlaylistManagerImp implements PlaylistManager {
      *                   {@link Class#getName()} 作为 ID
      */
     PlaylistManagerImp(@NonNull Context context, @NonNull String playlistId) {
+        this(context, playlistId, PlayerSchedulers.getDefault());
+    }
+
+    /**
+     * 创建一个 PlaylistManagerImp 对象。
+     *
+     * @param context    {@link Context} 对象，不能为 null
+     * @param playlistId 播放列表的 ID，不能为 null
+     * @param schedulers 用于读取与保存播放列表的调度器，不能为 null
+     */
+    PlaylistManagerImp(@NonNull Context context, @NonNull String playlistId, @NonNull PlayerSchedulers schedulers) {
         Preconditions.checkNotNull(context);
         Preconditions.checkNotNull(playlistId);
+        Preconditions.checkNotNull(schedulers);
+
+        mSchedulers = schedulers;
 
         MMKV.initialize(context);
         mMMKV = MMKV.mmkvWithID("PlaylistManager:" + playlistId, MMKV.MULTI_PROCESS_MODE);
@@ -78,13 +119,9 @@ class PlaylistManagerImp implements PlaylistManager {
         Single.create(new SingleOnSubscribe<Playlist>() {
             @Override
             public void subscribe(SingleEmitter<Playlist> emitter) {
-                Playlist playlist = mMMKV.decodeParcelable(KEY_PLAYLIST, Playlist.class);
-                if (playlist == null) {
-                    playlist = new Playlist.Builder().build();
-                }
-                emitter.onSuccess(playlist);
+                emitter.onSuccess(loadPlaylist());
             }
-        }).subscribeOn(Schedulers.io())
+        }).subscribeOn(mSchedulers.currentTrack())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Consumer<Playlist>() {
                     @Override
@@ -94,9 +131,42 @@ class PlaylistManagerImp implements PlaylistManager {
                 });
     }
 
+    // 该方法会在异步线程中调用
+    private Playlist loadPlaylist() {
+        long version = mMMKV.decodeLong(KEY_VERSION, 0);
+
+        synchronized (this) {
+            if (mCachedPlaylist != null && mCachedVersion == version) {
+                return mCachedPlaylist;
+            }
+        }
+
+        Playlist playlist = mMMKV.decodeParcelable(KEY_PLAYLIST, Playlist.class);
+        if (playlist == null) {
+            playlist = new Playlist.Builder().build();
+        }
+
+        // 即使在解码期间播放列表被再次修改，下次读取时版本号也会不同，因此不会一直返回旧的播放列表
+        synchronized (this) {
+            mCachedPlaylist = playlist;
+            mCachedVersion = version;
+        }
+
+        return playlist;
+    }
+
+    /**
+     * 获取缓存的播放列表对应的 {@link CacheRegistry.TrimmableCache}，可将其注册到 {@link CacheRegistry} 中，
+     * 以便在内存不足时丢弃缓存的播放列表。
+     */
+    @NonNull
+    CacheRegistry.TrimmableCache getTrimmableCache() {
+        return mTrimmableCache;
+    }
+
     @Override
     public long getLastModified() {
-        return mMMKV.decodeLong(KEY_LAST_MODIFIED, System.currentTimeMillis());
+        return mMMKV.decodeLong(KEY_LAST_MODIFIED, 0);
     }
 
     /**
@@ -125,12 +195,20 @@ class PlaylistManagerImp implements PlaylistManager {
                 mMMKV.encode(KEY_EDITABLE, playlist.isEditable());
                 mMMKV.encode(KEY_LAST_MODIFIED, System.currentTimeMillis());
 
+                // 只有 PlayerService 会修改播放列表，因此这里不存在并发写入版本号的问题
+                long version = mMMKV.decodeLong(KEY_VERSION, 0) + 1;
+                mMMKV.encode(KEY_VERSION, version);
+                synchronized (PlaylistManagerImp.this) {
+                    mCachedPlaylist = playlist;
+                    mCachedVersion = version;
+                }
+
                 if (emitter.isDisposed()) {
                     return;
                 }
                 emitter.onSuccess(true);
             }
-        }).subscribeOn(Schedulers.io())
+        }).subscribeOn(mSchedulers.persistence())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new Consumer<Boolean>() {
                     @Override
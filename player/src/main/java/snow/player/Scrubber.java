@@ -0,0 +1,161 @@
+package snow.player;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+import java.util.LinkedList;
+
+/**
+ * 用于在拖动播放进度时合并 seek 请求。
+ * <p>
+ * 拖动期间只会记录最新的播放进度，并在上一次快速 seek 完成后才发起下一次快速 seek；拖动结束时，会精确地
+ * seek 到最后一次的播放进度。
+ * <p>
+ * 由于拖动期间也可能发起普通的 seek（例如其他客户端调用了 seekTo），因此该类会按发起的顺序记录所有尚未完成的
+ * seek，并据此判断一次 seek 完成事件属于快速 seek 还是普通 seek，普通 seek 的完成事件不会被吞掉。
+ * <p>
+ * 该类的所有方法都应该在主线程中调用。
+ */
+class Scrubber {
+    private final Target mTarget;
+    // 尚未完成的 seek，true 表示拖动时发起的快速 seek，false 表示普通 seek
+    private final LinkedList<Boolean> mPendingSeeks;
+
+    private boolean mScrubbing;
+    private boolean mScrubSeeking;
+    private boolean mScrubSeekPending;
+    private int mScrubProgress = -1;
+
+    Scrubber(@NonNull Target target) {
+        Preconditions.checkNotNull(target);
+
+        mTarget = target;
+        mPendingSeeks = new LinkedList<>();
+    }
+
+    /**
+     * 开始拖动播放进度。
+     */
+    void begin() {
+        mScrubbing = true;
+    }
+
+    /**
+     * 是否正在拖动播放进度。
+     */
+    boolean isScrubbing() {
+        return mScrubbing;
+    }
+
+    /**
+     * 拖动到指定的播放进度。只应在 {@link #isScrubbing()} 返回 true 时调用。
+     */
+    void scrubTo(int progress) {
+        mScrubProgress = progress;
+        mScrubSeekPending = true;
+
+        // 上一次 seek 尚未完成时只记录最新的播放进度；尚未准备完毕时，会在拖动结束时 seek
+        if (mScrubSeeking || !mTarget.isReady()) {
+            return;
+        }
+
+        performScrubSeek();
+    }
+
+    /**
+     * 结束拖动播放进度。如果有正在进行的快速 seek，则会在其完成后再精确 seek 到最后一次的播放进度。
+     */
+    void end() {
+        if (!mScrubbing) {
+            return;
+        }
+
+        mScrubbing = false;
+
+        if (mScrubSeeking) {
+            // 等待正在进行的快速 seek 完成后再精确 seek，见 onSeekComplete()
+            return;
+        }
+
+        finish();
+    }
+
+    /**
+     * 取消拖动，并丢弃所有尚未完成的 seek。应在音乐播放器被释放时调用。
+     */
+    void reset() {
+        mScrubbing = false;
+        mScrubSeeking = false;
+        mScrubSeekPending = false;
+        mScrubProgress = -1;
+        mPendingSeeks.clear();
+    }
+
+    /**
+     * 发起普通 seek 时调用。
+     */
+    void onSeekIssued() {
+        mPendingSeeks.add(Boolean.FALSE);
+    }
+
+    /**
+     * 音乐播放器的 seek 完成时调用。
+     *
+     * @return 如果完成的是拖动时发起的快速 seek，则返回 true，此时不应通知 seek 完成；否则返回 false
+     */
+    boolean onSeekComplete() {
+        Boolean scrubSeek = mPendingSeeks.poll();
+        if (scrubSeek == null || !scrubSeek) {
+            return false;
+        }
+
+        mScrubSeeking = false;
+
+        if (!mScrubbing) {
+            finish();
+        } else if (mScrubSeekPending && mTarget.isReady()) {
+            performScrubSeek();
+        }
+
+        return true;
+    }
+
+    private void performScrubSeek() {
+        mScrubSeeking = true;
+        mScrubSeekPending = false;
+        mPendingSeeks.add(Boolean.TRUE);
+        mTarget.fastSeekTo(mScrubProgress);
+    }
+
+    private void finish() {
+        int progress = mScrubProgress;
+        mScrubSeekPending = false;
+        mScrubProgress = -1;
+
+        if (progress >= 0) {
+            // 精确 seek 到最终的播放进度，并通知所有客户端
+            mTarget.seekTo(progress);
+        }
+    }
+
+    /**
+     * 拖动播放进度时要 seek 的目标。
+     */
+    interface Target {
+        /**
+         * 音乐播放器是否已准备完毕。
+         */
+        boolean isReady();
+
+        /**
+         * 快速 seek 到指定的播放进度（不需要通知 seek 完成）。
+         */
+        void fastSeekTo(int progress);
+
+        /**
+         * 精确 seek 到指定的播放进度，并通知 seek 完成。
+         */
+        void seekTo(int progress);
+    }
+}
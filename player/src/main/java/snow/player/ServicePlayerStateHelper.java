@@ -11,14 +11,11 @@ import com.google.common.base.Preconditions;
 import java.util.List;
 
 import snow.player.appwidget.AppWidgetPlayerState;
+import snow.player.appwidget.AppWidgetPlayerStatePublisher;
 import snow.player.audio.MusicItem;
 
 class ServicePlayerStateHelper extends PlayerStateHelper {
-    private final Context mContext;
-    private final Class<? extends PlayerService> mPlayerService;
-
-    @Nullable
-    private final List<Class<? extends AppWidgetProvider>> mAppWidgets;
+    private final AppWidgetPlayerStatePublisher mAppWidgetPlayerStatePublisher;
 
     public ServicePlayerStateHelper(
             @NonNull PlayerState playerState,
@@ -30,13 +27,18 @@ class ServicePlayerStateHelper extends PlayerStateHelper {
         Preconditions.checkNotNull(context);
         Preconditions.checkNotNull(playerService);
 
-        mContext = context;
-        mPlayerService = playerService;
-        mAppWidgets = appWidgets;
+        mAppWidgetPlayerStatePublisher = new AppWidgetPlayerStatePublisher(context, playerService, appWidgets,
+                new AppWidgetPlayerStatePublisher.StateSource() {
+                    @NonNull
+                    @Override
+                    public AppWidgetPlayerState getAppWidgetPlayerState() {
+                        return createAppWidgetPlayerState();
+                    }
+                });
     }
 
-    private void updateAppWidgetPlayerState() {
-        AppWidgetPlayerState playerState = new AppWidgetPlayerState(
+    private AppWidgetPlayerState createAppWidgetPlayerState() {
+        return new AppWidgetPlayerState(
                 getPlayerState().getPlaybackState(),
                 getPlayerState().getMusicItem(),
                 getPlayerState().getPlayMode(),
@@ -48,13 +50,18 @@ class ServicePlayerStateHelper extends PlayerStateHelper {
                 getPlayerState().isStalled(),
                 getPlayerState().getErrorMessage()
         );
+    }
 
-        if (mAppWidgets != null) {
-            AppWidgetPlayerState.updatePlayerState(mContext, mPlayerService, playerState, mAppWidgets);
-            return;
-        }
+    // 短时间内的多次状态改变会被合并为一次，并且只有在状态真正改变时才会更新 AppWidget
+    private void updateAppWidgetPlayerState() {
+        mAppWidgetPlayerStatePublisher.invalidate();
+    }
 
-        AppWidgetPlayerState.updatePlayerState(mContext, mPlayerService, playerState);
+    /**
+     * 立即发布尚未发布的 AppWidget 状态，请在 PlayerService 销毁时调用。
+     */
+    void flushAppWidgetPlayerState() {
+        mAppWidgetPlayerStatePublisher.flush();
     }
 
     @Override
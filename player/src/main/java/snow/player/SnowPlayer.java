@@ -12,7 +12,6 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.PowerManager;
 import android.os.SystemClock;
-import android.support.v4.media.MediaMetadataCompat;
 import android.support.v4.media.session.MediaSessionCompat;
 import android.support.v4.media.session.PlaybackStateCompat;
 import android.util.Log;
@@ -37,7 +36,6 @@ import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.functions.Cancellable;
 import io.reactivex.functions.Consumer;
-import io.reactivex.schedulers.Schedulers;
 import media.helper.AudioFocusHelper;
 import media.helper.BecomeNoiseHelper;
 import snow.player.audio.MusicItem;
@@ -49,6 +47,7 @@ import snow.player.playlist.PlaylistEditor;
 import snow.player.playlist.PlaylistManager;
 import snow.player.audio.ErrorCode;
 import snow.player.helper.NetworkHelper;
+import snow.player.metrics.PlaybackMetrics;
 import snow.player.util.AsyncResult;
 
 /**
@@ -63,6 +62,7 @@ class SnowPlayer implements Player, PlaylistEditor {
     private final PlayerConfig mPlayerConfig;
     private final PlayerState mPlayerState;
     private final PlayerStateHelper mPlayerStateHelper;
+    private final PlayerSchedulers mSchedulers;
     @Nullable
     private PlayerStateListener mPlayerStateListener;
 
@@ -87,6 +87,8 @@ class SnowPlayer implements Player, PlaylistEditor {
     private Runnable mPreparedAction;
     private Runnable mSeekCompleteAction;
 
+    private final Scrubber mScrubber;
+
     private final PlaylistManagerImp mPlaylistManager;
     private Playlist mPlaylist;
 
@@ -102,7 +104,7 @@ class SnowPlayer implements Player, PlaylistEditor {
     private MediaSessionCompat mMediaSession;
     private PlaybackStateCompat.Builder mPlaybackStateBuilder;
     private PlaybackStateCompat.Builder mForbidSeekPlaybackStateBuilder;
-    private MediaMetadataCompat.Builder mMediaMetadataBuilder;
+    private MediaSessionPublisher mMediaSessionPublisher;
 
     @Nullable
     private PowerManager.WakeLock mWakeLock;
@@ -128,6 +130,9 @@ class SnowPlayer implements Player, PlaylistEditor {
     private final Factory mFactory;
     private final Callback mCallback;
 
+    @Nullable
+    private PlaybackMetricsRecorder mMetricsRecorder;
+
     /**
      * 创建一个 {@link SnowPlayer} 对象。
      *
@@ -145,7 +150,8 @@ class SnowPlayer implements Player, PlaylistEditor {
             @NonNull Class<? extends PlayerService> playerService,
             @NonNull OnStateChangeListener listener,
             @NonNull Factory factory,
-            @NonNull Callback callback
+            @NonNull Callback callback,
+            @NonNull PlayerSchedulers schedulers
     ) {
         Preconditions.checkNotNull(context);
         Preconditions.checkNotNull(playerConfig);
@@ -153,6 +159,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         Preconditions.checkNotNull(playlistManager);
         Preconditions.checkNotNull(playerService);
         Preconditions.checkNotNull(listener);
+        Preconditions.checkNotNull(schedulers);
 
         mApplicationContext = context.getApplicationContext();
         mPlayerConfig = playerConfig;
@@ -162,6 +169,8 @@ class SnowPlayer implements Player, PlaylistEditor {
         mOnStateChangeListener = listener;
         mFactory = factory;
         mCallback = callback;
+        mSchedulers = schedulers;
+        mScrubber = createScrubber();
 
         initAllListener();
         initAllHelper();
@@ -173,6 +182,19 @@ class SnowPlayer implements Player, PlaylistEditor {
         mAudioEffectManager = audioEffectManager;
     }
 
+    /**
+     * 设置播放会话性能指标监听器。
+     *
+     * @param listener 播放会话性能指标监听器，为 null 时会关闭性能指标的记录
+     */
+    void setPlaybackMetricsListener(@Nullable PlaybackMetrics.Listener listener) {
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.release();
+        }
+
+        mMetricsRecorder = listener == null ? null : new PlaybackMetricsRecorder(listener);
+    }
+
     void initialize(@NonNull final OnInitializedListener listener) {
         mOnInitializedListener = listener;
         loadPlaylist();
@@ -183,6 +205,14 @@ class SnowPlayer implements Player, PlaylistEditor {
      */
     public void release() {
         mReleased = true;
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.release();
+        }
+
+        if (mMediaSessionPublisher != null) {
+            mMediaSessionPublisher.release();
+        }
+
         disposePrepareMusicItem();
         disposeRetrieveUri();
         releaseMusicPlayer();
@@ -231,8 +261,12 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         mPlayOnPrepared = playOnPrepared;
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onRetrieveUriStart();
+        }
+
         mRetrieveUriDisposable = getMusicItemUri(musicItem, mPlayerConfig.getSoundQuality())
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(mSchedulers.interactive())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(prepareMusicPlayer(musicItem, preparedAction), notifyGetUrlFailed());
     }
@@ -283,6 +317,10 @@ class SnowPlayer implements Player, PlaylistEditor {
         return new Consumer<Uri>() {
             @Override
             public void accept(Uri uri) {
+                if (mMetricsRecorder != null) {
+                    mMetricsRecorder.onRetrieveUriEnd();
+                }
+
                 mMusicPlayer = mFactory.createMusicPlayer(mApplicationContext, musicItem, uri);
                 attachListeners(mMusicPlayer);
 
@@ -335,7 +373,7 @@ class SnowPlayer implements Player, PlaylistEditor {
                 MusicItem musicItem = mPlayerState.getMusicItem();
                 assert musicItem != null;
                 if (musicItem.isAutoDuration()) {
-                    mMediaSession.setMetadata(buildMediaMetadata());
+                    publishMediaMetadata();
                 }
 
                 if (!mPlayerState.isForbidSeek() && mPlayerState.getPlayProgress() > 0) {
@@ -402,6 +440,10 @@ class SnowPlayer implements Player, PlaylistEditor {
                     return;
                 }
 
+                if (mScrubber.onSeekComplete()) {
+                    return;
+                }
+
                 notifySeekComplete(mp.getProgress(), SystemClock.elapsedRealtime(), mp.isStalled());
 
                 if (mPlayOnSeekComplete) {
@@ -577,7 +619,12 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         mPlayerStateHelper.onPaused(playProgress, updateTime);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
+
+        // 播放器已被释放，因此本次播放会话已结束
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onStopped();
+        }
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
 
         // 需要将服务端保存的播放进度设置为 0，以便下次调用 play() 方法时，可以从初始位置开始播放
         mPlayerState.setPlayProgress(0);
@@ -603,25 +650,25 @@ class SnowPlayer implements Player, PlaylistEditor {
     public final void setMediaSession(@NonNull MediaSessionCompat mediaSession) {
         Preconditions.checkNotNull(mediaSession);
 
-        initMediaMetadataBuilder();
         initPlaybackStateBuilder();
 
         mMediaSession = mediaSession;
+        mMediaSessionPublisher = new MediaSessionPublisher(mediaSession);
 
         if (getMusicItem() != null) {
             mPlayerState.setPlaybackState(PlaybackState.PAUSED);
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
         } else {
             mPlayerState.setPlaybackState(PlaybackState.NONE);
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_NONE));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_NONE));
         }
 
-        mMediaSession.setMetadata(buildMediaMetadata());
+        publishMediaMetadata();
     }
 
     void setIcon(Bitmap icon) {
         mMusicIcon = icon;
-        mMediaSession.setMetadata(buildMediaMetadata());
+        publishMediaMetadata();
     }
 
     private void initPlaybackStateBuilder() {
@@ -667,10 +714,6 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
     }
 
-    private void initMediaMetadataBuilder() {
-        mMediaMetadataBuilder = new MediaMetadataCompat.Builder();
-    }
-
     private PowerManager.WakeLock createWakeLock() {
         PowerManager pm = (PowerManager) mApplicationContext.getSystemService(Context.POWER_SERVICE);
 
@@ -756,20 +799,18 @@ class SnowPlayer implements Player, PlaylistEditor {
                 .build();
     }
 
-    private MediaMetadataCompat buildMediaMetadata() {
-        MusicItem musicItem = getMusicItem();
-
-        if (musicItem != null) {
-            return mMediaMetadataBuilder.putString(MediaMetadataCompat.METADATA_KEY_TITLE, musicItem.getTitle())
-                    .putString(MediaMetadataCompat.METADATA_KEY_ARTIST, musicItem.getArtist())
-                    .putString(MediaMetadataCompat.METADATA_KEY_ALBUM, musicItem.getAlbum())
-                    .putString(MediaMetadataCompat.METADATA_KEY_DISPLAY_ICON_URI, musicItem.getIconUri())
-                    .putLong(MediaMetadataCompat.METADATA_KEY_DURATION, mPlayerState.getDuration())
-                    .putBitmap(MediaMetadataCompat.METADATA_KEY_ALBUM_ART, mMusicIcon)
-                    .build();
-        }
+    // 只有媒体元数据真正改变时才会发布，歌曲图片只会在第一次发布时缩放
+    private void publishMediaMetadata() {
+        mMediaSessionPublisher.setMetadata(getMusicItem(), mPlayerState.getDuration(), mMusicIcon);
+    }
 
-        return new MediaMetadataCompat.Builder().build();
+    /**
+     * 设置发布到 MediaSession 的歌曲图片的最大尺寸（单位：像素）。
+     *
+     * @see MediaSessionPublisher#setMaxArtworkSize(int)
+     */
+    void setMaxArtworkSize(int maxArtworkSize) {
+        mMediaSessionPublisher.setMaxArtworkSize(maxArtworkSize);
     }
 
     private void attachListeners(MusicPlayer musicPlayer) {
@@ -798,6 +839,7 @@ class SnowPlayer implements Player, PlaylistEditor {
 
         mPreparedAction = null;
         mSeekCompleteAction = null;
+        mScrubber.reset();
 
         if (mPlayerState.isStalled()) {
             notifyStalled(false);
@@ -893,6 +935,10 @@ class SnowPlayer implements Player, PlaylistEditor {
         requireWakeLock();
         mPlayerStateHelper.onPreparing();
 
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onPrepareStart();
+        }
+
         mOnStateChangeListener.onPreparing();
 
         if (mPlayerStateListener != null) {
@@ -903,6 +949,10 @@ class SnowPlayer implements Player, PlaylistEditor {
     private void notifyPrepared(int audioSessionId, int duration) {
         mPlayerStateHelper.onPrepared(audioSessionId, duration);
 
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onPrepared();
+        }
+
         mOnStateChangeListener.onPrepared(audioSessionId);
 
         if (mPlayerStateListener != null) {
@@ -914,8 +964,12 @@ class SnowPlayer implements Player, PlaylistEditor {
         mPlayerStateHelper.onPlay(stalled, progress, updateTime);
         requireWakeLock();
 
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onPlaying(stalled);
+        }
+
         if (!stalled) {
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
         }
 
         startRecordProgress();
@@ -944,7 +998,11 @@ class SnowPlayer implements Player, PlaylistEditor {
 
         mPlayerStateHelper.onPaused(playProgress, updateTime);
 
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onPaused();
+        }
+
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
 
         mBecomeNoiseHelper.unregisterBecomeNoiseReceiver();
 
@@ -960,8 +1018,12 @@ class SnowPlayer implements Player, PlaylistEditor {
         releaseWakeLock();
 
         mPlayerStateHelper.onStopped();
+
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onStopped();
+        }
         mMediaSession.setActive(false);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_STOPPED));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_STOPPED));
 
         mAudioFocusHelper.abandonAudioFocus();
         mPhoneCallStateHelper.unregisterCallStateListener();
@@ -985,6 +1047,10 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         mPlayerStateHelper.onStalled(stalled, playProgress, updateTime);
+
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onStalledChanged(stalled);
+        }
         updateMediaSessionPlaybackState(stalled);
         mOnStateChangeListener.onStalledChanged(stalled);
 
@@ -995,7 +1061,7 @@ class SnowPlayer implements Player, PlaylistEditor {
 
     private void notifyRepeat(long repeatTime) {
         mPlayerStateHelper.onRepeat(repeatTime);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
 
         MusicItem musicItem = getMusicItem();
         if (mPlayerStateListener != null && musicItem != null) {
@@ -1006,7 +1072,7 @@ class SnowPlayer implements Player, PlaylistEditor {
     private void updateMediaSessionPlaybackState(boolean stalled) {
         if (stalled) {
             cancelRecordProgress();
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_BUFFERING));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_BUFFERING));
             return;
         }
 
@@ -1017,10 +1083,10 @@ class SnowPlayer implements Player, PlaylistEditor {
         switch (getPlaybackState()) {
             case PLAYING:
                 startRecordProgress();
-                mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
+                mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
                 break;
             case PAUSED:
-                mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
+                mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PAUSED));
                 break;
         }
     }
@@ -1030,7 +1096,11 @@ class SnowPlayer implements Player, PlaylistEditor {
         releaseWakeLock();
 
         mPlayerStateHelper.onError(errorCode, errorMessage);
-        mMediaSession.setPlaybackState(buildErrorState(errorMessage));
+
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onError(errorCode);
+        }
+        mMediaSessionPublisher.setPlaybackState(buildErrorState(errorMessage));
 
         mAudioFocusHelper.abandonAudioFocus();
         mPhoneCallStateHelper.unregisterCallStateListener();
@@ -1065,13 +1135,17 @@ class SnowPlayer implements Player, PlaylistEditor {
         disposePrepareMusicItem();
         releaseMusicPlayer();
 
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onMusicItemChanged(musicItem);
+        }
+
         if (musicItem == null) {
             onPlayingMusicItemChanged(null, position, false);
             return;
         }
 
         prepareMusicItemAsync(musicItem)
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(mSchedulers.interactive())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new SingleObserver<MusicItem>() {
                     @Override
@@ -1081,6 +1155,10 @@ class SnowPlayer implements Player, PlaylistEditor {
 
                     @Override
                     public void onSuccess(@NonNull MusicItem musicItem) {
+                        if (mMetricsRecorder != null) {
+                            mMetricsRecorder.onMusicItemPrepared();
+                        }
+
                         onPlayingMusicItemChanged(musicItem, position, play);
                     }
 
@@ -1137,9 +1215,9 @@ class SnowPlayer implements Player, PlaylistEditor {
         mPlayerStateHelper.onPlayingMusicItemChanged(musicItem, position, 0);
 
         if (musicItem == null) {
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_NONE));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_NONE));
         }
-        mMediaSession.setMetadata(buildMediaMetadata());
+        publishMediaMetadata();
 
         mOnStateChangeListener.onPlayingMusicItemChanged(musicItem);
 
@@ -1151,9 +1229,15 @@ class SnowPlayer implements Player, PlaylistEditor {
 
         if (play) {
             play();
-        } else {
-            stop();
+            return;
         }
+
+        // 不播放时结束本次播放会话，以免下次调用 play() 时将等待时间计入启动耗时
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onStopped();
+        }
+
+        stop();
     }
 
     private void notifySeekComplete(int playProgress, long updateTime, boolean stalled) {
@@ -1168,7 +1252,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         if (isMusicPlayerPlaying()) {
-            mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
+            mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_PLAYING));
         } else {
             notifyPaused();
         }
@@ -1181,7 +1265,8 @@ class SnowPlayer implements Player, PlaylistEditor {
             return;
         }
 
-        if (getMusicItem() == null || isMusicPlayerPlaying()) {
+        MusicItem musicItem = getMusicItem();
+        if (musicItem == null || isMusicPlayerPlaying()) {
             return;
         }
 
@@ -1195,7 +1280,18 @@ class SnowPlayer implements Player, PlaylistEditor {
             return;
         }
 
-        if (requestAudioFocusFailed()) {
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onPlayRequested(musicItem);
+            mMetricsRecorder.onAudioFocusRequestStart();
+        }
+
+        boolean audioFocusFailed = requestAudioFocusFailed();
+
+        if (mMetricsRecorder != null) {
+            mMetricsRecorder.onAudioFocusRequestEnd();
+        }
+
+        if (audioFocusFailed) {
             return;
         }
 
@@ -1299,6 +1395,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         if (isPrepared()) {
             assert mMusicPlayer != null;
             mSeekCompleteAction = seekCompleteAction;
+            mScrubber.onSeekIssued();
             mMusicPlayer.seekTo(progress);
             return;
         }
@@ -1318,6 +1415,70 @@ class SnowPlayer implements Player, PlaylistEditor {
         seekTo(progress, null);
     }
 
+    @Override
+    public void beginScrub() {
+        if (!mInitialized) {
+            Log.i(TAG, "beginScrub: player not initialized");
+            return;
+        }
+
+        if (mPlayerState.isForbidSeek()) {
+            return;
+        }
+
+        mScrubber.begin();
+    }
+
+    @Override
+    public void scrubTo(int progress) {
+        if (!mInitialized) {
+            Log.i(TAG, "scrubTo: player not initialized");
+            return;
+        }
+
+        if (!mScrubber.isScrubbing()) {
+            seekTo(progress, null);
+            return;
+        }
+
+        mScrubber.scrubTo(progress);
+    }
+
+    @Override
+    public void endScrub() {
+        if (!mInitialized) {
+            Log.i(TAG, "endScrub: player not initialized");
+            return;
+        }
+
+        mScrubber.end();
+    }
+
+    private Scrubber createScrubber() {
+        return new Scrubber(new Scrubber.Target() {
+            @Override
+            public boolean isReady() {
+                return isPrepared();
+            }
+
+            @Override
+            public void fastSeekTo(int progress) {
+                assert mMusicPlayer != null;
+
+                if (mMusicPlayer instanceof MusicPlayer.FastSeekable) {
+                    ((MusicPlayer.FastSeekable) mMusicPlayer).fastSeekTo(progress);
+                } else {
+                    mMusicPlayer.seekTo(progress);
+                }
+            }
+
+            @Override
+            public void seekTo(int progress) {
+                SnowPlayer.this.seekTo(progress, null);
+            }
+        });
+    }
+
     @Override
     public void fastForward() {
         if (!mInitialized) {
@@ -1340,7 +1501,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         int progress = Math.min(mPlayerState.getDuration(), mPlayerState.getPlayProgress() + FORWARD_STEP);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_FAST_FORWARDING));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_FAST_FORWARDING));
         seekTo(progress);
     }
 
@@ -1366,7 +1527,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         int progress = Math.min(mPlayerState.getDuration(), mPlayerState.getPlayProgress() - FORWARD_STEP);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_REWINDING));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_REWINDING));
         seekTo(progress);
     }
 
@@ -1461,7 +1622,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         mCheckCachedDisposable = playingMusicIsCached()
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(mSchedulers.currentTrack())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(checkNetworkTypeConsumer(onlyWifiNetwork, isWifiNetwork));
     }
@@ -1569,7 +1730,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         }
 
         prepareMusicItemAsync(mPlaylist.get(mPlayerState.getPlayPosition()))
-                .subscribeOn(Schedulers.io())
+                .subscribeOn(mSchedulers.currentTrack())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(new SingleObserver<MusicItem>() {
                     @Override
@@ -1586,6 +1747,8 @@ class SnowPlayer implements Player, PlaylistEditor {
                     @Override
                     public void onError(@NonNull Throwable e) {
                         notifyError(ErrorCode.PREPARE_MUSIC_ITEM_ERROR, ErrorCode.getErrorMessage(mApplicationContext, ErrorCode.PREPARE_MUSIC_ITEM_ERROR));
+                        // 准备失败时播放器依然已初始化完毕，否则等待中的同步请求与延迟的初始化将永远不会执行
+                        mOnInitializedListener.onInitialized();
                     }
                 });
     }
@@ -1621,7 +1784,7 @@ class SnowPlayer implements Player, PlaylistEditor {
     private void notifySpeedChanged(float speed, int progress, long updateTime) {
         mPlayerStateHelper.onSpeedChanged(speed, progress, updateTime);
 
-        mMediaSession.setPlaybackState(buildPlaybackState(mMediaSession.getController().getPlaybackState().getState()));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(mMediaSessionPublisher.getPlaybackState()));
 
         if (mPlayerStateListener != null) {
             mPlayerStateListener.onSpeedChanged(speed, progress, updateTime);
@@ -1686,7 +1849,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         int position = getNextPosition(mPlayerState.getPlayPosition());
 
         notifyPlayingMusicItemChanged(mPlaylist.get(position), position, true);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_NEXT));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_NEXT));
     }
 
     @Override
@@ -1731,7 +1894,7 @@ class SnowPlayer implements Player, PlaylistEditor {
         int position = getPreviousPosition(mPlayerState.getPlayPosition());
 
         notifyPlayingMusicItemChanged(mPlaylist.get(position), position, true);
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_PREVIOUS));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_PREVIOUS));
     }
 
     private int getPreviousPosition(int currentPosition) {
@@ -1771,7 +1934,7 @@ class SnowPlayer implements Player, PlaylistEditor {
             return;
         }
 
-        mMediaSession.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_QUEUE_ITEM));
+        mMediaSessionPublisher.setPlaybackState(buildPlaybackState(PlaybackStateCompat.STATE_SKIPPING_TO_QUEUE_ITEM));
         notifyPlayingMusicItemChanged(mPlaylist.get(position), position, true);
     }
 
@@ -1914,8 +2077,8 @@ class SnowPlayer implements Player, PlaylistEditor {
             return;
         }
 
-        mRecordProgressDisposable = Observable.interval(0, 1, TimeUnit.SECONDS, Schedulers.io())
-                .observeOn(AndroidSchedulers.mainThread())
+        // 只是在主线程中读取播放进度，不需要占用工作线程
+        mRecordProgressDisposable = Observable.interval(0, 1, TimeUnit.SECONDS, AndroidSchedulers.mainThread())
                 .subscribe(new Consumer<Long>() {
                     @Override
                     public void accept(Long aLong) {
@@ -2180,6 +2343,8 @@ class SnowPlayer implements Player, PlaylistEditor {
     interface OnInitializedListener {
         /**
          * 该方法会在 {@link SnowPlayer} 初始化完毕后调用。
+         * <p>
+         * 即使准备当前播放的歌曲时发生了错误，该方法也会被调用（此时播放器状态中已包含错误信息）。
          */
         void onInitialized();
     }
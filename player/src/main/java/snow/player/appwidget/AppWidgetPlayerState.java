@@ -114,13 +114,8 @@ public class AppWidgetPlayerState implements Parcelable {
         Preconditions.checkNotNull(playerService);
         Preconditions.checkNotNull(playerState);
 
-        MMKV mmkv = getMMKV(context, playerService);
-        mmkv.encode(KEY_PLAYER_STATE, playerState);
-
-        Intent intent = new Intent(ACTION_PLAYER_STATE_CHANGED);
-        intent.addCategory(playerService.getName());
-        intent.setPackage(context.getPackageName());
-        context.sendBroadcast(intent, PERMISSION_UPDATE_APP_WIDGET);
+        savePlayerState(context, playerService, playerState);
+        sendPlayerStateChangedBroadcast(context, playerService);
     }
 
     public static void updatePlayerState(@NonNull Context context,
@@ -131,22 +126,46 @@ public class AppWidgetPlayerState implements Parcelable {
         Preconditions.checkNotNull(playerService);
         Preconditions.checkNotNull(playerState);
 
-        MMKV mmkv = getMMKV(context, playerService);
-        mmkv.encode(KEY_PLAYER_STATE, playerState);
+        savePlayerState(context, playerService, playerState);
 
         AppWidgetManager am = AppWidgetManager.getInstance(context);
 
         for (Class<? extends AppWidgetProvider> appWidgetClazz : appWidgets) {
-            Intent intent = new Intent(AppWidgetManager.ACTION_APPWIDGET_UPDATE);
-
             ComponentName componentName = new ComponentName(context, appWidgetClazz);
-            intent.setComponent(componentName);
-            intent.putExtra(AppWidgetManager.EXTRA_APPWIDGET_IDS, am.getAppWidgetIds(componentName));
-            
-            context.sendBroadcast(intent);
+            sendAppWidgetUpdateBroadcast(context, componentName, am.getAppWidgetIds(componentName));
         }
     }
 
+    static void savePlayerState(@NonNull Context context,
+                                @NonNull Class<? extends PlayerService> playerService,
+                                @NonNull AppWidgetPlayerState playerState) {
+        MMKV mmkv = getMMKV(context, playerService);
+        mmkv.encode(KEY_PLAYER_STATE, playerState);
+    }
+
+    static Intent createPlayerStateChangedIntent(@NonNull Context context,
+                                                 @NonNull Class<? extends PlayerService> playerService) {
+        Intent intent = new Intent(ACTION_PLAYER_STATE_CHANGED);
+        intent.addCategory(playerService.getName());
+        intent.setPackage(context.getPackageName());
+        return intent;
+    }
+
+    static void sendPlayerStateChangedBroadcast(@NonNull Context context,
+                                                @NonNull Class<? extends PlayerService> playerService) {
+        context.sendBroadcast(createPlayerStateChangedIntent(context, playerService), PERMISSION_UPDATE_APP_WIDGET);
+    }
+
+    static void sendAppWidgetUpdateBroadcast(@NonNull Context context,
+                                             @NonNull ComponentName appWidget,
+                                             @NonNull int[] appWidgetIds) {
+        Intent intent = new Intent(AppWidgetManager.ACTION_APPWIDGET_UPDATE);
+        intent.setComponent(appWidget);
+        intent.putExtra(AppWidgetManager.EXTRA_APPWIDGET_IDS, appWidgetIds);
+
+        context.sendBroadcast(intent);
+    }
+
     private static MMKV getMMKV(@NonNull Context context, @NonNull Class<? extends PlayerService> playerService) {
         if (!sMMKVInitialized) {
             sMMKVInitialized = true;
@@ -0,0 +1,256 @@
+package snow.player.appwidget;
+
+import android.appwidget.AppWidgetManager;
+import android.appwidget.AppWidgetProvider;
+import android.appwidget.AppWidgetProviderInfo;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ResolveInfo;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+import com.google.common.base.Objects;
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import snow.player.PlaybackState;
+import snow.player.PlayerService;
+
+/**
+ * 用于发布 {@link AppWidgetPlayerState}。
+ * <p>
+ * 为了避免播放器状态频繁改变时（例如网络不稳定导致缓冲状态反复切换）向 AppWidget 发送大量广播，
+ * 该类会：
+ * <ol>
+ *     <li>将 {@link #PUBLISH_DELAY} 毫秒内的多次状态改变合并为一次；</li>
+ *     <li>与上一次发布的状态进行比较，如果状态没有改变，则既不会写入 MMKV，也不会发送广播；</li>
+ *     <li>如果没有放置任何 AppWidget 实例，则只会写入 MMKV，不会发送广播。</li>
+ * </ol>
+ * <p>
+ * 该类的所有方法都应该在主线程中调用。
+ */
+public final class AppWidgetPlayerStatePublisher {
+    /**
+     * 合并状态改变的时间窗口（单位：毫秒），约为一帧。
+     */
+    public static final int PUBLISH_DELAY = 16;
+
+    // 播放中时，如果根据上一次发布的状态推算出的播放进度与实际播放进度的误差不超过该值，则认为播放进度没有改变
+    private static final long PROGRESS_TOLERANCE = 500;
+
+    private final Context mContext;
+    private final Class<? extends PlayerService> mPlayerService;
+    @Nullable
+    private final List<Class<? extends AppWidgetProvider>> mAppWidgets;
+    private final StateSource mStateSource;
+
+    private final Handler mHandler;
+    private final Runnable mPublishTask;
+    private boolean mPublishPending;
+
+    @Nullable
+    private AppWidgetPlayerState mPublishedState;
+
+    // 监听 ACTION_PLAYER_STATE_CHANGED 广播的 AppWidgetProvider，会在第一次发布时解析
+    @Nullable
+    private List<ComponentName> mStateChangedReceivers;
+    private boolean mAlwaysSendStateChanged;
+
+    /**
+     * 创建一个 {@link AppWidgetPlayerStatePublisher} 对象。
+     *
+     * @param context       Context 对象，不能为 null
+     * @param playerService PlayerService 的 Class 对象，不能为 null
+     * @param appWidgets    需要刷新的所有 AppWidget，如果为 null，则会发送 {@link AppWidgetPlayerState#ACTION_PLAYER_STATE_CHANGED} 广播
+     * @param stateSource   用于在发布时获取最新的播放器状态，不能为 null
+     */
+    public AppWidgetPlayerStatePublisher(@NonNull Context context,
+                                         @NonNull Class<? extends PlayerService> playerService,
+                                         @Nullable List<Class<? extends AppWidgetProvider>> appWidgets,
+                                         @NonNull StateSource stateSource) {
+        Preconditions.checkNotNull(context);
+        Preconditions.checkNotNull(playerService);
+        Preconditions.checkNotNull(stateSource);
+
+        mContext = context;
+        mPlayerService = playerService;
+        mAppWidgets = appWidgets;
+        mStateSource = stateSource;
+
+        mHandler = new Handler(Looper.getMainLooper());
+        mPublishTask = new Runnable() {
+            @Override
+            public void run() {
+                publishNow();
+            }
+        };
+    }
+
+    /**
+     * 通知播放器状态已改变。
+     * <p>
+     * 不会立即发布，而是在 {@link #PUBLISH_DELAY} 毫秒后发布最新的状态。
+     */
+    public void invalidate() {
+        if (mPublishPending) {
+            return;
+        }
+
+        mPublishPending = true;
+        mHandler.postDelayed(mPublishTask, PUBLISH_DELAY);
+    }
+
+    /**
+     * 立即发布尚未发布的状态（如果有的话）。
+     * <p>
+     * 请在 PlayerService 销毁前调用该方法，以免丢失最后一次状态改变。
+     */
+    public void flush() {
+        if (mPublishPending) {
+            mHandler.removeCallbacks(mPublishTask);
+            publishNow();
+        }
+    }
+
+    private void publishNow() {
+        mPublishPending = false;
+
+        AppWidgetPlayerState state = mStateSource.getAppWidgetPlayerState();
+        if (mPublishedState != null && isSameState(mPublishedState, state)) {
+            return;
+        }
+
+        mPublishedState = state;
+
+        // 即使没有放置任何 AppWidget 实例，也需要更新 MMKV，以便新放置的 AppWidget 读取到最新的状态
+        AppWidgetPlayerState.savePlayerState(mContext, mPlayerService, state);
+
+        if (mAppWidgets != null) {
+            updateAppWidgets(mAppWidgets);
+            return;
+        }
+
+        if (shouldSendStateChanged()) {
+            AppWidgetPlayerState.sendPlayerStateChangedBroadcast(mContext, mPlayerService);
+        }
+    }
+
+    private void updateAppWidgets(List<Class<? extends AppWidgetProvider>> appWidgets) {
+        AppWidgetManager am = AppWidgetManager.getInstance(mContext);
+        if (am == null) {
+            // 设备不支持 AppWidget
+            return;
+        }
+
+        for (Class<? extends AppWidgetProvider> appWidget : appWidgets) {
+            ComponentName componentName = new ComponentName(mContext, appWidget);
+            int[] appWidgetIds = am.getAppWidgetIds(componentName);
+            if (appWidgetIds.length > 0) {
+                AppWidgetPlayerState.sendAppWidgetUpdateBroadcast(mContext, componentName, appWidgetIds);
+            }
+        }
+    }
+
+    private boolean shouldSendStateChanged() {
+        if (mStateChangedReceivers == null) {
+            resolveStateChangedReceivers();
+        }
+
+        if (mAlwaysSendStateChanged) {
+            return true;
+        }
+
+        AppWidgetManager am = AppWidgetManager.getInstance(mContext);
+        if (am == null) {
+            return false;
+        }
+
+        for (ComponentName receiver : mStateChangedReceivers) {
+            if (am.getAppWidgetIds(receiver).length > 0) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private void resolveStateChangedReceivers() {
+        mStateChangedReceivers = new ArrayList<>();
+
+        List<ResolveInfo> allResolveInfo = mContext.getPackageManager()
+                .queryBroadcastReceivers(AppWidgetPlayerState.createPlayerStateChangedIntent(mContext, mPlayerService), 0);
+
+        AppWidgetManager am = AppWidgetManager.getInstance(mContext);
+        if (allResolveInfo.isEmpty() || am == null) {
+            // 可能是动态注册的广播接收器，无法判断是否有 AppWidget 实例，总是需要发送广播
+            mAlwaysSendStateChanged = true;
+            return;
+        }
+
+        Set<ComponentName> allProvider = new HashSet<>();
+        for (AppWidgetProviderInfo info : am.getInstalledProviders()) {
+            allProvider.add(info.provider);
+        }
+
+        for (ResolveInfo resolveInfo : allResolveInfo) {
+            ActivityInfo activityInfo = resolveInfo.activityInfo;
+            ComponentName componentName = new ComponentName(activityInfo.packageName, activityInfo.name);
+
+            if (!allProvider.contains(componentName)) {
+                // 监听该广播的不是 AppWidgetProvider，总是需要发送广播
+                mAlwaysSendStateChanged = true;
+                return;
+            }
+
+            mStateChangedReceivers.add(componentName);
+        }
+    }
+
+    /**
+     * 比较两个 {@link AppWidgetPlayerState} 对于 AppWidget 而言是否相同。
+     * <p>
+     * 正在播放时，播放进度会随时间推移，因此只要 b 的播放进度与根据 a 推算出的播放进度一致，就认为播放进度没有改变；
+     * 未在播放时，只比较播放进度，忽略播放进度的更新时间。
+     */
+    @VisibleForTesting
+    static boolean isSameState(@NonNull AppWidgetPlayerState a, @NonNull AppWidgetPlayerState b) {
+        if (a.getPlaybackState() != b.getPlaybackState() ||
+                a.getPlayMode() != b.getPlayMode() ||
+                Float.compare(a.getSpeed(), b.getSpeed()) != 0 ||
+                a.isPreparing() != b.isPreparing() ||
+                a.isPrepared() != b.isPrepared() ||
+                a.isStalled() != b.isStalled() ||
+                !a.getErrorMessage().equals(b.getErrorMessage()) ||
+                !Objects.equal(a.getPlayingMusicItem(), b.getPlayingMusicItem())) {
+            return false;
+        }
+
+        if (a.getPlaybackState() == PlaybackState.PLAYING && !a.isStalled()) {
+            long elapsedTime = b.getPlayProgressUpdateTime() - a.getPlayProgressUpdateTime();
+            long expectedProgress = a.getPlayProgress() + (long) (elapsedTime * a.getSpeed());
+            return Math.abs(expectedProgress - b.getPlayProgress()) <= PROGRESS_TOLERANCE;
+        }
+
+        return a.getPlayProgress() == b.getPlayProgress();
+    }
+
+    /**
+     * 用于获取最新的播放器状态。
+     */
+    public interface StateSource {
+        /**
+         * 获取最新的播放器状态，只会在发布时调用。
+         */
+        @NonNull
+        AppWidgetPlayerState getAppWidgetPlayerState();
+    }
+}
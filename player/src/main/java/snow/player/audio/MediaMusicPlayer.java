@@ -21,7 +21,7 @@ import java.util.Map;
 /**
  * 封装了一个 MediaPlayer。
  */
-public class MediaMusicPlayer implements MusicPlayer {
+public class MediaMusicPlayer implements MusicPlayer, MusicPlayer.FastSeekable {
     private static final String TAG = "MediaMusicPlayer";
 
     private final Context mContext;
@@ -292,6 +292,20 @@ public class MediaMusicPlayer implements MusicPlayer {
         mMediaPlayer.seekTo(pos);
     }
 
+    @Override
+    public void fastSeekTo(int pos) {
+        if (isInvalid()) {
+            return;
+        }
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.O) {
+            mMediaPlayer.seekTo(pos, MediaPlayer.SEEK_CLOSEST_SYNC);
+            return;
+        }
+
+        mMediaPlayer.seekTo(pos);
+    }
+
     @Override
     public void setVolume(float volume) {
         if (isInvalid()) {
@@ -12,6 +12,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Preconditions;
 
 import snow.player.R;
+import snow.player.util.MusicItemUtil;
 
 /**
  * 用于存储与音乐相关的数据。
@@ -37,6 +38,9 @@ public final class MusicItem implements Parcelable {
     private static final String VERSION_1 = "v1";
     private boolean autoDuration;
 
+    // hashCode 的缓存值，为 0 时表示尚未计算。修改任何参与计算 hashCode 的字段后都必须将其重置为 0
+    private int cachedHashCode;
+
     /**
      * 构造一个 MusicItem 对象。建议使用 {@link Builder} 构造器来创建 {@link MusicItem} 对象，
      * 而不是使用构造方法。
@@ -71,6 +75,7 @@ public final class MusicItem implements Parcelable {
         duration = source.duration;
         forbidSeek = source.forbidSeek;
         autoDuration = source.autoDuration;
+        cachedHashCode = source.cachedHashCode;
         if (source.extra != null) {
             extra = new Bundle(source.extra);
         }
@@ -94,6 +99,7 @@ public final class MusicItem implements Parcelable {
     public void setMusicId(@NonNull String musicId) {
         Preconditions.checkNotNull(musicId);
         this.musicId = musicId;
+        cachedHashCode = 0;
     }
 
     /**
@@ -114,6 +120,7 @@ public final class MusicItem implements Parcelable {
     public void setTitle(@NonNull String title) {
         Preconditions.checkNotNull(title);
         this.title = title;
+        cachedHashCode = 0;
     }
 
     /**
@@ -134,6 +141,7 @@ public final class MusicItem implements Parcelable {
     public void setArtist(@NonNull String artist) {
         Preconditions.checkNotNull(artist);
         this.artist = artist;
+        cachedHashCode = 0;
     }
 
     /**
@@ -154,6 +162,7 @@ public final class MusicItem implements Parcelable {
     public void setAlbum(@NonNull String album) {
         Preconditions.checkNotNull(album);
         this.album = album;
+        cachedHashCode = 0;
     }
 
     /**
@@ -174,6 +183,7 @@ public final class MusicItem implements Parcelable {
     public void setUri(@NonNull String uri) {
         Preconditions.checkNotNull(uri);
         this.uri = uri;
+        cachedHashCode = 0;
     }
 
     /**
@@ -194,6 +204,7 @@ public final class MusicItem implements Parcelable {
     public void setIconUri(@NonNull String iconUri) {
         Preconditions.checkNotNull(iconUri);
         this.iconUri = iconUri;
+        cachedHashCode = 0;
     }
 
     /**
@@ -211,6 +222,8 @@ public final class MusicItem implements Parcelable {
      * @param duration 歌曲的持续时间，小于 0 时，duration 的值将被设置为 0
      */
     public void setDuration(int duration) {
+        cachedHashCode = 0;
+
         if (duration < 0) {
             this.duration = 0;
             return;
@@ -242,6 +255,7 @@ public final class MusicItem implements Parcelable {
      */
     public void setAutoDuration(boolean autoDuration) {
         this.autoDuration = autoDuration;
+        cachedHashCode = 0;
     }
 
     /**
@@ -267,6 +281,7 @@ public final class MusicItem implements Parcelable {
      */
     public void setForbidSeek(boolean forbidSeek) {
         this.forbidSeek = forbidSeek;
+        cachedHashCode = 0;
     }
 
     /**
@@ -310,15 +325,20 @@ public final class MusicItem implements Parcelable {
      */
     @Override
     public int hashCode() {
-        return Objects.hashCode(musicId,
-                title,
-                artist,
-                album,
-                uri,
-                iconUri,
-                duration,
-                forbidSeek,
-                autoDuration);
+        int result = cachedHashCode;
+        if (result == 0) {
+            result = Objects.hashCode(musicId,
+                    title,
+                    artist,
+                    album,
+                    uri,
+                    iconUri,
+                    duration,
+                    forbidSeek,
+                    autoDuration);
+            cachedHashCode = result;
+        }
+        return result;
     }
 
     @Override
@@ -343,6 +363,7 @@ public final class MusicItem implements Parcelable {
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
+        // 如果修改了这里的字段，请同时修改 PlaylistCodec 并增加其版本号
         dest.writeString(this.musicId);
         dest.writeString(this.title);
         dest.writeString(this.artist);
@@ -360,14 +381,17 @@ public final class MusicItem implements Parcelable {
 
     /**
      * Parcelable 专用。
+     * <p>
+     * 歌手、专辑与图标链接在大型播放列表中通常存在大量重复值，因此反序列化时会对其进行驻留，
+     * 详见 {@link MusicItemUtil#intern(String)}。
      */
     protected MusicItem(Parcel in) {
         this.musicId = in.readString();
         this.title = in.readString();
-        this.artist = in.readString();
-        this.album = in.readString();
+        this.artist = MusicItemUtil.intern(in.readString());
+        this.album = MusicItemUtil.intern(in.readString());
         this.uri = in.readString();
-        this.iconUri = in.readString();
+        this.iconUri = MusicItemUtil.intern(in.readString());
         this.duration = in.readInt();
         this.forbidSeek = in.readByte() == 1;
         this.extra = in.readParcelable(Thread.currentThread().getContextClassLoader());
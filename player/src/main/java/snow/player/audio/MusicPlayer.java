@@ -305,4 +305,22 @@ public interface MusicPlayer {
          */
         void onError(MusicPlayer mp, int errorCode);
     }
+
+    /**
+     * 支持快速调整播放进度的音乐播放器。
+     * <p>
+     * 拖动进度条时，播放器会使用 {@link #fastSeekTo(int)} 方法快速调整播放进度，并在拖动结束时使用
+     * {@link #seekTo(int)} 方法精确地调整到最终的播放进度。未实现该接口的音乐播放器总是会使用 {@link #seekTo(int)} 方法。
+     */
+    interface FastSeekable {
+        /**
+         * 快速调整播放器的播放进度。
+         * <p>
+         * 允许调整到 pos 附近的关键帧（同步帧）处，以换取更快的速度。完成后同样需要通知 {@link OnSeekCompleteListener}，
+         * 并且之后调用的 {@link #seekTo(int)} 方法应该恢复为精确调整。
+         *
+         * @param pos 要调整到的播放位置（单位：毫秒）
+         */
+        void fastSeekTo(int pos);
+    }
 }
@@ -0,0 +1,323 @@
+package snow.player.browse;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.MediaStore;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.common.base.Preconditions;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import snow.player.PlayerService;
+
+/**
+ * 以 content uri 的形式向 {@link android.support.v4.media.MediaBrowserCompat} 客户端提供歌曲的封面图片。
+ * <p>
+ * 客户端只需要根据 uri 读取图片即可，不需要通过 Binder 传递位图数据。网络图片会在首次读取时下载到缓存目录中，
+ * 缓存目录的大小不会超过 {@link #MAX_CACHE_SIZE}，超出时会优先删除最久未使用的图片。
+ * <p>
+ * 出于安全考虑：
+ * <ol>
+ *     <li>content uri 中只包含由 {@link #getArtworkUri(Context, String)} 生成的不透明令牌，不包含原始的图片地址，
+ *     客户端无法通过该 Provider 读取任意的网络图片或者 {@link MediaStore} 中的文件；</li>
+ *     <li>只支持 http/https 网络图片与 {@link MediaStore} 中的图片，不会提供本应用的私有文件；</li>
+ *     <li>该 Provider 不会被导出，{@link PlayerService} 只会为正在浏览媒体内容的客户端授予对应 uri 的临时读取权限。</li>
+ * </ol>
+ * <p>
+ * 该 Provider 默认不会被合并到应用程序的 AndroidManifest.xml 中。如果需要向客户端提供封面图片，请在应用程序的
+ * AndroidManifest.xml 中声明该 Provider（必须与 {@link PlayerService} 运行在同一个进程中）：
+ * <pre>
+ * &lt;provider
+ *     android:name="snow.player.browse.MediaArtworkProvider"
+ *     android:authorities="${applicationId}.snow.player.artwork"
+ *     android:exported="false"
+ *     android:grantUriPermissions="true" /&gt;
+ * </pre>
+ * 如果没有声明该 Provider，则 {@link #getArtworkUri(Context, String)} 总是返回 null，媒体内容将不包含封面图片。
+ *
+ * @see MediaBrowseTree#createPlayableItem(String, snow.player.audio.MusicItem)
+ */
+public class MediaArtworkProvider extends ContentProvider {
+    /**
+     * 缓存目录的最大大小（单位：字节）。
+     */
+    public static final long MAX_CACHE_SIZE = 20 * 1024 * 1024;
+
+    private static final String AUTHORITY_SUFFIX = ".snow.player.artwork";
+    private static final String PATH_ARTWORK = "artwork";
+    private static final String CACHE_DIR = "snow_player_artwork";
+
+    // 单张网络图片的最大大小（单位：字节），超出时会放弃下载
+    private static final long MAX_ARTWORK_SIZE = 5 * 1024 * 1024;
+    // 最多保留的令牌数量，超出时会移除最久未使用的令牌
+    private static final int MAX_TOKENS = 1000;
+
+    private static final int CONNECT_TIMEOUT = 10_000;
+    private static final int READ_TIMEOUT = 15_000;
+
+    // 令牌 -> 原始图片地址
+    private static final LruCache<String, String> sAllToken = new LruCache<>(MAX_TOKENS);
+    private static Boolean sProviderDeclared;
+
+    /**
+     * 获取封面图片的 content uri。
+     * <p>
+     * 返回的 uri 中只包含一个不透明的令牌，只有通过该方法生成的 uri 才能被 {@link MediaArtworkProvider} 读取。
+     *
+     * @param context Context 对象，不能为 null
+     * @param iconUri 封面图片的原始 uri，可为 null
+     * @return 封面图片的 content uri。如果 iconUri 为 null、空字符串或者不受支持的 uri，或者应用程序没有声明
+     * {@link MediaArtworkProvider}，则返回 null
+     */
+    @Nullable
+    public static Uri getArtworkUri(@NonNull Context context, @Nullable String iconUri) {
+        Preconditions.checkNotNull(context);
+
+        if (iconUri == null || iconUri.isEmpty() || !isSupported(Uri.parse(iconUri))) {
+            return null;
+        }
+
+        String authority = getAuthority(context);
+        if (!isProviderDeclared(context, authority)) {
+            return null;
+        }
+
+        String token = Hashing.sha256().hashString(iconUri, Charset.forName("UTF-8")).toString();
+        sAllToken.put(token, iconUri);
+
+        return new Uri.Builder()
+                .scheme(ContentResolver.SCHEME_CONTENT)
+                .authority(authority)
+                .appendPath(PATH_ARTWORK)
+                .appendPath(token)
+                .build();
+    }
+
+    /**
+     * 判断 uri 是否是由 {@link #getArtworkUri(Context, String)} 生成的封面图片 uri。
+     */
+    public static boolean isArtworkUri(@NonNull Context context, @Nullable Uri uri) {
+        Preconditions.checkNotNull(context);
+
+        return uri != null
+                && ContentResolver.SCHEME_CONTENT.equals(uri.getScheme())
+                && getAuthority(context).equals(uri.getAuthority());
+    }
+
+    private static String getAuthority(Context context) {
+        return context.getPackageName() + AUTHORITY_SUFFIX;
+    }
+
+    private static synchronized boolean isProviderDeclared(Context context, String authority) {
+        if (sProviderDeclared == null) {
+            sProviderDeclared = context.getPackageManager().resolveContentProvider(authority, 0) != null;
+        }
+
+        return sProviderDeclared;
+    }
+
+    private static boolean isSupported(Uri uri) {
+        String scheme = uri.getScheme();
+        if ("http".equals(scheme) || "https".equals(scheme)) {
+            return true;
+        }
+
+        return ContentResolver.SCHEME_CONTENT.equals(scheme) && MediaStore.AUTHORITY.equals(uri.getAuthority());
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public ParcelFileDescriptor openFile(@NonNull Uri uri, @NonNull String mode) throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new SecurityException("read only");
+        }
+
+        List<String> segments = uri.getPathSegments();
+        if (segments.size() != 2 || !PATH_ARTWORK.equals(segments.get(0))) {
+            throw new FileNotFoundException(uri.toString());
+        }
+
+        // 只接受由 getArtworkUri 生成的令牌
+        String source = sAllToken.get(segments.get(1));
+        if (source == null) {
+            throw new FileNotFoundException(uri.toString());
+        }
+
+        Uri sourceUri = Uri.parse(source);
+        String scheme = sourceUri.getScheme();
+
+        if ("http".equals(scheme) || "https".equals(scheme)) {
+            return ParcelFileDescriptor.open(getCachedFile(segments.get(1), source), ParcelFileDescriptor.MODE_READ_ONLY);
+        }
+
+        Context context = getContext();
+        if (context != null && isSupported(sourceUri)) {
+            return context.getContentResolver().openFileDescriptor(sourceUri, "r");
+        }
+
+        throw new FileNotFoundException(uri.toString());
+    }
+
+    private File getCachedFile(String token, String url) throws FileNotFoundException {
+        Context context = getContext();
+        if (context == null) {
+            throw new FileNotFoundException(url);
+        }
+
+        File dir = new File(context.getCacheDir(), CACHE_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new FileNotFoundException(dir.getPath());
+        }
+
+        File file = new File(dir, token);
+        if (file.exists()) {
+            // 更新最近使用时间，以便缓存目录超出大小时优先删除最久未使用的图片
+            //noinspection ResultOfMethodCallIgnored
+            file.setLastModified(System.currentTimeMillis());
+            return file;
+        }
+
+        File tempFile = new File(dir, token + ".tmp");
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(url).openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK
+                    || connection.getContentLength() > MAX_ARTWORK_SIZE) {
+                throw new FileNotFoundException(url);
+            }
+
+            try (InputStream input = connection.getInputStream();
+                 OutputStream output = new FileOutputStream(tempFile)) {
+                byte[] buffer = new byte[8192];
+                long total = 0;
+                int length;
+                while ((length = input.read(buffer)) != -1) {
+                    total += length;
+                    if (total > MAX_ARTWORK_SIZE) {
+                        throw new FileNotFoundException(url);
+                    }
+                    output.write(buffer, 0, length);
+                }
+            }
+
+            if (!tempFile.renameTo(file)) {
+                throw new FileNotFoundException(file.getPath());
+            }
+
+            trimCache(dir, file);
+            return file;
+        } catch (IOException e) {
+            //noinspection ResultOfMethodCallIgnored
+            tempFile.delete();
+            if (e instanceof FileNotFoundException) {
+                throw (FileNotFoundException) e;
+            }
+            throw new FileNotFoundException(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+    }
+
+    // 删除最久未使用的图片，直到缓存目录的大小不超过 MAX_CACHE_SIZE，刚刚下载的图片不会被删除
+    private static synchronized void trimCache(File dir, File keep) {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        long size = 0;
+        for (File file : files) {
+            size += file.length();
+        }
+
+        if (size <= MAX_CACHE_SIZE) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File a, File b) {
+                long diff = a.lastModified() - b.lastModified();
+                return diff < 0 ? -1 : (diff == 0 ? 0 : 1);
+            }
+        });
+
+        for (File file : files) {
+            if (size <= MAX_CACHE_SIZE) {
+                return;
+            }
+
+            if (file.equals(keep)) {
+                continue;
+            }
+
+            long length = file.length();
+            if (file.delete()) {
+                size -= length;
+            }
+        }
+    }
+
+    @Nullable
+    @Override
+    public String getType(@NonNull Uri uri) {
+        return "image/*";
+    }
+
+    @Nullable
+    @Override
+    public Cursor query(@NonNull Uri uri,
+                        @Nullable String[] projection,
+                        @Nullable String selection,
+                        @Nullable String[] selectionArgs,
+                        @Nullable String sortOrder) {
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public Uri insert(@NonNull Uri uri, @Nullable ContentValues values) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int delete(@NonNull Uri uri, @Nullable String selection, @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public int update(@NonNull Uri uri, @Nullable ContentValues values, @Nullable String selection, @Nullable String[] selectionArgs) {
+        throw new UnsupportedOperationException();
+    }
+}
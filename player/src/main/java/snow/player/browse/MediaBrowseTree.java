@@ -0,0 +1,295 @@
+package snow.player.browse;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.v4.media.MediaBrowserCompat;
+import android.support.v4.media.MediaDescriptionCompat;
+import android.support.v4.media.MediaMetadataCompat;
+import android.util.LruCache;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.media.MediaBrowserServiceCompat;
+
+import com.google.common.base.Preconditions;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import snow.player.PlayerService;
+import snow.player.audio.MusicItem;
+import snow.player.util.CacheRegistry;
+
+/**
+ * 媒体浏览树，用于向 Android Auto、Wear OS 等 {@link MediaBrowserCompat} 客户端提供可浏览的媒体内容。
+ * <p>
+ * 覆盖 {@link PlayerService#onCreateMediaBrowseTree()} 方法并返回一个 {@link MediaBrowseTree} 对象即可启用媒体浏览功能。
+ * 你只需要实现 {@link #onLoadChildren(String, int, int)} 方法，按需加载指定节点下某一页的子节点即可，{@link PlayerService}
+ * 会负责处理客户端的分页参数（{@link MediaBrowserCompat#EXTRA_PAGE} 与 {@link MediaBrowserCompat#EXTRA_PAGE_SIZE}），
+ * 并在异步线程中调用该方法。已加载的分页会被缓存，当数据发生变化时，请调用 {@link #notifyChildrenChanged(String)} 方法。
+ * <p>
+ * 为了避免通过 Binder 传递大量位图数据，请使用 {@link #createPlayableItem(String, MusicItem)} 方法创建可播放的节点，
+ * 该方法会通过 {@link MediaArtworkProvider} 以 content uri 的形式提供歌曲的封面图片，而不是直接传递位图。
+ *
+ * @see PlayerService#onCreateMediaBrowseTree()
+ */
+public abstract class MediaBrowseTree {
+    /**
+     * 当客户端没有请求分页时，最多返回的子节点数量。
+     */
+    public static final int DEFAULT_MAX_CHILDREN = 200;
+
+    private static final int CACHE_MAX_PAGES = 32;
+    // 每个 MediaItem 的估算内存占用（单位：字节），只用于内存不足时缩小缓存
+    private static final int ESTIMATED_MEDIA_ITEM_SIZE = 1024;
+
+    private final Context mContext;
+    private final LruCache<String, List<MediaBrowserCompat.MediaItem>> mCache;
+    private final Handler mMainHandler;
+    private final CacheRegistry.TrimmableCache mTrimmableCache;
+
+    @Nullable
+    private MediaBrowserServiceCompat mService;
+
+    /**
+     * 创建一个 {@link MediaBrowseTree} 对象。
+     *
+     * @param context Context 对象，不能为 null
+     */
+    public MediaBrowseTree(@NonNull Context context) {
+        Preconditions.checkNotNull(context);
+
+        mContext = context.getApplicationContext();
+        mCache = new LruCache<>(CACHE_MAX_PAGES);
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mTrimmableCache = new CacheRegistry.TrimmableCache() {
+            @Override
+            public long getSizeInBytes() {
+                return getCacheSizeInBytes();
+            }
+
+            @Override
+            public void trimToSize(long maxSizeInBytes) {
+                trimCacheToSize(maxSizeInBytes);
+            }
+        };
+    }
+
+    /**
+     * 由 {@link PlayerService} 调用，请不要调用该方法。
+     */
+    public final void attach(@NonNull MediaBrowserServiceCompat service) {
+        mService = service;
+        CacheRegistry.getDefault().register("MediaBrowseTree", CacheRegistry.TrimPolicy.LOW, mTrimmableCache);
+    }
+
+    /**
+     * 由 {@link PlayerService} 调用，请不要调用该方法。
+     */
+    public final void detach() {
+        mService = null;
+        mCache.evictAll();
+        CacheRegistry.getDefault().unregister(mTrimmableCache);
+    }
+
+    /**
+     * 获取 Context 对象。
+     */
+    @NonNull
+    protected final Context getContext() {
+        return mContext;
+    }
+
+    /**
+     * 获取媒体浏览树的根节点 ID，默认为 {@link PlayerService#DEFAULT_MEDIA_ROOT_ID}。
+     */
+    @NonNull
+    public String getRootId() {
+        return PlayerService.DEFAULT_MEDIA_ROOT_ID;
+    }
+
+    /**
+     * 加载 parentId 节点下位于 [offset, offset + limit) 范围内的子节点。
+     * <p>
+     * 该方法会在异步线程中调用，可以在该方法中访问数据库等耗时操作。
+     *
+     * @param parentId 父节点 ID
+     * @param offset   偏移量
+     * @param limit    最大数量
+     * @return 子节点列表，不能为 null。如果 parentId 节点不存在，则返回一个空列表。
+     */
+    @NonNull
+    protected abstract List<MediaBrowserCompat.MediaItem> onLoadChildren(@NonNull String parentId, int offset, int limit);
+
+    /**
+     * 搜索媒体内容。默认返回一个空列表。
+     * <p>
+     * 该方法会在异步线程中调用。
+     *
+     * @param query  搜索关键字
+     * @param extras 客户端传递的附加参数，可能为 null
+     * @return 搜索结果，不能为 null
+     */
+    @NonNull
+    protected List<MediaBrowserCompat.MediaItem> onSearch(@NonNull String query, @Nullable Bundle extras) {
+        return Collections.emptyList();
+    }
+
+    /**
+     * 通知客户端 parentId 节点的子节点已发生改变，并清除该节点的所有缓存。
+     * <p>
+     * 该方法可以在任意线程中调用。
+     *
+     * @param parentId 父节点 ID，不能为 null
+     */
+    public final void notifyChildrenChanged(@NonNull final String parentId) {
+        Preconditions.checkNotNull(parentId);
+
+        String prefix = cacheKeyPrefix(parentId);
+        for (Map.Entry<String, List<MediaBrowserCompat.MediaItem>> entry : mCache.snapshot().entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                mCache.remove(entry.getKey());
+            }
+        }
+
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (mService != null) {
+                    mService.notifyChildrenChanged(parentId);
+                }
+            }
+        });
+    }
+
+    /**
+     * 获取已缓存的子节点，如果没有缓存，则返回 null。
+     */
+    @Nullable
+    public final List<MediaBrowserCompat.MediaItem> getCachedChildren(@NonNull String parentId, int offset, int limit) {
+        return mCache.get(cacheKey(parentId, offset, limit));
+    }
+
+    /**
+     * 加载 parentId 节点下位于 [offset, offset + limit) 范围内的子节点，会优先使用缓存。
+     * <p>
+     * 由 {@link PlayerService} 在异步线程中调用。
+     */
+    @NonNull
+    public final List<MediaBrowserCompat.MediaItem> loadChildren(@NonNull String parentId, int offset, int limit) {
+        String key = cacheKey(parentId, offset, limit);
+
+        List<MediaBrowserCompat.MediaItem> children = mCache.get(key);
+        if (children != null) {
+            return children;
+        }
+
+        children = Collections.unmodifiableList(onLoadChildren(parentId, offset, limit));
+        mCache.put(key, children);
+        return children;
+    }
+
+    /**
+     * 搜索媒体内容。
+     * <p>
+     * 由 {@link PlayerService} 在异步线程中调用。
+     */
+    @NonNull
+    public final List<MediaBrowserCompat.MediaItem> search(@NonNull String query, @Nullable Bundle extras) {
+        return onSearch(query, extras);
+    }
+
+    private long getCacheSizeInBytes() {
+        long size = 0;
+        for (List<MediaBrowserCompat.MediaItem> children : mCache.snapshot().values()) {
+            size += (long) children.size() * ESTIMATED_MEDIA_ITEM_SIZE;
+        }
+        return size;
+    }
+
+    // snapshot() 按照最近最少使用的顺序返回，因此会优先移除最久未使用的分页
+    private void trimCacheToSize(long maxSizeInBytes) {
+        if (maxSizeInBytes <= 0) {
+            mCache.evictAll();
+            return;
+        }
+
+        long size = getCacheSizeInBytes();
+        for (Map.Entry<String, List<MediaBrowserCompat.MediaItem>> entry : mCache.snapshot().entrySet()) {
+            if (size <= maxSizeInBytes) {
+                return;
+            }
+
+            mCache.remove(entry.getKey());
+            size -= (long) entry.getValue().size() * ESTIMATED_MEDIA_ITEM_SIZE;
+        }
+    }
+
+    private static String cacheKeyPrefix(String parentId) {
+        return parentId + '\n';
+    }
+
+    private static String cacheKey(String parentId, int offset, int limit) {
+        return cacheKeyPrefix(parentId) + offset + '\n' + limit;
+    }
+
+    /**
+     * 创建一个可浏览的节点。
+     *
+     * @param mediaId  节点 ID，不能为 null
+     * @param title    标题，不能为 null
+     * @param subtitle 副标题，可为 null
+     * @param iconUri  图标，可为 null
+     */
+    @NonNull
+    public static MediaBrowserCompat.MediaItem createBrowsableItem(@NonNull String mediaId,
+                                                                   @NonNull CharSequence title,
+                                                                   @Nullable CharSequence subtitle,
+                                                                   @Nullable Uri iconUri) {
+        Preconditions.checkNotNull(mediaId);
+        Preconditions.checkNotNull(title);
+
+        MediaDescriptionCompat description = new MediaDescriptionCompat.Builder()
+                .setMediaId(mediaId)
+                .setTitle(title)
+                .setSubtitle(subtitle)
+                .setIconUri(iconUri)
+                .build();
+
+        return new MediaBrowserCompat.MediaItem(description, MediaBrowserCompat.MediaItem.FLAG_BROWSABLE);
+    }
+
+    /**
+     * 创建一个可播放的节点。
+     * <p>
+     * 歌曲的封面图片会通过 {@link MediaArtworkProvider} 以 content uri 的形式提供（需要在应用程序的
+     * AndroidManifest.xml 中声明 {@link MediaArtworkProvider}，否则节点不包含封面图片）。
+     *
+     * @param mediaId   节点 ID，不能为 null
+     * @param musicItem 歌曲，不能为 null
+     */
+    @NonNull
+    public MediaBrowserCompat.MediaItem createPlayableItem(@NonNull String mediaId, @NonNull MusicItem musicItem) {
+        Preconditions.checkNotNull(mediaId);
+        Preconditions.checkNotNull(musicItem);
+
+        Bundle extras = new Bundle();
+        extras.putLong(MediaMetadataCompat.METADATA_KEY_DURATION, musicItem.getDuration());
+
+        MediaDescriptionCompat description = new MediaDescriptionCompat.Builder()
+                .setMediaId(mediaId)
+                .setTitle(musicItem.getTitle())
+                .setSubtitle(musicItem.getArtist())
+                .setDescription(musicItem.getAlbum())
+                .setIconUri(MediaArtworkProvider.getArtworkUri(mContext, musicItem.getIconUri()))
+                .setMediaUri(Uri.parse(musicItem.getUri()))
+                .setExtras(extras)
+                .build();
+
+        return new MediaBrowserCompat.MediaItem(description, MediaBrowserCompat.MediaItem.FLAG_PLAYABLE);
+    }
+}
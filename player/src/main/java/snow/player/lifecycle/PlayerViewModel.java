@@ -81,6 +81,7 @@ public class PlayerViewModel extends ViewModel {
     private boolean mInitialized;
     private boolean mCleared;
     private boolean mAutoDisconnect;
+    private boolean mScrubbing;
 
     /**
      * 初始化 {@link PlayerViewModel} 对象。
@@ -176,9 +177,9 @@ public class PlayerViewModel extends ViewModel {
         mDefaultArtist = defaultArtist;
         mDefaultAlbum = defaultAlbum;
 
+        initAllProgressClock(enableProgressClock);
         initAllLiveData();
         initAllListener();
-        initAllProgressClock(enableProgressClock);
 
         addAllListener();
 
@@ -425,6 +426,10 @@ public class PlayerViewModel extends ViewModel {
                 mSleepTimerProgress.setValue(progressSec);
             }
         });
+
+        // 只有在对应的 LiveData 有活跃的观察者（即 UI 可见）时才运行时钟，见 ClockLiveData
+        mProgressClock.setActive(false);
+        mSleepTimerProgressClock.setActive(false);
     }
 
     private void addAllListener() {
@@ -578,6 +583,8 @@ public class PlayerViewModel extends ViewModel {
 
     /**
      * 正在播放歌曲的实时播放进度（单位：秒），支持双向绑定。
+     * <p>
+     * 只有在该 LiveData（或由它转换而来的 LiveData）存在活跃的观察者时，才会实时更新播放进度。
      *
      * @throws IllegalStateException 如果当前 {@link PlayerViewModel} 对象还没有被初始化（{@link #isInitialized()} 返回 false）。
      */
@@ -1129,6 +1136,28 @@ public class PlayerViewModel extends ViewModel {
      */
     public void onStartTrackingTouch(SeekBar seekBar) {
         cancelProgressClock();
+
+        if (isInitialized() && !mPlayerClient.isForbidSeek()) {
+            mScrubbing = true;
+            mPlayerClient.beginScrub();
+        }
+    }
+
+    /**
+     * DataBinding 框架与 SeekBar 专用。
+     * <p>
+     * 如果你启用了 DataBinding，并且使用 SeekBar 来显示和调整播放进度，那么可以将 SeekBar 的
+     * {@code android:onProgressChanged} 事件绑定为当前方法，以便在拖动进度条时实时调整播放进度。
+     * <p>
+     * 例如：<br>
+     * {@code android:onProgressChanged="@{playerViewModel::onProgressChanged}"}
+     */
+    public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+        if (!fromUser || !mScrubbing || !isInitialized()) {
+            return;
+        }
+
+        mPlayerClient.scrubTo(progress * 1000);
     }
 
     /**
@@ -1141,6 +1170,9 @@ public class PlayerViewModel extends ViewModel {
      * {@code android:onStopTrackingTouch="@{playerViewModel::onStopTrackingTouch}"}
      */
     public void onStopTrackingTouch(SeekBar seekBar) {
+        boolean scrubbing = mScrubbing;
+        mScrubbing = false;
+
         if (!isInitialized()) {
             return;
         }
@@ -1150,6 +1182,13 @@ public class PlayerViewModel extends ViewModel {
             return;
         }
 
+        if (scrubbing) {
+            mProgressClock.cancel();
+            mPlayerClient.scrubTo(seekBar.getProgress() * 1000);
+            mPlayerClient.endScrub();
+            return;
+        }
+
         seekTo(seekBar.getProgress() * 1000);
     }
 
@@ -1180,11 +1219,11 @@ public class PlayerViewModel extends ViewModel {
         mAlbum = new MutableLiveData<>(mDefaultAlbum);
         mIconUri = new MutableLiveData<>(getIconUri(mPlayerClient));
         mDuration = new MutableLiveData<>(getDurationSec());
-        mPlayProgress = new MutableLiveData<>(getPlayProgressSec());
+        mPlayProgress = new ClockLiveData(getPlayProgressSec(), mProgressClock);
         mBufferedProgress = new MutableLiveData<>(getBufferedProgressSec());
         mSleepTimerStarted = new MutableLiveData<>(mPlayerClient.isSleepTimerStarted());
         mSleepTimerTime = new MutableLiveData<>((int) (mPlayerClient.getSleepTimerTime() / 1000));
-        mSleepTimerProgress = new MutableLiveData<>((int) (mPlayerClient.getSleepTimerElapsedTime() / 1000));
+        mSleepTimerProgress = new ClockLiveData((int) (mPlayerClient.getSleepTimerElapsedTime() / 1000), mSleepTimerProgressClock);
         mPlayPosition = new MutableLiveData<>(mPlayerClient.getPlayPosition());
         mPlayMode = new MutableLiveData<>(mPlayerClient.getPlayMode());
         mSpeed = new MutableLiveData<>(mPlayerClient.getSpeed());
@@ -1224,4 +1263,26 @@ public class PlayerViewModel extends ViewModel {
 
         return musicItem.getIconUri();
     }
+
+    /**
+     * 由 {@link ProgressClock} 驱动的 LiveData，只有在存在活跃的观察者时，才会让时钟订阅节拍器。
+     */
+    private static final class ClockLiveData extends MutableLiveData<Integer> {
+        private final ProgressClock mProgressClock;
+
+        ClockLiveData(Integer value, ProgressClock progressClock) {
+            super(value);
+            mProgressClock = progressClock;
+        }
+
+        @Override
+        protected void onActive() {
+            mProgressClock.setActive(true);
+        }
+
+        @Override
+        protected void onInactive() {
+            mProgressClock.setActive(false);
+        }
+    }
 }
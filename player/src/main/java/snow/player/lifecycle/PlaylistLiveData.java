@@ -15,6 +15,8 @@ import snow.player.playlist.PlaylistManager;
  * <p>
  * 情况下，{@link PlaylistLiveData} 是惰性的，它只会在 onActive 时开始监听 {@link PlayerClient} 的播放列表，
  * 并且会在 onInactive 时自动取消对 {@link PlayerClient} 的播放列表的监听。
+ * <p>
+ * 只有当播放列表的 Token 或者最后修改时间发生改变时才会重新获取播放列表，仅播放位置发生改变时不会重新获取。
  */
 public class PlaylistLiveData extends LiveData<Playlist>
         implements Player.OnPlaylistChangeListener {
@@ -22,6 +24,10 @@ public class PlaylistLiveData extends LiveData<Playlist>
     private PlayerClient mPlayerClient;
     private boolean mLazy;
 
+    private String mToken;
+    private long mLastModified;
+    private int mRequestId;
+
     /**
      * 创建一个 {@link PlaylistLiveData} 对象。
      * <p>
@@ -38,6 +44,9 @@ public class PlaylistLiveData extends LiveData<Playlist>
 
     /**
      * 创建一个 {@link PlaylistLiveData} 对象。
+     * <p>
+     * 如果 value 参数的 Token 与 {@link PlayerClient} 当前播放列表的 Token 相同，则会认为 value 就是当前播放列表，
+     * 在播放列表发生改变前不会重新获取播放列表。
      *
      * @param playerClient {@link PlayerClient} 对象，不能为 null
      * @param value        LiveData 的初始化值
@@ -52,6 +61,11 @@ public class PlaylistLiveData extends LiveData<Playlist>
         mPlayerClient = playerClient;
         mLazy = lazy;
 
+        if (value != null && value.getToken().equals(playerClient.getPlaylistToken())) {
+            mToken = value.getToken();
+            mLastModified = playerClient.getLastModified();
+        }
+
         if (mLazy) {
             return;
         }
@@ -80,10 +94,25 @@ public class PlaylistLiveData extends LiveData<Playlist>
 
     @Override
     public void onPlaylistChanged(PlaylistManager playlistManager, int position) {
+        String token = playlistManager.getPlaylistToken();
+        long lastModified = playlistManager.getLastModified();
+
+        if (token.equals(mToken) && lastModified == mLastModified) {
+            // 播放列表没有改变（例如仅播放位置发生了改变），无需重新获取
+            return;
+        }
+
+        mToken = token;
+        mLastModified = lastModified;
+
+        final int requestId = ++mRequestId;
         playlistManager.getPlaylist(new PlaylistManager.Callback() {
             @Override
             public void onFinished(@NonNull Playlist playlist) {
-                setValue(playlist);
+                // 忽略过时的结果
+                if (requestId == mRequestId) {
+                    setValue(playlist);
+                }
             }
         });
     }
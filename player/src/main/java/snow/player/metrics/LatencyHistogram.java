@@ -0,0 +1,122 @@
+package snow.player.metrics;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * 耗时直方图。
+ * <p>
+ * 使用固定的桶边界（单位：毫秒）对耗时进行分桶统计，记录一个值的开销是常数级别的，并且不会创建任何新对象。
+ * 百分位数是近似值（所在桶的上边界）。
+ * <p>
+ * 该类不是线程安全的。
+ */
+public final class LatencyHistogram {
+    private static final long[] BUCKET_BOUNDS = {
+            10, 20, 50, 100, 200, 500, 1_000, 2_000, 5_000, 10_000, 30_000
+    };
+
+    private final long[] mCounts;
+    private long mCount;
+    private long mSum;
+    private long mMax;
+
+    public LatencyHistogram() {
+        // 最后一个桶用于存放大于最大边界的值
+        mCounts = new long[BUCKET_BOUNDS.length + 1];
+    }
+
+    /**
+     * 记录一个耗时，小于 0 的值会被忽略。
+     */
+    public void record(long millis) {
+        if (millis < 0) {
+            return;
+        }
+
+        int index = 0;
+        while (index < BUCKET_BOUNDS.length && millis > BUCKET_BOUNDS[index]) {
+            index++;
+        }
+
+        mCounts[index] += 1;
+        mCount += 1;
+        mSum += millis;
+        mMax = Math.max(mMax, millis);
+    }
+
+    /**
+     * 已记录的值的数量。
+     */
+    public long getCount() {
+        return mCount;
+    }
+
+    /**
+     * 已记录的值的平均值，如果没有记录任何值，则返回 0。
+     */
+    public long getMean() {
+        if (mCount == 0) {
+            return 0;
+        }
+
+        return mSum / mCount;
+    }
+
+    /**
+     * 已记录的值的最大值。
+     */
+    public long getMax() {
+        return mMax;
+    }
+
+    /**
+     * 获取近似的百分位数。
+     *
+     * @param percentile 百分位，范围为 (0, 100]
+     * @return 近似的百分位数，如果没有记录任何值，则返回 0
+     */
+    public long getPercentile(double percentile) {
+        Preconditions.checkArgument(percentile > 0 && percentile <= 100, "percentile must in (0, 100]");
+
+        if (mCount == 0) {
+            return 0;
+        }
+
+        long target = (long) Math.ceil(mCount * percentile / 100);
+        long accumulated = 0;
+        for (int i = 0; i < BUCKET_BOUNDS.length; i++) {
+            accumulated += mCounts[i];
+            if (accumulated >= target) {
+                return Math.min(BUCKET_BOUNDS[i], mMax);
+            }
+        }
+
+        return mMax;
+    }
+
+    /**
+     * 清空所有已记录的值。
+     */
+    public void reset() {
+        for (int i = 0; i < mCounts.length; i++) {
+            mCounts[i] = 0;
+        }
+
+        mCount = 0;
+        mSum = 0;
+        mMax = 0;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "count=" + mCount +
+                ", mean=" + getMean() +
+                ", p50<=" + getPercentile(50) +
+                ", p90<=" + getPercentile(90) +
+                ", p99<=" + getPercentile(99) +
+                ", max=" + mMax;
+    }
+}
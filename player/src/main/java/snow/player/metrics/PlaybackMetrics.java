@@ -0,0 +1,252 @@
+package snow.player.metrics;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+import snow.player.audio.ErrorCode;
+import snow.player.audio.MusicItem;
+
+/**
+ * 一次播放会话的性能指标。
+ * <p>
+ * 播放会话从请求播放一首歌曲（例如调用 {@code play()}、{@code skipToNext()} 等方法）开始，到切换歌曲、
+ * 停止播放、发生错误或者播放器被释放时结束。只有成功开始播放或者发生错误的会话才会被报告。
+ * <p>
+ * 所有耗时的单位都是毫秒，如果某个阶段没有发生（例如播放器已经准备好时不会再次获取播放链接），则其耗时为
+ * {@link #NOT_MEASURED}。
+ *
+ * @see snow.player.PlayerService#setPlaybackMetricsListener(Listener)
+ */
+public final class PlaybackMetrics {
+    /**
+     * 表示某个阶段没有发生。
+     */
+    public static final long NOT_MEASURED = -1;
+
+    private final MusicItem mMusicItem;
+    private final long mStartTime;
+    private final long mPrepareMusicItemTime;
+    private final long mRetrieveUriTime;
+    private final long mPrepareTime;
+    private final long mAudioFocusTime;
+    private final long mStartupTime;
+    private final int mStallCount;
+    private final long mStallDuration;
+    private final long mPlayDuration;
+    private final int mErrorCode;
+
+    private PlaybackMetrics(Builder builder) {
+        mMusicItem = builder.mMusicItem;
+        mStartTime = builder.mStartTime;
+        mPrepareMusicItemTime = builder.mPrepareMusicItemTime;
+        mRetrieveUriTime = builder.mRetrieveUriTime;
+        mPrepareTime = builder.mPrepareTime;
+        mAudioFocusTime = builder.mAudioFocusTime;
+        mStartupTime = builder.mStartupTime;
+        mStallCount = builder.mStallCount;
+        mStallDuration = builder.mStallDuration;
+        mPlayDuration = builder.mPlayDuration;
+        mErrorCode = builder.mErrorCode;
+    }
+
+    /**
+     * 本次播放会话播放的歌曲。
+     */
+    @NonNull
+    public MusicItem getMusicItem() {
+        return mMusicItem;
+    }
+
+    /**
+     * 播放会话的开始时间，基于 {@code SystemClock.elapsedRealtime()}。
+     */
+    public long getStartTime() {
+        return mStartTime;
+    }
+
+    /**
+     * {@code PlayerService.onPrepareMusicItem()} 方法的耗时。
+     */
+    public long getPrepareMusicItemTime() {
+        return mPrepareMusicItemTime;
+    }
+
+    /**
+     * {@code PlayerService.onRetrieveMusicItemUri()} 方法的耗时。
+     */
+    public long getRetrieveUriTime() {
+        return mRetrieveUriTime;
+    }
+
+    /**
+     * {@link snow.player.audio.MusicPlayer#prepare()} 的耗时。
+     */
+    public long getPrepareTime() {
+        return mPrepareTime;
+    }
+
+    /**
+     * 请求音频焦点的总耗时。
+     */
+    public long getAudioFocusTime() {
+        return mAudioFocusTime;
+    }
+
+    /**
+     * 从请求播放到开始输出声音的耗时。
+     */
+    public long getStartupTime() {
+        return mStartupTime;
+    }
+
+    /**
+     * 开始输出声音后，因缓冲区数据不足而导致播放卡顿的次数。
+     */
+    public int getStallCount() {
+        return mStallCount;
+    }
+
+    /**
+     * 开始输出声音后，因缓冲区数据不足而导致播放卡顿的总时长。
+     */
+    public long getStallDuration() {
+        return mStallDuration;
+    }
+
+    /**
+     * 实际输出声音的总时长（不包括暂停与卡顿的时长）。
+     */
+    public long getPlayDuration() {
+        return mPlayDuration;
+    }
+
+    /**
+     * 卡顿时长在 “播放时长 + 卡顿时长” 中所占的比例，范围为 [0, 1]。
+     */
+    public float getRebufferRatio() {
+        long total = mPlayDuration + mStallDuration;
+        if (total <= 0) {
+            return 0;
+        }
+
+        return mStallDuration / (float) total;
+    }
+
+    /**
+     * 播放会话因错误而结束时的错误码，如果没有发生错误，则返回 {@link ErrorCode#NO_ERROR}。
+     *
+     * @see ErrorCode
+     */
+    public int getErrorCode() {
+        return mErrorCode;
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return "PlaybackMetrics{" +
+                "title=" + mMusicItem.getTitle() +
+                ", prepareMusicItemTime=" + mPrepareMusicItemTime +
+                ", retrieveUriTime=" + mRetrieveUriTime +
+                ", prepareTime=" + mPrepareTime +
+                ", audioFocusTime=" + mAudioFocusTime +
+                ", startupTime=" + mStartupTime +
+                ", stallCount=" + mStallCount +
+                ", stallDuration=" + mStallDuration +
+                ", playDuration=" + mPlayDuration +
+                ", errorCode=" + mErrorCode +
+                '}';
+    }
+
+    /**
+     * 用于监听播放会话的性能指标。
+     */
+    public interface Listener {
+        /**
+         * 该方法会在播放会话结束时在主线程中调用。
+         *
+         * @param metrics 本次播放会话的性能指标
+         */
+        void onPlaybackMetrics(@NonNull PlaybackMetrics metrics);
+    }
+
+    /**
+     * 用于构建 {@link PlaybackMetrics} 对象。
+     */
+    public static final class Builder {
+        private final MusicItem mMusicItem;
+        private final long mStartTime;
+        private long mPrepareMusicItemTime = NOT_MEASURED;
+        private long mRetrieveUriTime = NOT_MEASURED;
+        private long mPrepareTime = NOT_MEASURED;
+        private long mAudioFocusTime = NOT_MEASURED;
+        private long mStartupTime = NOT_MEASURED;
+        private int mStallCount;
+        private long mStallDuration;
+        private long mPlayDuration;
+        private int mErrorCode = ErrorCode.NO_ERROR;
+
+        /**
+         * 创建一个 {@link Builder} 对象。
+         *
+         * @param musicItem 本次播放会话播放的歌曲，不能为 null
+         * @param startTime 播放会话的开始时间，基于 {@code SystemClock.elapsedRealtime()}
+         */
+        public Builder(@NonNull MusicItem musicItem, long startTime) {
+            Preconditions.checkNotNull(musicItem);
+
+            mMusicItem = musicItem;
+            mStartTime = startTime;
+        }
+
+        public Builder setPrepareMusicItemTime(long prepareMusicItemTime) {
+            mPrepareMusicItemTime = prepareMusicItemTime;
+            return this;
+        }
+
+        public Builder setRetrieveUriTime(long retrieveUriTime) {
+            mRetrieveUriTime = retrieveUriTime;
+            return this;
+        }
+
+        public Builder setPrepareTime(long prepareTime) {
+            mPrepareTime = prepareTime;
+            return this;
+        }
+
+        public Builder setAudioFocusTime(long audioFocusTime) {
+            mAudioFocusTime = audioFocusTime;
+            return this;
+        }
+
+        public Builder setStartupTime(long startupTime) {
+            mStartupTime = startupTime;
+            return this;
+        }
+
+        public Builder setStallCount(int stallCount) {
+            mStallCount = stallCount;
+            return this;
+        }
+
+        public Builder setStallDuration(long stallDuration) {
+            mStallDuration = stallDuration;
+            return this;
+        }
+
+        public Builder setPlayDuration(long playDuration) {
+            mPlayDuration = playDuration;
+            return this;
+        }
+
+        public Builder setErrorCode(int errorCode) {
+            mErrorCode = errorCode;
+            return this;
+        }
+
+        public PlaybackMetrics build() {
+            return new PlaybackMetrics(this);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package snow.player.metrics;
+
+import androidx.annotation.NonNull;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+import snow.player.audio.ErrorCode;
+
+/**
+ * 汇总所有播放会话的性能指标。
+ * <p>
+ * 可以将该类的对象设置给 {@link snow.player.PlayerService#setPlaybackMetricsListener(PlaybackMetrics.Listener)}
+ * 方法，然后调用 {@link #getSummary()} 方法获取汇总结果。
+ */
+public class PlaybackMetricsAggregator implements PlaybackMetrics.Listener {
+    private final LatencyHistogram mPrepareMusicItemTime;
+    private final LatencyHistogram mRetrieveUriTime;
+    private final LatencyHistogram mPrepareTime;
+    private final LatencyHistogram mAudioFocusTime;
+    private final LatencyHistogram mStartupTime;
+    private final LatencyHistogram mStallDuration;
+
+    private final Map<Integer, Integer> mErrorCount;
+
+    private int mSessionCount;
+    private int mStallCount;
+    private long mTotalStallDuration;
+    private long mTotalPlayDuration;
+
+    public PlaybackMetricsAggregator() {
+        mPrepareMusicItemTime = new LatencyHistogram();
+        mRetrieveUriTime = new LatencyHistogram();
+        mPrepareTime = new LatencyHistogram();
+        mAudioFocusTime = new LatencyHistogram();
+        mStartupTime = new LatencyHistogram();
+        mStallDuration = new LatencyHistogram();
+        mErrorCount = new TreeMap<>();
+    }
+
+    @Override
+    public synchronized void onPlaybackMetrics(@NonNull PlaybackMetrics metrics) {
+        mSessionCount += 1;
+
+        mPrepareMusicItemTime.record(metrics.getPrepareMusicItemTime());
+        mRetrieveUriTime.record(metrics.getRetrieveUriTime());
+        mPrepareTime.record(metrics.getPrepareTime());
+        mAudioFocusTime.record(metrics.getAudioFocusTime());
+        mStartupTime.record(metrics.getStartupTime());
+
+        if (metrics.getStallCount() > 0) {
+            mStallDuration.record(metrics.getStallDuration() / metrics.getStallCount());
+        }
+
+        mStallCount += metrics.getStallCount();
+        mTotalStallDuration += metrics.getStallDuration();
+        mTotalPlayDuration += metrics.getPlayDuration();
+
+        int errorCode = metrics.getErrorCode();
+        if (errorCode != ErrorCode.NO_ERROR) {
+            Integer count = mErrorCount.get(errorCode);
+            mErrorCount.put(errorCode, count == null ? 1 : count + 1);
+        }
+    }
+
+    /**
+     * 已汇总的播放会话数量。
+     */
+    public synchronized int getSessionCount() {
+        return mSessionCount;
+    }
+
+    /**
+     * 所有播放会话的总卡顿时长在 “总播放时长 + 总卡顿时长” 中所占的比例，范围为 [0, 1]。
+     */
+    public synchronized float getRebufferRatio() {
+        long total = mTotalPlayDuration + mTotalStallDuration;
+        if (total <= 0) {
+            return 0;
+        }
+
+        return mTotalStallDuration / (float) total;
+    }
+
+    /**
+     * 获取汇总结果（单位：毫秒）。
+     */
+    @NonNull
+    public synchronized String getSummary() {
+        return "sessions: " + mSessionCount + "\n" +
+                "prepareMusicItem: " + mPrepareMusicItemTime + "\n" +
+                "retrieveUri: " + mRetrieveUriTime + "\n" +
+                "prepare: " + mPrepareTime + "\n" +
+                "audioFocus: " + mAudioFocusTime + "\n" +
+                "startup: " + mStartupTime + "\n" +
+                "stall: " + mStallDuration + "\n" +
+                "stallCount: " + mStallCount + "\n" +
+                "rebufferRatio: " + getRebufferRatio() + "\n" +
+                "errors: " + mErrorCount;
+    }
+
+    /**
+     * 清空所有已汇总的数据。
+     */
+    public synchronized void reset() {
+        mPrepareMusicItemTime.reset();
+        mRetrieveUriTime.reset();
+        mPrepareTime.reset();
+        mAudioFocusTime.reset();
+        mStartupTime.reset();
+        mStallDuration.reset();
+        mErrorCount.clear();
+
+        mSessionCount = 0;
+        mStallCount = 0;
+        mTotalStallDuration = 0;
+        mTotalPlayDuration = 0;
+    }
+}
@@ -48,6 +48,10 @@ public final class Playlist implements Iterable<MusicItem>, Parcelable {
     private static final String TAG = "Playlist";
     public static final int MAX_SIZE = 1000;
 
+    // 紧凑序列化格式（见 PlaylistCodec）的版本标记，写在 name 与 token 之间。
+    // token 是十六进制的哈希值，不会与该标记冲突，因此可以据此兼容读取旧格式的数据。
+    static final String PARCEL_VERSION_2 = "snow.player.playlist:v2";
+
     private final String mName;
     private final String mToken;
     private final ArrayList<MusicItem> mMusicItems;
@@ -310,8 +314,17 @@ public final class Playlist implements Iterable<MusicItem>, Parcelable {
     // Parcelable
     protected Playlist(Parcel in) {
         mName = in.readString();
-        mToken = in.readString();
-        mMusicItems = in.createTypedArrayList(MusicItem.CREATOR);
+
+        String tokenOrVersion = in.readString();
+        if (PARCEL_VERSION_2.equals(tokenOrVersion)) {
+            mToken = in.readString();
+            mMusicItems = PlaylistCodec.readMusicItems(in);
+        } else {
+            // 旧格式
+            mToken = tokenOrVersion;
+            mMusicItems = in.createTypedArrayList(MusicItem.CREATOR);
+        }
+
         mEditable = in.readByte() != 0;
         mExtra = in.readBundle(Thread.currentThread().getContextClassLoader());
     }
@@ -319,8 +332,9 @@ public final class Playlist implements Iterable<MusicItem>, Parcelable {
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         dest.writeString(mName);
+        dest.writeString(PARCEL_VERSION_2);
         dest.writeString(mToken);
-        dest.writeTypedList(mMusicItems);
+        PlaylistCodec.writeMusicItems(dest, mMusicItems);
         dest.writeByte((byte) (mEditable ? 1 : 0));
         dest.writeBundle(mExtra);
     }
@@ -0,0 +1,148 @@
+package snow.player.playlist;
+
+import android.os.BadParcelableException;
+import android.os.Bundle;
+import android.os.Parcel;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import snow.player.audio.MusicItem;
+import snow.player.util.MusicItemUtil;
+
+/**
+ * 播放列表的紧凑序列化格式。
+ * <p>
+ * 同一个播放列表中的歌曲通常来自少数几个歌手与专辑，并且共享同一个图标链接。因此，歌手、专辑、图标链接
+ * 会被提取到一张去重后的字符串表中，每首歌曲只写入这些字符串在表中的下标。反序列化时，字符串表中的每个值
+ * 只会被读取并驻留一次（见 {@link MusicItemUtil#intern(String)}），所有引用它的歌曲都共享同一个字符串对象。
+ * <p>
+ * 格式的第一项是版本号 {@link #VERSION}。如果修改了歌曲的序列化字段，请增加版本号，并保留对旧版本的读取，
+ * 因为持久化的播放列表使用的可能是旧版本的格式。
+ * <p>
+ * 格式（版本 1）：
+ * <pre>
+ * int      版本号
+ * int      字符串表大小 n
+ * String[] 字符串表（n 项）
+ * int      歌曲数量 m
+ * m × {
+ *     String musicId
+ *     String title
+ *     int    artist 在字符串表中的下标
+ *     int    album 在字符串表中的下标
+ *     String uri
+ *     int    iconUri 在字符串表中的下标
+ *     int    duration
+ *     byte   flags（bit 0: forbidSeek; bit 1: autoDuration）
+ *     Bundle extra（Parcelable）
+ * }
+ * </pre>
+ */
+final class PlaylistCodec {
+    static final int VERSION = 1;
+
+    private static final int FLAG_FORBID_SEEK = 1;
+    private static final int FLAG_AUTO_DURATION = 1 << 1;
+
+    private PlaylistCodec() {
+        throw new AssertionError();
+    }
+
+    static void writeMusicItems(@NonNull Parcel dest, @NonNull List<MusicItem> musicItems) {
+        Map<String, Integer> indexes = new HashMap<>();
+        List<String> table = new ArrayList<>();
+
+        int size = musicItems.size();
+        int[] sharedIndexes = new int[size * 3];
+        for (int i = 0; i < size; i++) {
+            MusicItem musicItem = musicItems.get(i);
+            sharedIndexes[i * 3] = indexOf(musicItem.getArtist(), indexes, table);
+            sharedIndexes[i * 3 + 1] = indexOf(musicItem.getAlbum(), indexes, table);
+            sharedIndexes[i * 3 + 2] = indexOf(musicItem.getIconUri(), indexes, table);
+        }
+
+        dest.writeInt(VERSION);
+        dest.writeInt(table.size());
+        for (String value : table) {
+            dest.writeString(value);
+        }
+
+        dest.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            MusicItem musicItem = musicItems.get(i);
+
+            int flags = 0;
+            if (musicItem.isForbidSeek()) {
+                flags |= FLAG_FORBID_SEEK;
+            }
+            if (musicItem.isAutoDuration()) {
+                flags |= FLAG_AUTO_DURATION;
+            }
+
+            dest.writeString(musicItem.getMusicId());
+            dest.writeString(musicItem.getTitle());
+            dest.writeInt(sharedIndexes[i * 3]);
+            dest.writeInt(sharedIndexes[i * 3 + 1]);
+            dest.writeString(musicItem.getUri());
+            dest.writeInt(sharedIndexes[i * 3 + 2]);
+            dest.writeInt(musicItem.getDuration());
+            dest.writeByte((byte) flags);
+            dest.writeParcelable(musicItem.getExtra(), 0);
+        }
+    }
+
+    @NonNull
+    static ArrayList<MusicItem> readMusicItems(@NonNull Parcel in) {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new BadParcelableException("Unknown playlist format version: " + version);
+        }
+
+        int tableSize = in.readInt();
+        String[] table = new String[tableSize];
+        for (int i = 0; i < tableSize; i++) {
+            table[i] = MusicItemUtil.intern(in.readString());
+        }
+
+        int size = in.readInt();
+        ArrayList<MusicItem> musicItems = new ArrayList<>(size);
+        ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+
+        for (int i = 0; i < size; i++) {
+            MusicItem musicItem = new MusicItem();
+            musicItem.setMusicId(in.readString());
+            musicItem.setTitle(in.readString());
+            musicItem.setArtist(table[in.readInt()]);
+            musicItem.setAlbum(table[in.readInt()]);
+            musicItem.setUri(in.readString());
+            musicItem.setIconUri(table[in.readInt()]);
+            musicItem.setDuration(in.readInt());
+
+            int flags = in.readByte();
+            musicItem.setForbidSeek((flags & FLAG_FORBID_SEEK) != 0);
+            musicItem.setAutoDuration((flags & FLAG_AUTO_DURATION) != 0);
+
+            Bundle extra = in.readParcelable(classLoader);
+            musicItem.setExtra(extra);
+
+            musicItems.add(musicItem);
+        }
+
+        return musicItems;
+    }
+
+    private static int indexOf(String value, Map<String, Integer> indexes, List<String> table) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = table.size();
+            indexes.put(value, index);
+            table.add(value);
+        }
+        return index;
+    }
+}
@@ -48,7 +48,7 @@ public interface PlaylistManager {
      * <p>
      * 这个时间是 {@code System.currentTimeMillis()}
      *
-     * @return 最后一次修改播放列表的时间。
+     * @return 最后一次修改播放列表的时间，如果播放列表从未被修改过，则返回 0。
      */
     long getLastModified();
 
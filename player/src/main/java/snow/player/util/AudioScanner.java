@@ -9,6 +9,7 @@ import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
 import android.os.Message;
+import android.os.SystemClock;
 import android.provider.MediaStore;
 
 import androidx.annotation.NonNull;
@@ -28,7 +29,7 @@ import io.reactivex.SingleObserver;
 import io.reactivex.SingleOnSubscribe;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
+import snow.player.PlayerSchedulers;
 
 /**
  * 音频文件扫描器。用于帮助扫描本地设备中的音频文件。
@@ -36,8 +37,20 @@ import io.reactivex.schedulers.Schedulers;
  * @param <T> 音频文件数据将被转换到的实体类型。
  */
 public class AudioScanner<T> {
+    /**
+     * 默认的扫描进度更新的最小时间间隔（单位：毫秒）。
+     */
+    public static final long DEFAULT_PROGRESS_UPDATE_INTERVAL = 100;
+
+    /**
+     * 默认的每一批音频文件的最大数量。
+     *
+     * @see #scan(int, OnBatchScannedListener)
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
     private final Context mContext;
-    private final Converter<T> mConverter;
+    private final SchemaConverter<T> mConverter;
 
     @Nullable
     private String[] mProjection;
@@ -48,7 +61,8 @@ public class AudioScanner<T> {
     @Nullable
     private String mSortOrder;
 
-    private OnProgressUpdateListener<T> mListener;
+    private OnBatchScannedListener<T> mListener;
+    private long mProgressUpdateInterval;
     private final AtomicBoolean mScanning;
     private final AtomicBoolean mCancelled;
 
@@ -58,14 +72,34 @@ public class AudioScanner<T> {
      * 创建一个 {@link AudioScanner} 对象。
      *
      * @param context   Context 对象，不能为 null
-     * @param converter 转换器，不能为 null。用于将扫描到的音频数据转换为一个实体对象。
+     * @param converter 转换器，不能为 null。用于将扫描到的音频数据转换为一个实体对象。如果该转换器是一个
+     *                  {@link SchemaConverter}，则扫描时会调用其 {@link SchemaConverter#convert(Cursor, CursorSchema)} 方法。
      */
-    public AudioScanner(@NonNull Context context, @NonNull Converter<T> converter) {
+    @SuppressWarnings("unchecked")
+    public AudioScanner(@NonNull Context context, @NonNull final Converter<T> converter) {
         Preconditions.checkNotNull(context);
         Preconditions.checkNotNull(converter);
 
         mContext = context;
-        mConverter = converter;
+        mProgressUpdateInterval = DEFAULT_PROGRESS_UPDATE_INTERVAL;
+
+        if (converter instanceof SchemaConverter) {
+            mConverter = (SchemaConverter<T>) converter;
+        } else {
+            mConverter = new SchemaConverter<T>() {
+                @Nullable
+                @Override
+                public T convert(@NonNull Cursor cursor) {
+                    return converter.convert(cursor);
+                }
+
+                @Nullable
+                @Override
+                public T convert(@NonNull Cursor cursor, @NonNull CursorSchema schema) {
+                    return converter.convert(cursor);
+                }
+            };
+        }
 
         mScanning = new AtomicBoolean(false);
         mCancelled = new AtomicBoolean(false);
@@ -94,6 +128,19 @@ public class AudioScanner<T> {
         mSortOrder = sortOrder;
     }
 
+    /**
+     * 设置扫描进度更新的最小时间间隔（单位：毫秒），默认为 {@link #DEFAULT_PROGRESS_UPDATE_INTERVAL}。
+     * <p>
+     * 扫描过程中，只有当扫描进度（百分比）发生变化，并且距离上次更新的时间不小于该时间间隔时，才会调用
+     * {@link OnProgressUpdateListener#onProgressUpdate(int)} 方法。扫描完成时（进度为 100）总会通知一次。
+     *
+     * @param interval 扫描进度更新的最小时间间隔（单位：毫秒），不能小于 0。
+     */
+    public void setProgressUpdateInterval(long interval) {
+        Preconditions.checkArgument(interval >= 0, "interval must >= 0");
+        mProgressUpdateInterval = interval;
+    }
+
     /**
      * 开始扫描本地音频文件。
      * <p>
@@ -103,7 +150,50 @@ public class AudioScanner<T> {
      * @param listener 用于接收扫描结果和监听扫描进度，不能为 null。
      * @see #isScanning()
      */
-    public void scan(@NonNull OnProgressUpdateListener<T> listener) {
+    public void scan(@NonNull final OnProgressUpdateListener<T> listener) {
+        Preconditions.checkNotNull(listener);
+
+        final List<T> result = new ArrayList<>();
+
+        scan(DEFAULT_BATCH_SIZE, new OnBatchScannedListener<T>() {
+            @Override
+            public void onStart() {
+                listener.onStart();
+            }
+
+            @Override
+            public void onProgressUpdate(int progress) {
+                listener.onProgressUpdate(progress);
+            }
+
+            @Override
+            public void onBatchScanned(@NonNull List<T> batch) {
+                result.addAll(batch);
+            }
+
+            @Override
+            public void onEnd(boolean cancelled) {
+                listener.onEnd(result, cancelled);
+            }
+        });
+    }
+
+    /**
+     * 以流式的方式扫描本地音频文件。
+     * <p>
+     * 与 {@link #scan(OnProgressUpdateListener)} 方法不同，该方法不会在扫描结束后一次性返回所有扫描结果，而是每扫描到
+     * batchSize 个音频文件就调用一次 {@link OnBatchScannedListener#onBatchScanned(List)} 方法，因此可以在扫描的同时将已扫描到的
+     * 音频文件存储到数据库中，而不需要在内存中保存全部扫描结果。
+     * <p>
+     * 注意！如果当前扫描器运行，调用此方法时将被忽略，除非上次扫描过程已完成或者已被取消。可以使用
+     * {@link #isScanning()} 方法检查扫描器当前是否正在运行。
+     *
+     * @param batchSize 每一批音频文件的最大数量，必须大于 0，推荐值为 {@link #DEFAULT_BATCH_SIZE}。
+     * @param listener  用于接收扫描结果和监听扫描进度，不能为 null。
+     * @see #isScanning()
+     */
+    public void scan(final int batchSize, @NonNull final OnBatchScannedListener<T> listener) {
+        Preconditions.checkArgument(batchSize > 0, "batchSize must > 0");
         Preconditions.checkNotNull(listener);
 
         if (isScanning()) {
@@ -114,9 +204,9 @@ public class AudioScanner<T> {
         mScanning.set(true);
         mCancelled.set(false);
 
-        Single.create(new SingleOnSubscribe<List<T>>() {
+        Single.create(new SingleOnSubscribe<Boolean>() {
             @Override
-            public void subscribe(@io.reactivex.annotations.NonNull SingleEmitter<List<T>> emitter) {
+            public void subscribe(@io.reactivex.annotations.NonNull SingleEmitter<Boolean> emitter) {
                 Cursor cursor = mContext.getContentResolver().query(
                         MediaStore.Audio.Media.EXTERNAL_CONTENT_URI,
                         mProjection,
@@ -125,58 +215,88 @@ public class AudioScanner<T> {
                         mSortOrder
                 );
 
-                List<T> result = new ArrayList<>(cursor.getCount());
-
-                if (mCancelled.get()) {
-                    emitter.onSuccess(result);
+                if (cursor == null) {
+                    emitter.onSuccess(mCancelled.get());
                     return;
                 }
 
-                if (cursor == null || !cursor.moveToFirst()) {
+                try {
+                    scanCursor(cursor, batchSize, listener);
+                } finally {
                     cursor.close();
-                    emitter.onSuccess(result);
-                    return;
                 }
 
-                int progress = 0;
-                int count = cursor.getCount();
-
-                do {
-                    progress++;
-
-                    T item = mConverter.convert(cursor);
-                    if (item != null) {
-                        result.add(item);
-                    }
-
-                    notifyProgressUpdate(Math.round((progress * 1.0F / count) * 100));
-                } while (cursor.moveToNext() && !mCancelled.get());
-
-                cursor.close();
-
-                emitter.onSuccess(result);
+                emitter.onSuccess(mCancelled.get());
             }
-        }).subscribeOn(Schedulers.io())
+        }).subscribeOn(PlayerSchedulers.getDefault().maintenance())
                 .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(new SingleObserver<List<T>>() {
+                .subscribe(new SingleObserver<Boolean>() {
                     @Override
                     public void onSubscribe(@NonNull Disposable d) {
-                        mListener.onStart();
+                        listener.onStart();
                     }
 
                     @Override
-                    public void onSuccess(@NonNull List<T> ts) {
+                    public void onSuccess(@NonNull Boolean cancelled) {
                         mScanning.set(false);
-                        mListener.onEnd(ts, mCancelled.get());
+                        listener.onEnd(cancelled);
                     }
 
                     @Override
                     public void onError(@NonNull Throwable e) {
-                        // ignore
+                        e.printStackTrace();
+                        mScanning.set(false);
+                        listener.onEnd(true);
                     }
                 });
     }
 
+    private void scanCursor(Cursor cursor, int batchSize, OnBatchScannedListener<T> listener) {
+        if (mCancelled.get() || !cursor.moveToFirst()) {
+            return;
+        }
+
+        CursorSchema schema = new CursorSchema(cursor);
+        long interval = mProgressUpdateInterval;
+
+        int count = cursor.getCount();
+        int progress = 0;
+        int lastPercent = 0;
+        long lastUpdateTime = 0;
+
+        List<T> batch = new ArrayList<>(Math.min(batchSize, count));
+
+        do {
+            progress++;
+
+            T item = mConverter.convert(cursor, schema);
+            if (item != null) {
+                batch.add(item);
+            }
+
+            if (batch.size() >= batchSize) {
+                listener.onBatchScanned(batch);
+                batch = new ArrayList<>(Math.min(batchSize, count - progress));
+            }
+
+            int percent = (int) (progress * 100L / count);
+            if (percent == lastPercent) {
+                continue;
+            }
+
+            long now = SystemClock.elapsedRealtime();
+            if (percent == 100 || now - lastUpdateTime >= interval) {
+                lastPercent = percent;
+                lastUpdateTime = now;
+                notifyProgressUpdate(percent);
+            }
+        } while (cursor.moveToNext() && !mCancelled.get());
+
+        if (!batch.isEmpty()) {
+            listener.onBatchScanned(batch);
+        }
+    }
+
     private void notifyProgressUpdate(int progress) {
         Message message = mHandler.obtainMessage();
         message.arg1 = progress;
@@ -426,6 +546,281 @@ public class AudioScanner<T> {
         T convert(@NonNull Cursor cursor);
     }
 
+    /**
+     * 转换器，用于将扫描到的音频文件数据转换成一个实体对象。
+     * <p>
+     * 与 {@link Converter} 不同的是，{@link AudioScanner} 在扫描时会调用该转换器的
+     * {@link #convert(Cursor, CursorSchema)} 方法，并传入一个 {@link CursorSchema} 对象，该对象中的列索引在每次查询时仅会解析一次，
+     * 因此可以避免每一行数据都调用一次 {@code Cursor#getColumnIndexOrThrow(String)} 方法。
+     * <p>
+     * {@link #convert(Cursor)} 方法可以简单的实现为 {@code return convert(cursor, new CursorSchema(cursor));}，
+     * 具体请参考 {@link AudioItemConverter} 类的源码。
+     *
+     * @param <T> 音频文件数据将被转换到的实体类型。
+     */
+    public interface SchemaConverter<T> extends Converter<T> {
+
+        /**
+         * 将扫描到的音频文件数据转换成一个实体对象。
+         * <p>
+         * 注意！返回 null 时，将忽略当前音频文件。
+         *
+         * @param cursor Cursor 对象，不为 null
+         * @param schema 当前 Cursor 对象的列索引，不为 null
+         * @return 实体对象，可为 null。返回 null 时，将忽略当前音频文件。
+         */
+        @Nullable
+        T convert(@NonNull Cursor cursor, @NonNull CursorSchema schema);
+    }
+
+    /**
+     * 用于缓存 Cursor 对象中各列的索引。
+     * <p>
+     * 列索引会在创建 {@link CursorSchema} 对象时一次性解析完成，之后读取每一行数据时都可以直接使用已解析好的列索引。
+     * 如果查询结果中不包含某一列，则读取该列时会抛出 {@link IllegalArgumentException} 异常，这与
+     * {@code Cursor#getColumnIndexOrThrow(String)} 方法的行为一致。
+     */
+    public static final class CursorSchema {
+        private final int mDateAdded;
+        private final int mDateModified;
+        private final int mDisplayName;
+        private final int mMimeType;
+        private final int mSize;
+        private final int mDuration;
+        private final int mTitle;
+        private final int mId;
+        private final int mArtist;
+        private final int mArtistId;
+        private final int mAlbum;
+        private final int mAlbumId;
+        private final int mAlarm;
+        private final int mAudioBook;
+        private final int mNotification;
+        private final int mPodcast;
+        private final int mRingtone;
+        private final int mTrack;
+        private final int mYear;
+
+        /**
+         * 创建一个 {@link CursorSchema} 对象，并解析 Cursor 对象中各列的索引。
+         *
+         * @param cursor Cursor 对象，不能为 null
+         */
+        @SuppressLint("InlinedApi")
+        public CursorSchema(@NonNull Cursor cursor) {
+            Preconditions.checkNotNull(cursor);
+
+            mDateAdded = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_ADDED);
+            mDateModified = cursor.getColumnIndex(MediaStore.MediaColumns.DATE_MODIFIED);
+            mDisplayName = cursor.getColumnIndex(MediaStore.MediaColumns.DISPLAY_NAME);
+            mMimeType = cursor.getColumnIndex(MediaStore.MediaColumns.MIME_TYPE);
+            mSize = cursor.getColumnIndex(MediaStore.MediaColumns.SIZE);
+            mDuration = cursor.getColumnIndex(MediaStore.MediaColumns.DURATION);
+            mTitle = cursor.getColumnIndex(MediaStore.MediaColumns.TITLE);
+            mId = cursor.getColumnIndex(MediaStore.MediaColumns._ID);
+            mArtist = cursor.getColumnIndex(MediaStore.Audio.Media.ARTIST);
+            mArtistId = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.ARTIST_ID);
+            mAlbum = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.ALBUM);
+            mAlbumId = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.ALBUM_ID);
+            mAlarm = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.IS_ALARM);
+            mAudioBook = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.IS_AUDIOBOOK);
+            mNotification = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.IS_NOTIFICATION);
+            mPodcast = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.IS_PODCAST);
+            mRingtone = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.IS_RINGTONE);
+            mTrack = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.TRACK);
+            mYear = cursor.getColumnIndex(MediaStore.Audio.AudioColumns.YEAR);
+        }
+
+        private static int checkColumn(int columnIndex, String columnName) {
+            if (columnIndex < 0) {
+                throw new IllegalArgumentException("column '" + columnName + "' does not exist");
+            }
+            return columnIndex;
+        }
+
+        /**
+         * 获取首次添加音频文件的时间。
+         *
+         * @see AudioScanner#getDateAdded(Cursor)
+         */
+        public int getDateAdded(Cursor cursor) {
+            return cursor.getInt(checkColumn(mDateAdded, MediaStore.MediaColumns.DATE_ADDED));
+        }
+
+        /**
+         * 获取音频文件的最后一次修改日期。
+         *
+         * @see AudioScanner#getDateModified(Cursor)
+         */
+        public int getDateModified(Cursor cursor) {
+            return cursor.getInt(checkColumn(mDateModified, MediaStore.MediaColumns.DATE_MODIFIED));
+        }
+
+        /**
+         * 获取音频文件的显示名称。
+         *
+         * @see AudioScanner#getDisplayName(Cursor)
+         */
+        public String getDisplayName(Cursor cursor) {
+            return cursor.getString(checkColumn(mDisplayName, MediaStore.MediaColumns.DISPLAY_NAME));
+        }
+
+        /**
+         * 获取音频文件的 MIME 类型。
+         *
+         * @see AudioScanner#getMimeType(Cursor)
+         */
+        public String getMimeType(Cursor cursor) {
+            return cursor.getString(checkColumn(mMimeType, MediaStore.MediaColumns.MIME_TYPE));
+        }
+
+        /**
+         * 获取音频文件的大小。
+         *
+         * @see AudioScanner#getSize(Cursor)
+         */
+        public int getSize(Cursor cursor) {
+            return cursor.getInt(checkColumn(mSize, MediaStore.MediaColumns.SIZE));
+        }
+
+        /**
+         * 音频文件的持续时间。
+         *
+         * @see AudioScanner#getDuration(Cursor)
+         */
+        @SuppressLint("InlinedApi")
+        public int getDuration(Cursor cursor) {
+            return cursor.getInt(checkColumn(mDuration, MediaStore.MediaColumns.DURATION));
+        }
+
+        /**
+         * 获取音频文件的标题。
+         *
+         * @see AudioScanner#getTitle(Cursor)
+         */
+        public String getTitle(Cursor cursor) {
+            return cursor.getString(checkColumn(mTitle, MediaStore.MediaColumns.TITLE));
+        }
+
+        /**
+         * 获取音频文件在 Android 系统本地媒体库中的 ID 值。
+         *
+         * @see AudioScanner#getId(Cursor)
+         */
+        public int getId(Cursor cursor) {
+            return cursor.getInt(checkColumn(mId, MediaStore.MediaColumns._ID));
+        }
+
+        /**
+         * 获取音频文件的艺术家。
+         *
+         * @see AudioScanner#getArtist(Cursor)
+         */
+        public String getArtist(Cursor cursor) {
+            return cursor.getString(checkColumn(mArtist, MediaStore.Audio.Media.ARTIST));
+        }
+
+        /**
+         * 获取音频文件的艺术家的 ID。
+         *
+         * @see AudioScanner#getArtistId(Cursor)
+         */
+        public int getArtistId(Cursor cursor) {
+            return cursor.getInt(checkColumn(mArtistId, MediaStore.Audio.AudioColumns.ARTIST_ID));
+        }
+
+        /**
+         * 获取音频文件所属的专辑。
+         *
+         * @see AudioScanner#getAlbum(Cursor)
+         */
+        public String getAlbum(Cursor cursor) {
+            return cursor.getString(checkColumn(mAlbum, MediaStore.Audio.AudioColumns.ALBUM));
+        }
+
+        /**
+         * 获取音频文件所属的专辑的 ID。
+         *
+         * @see AudioScanner#getAlbumId(Cursor)
+         */
+        public int getAlbumId(Cursor cursor) {
+            return cursor.getInt(checkColumn(mAlbumId, MediaStore.Audio.AudioColumns.ALBUM_ID));
+        }
+
+        /**
+         * 音频文件是否是闹钟铃声文件。
+         *
+         * @see AudioScanner#isAlarm(Cursor)
+         */
+        public boolean isAlarm(Cursor cursor) {
+            return cursor.getInt(checkColumn(mAlarm, MediaStore.Audio.AudioColumns.IS_ALARM)) != 0;
+        }
+
+        /**
+         * 音频文件是否是有声读物。
+         *
+         * @see AudioScanner#isAudioBook(Cursor)
+         */
+        @RequiresApi(Build.VERSION_CODES.Q)
+        public boolean isAudioBook(Cursor cursor) {
+            return cursor.getInt(checkColumn(mAudioBook, MediaStore.Audio.AudioColumns.IS_AUDIOBOOK)) != 0;
+        }
+
+        /**
+         * 音频文件是否是通知铃声。
+         *
+         * @see AudioScanner#isNotification(Cursor)
+         */
+        public boolean isNotification(Cursor cursor) {
+            return cursor.getInt(checkColumn(mNotification, MediaStore.Audio.AudioColumns.IS_NOTIFICATION)) != 0;
+        }
+
+        /**
+         * 音频文件是否是 podcast。
+         *
+         * @see AudioScanner#isPodcast(Cursor)
+         */
+        public boolean isPodcast(Cursor cursor) {
+            return cursor.getInt(checkColumn(mPodcast, MediaStore.Audio.AudioColumns.IS_PODCAST)) != 0;
+        }
+
+        /**
+         * 音频文件是否是铃声文件。
+         *
+         * @see AudioScanner#isRingtone(Cursor)
+         */
+        public boolean isRingtone(Cursor cursor) {
+            return cursor.getInt(checkColumn(mRingtone, MediaStore.Audio.AudioColumns.IS_RINGTONE)) != 0;
+        }
+
+        /**
+         * 获取专辑中这首歌的曲目号，如果有的话。
+         *
+         * @see AudioScanner#getTrack(Cursor)
+         */
+        public int getTrack(Cursor cursor) {
+            return cursor.getInt(checkColumn(mTrack, MediaStore.Audio.AudioColumns.TRACK));
+        }
+
+        /**
+         * 获取音频文件录制的年份，如果有的话。
+         *
+         * @see AudioScanner#getYear(Cursor)
+         */
+        public int getYear(Cursor cursor) {
+            return cursor.getInt(checkColumn(mYear, MediaStore.Audio.AudioColumns.YEAR));
+        }
+
+        /**
+         * 获取音频文件的播放链接。
+         *
+         * @see AudioScanner#getUri(Cursor)
+         */
+        public Uri getUri(Cursor cursor) {
+            return ContentUris.withAppendedId(MediaStore.Audio.Media.EXTERNAL_CONTENT_URI, getId(cursor));
+        }
+    }
+
     /**
      * 用于接收扫描结果和监听扫描进度。
      */
@@ -457,6 +852,48 @@ public class AudioScanner<T> {
         void onEnd(@NonNull List<T> audioList, boolean cancelled);
     }
 
+    /**
+     * 用于分批接收扫描结果和监听扫描进度。
+     *
+     * @see #scan(int, OnBatchScannedListener)
+     */
+    public interface OnBatchScannedListener<T> {
+        /**
+         * 该方法会在开始扫描前调用。
+         * <p>
+         * 该方法会在主线程调用，你可以在该方法中显示进度条。
+         */
+        void onStart();
+
+        /**
+         * 当扫描进度更新时会调用该方法。
+         * <p>
+         * 该方法会在主线程调用，你可以在该方法中更新进度条的扫描进度。
+         *
+         * @param progress 当前扫描进度，范围：[0, 100]
+         */
+        void onProgressUpdate(int progress);
+
+        /**
+         * 每扫描到一批音频文件时会调用该方法。
+         * <p>
+         * 注意！该方法会在扫描线程（异步线程）中调用，并且扫描器会等待该方法返回后才继续扫描，因此你可以在该方法中直接将这批音频文件存储到数据库中，
+         * 扫描速度会自动与存储速度保持一致。
+         *
+         * @param batch 本批扫描到的音频文件，不为空。该方法返回后扫描器不会再访问该列表。
+         */
+        void onBatchScanned(@NonNull List<T> batch);
+
+        /**
+         * 该方法会在结束扫描或者扫描被取消后调用。
+         * <p>
+         * 该方法会在主线程中调用，调用该方法前，所有已扫描到的音频文件都已传递给 {@link #onBatchScanned(List)} 方法。
+         *
+         * @param cancelled 扫描是否被取消或者因发生异常而终止，如果扫描过程是正常完成的，该参数为 false，否则为 true。
+         */
+        void onEnd(boolean cancelled);
+    }
+
     /**
      * 默认的音频实体类。
      * <p>
@@ -755,33 +1192,39 @@ public class AudioScanner<T> {
     /**
      * 默认的转换器，用于将扫描到的音频数据转换成 {@link AudioItem} 对象。
      */
-    public static class AudioItemConverter implements Converter<AudioScanner.AudioItem> {
+    public static class AudioItemConverter implements SchemaConverter<AudioScanner.AudioItem> {
         @Nullable
         @Override
         public AudioItem convert(@NonNull Cursor cursor) {
-            long id = getId(cursor);
-            String displayName = getDisplayName(cursor);
-            String title = getTitle(cursor);
-            String artist = getArtist(cursor);
-            int artistId = getArtistId(cursor);
-            String album = getAlbum(cursor);
-            int albumId = getAlbumId(cursor);
-            String mimeType = getMimeType(cursor);
-            String uri = getUri(cursor).toString();
-            long duration = getDuration(cursor);
-            int dateAdded = getDateAdded(cursor);
-            int dateModified = getDateModified(cursor);
-            int size = getSize(cursor);
-            int track = getTrack(cursor);
-            int year = getYear(cursor);
-            boolean alarm = isAlarm(cursor);
+            return convert(cursor, new CursorSchema(cursor));
+        }
+
+        @Nullable
+        @Override
+        public AudioItem convert(@NonNull Cursor cursor, @NonNull CursorSchema schema) {
+            long id = schema.getId(cursor);
+            String displayName = schema.getDisplayName(cursor);
+            String title = schema.getTitle(cursor);
+            String artist = schema.getArtist(cursor);
+            int artistId = schema.getArtistId(cursor);
+            String album = schema.getAlbum(cursor);
+            int albumId = schema.getAlbumId(cursor);
+            String mimeType = schema.getMimeType(cursor);
+            String uri = schema.getUri(cursor).toString();
+            long duration = schema.getDuration(cursor);
+            int dateAdded = schema.getDateAdded(cursor);
+            int dateModified = schema.getDateModified(cursor);
+            int size = schema.getSize(cursor);
+            int track = schema.getTrack(cursor);
+            int year = schema.getYear(cursor);
+            boolean alarm = schema.isAlarm(cursor);
             boolean audioBook = false;
             if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.Q) {
-                audioBook = isAudioBook(cursor);
+                audioBook = schema.isAudioBook(cursor);
             }
-            boolean notification = isNotification(cursor);
-            boolean podcast = isPodcast(cursor);
-            boolean ringtone = isRingtone(cursor);
+            boolean notification = schema.isNotification(cursor);
+            boolean podcast = schema.isPodcast(cursor);
+            boolean ringtone = schema.isRingtone(cursor);
 
             return new AudioItem(
                     id,
@@ -0,0 +1,295 @@
+package snow.player.util;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Configuration;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 内存缓存注册表，用于在系统内存不足时按优先级逐步缩小各个缓存。
+ * <p>
+ * 每个缓存在注册时需要声明自己的 {@link TrimPolicy}：内存压力越大，被缩小的缓存越多，{@link TrimPolicy#LOW}
+ * 优先级的缓存最先被缩小，{@link TrimPolicy#HIGH} 优先级的缓存只有在内存极度不足时才会被清空。
+ * <p>
+ * 调用 {@link #install(Context)} 方法后，注册表会监听 {@link ComponentCallbacks2#onTrimMemory(int)} 与
+ * {@link ComponentCallbacks2#onLowMemory()} 回调，并自动缩小已注册的缓存。可以使用 {@link #getSummary()} 方法
+ * 获取各个缓存当前的内存占用。
+ */
+public final class CacheRegistry {
+    private static CacheRegistry sDefault;
+
+    private final List<Entry> mAllEntry;
+    private boolean mInstalled;
+
+    /**
+     * 缓存的清理策略。
+     * <p>
+     * 内存压力较小时，缓存会被缩小到当前大小的一半；内存压力较大时，缓存会被清空：
+     * <ul>
+     *     <li>{@link #LOW}：{@code TRIM_MEMORY_RUNNING_MODERATE} 时缩小，{@code TRIM_MEMORY_RUNNING_LOW}
+     *     与 {@code TRIM_MEMORY_UI_HIDDEN} 时清空；</li>
+     *     <li>{@link #NORMAL}：{@code TRIM_MEMORY_RUNNING_LOW}、{@code TRIM_MEMORY_UI_HIDDEN} 与
+     *     {@code TRIM_MEMORY_BACKGROUND} 时缩小，{@code TRIM_MEMORY_RUNNING_CRITICAL} 与
+     *     {@code TRIM_MEMORY_MODERATE} 时清空；</li>
+     *     <li>{@link #HIGH}：{@code TRIM_MEMORY_RUNNING_CRITICAL} 与 {@code TRIM_MEMORY_MODERATE} 时缩小，
+     *     {@code TRIM_MEMORY_COMPLETE} 与 {@code onLowMemory()} 时清空。</li>
+     * </ul>
+     */
+    public enum TrimPolicy {
+        /**
+         * 可以随时重建的缓存，例如预加载的媒体浏览分页。
+         */
+        LOW,
+        /**
+         * 重建需要一定开销的缓存，例如歌曲图片、歌单分页。
+         */
+        NORMAL,
+        /**
+         * 重建开销很大或者会影响用户体验的缓存。
+         */
+        HIGH;
+
+        float getRetainRatio(int pressure) {
+            int clearPressure = ordinal() + 2;
+            if (pressure >= clearPressure) {
+                return 0F;
+            }
+
+            if (pressure == clearPressure - 1) {
+                return 0.5F;
+            }
+
+            return 1F;
+        }
+    }
+
+    /**
+     * 创建一个 {@link CacheRegistry} 对象。
+     * <p>
+     * 一般情况下，请使用 {@link #getDefault()} 方法获取默认的 {@link CacheRegistry} 对象。
+     */
+    public CacheRegistry() {
+        mAllEntry = new ArrayList<>();
+    }
+
+    /**
+     * 获取默认的 {@link CacheRegistry} 对象。
+     */
+    @NonNull
+    public static synchronized CacheRegistry getDefault() {
+        if (sDefault == null) {
+            sDefault = new CacheRegistry();
+        }
+
+        return sDefault;
+    }
+
+    /**
+     * 开始监听系统的内存不足回调，重复调用该方法会被忽略。
+     *
+     * @param context Context 对象，不能为 null
+     */
+    public synchronized void install(@NonNull Context context) {
+        Preconditions.checkNotNull(context);
+
+        if (mInstalled) {
+            return;
+        }
+
+        mInstalled = true;
+        context.getApplicationContext().registerComponentCallbacks(new ComponentCallbacks2() {
+            @Override
+            public void onTrimMemory(int level) {
+                trimMemory(level);
+            }
+
+            @Override
+            public void onConfigurationChanged(@NonNull Configuration newConfig) {
+                // ignore
+            }
+
+            @Override
+            public void onLowMemory() {
+                trimMemory(ComponentCallbacks2.TRIM_MEMORY_COMPLETE);
+            }
+        });
+    }
+
+    /**
+     * 注册一个缓存，如果已注册，则忽略本次调用。
+     * <p>
+     * 当不再需要该缓存时，请务必调用 {@link #unregister(TrimmableCache)} 方法取消注册，否则会导致内存泄漏。
+     *
+     * @param name   缓存的名称，用于调试，不能为 null
+     * @param policy 缓存的清理策略，不能为 null
+     * @param cache  要注册的缓存，不能为 null
+     */
+    public synchronized void register(@NonNull String name, @NonNull TrimPolicy policy, @NonNull TrimmableCache cache) {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(policy);
+        Preconditions.checkNotNull(cache);
+
+        if (indexOf(cache) >= 0) {
+            return;
+        }
+
+        mAllEntry.add(new Entry(name, policy, cache));
+    }
+
+    /**
+     * 取消注册一个已注册的缓存。
+     */
+    public synchronized void unregister(@NonNull TrimmableCache cache) {
+        int index = indexOf(cache);
+        if (index >= 0) {
+            mAllEntry.remove(index);
+        }
+    }
+
+    private int indexOf(TrimmableCache cache) {
+        for (int i = 0; i < mAllEntry.size(); i++) {
+            if (mAllEntry.get(i).mCache == cache) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * 根据内存不足的等级缩小所有已注册的缓存。
+     * <p>
+     * 调用 {@link #install(Context)} 方法后，该方法会被自动调用。
+     *
+     * @param level 内存不足的等级，例如 {@link ComponentCallbacks2#TRIM_MEMORY_RUNNING_LOW}
+     */
+    public void trimMemory(int level) {
+        int pressure = getPressure(level);
+        if (pressure <= 0) {
+            return;
+        }
+
+        for (Entry entry : getAllEntry()) {
+            float retainRatio = entry.mPolicy.getRetainRatio(pressure);
+            if (retainRatio >= 1F) {
+                continue;
+            }
+
+            long size = entry.mCache.getSizeInBytes();
+            if (size <= 0) {
+                continue;
+            }
+
+            entry.mCache.trimToSize((long) (size * retainRatio));
+        }
+    }
+
+    // 将内存不足的等级映射为内存压力：0 表示没有压力，4 表示压力最大
+    private static int getPressure(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_COMPLETE) {
+            return 4;
+        }
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE ||
+                level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            return 3;
+        }
+
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN ||
+                level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            return 2;
+        }
+
+        if (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            return 1;
+        }
+
+        return 0;
+    }
+
+    /**
+     * 获取所有已注册的缓存的内存占用之和（单位：字节）。
+     */
+    public long getSizeInBytes() {
+        long size = 0;
+        for (Entry entry : getAllEntry()) {
+            size += entry.mCache.getSizeInBytes();
+        }
+        return size;
+    }
+
+    /**
+     * 获取各个缓存当前的内存占用（单位：字节），用于调试。
+     */
+    @NonNull
+    public String getSummary() {
+        StringBuilder builder = new StringBuilder("CacheRegistry{");
+
+        long total = 0;
+        List<Entry> allEntry = getAllEntry();
+        for (int i = 0; i < allEntry.size(); i++) {
+            Entry entry = allEntry.get(i);
+            long size = entry.mCache.getSizeInBytes();
+            total += size;
+
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(entry.mName)
+                    .append('(')
+                    .append(entry.mPolicy)
+                    .append(")=")
+                    .append(size);
+        }
+
+        if (!allEntry.isEmpty()) {
+            builder.append(", ");
+        }
+
+        return builder.append("total=")
+                .append(total)
+                .append('}')
+                .toString();
+    }
+
+    private synchronized List<Entry> getAllEntry() {
+        return new ArrayList<>(mAllEntry);
+    }
+
+    /**
+     * 可以被 {@link CacheRegistry} 缩小的缓存。
+     * <p>
+     * {@link CacheRegistry} 会在主线程中调用该接口的方法。
+     */
+    public interface TrimmableCache {
+        /**
+         * 获取缓存当前的内存占用（单位：字节），可以是估算值。
+         */
+        long getSizeInBytes();
+
+        /**
+         * 将缓存缩小到不超过 maxSizeInBytes 字节，为 0 时应尽可能地清空缓存。
+         * <p>
+         * 正在使用（例如正在显示）的内容可以保留，因此缩小后的大小允许超过 maxSizeInBytes。
+         */
+        void trimToSize(long maxSizeInBytes);
+    }
+
+    private static final class Entry {
+        final String mName;
+        final TrimPolicy mPolicy;
+        final TrimmableCache mCache;
+
+        Entry(String name, TrimPolicy policy, TrimmableCache cache) {
+            mName = name;
+            mPolicy = policy;
+            mCache = cache;
+        }
+    }
+}
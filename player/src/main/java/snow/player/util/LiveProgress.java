@@ -117,7 +117,7 @@ public class LiveProgress {
                         if (stalled) {
                             return;
                         }
-                        mProgressClock.start(mPlayerClient.getPlayProgress(),
+                        startProgressClock(mPlayerClient.getPlayProgress(),
                                 mPlayerClient.getPlayProgressUpdateTime(),
                                 mPlayerClient.getPlayingMusicItemDuration(),
                                 mPlayerClient.getSpeed());
@@ -143,7 +143,7 @@ public class LiveProgress {
                 updateLiveProgress(progress / 1000);
 
                 if (mPlayerClient.isPlaying() && !stalled) {
-                    mProgressClock.start(progress,
+                    startProgressClock(progress,
                             updateTime,
                             mPlayerClient.getPlayingMusicItemDuration(),
                             mPlayerClient.getSpeed());
@@ -160,7 +160,7 @@ public class LiveProgress {
                 }
 
                 if (mPlayerClient.isPlaying()) {
-                    mProgressClock.start(playProgress,
+                    startProgressClock(playProgress,
                             updateTime,
                             mPlayerClient.getPlayingMusicItemDuration(),
                             mPlayerClient.getSpeed());
@@ -180,7 +180,7 @@ public class LiveProgress {
         mOnRepeatListener = new Player.OnRepeatListener() {
             @Override
             public void onRepeat(@NonNull MusicItem musicItem, long repeatTime) {
-                mProgressClock.start(0,
+                startProgressClock(0,
                         repeatTime,
                         musicItem.getDuration(),
                         mPlayerClient.getSpeed());
@@ -216,6 +216,31 @@ public class LiveProgress {
         }
     }
 
+    private void startProgressClock(int progress, long updateTime, int duration, float speed) {
+        if (mLifecycleOwner != null && !atLeastState(mLifecycleOwner)) {
+            // 不可见时不启动进度条时钟，会在可见时重新同步
+            return;
+        }
+
+        mProgressClock.start(progress, updateTime, duration, speed);
+    }
+
+    private void syncProgress() {
+        if (!mPlayerClient.isConnected() || mPlayerClient.getPlayingMusicItem() == null) {
+            return;
+        }
+
+        if (mPlayerClient.isPlaying() && !mPlayerClient.isStalled()) {
+            startProgressClock(mPlayerClient.getPlayProgress(),
+                    mPlayerClient.getPlayProgressUpdateTime(),
+                    mPlayerClient.getPlayingMusicItemDuration(),
+                    mPlayerClient.getSpeed());
+            return;
+        }
+
+        updateLiveProgress(mPlayerClient.getPlayProgress() / 1000);
+    }
+
     private boolean atLeastState(@NonNull LifecycleOwner owner) {
         return owner.getLifecycle()
                 .getCurrentState()
@@ -254,6 +279,17 @@ public class LiveProgress {
         }
 
         mLifecycleObserver = new LifecycleObserver() {
+            @OnLifecycleEvent(Lifecycle.Event.ON_START)
+            public void onStart() {
+                syncProgress();
+            }
+
+            // 不可见时暂停进度条时钟，没有可见的订阅者时共享的 ProgressTicker 也会随之暂停
+            @OnLifecycleEvent(Lifecycle.Event.ON_STOP)
+            public void onStop() {
+                mProgressClock.cancel();
+            }
+
             @OnLifecycleEvent(Lifecycle.Event.ON_DESTROY)
             public void onDestroy() {
                 unsubscribe();
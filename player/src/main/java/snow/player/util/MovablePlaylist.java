@@ -44,6 +44,21 @@ public class MovablePlaylist {
         updatePlayPosition(fromPosition, toPosition);
     }
 
+    /**
+     * 移除歌曲。
+     * <p>
+     * 如果移除的歌曲位于当前正在播放的歌曲之前，则当前正在播放的歌曲在播放队列中的位置会减 1。
+     *
+     * @param position 要移除的歌曲的位置。
+     */
+    public void remove(int position) {
+        mMusicItems.remove(position);
+
+        if (position < mPlayPosition) {
+            mPlayPosition -= 1;
+        }
+    }
+
     private void updatePlayPosition(int fromPosition, int toPosition) {
         int playPosition = mPlayPosition;
 
@@ -3,9 +3,12 @@ package snow.player.util;
 import android.content.Context;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
 
@@ -18,6 +21,8 @@ import snow.player.audio.MusicItem;
  * 用于帮助获取 {@link MusicItem} 的 title, artist, album 值。
  */
 public final class MusicItemUtil {
+    private static final Interner<String> STRING_INTERNER = Interners.newWeakInterner();
+
     private MusicItemUtil() {
         throw new AssertionError();
     }
@@ -78,6 +83,24 @@ public final class MusicItemUtil {
         return value.isEmpty() ? defaultValue : value;
     }
 
+    /**
+     * 返回字符串的规范化表示，相同的字符串总是返回同一个对象。
+     * <p>
+     * 大型播放列表中歌手、专辑、图标链接等字段通常存在大量重复值，反序列化时对其进行驻留可以让相同的值只在内存中保存一份。
+     * 与 {@link String#intern()} 不同，不再被引用的字符串仍然可以被垃圾回收。
+     *
+     * @param value 要驻留的字符串
+     * @return 字符串的规范化表示，如果 value 为 null，则返回 null
+     */
+    @Nullable
+    public static String intern(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+
+        return STRING_INTERNER.intern(value);
+    }
+
     @SuppressWarnings("UnstableApiUsage")
     public static <T> String generateToken(List<T> items, GetUriFunction<T> function) {
         Hasher hasher = Hashing.sha256().newHasher();
@@ -1,35 +1,36 @@
 package snow.player.util;
 
 import android.os.SystemClock;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
 
 import com.google.common.base.Preconditions;
 
 import java.util.Locale;
-import java.util.concurrent.TimeUnit;
-
-import io.reactivex.Observable;
-import io.reactivex.android.schedulers.AndroidSchedulers;
-import io.reactivex.disposables.Disposable;
-import io.reactivex.functions.Consumer;
-import io.reactivex.schedulers.Schedulers;
 
 /**
  * 进度条时钟，支持倒计时。
+ * <p>
+ * 所有进度条时钟共享同一个 {@link ProgressTicker}，只有在时钟运行并且处于活跃状态（见 {@link #setActive(boolean)}）时才会订阅它。
+ * 每个节拍都会根据启动时间与速度重新计算播放进度，只有当播放进度（秒）发生变化时才会通知 {@link Callback}。如果需要更平滑的进度更新
+ * （例如进度条），可以使用 {@link PreciseCallback}，它会在每个节拍都收到以毫秒为单位的播放进度，并且会让节拍器以
+ * {@link ProgressTicker#PRECISE_TICK_INTERVAL} 的间隔运行。
  */
 public class ProgressClock {
-    private static final String TAG = "ProgressClock";
-
     private final boolean mCountDown;
     private boolean mEnabled;
     private final Callback mCallback;
+    private final ProgressTicker.Listener mTickListener;
 
-    private float mProgressSec;       // 单位：秒
+    private long mBaseProgress;     // 单位：毫秒
+    private long mBaseTime;         // 单位：毫秒
+    private int mDuration;          // 单位：毫秒
     private int mDurationSec;       // 单位：秒
+    private int mProgressSec;       // 单位：秒
 
-    private Disposable mDisposable;
+    private boolean mRunning;
+    private boolean mActive;
+    private boolean mTicking;
 
     private float mSpeed = 1.0F;
 
@@ -57,8 +58,15 @@ public class ProgressClock {
     public ProgressClock(boolean countDown, @NonNull Callback callback) {
         Preconditions.checkNotNull(callback);
         mEnabled = true;
+        mActive = true;
         mCountDown = countDown;
         mCallback = callback;
+        mTickListener = new ProgressTicker.Listener() {
+            @Override
+            public void onTick(long elapsedRealtime) {
+                ProgressClock.this.onTick(elapsedRealtime);
+            }
+        };
     }
 
     /**
@@ -95,12 +103,61 @@ public class ProgressClock {
         }
     }
 
+    /**
+     * 时钟是否处于活跃状态。
+     *
+     * @see #setActive(boolean)
+     */
+    public boolean isActive() {
+        return mActive;
+    }
+
+    /**
+     * 设置时钟是否处于活跃状态（默认为 true）。
+     * <p>
+     * 非活跃的时钟不会订阅 {@link ProgressTicker}，也不会通知 {@link Callback}，但会保留时钟的运行状态。重新变为活跃状态时，
+     * 会立即根据启动时间与速度重新计算并通知播放进度，然后继续运行。可用于在没有 UI 显示播放进度时暂停时钟。
+     *
+     * @param active 是否处于活跃状态
+     */
+    public void setActive(boolean active) {
+        if (mActive == active) {
+            return;
+        }
+
+        mActive = active;
+        if (!active) {
+            stopTicking();
+            return;
+        }
+
+        if (!mRunning) {
+            return;
+        }
+
+        int progressSec = getProgressSec(SystemClock.elapsedRealtime());
+        if (isTimeout(progressSec)) {
+            cancel();
+            notifyTimeout();
+            return;
+        }
+
+        updateProgress(progressSec);
+        startTicking();
+    }
+
     /**
      * 设置速度倍数。
      *
      * @param speed 速度倍数（默认为 1.0F）。
      */
     public void setSpeed(float speed) {
+        if (mRunning) {
+            long currentTime = SystemClock.elapsedRealtime();
+            mBaseProgress = getProgress(currentTime);
+            mBaseTime = currentTime;
+        }
+
         mSpeed = speed;
 
         if (speed <= 0) {
@@ -152,57 +209,85 @@ public class ProgressClock {
                     "currentTime=" + currentTime);
         }
 
-        long realProgress = (long) (progress + (currentTime - updateTime) * speed);
+        mBaseProgress = progress;
+        mBaseTime = updateTime;
+        mDuration = duration;
+        mDurationSec = duration / 1000;
+
+        int progressSec = getProgressSec(currentTime);
+
+        if (!mEnabled) {
+            mProgressSec = progressSec;
+            mCallback.onUpdateProgress(progressSec, mDurationSec);
+            return;
+        }
+
+        if (isTimeout(progressSec)) {
+            notifyTimeout();
+            return;
+        }
+
+        mRunning = true;
+
+        if (mActive) {
+            updateProgress(progressSec);
+            startTicking();
+        }
+    }
+
+    private long getProgress(long currentTime) {
+        return (long) (mBaseProgress + (currentTime - mBaseTime) * mSpeed);
+    }
+
+    private int getProgressSec(long currentTime) {
+        long realProgress = getProgress(currentTime);
 
         if (mCountDown) {
-            mProgressSec = (int) Math.ceil((duration - realProgress) / 1000.0);
-        } else {
-            mProgressSec = (int) (realProgress / 1000);
+            return (int) Math.ceil((mDuration - realProgress) / 1000.0);
         }
-        mDurationSec = duration / 1000;
 
-        if (!mEnabled) {
-            mCallback.onUpdateProgress(Math.round(mProgressSec), mDurationSec);
+        return (int) (realProgress / 1000);
+    }
+
+    private void onTick(long currentTime) {
+        if (!mRunning) {
             return;
         }
 
-        if (isTimeout()) {
+        int progressSec = getProgressSec(currentTime);
+
+        if (isTimeout(progressSec)) {
+            cancel();
             notifyTimeout();
             return;
         }
 
-        updateProgress(mProgressSec);
-
-        long delay = 1000 - (realProgress % 1000);
-        mDisposable = Observable.interval(delay, 1000, TimeUnit.MILLISECONDS)
-                .subscribeOn(Schedulers.computation())
-                .observeOn(AndroidSchedulers.mainThread())
-                .subscribe(new Consumer<Long>() {
-                    @Override
-                    public void accept(Long aLong) {
-                        if (mCountDown) {
-                            decrease();
-                        } else {
-                            increase();
-                        }
-                    }
-                });
+        if (mCallback instanceof PreciseCallback) {
+            long progress = getProgress(currentTime);
+            ((PreciseCallback) mCallback).onUpdatePreciseProgress(mCountDown ? mDuration - progress : progress, mDuration);
+        }
+
+        if (progressSec != mProgressSec) {
+            updateProgress(progressSec);
+        }
     }
 
-    private boolean isTimeout() {
+    private boolean isTimeout(int progressSec) {
         if (mCountDown) {
-            return mProgressSec <= 0;
+            return progressSec <= 0;
         }
 
-        return mProgressSec >= mDurationSec;
+        return progressSec >= mDurationSec;
     }
 
     private void notifyTimeout() {
         if (mCountDown) {
+            mProgressSec = 0;
             mCallback.onUpdateProgress(0, mDurationSec);
             return;
         }
 
+        mProgressSec = mDurationSec;
         mCallback.onUpdateProgress(mDurationSec, mDurationSec);
     }
 
@@ -211,35 +296,27 @@ public class ProgressClock {
     }
 
     private void cancelTimer() {
-        if (mDisposable != null && !mDisposable.isDisposed()) {
-            mDisposable.dispose();
-            mDisposable = null;
-        }
+        mRunning = false;
+        stopTicking();
     }
 
-    private void increase() {
-        float newProgress = mProgressSec + (1 * mSpeed);
-
-        if (newProgress >= mDurationSec) {
-            cancel();
+    private void startTicking() {
+        if (!mTicking) {
+            mTicking = true;
+            ProgressTicker.getInstance().addListener(mTickListener, mCallback instanceof PreciseCallback);
         }
-
-        updateProgress(newProgress);
     }
 
-    private void decrease() {
-        float newProgress = mProgressSec - (1 * mSpeed);
-
-        if (newProgress <= 0) {
-            cancel();
+    private void stopTicking() {
+        if (mTicking) {
+            mTicking = false;
+            ProgressTicker.getInstance().removeListener(mTickListener);
         }
-
-        updateProgress(newProgress);
     }
 
-    private void updateProgress(float progressSec/*单位：秒*/) {
+    private void updateProgress(int progressSec/*单位：秒*/) {
         mProgressSec = progressSec;
-        mCallback.onUpdateProgress(Math.min(Math.round(mProgressSec), mDurationSec), mDurationSec);
+        mCallback.onUpdateProgress(Math.min(progressSec, mDurationSec), mDurationSec);
     }
 
     /**
@@ -288,4 +365,22 @@ public class ProgressClock {
          */
         void onUpdateProgress(int progressSec, int durationSec);
     }
+
+    /**
+     * 支持亚秒级精度的回调接口。
+     * <p>
+     * 除了每秒调用一次的 {@link #onUpdateProgress(int, int)} 方法外，还会在 {@link ProgressTicker} 的每个节拍调用
+     * {@link #onUpdatePreciseProgress(long, int)} 方法，可用于平滑的更新进度条。
+     *
+     * @see ProgressClock
+     */
+    public interface PreciseCallback extends Callback {
+        /**
+         * 该方法会在 {@link ProgressTicker} 的每个节拍调用。
+         *
+         * @param progress 当前播放进度（单位：毫秒），如果是倒计时时钟，则是剩余时间
+         * @param duration 歌曲的持续时间（单位：毫秒）
+         */
+        void onUpdatePreciseProgress(long progress, int duration);
+    }
 }
@@ -0,0 +1,196 @@
+package snow.player.util;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.NonNull;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * 进程内共享的进度时钟节拍器。
+ * <p>
+ * 所有 {@link ProgressClock} 都会订阅同一个 {@link ProgressTicker}，而不是各自启动一个定时器。节拍器会在主线程中每隔
+ * {@link #TICK_INTERVAL} 毫秒通知一次所有监听器，只有存在需要亚秒级精度的监听器（见 {@link #addListener(Listener, boolean)}）
+ * 时，才会缩短为每隔 {@link #PRECISE_TICK_INTERVAL} 毫秒通知一次。节拍会对齐到节拍间隔的整数倍，以便多个监听器共享同一次唤醒。
+ * 当没有任何监听器时，节拍器会自动暂停。
+ * <p>
+ * 通知监听器时不会创建任何新对象。
+ */
+public final class ProgressTicker {
+    /**
+     * 节拍间隔（单位：毫秒）。
+     */
+    public static final long TICK_INTERVAL = 1000;
+    /**
+     * 存在需要亚秒级精度的监听器时的节拍间隔（单位：毫秒）。
+     */
+    public static final long PRECISE_TICK_INTERVAL = 250;
+
+    private static final Listener[] EMPTY = new Listener[0];
+    private static ProgressTicker mInstance;
+
+    private final Handler mMainHandler;
+    private final Runnable mTickTask;
+
+    private volatile Listener[] mListeners;
+    private Listener[] mPreciseListeners;
+    private boolean mTicking;
+
+    private ProgressTicker() {
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mListeners = EMPTY;
+        mPreciseListeners = EMPTY;
+        mTickTask = new Runnable() {
+            @Override
+            public void run() {
+                tick();
+            }
+        };
+    }
+
+    /**
+     * 获取 {@link ProgressTicker} 单例。
+     */
+    @NonNull
+    public static synchronized ProgressTicker getInstance() {
+        if (mInstance == null) {
+            mInstance = new ProgressTicker();
+        }
+        return mInstance;
+    }
+
+    /**
+     * 添加一个监听器，如果监听器已添加，则忽略本次调用。
+     * <p>
+     * 监听器会在主线程中调用，每隔 {@link #TICK_INTERVAL} 毫秒调用一次。
+     */
+    public void addListener(@NonNull Listener listener) {
+        addListener(listener, false);
+    }
+
+    /**
+     * 添加一个监听器，如果监听器已添加，则忽略本次调用。
+     * <p>
+     * 监听器会在主线程中调用。
+     *
+     * @param listener 要添加的监听器，不能为 null
+     * @param precise  是否需要亚秒级精度。如果为 true，则在该监听器被移除前，节拍间隔会缩短为
+     *                 {@link #PRECISE_TICK_INTERVAL} 毫秒
+     */
+    public synchronized void addListener(@NonNull Listener listener, boolean precise) {
+        Preconditions.checkNotNull(listener);
+
+        if (indexOf(mListeners, listener) >= 0) {
+            return;
+        }
+
+        mListeners = append(mListeners, listener);
+        if (precise) {
+            mPreciseListeners = append(mPreciseListeners, listener);
+        }
+
+        if (!mTicking || precise) {
+            // 缩短节拍间隔时需要重新安排下一个节拍
+            mTicking = true;
+            scheduleNextTick();
+        }
+    }
+
+    /**
+     * 移除一个已添加的监听器。当所有监听器都被移除后，节拍器会自动暂停。
+     */
+    public synchronized void removeListener(Listener listener) {
+        Listener[] listeners = mListeners;
+
+        int index = indexOf(listeners, listener);
+        if (index < 0) {
+            return;
+        }
+
+        int preciseIndex = indexOf(mPreciseListeners, listener);
+        if (preciseIndex >= 0) {
+            mPreciseListeners = remove(mPreciseListeners, preciseIndex);
+        }
+
+        if (listeners.length == 1) {
+            mListeners = EMPTY;
+            mTicking = false;
+            mMainHandler.removeCallbacks(mTickTask);
+            return;
+        }
+
+        mListeners = remove(listeners, index);
+    }
+
+    /**
+     * 当前的节拍间隔（单位：毫秒）。
+     */
+    public synchronized long getTickInterval() {
+        return mPreciseListeners.length > 0 ? PRECISE_TICK_INTERVAL : TICK_INTERVAL;
+    }
+
+    private static int indexOf(Listener[] listeners, Listener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private static Listener[] append(Listener[] listeners, Listener listener) {
+        Listener[] newListeners = new Listener[listeners.length + 1];
+        System.arraycopy(listeners, 0, newListeners, 0, listeners.length);
+        newListeners[listeners.length] = listener;
+        return newListeners;
+    }
+
+    private static Listener[] remove(Listener[] listeners, int index) {
+        if (listeners.length == 1) {
+            return EMPTY;
+        }
+
+        Listener[] newListeners = new Listener[listeners.length - 1];
+        System.arraycopy(listeners, 0, newListeners, 0, index);
+        System.arraycopy(listeners, index + 1, newListeners, index, listeners.length - index - 1);
+        return newListeners;
+    }
+
+    private void tick() {
+        long elapsedRealtime = SystemClock.elapsedRealtime();
+
+        // 监听器可能会在回调中移除自己，因此遍历的是当前数组的快照
+        Listener[] listeners = mListeners;
+        for (Listener listener : listeners) {
+            listener.onTick(elapsedRealtime);
+        }
+
+        synchronized (this) {
+            if (mTicking) {
+                scheduleNextTick();
+            }
+        }
+    }
+
+    private void scheduleNextTick() {
+        long interval = getTickInterval();
+        long now = SystemClock.uptimeMillis();
+        mMainHandler.removeCallbacks(mTickTask);
+        mMainHandler.postAtTime(mTickTask, now - (now % interval) + interval);
+    }
+
+    /**
+     * 节拍监听器。
+     */
+    public interface Listener {
+        /**
+         * 每个节拍都会在主线程中调用该方法。
+         *
+         * @param elapsedRealtime 当前时间，基于 {@code SystemClock.elapsedRealtime()}
+         */
+        void onTick(long elapsedRealtime);
+    }
+}
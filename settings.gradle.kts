@@ -30,4 +30,5 @@ include(":ui")
 include(":exo")
 include(":app")
 include(":player")
-include(":exo-api16")
\ No newline at end of file
+include(":exo-api16")
+include(":benchmark")
\ No newline at end of file
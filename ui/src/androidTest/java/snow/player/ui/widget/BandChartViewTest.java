@@ -0,0 +1,135 @@
+package snow.player.ui.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.os.Build;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+@RunWith(AndroidJUnit4.class)
+public class BandChartViewTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 600;
+
+    private static final short[] BAND_LEVEL_RANGE = new short[]{-1500, 1500};
+    private static final int NUMBER_OF_BANDS = 5;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = InstrumentationRegistry.getInstrumentation().getTargetContext();
+    }
+
+    private BandChartView createBandChartView(int renderMode) {
+        BandChartView bandChartView = new BandChartView(mContext);
+        bandChartView.setRenderMode(renderMode);
+        bandChartView.initBandLevels(BAND_LEVEL_RANGE, new short[NUMBER_OF_BANDS]);
+
+        bandChartView.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        bandChartView.layout(0, 0, WIDTH, HEIGHT);
+
+        return bandChartView;
+    }
+
+    @Test
+    public void defaultRenderModeIsHardware() {
+        BandChartView bandChartView = new BandChartView(mContext);
+
+        assertEquals(BandChartView.RENDER_MODE_HARDWARE, bandChartView.getRenderMode());
+        assertNotEquals(View.LAYER_TYPE_SOFTWARE, bandChartView.getLayerType());
+    }
+
+    @Test
+    public void updateBandLevels() {
+        BandChartView bandChartView = createBandChartView(BandChartView.RENDER_MODE_HARDWARE);
+
+        assertFalse(bandChartView.updateBandLevels(new short[NUMBER_OF_BANDS]));
+
+        short[] allBandLevel = new short[NUMBER_OF_BANDS];
+        allBandLevel[2] = 600;
+        assertTrue(bandChartView.updateBandLevels(allBandLevel));
+        assertFalse(bandChartView.updateBandLevels(allBandLevel));
+    }
+
+    @Test
+    public void hardwareRenderModeNeverUsesSoftwareLayer() {
+        BandChartView bandChartView = createBandChartView(BandChartView.RENDER_MODE_HARDWARE);
+        draw(bandChartView);
+        assertNotEquals(View.LAYER_TYPE_SOFTWARE, bandChartView.getLayerType());
+
+        bandChartView.setRenderMode(BandChartView.RENDER_MODE_SOFTWARE);
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            // DashPathEffect 在低于 API 28 的版本中不支持硬件加速
+            assertEquals(View.LAYER_TYPE_SOFTWARE, bandChartView.getLayerType());
+        } else {
+            assertNotEquals(View.LAYER_TYPE_SOFTWARE, bandChartView.getLayerType());
+        }
+
+        // 切换回硬件加速模式时，会关闭软件图层
+        bandChartView.setRenderMode(BandChartView.RENDER_MODE_HARDWARE);
+        draw(bandChartView);
+        assertNotEquals(View.LAYER_TYPE_SOFTWARE, bandChartView.getLayerType());
+    }
+
+    @Test
+    public void dashLinesCreatedOncePerSize() {
+        BandChartView bandChartView = createBandChartView(BandChartView.RENDER_MODE_HARDWARE);
+        assertNull(bandChartView.getDashLines());
+
+        draw(bandChartView);
+        float[] dashLines = bandChartView.getDashLines();
+        assertNotNull(dashLines);
+
+        // 拖动频段时的连续重绘会复用已创建的虚线线段
+        short[] allBandLevel = new short[NUMBER_OF_BANDS];
+        for (int i = 1; i <= 10; i++) {
+            allBandLevel[2] = (short) (i * 100);
+            assertTrue(bandChartView.updateBandLevels(allBandLevel));
+            draw(bandChartView);
+            assertSame(dashLines, bandChartView.getDashLines());
+        }
+
+        // 大小没有改变时不会重新创建
+        bandChartView.layout(0, 0, WIDTH, HEIGHT);
+        draw(bandChartView);
+        assertSame(dashLines, bandChartView.getDashLines());
+
+        // 大小改变后只会重新创建一次
+        bandChartView.layout(0, 0, WIDTH / 2, HEIGHT);
+        assertNull(bandChartView.getDashLines());
+
+        draw(bandChartView);
+        float[] resizedDashLines = bandChartView.getDashLines();
+        assertNotNull(resizedDashLines);
+        assertNotSame(dashLines, resizedDashLines);
+        assertTrue(resizedDashLines.length < dashLines.length);
+
+        draw(bandChartView);
+        assertSame(resizedDashLines, bandChartView.getDashLines());
+    }
+
+    @Test
+    public void softwareRenderModeSkipsDashLines() {
+        BandChartView bandChartView = createBandChartView(BandChartView.RENDER_MODE_SOFTWARE);
+
+        draw(bandChartView);
+        assertNull(bandChartView.getDashLines());
+    }
+
+    private void draw(BandChartView bandChartView) {
+        Bitmap bitmap = Bitmap.createBitmap(WIDTH, HEIGHT, Bitmap.Config.ARGB_8888);
+        bandChartView.draw(new Canvas(bitmap));
+        bitmap.recycle();
+    }
+}
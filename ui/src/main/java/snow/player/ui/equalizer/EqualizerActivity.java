@@ -227,6 +227,8 @@ public class EqualizerActivity extends AppCompatActivity {
                 } else {
                     mEqualizerViewModel.setBassBoostStrength(strength);
                 }
+
+                mEqualizerViewModel.publishChanges();
             }
 
             @Override
@@ -266,6 +268,8 @@ public class EqualizerActivity extends AppCompatActivity {
                 } else {
                     mEqualizerViewModel.setVirtualizerStrength(strength);
                 }
+
+                mEqualizerViewModel.publishChanges();
             }
 
             @Override
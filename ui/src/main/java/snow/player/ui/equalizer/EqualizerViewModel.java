@@ -8,6 +8,7 @@ import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.RequiresApi;
@@ -25,6 +26,12 @@ public class EqualizerViewModel extends ViewModel {
     @Deprecated
     public static final int AUDIO_EFFECT_PRIORITY = 1000;
 
+    /**
+     * 调用 {@link #publishChanges()} 时，向播放器发送配置的最小时间间隔（单位：毫秒），
+     * 也就是说，每秒最多发送 10 次。
+     */
+    public static final long PUBLISH_INTERVAL = 100;
+
     private MutableLiveData<Boolean> mEnabled;
 
     private Equalizer mEqualizer;
@@ -41,6 +48,16 @@ public class EqualizerViewModel extends ViewModel {
     private int mPriority;
     private Handler mHandler = new Handler(Looper.getMainLooper());
 
+    private long mLastPublishTime;
+    private boolean mPublishPending;
+    private final Runnable mPublishTask = new Runnable() {
+        @Override
+        public void run() {
+            mPublishPending = false;
+            publishChangesInternal();
+        }
+    };
+
     public void init(@NonNull PlayerClient playerClient) {
         Preconditions.checkNotNull(playerClient);
 
@@ -81,6 +98,8 @@ public class EqualizerViewModel extends ViewModel {
             mFakeMediaPlayer.release();
         }
 
+        cancelPendingPublish();
+
         mPlayerClient.disconnect();
         mPlayerClient.removeOnAudioSessionChangeListener(mOnAudioSessionChangeListener);
 
@@ -263,27 +282,74 @@ public class EqualizerViewModel extends ViewModel {
     /**
      * 提交修改。
      * <p>
-     * 保存所有对音频特效配置的修改。
+     * 保存所有对音频特效配置的修改。应在用户完成一次操作（例如：松开均衡器的频段）后调用该方法。
      */
     public void applyChanges() {
+        cancelPendingPublish();
         applyChangesInternal(true);
     }
 
-    private void applyChangesInternal(boolean takeControl) {
+    /**
+     * 发布修改。
+     * <p>
+     * 用于在用户拖动均衡器频段等操作的过程中同步配置。修改会立即作用于本地的音频特效，由于本地音频特效的优先级高于播放器的音频特效，
+     * 只要本地音频特效持有对 audio session 的控制权（通常如此），用户听到的就是本地音频特效的效果，此时不会向播放器发送任何配置。
+     * <p>
+     * 只有在本地音频特效失去控制权时，才会向播放器发送配置，并且发送的频率最多为每 {@link #PUBLISH_INTERVAL} 毫秒一次，
+     * 期间的多次修改会被合并为一次，播放器也不会立即保存这些配置。操作结束后请调用 {@link #applyChanges()} 方法保存最终的配置。
+     */
+    public void publishChanges() {
         if (!mInitialized) {
             throw new IllegalStateException("EqualizerViewModel not init yet.");
         }
 
-        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mEqualizer.getProperties());
-        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mBassBoost.getProperties());
-        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mVirtualizer.getProperties());
+        if (hasControl()) {
+            // 本地音频特效已经生效，避免在拖动过程中进行跨进程调用
+            return;
+        }
 
-        if (takeControl) {
-            AndroidAudioEffectConfigUtil.takeControl(mAudioEffectConfig);
-        } else {
-            AndroidAudioEffectConfigUtil.releaseControl(mAudioEffectConfig, mPriority);
+        if (mPublishPending) {
+            // 已有待发送的任务，发送时会读取最新的配置
+            return;
+        }
+
+        long elapsed = SystemClock.uptimeMillis() - mLastPublishTime;
+        if (elapsed >= PUBLISH_INTERVAL) {
+            publishChangesInternal();
+            return;
+        }
+
+        mPublishPending = true;
+        mHandler.postDelayed(mPublishTask, PUBLISH_INTERVAL - elapsed);
+    }
+
+    private void publishChangesInternal() {
+        if (!mPlayerClient.isConnected()) {
+            // 未连接时忽略中间状态，操作结束后 applyChanges() 会连接并发送最终的配置
+            return;
+        }
+
+        mLastPublishTime = SystemClock.uptimeMillis();
+        updateAudioEffectConfig(true);
+        mPlayerClient.updateAudioEffectConfig(mAudioEffectConfig);
+    }
+
+    private boolean hasControl() {
+        return mEqualizer.hasControl() && mBassBoost.hasControl() && mVirtualizer.hasControl();
+    }
+
+    private void cancelPendingPublish() {
+        mPublishPending = false;
+        mHandler.removeCallbacks(mPublishTask);
+    }
+
+    private void applyChangesInternal(boolean takeControl) {
+        if (!mInitialized) {
+            throw new IllegalStateException("EqualizerViewModel not init yet.");
         }
 
+        updateAudioEffectConfig(takeControl);
+
         if (mPlayerClient.isConnected()) {
             mPlayerClient.setAudioEffectConfig(mAudioEffectConfig);
             return;
@@ -297,6 +363,19 @@ public class EqualizerViewModel extends ViewModel {
         });
     }
 
+    private void updateAudioEffectConfig(boolean takeControl) {
+        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mEqualizer.getProperties());
+        AndroidAudioEffectConfigUtil.updateCenterFreq(mAudioEffectConfig, mEqualizer);
+        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mBassBoost.getProperties());
+        AndroidAudioEffectConfigUtil.updateSettings(mAudioEffectConfig, mVirtualizer.getProperties());
+
+        if (takeControl) {
+            AndroidAudioEffectConfigUtil.takeControl(mAudioEffectConfig);
+        } else {
+            AndroidAudioEffectConfigUtil.releaseControl(mAudioEffectConfig, mPriority);
+        }
+    }
+
     private void releaseAllEffect() {
         if (mEqualizer != null) {
             mEqualizer.release();
@@ -19,6 +19,11 @@ public final class AndroidAudioEffectConfigUtil {
     public static final String KEY_SETTING_VIRTUALIZER = "setting_virtualizer";
     public static final String KEY_TAKE_CONTROL = "take_control";
 
+    /**
+     * Equalizer 各个频段的中心频率（单位：毫赫兹），供软件均衡器使用。
+     */
+    public static final String KEY_EQUALIZER_CENTER_FREQ = "equalizer_center_freq";
+
     /**
      * 在 Service 端运行的音频特效的优先级。
      */
@@ -187,6 +192,25 @@ public final class AndroidAudioEffectConfigUtil {
         config.putString(KEY_SETTING_EQUALIZER, settings.toString());
     }
 
+    /**
+     * 更新 Equalizer 各个频段的中心频率，以便软件均衡器使用与 UI 一致的频段。
+     *
+     * @param config    Bundle 对象，包含音频特效的配置信息，不能为 null
+     * @param equalizer 提供中心频率的 Equalizer 对象，不能为 null
+     */
+    public static void updateCenterFreq(@NonNull Bundle config, @NonNull Equalizer equalizer) {
+        Preconditions.checkNotNull(config);
+        Preconditions.checkNotNull(equalizer);
+
+        int numberOfBands = equalizer.getNumberOfBands();
+        int[] centerFreqs = new int[numberOfBands];
+        for (short band = 0; band < numberOfBands; band++) {
+            centerFreqs[band] = equalizer.getCenterFreq(band);
+        }
+
+        config.putIntArray(KEY_EQUALIZER_CENTER_FREQ, centerFreqs);
+    }
+
     /**
      * 更新音频特效的 BassBoost 配置。
      *
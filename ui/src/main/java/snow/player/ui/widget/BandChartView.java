@@ -20,15 +20,48 @@ import androidx.annotation.AttrRes;
 import androidx.annotation.ColorInt;
 import androidx.annotation.ColorRes;
 import androidx.annotation.DimenRes;
+import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.RequiresApi;
+import androidx.annotation.VisibleForTesting;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
 
 import snow.player.ui.R;
 import snow.player.ui.equalizer.EqualizerViewModel;
 import snow.player.ui.util.Preconditions;
 
+/**
+ * 用于显示均衡器各个频段的增益曲线。
+ * <p>
+ * 支持两种渲染模式：
+ * <ul>
+ *     <li>{@link #RENDER_MODE_HARDWARE}（默认）：中央的虚线会被预先拆分为线段后使用 {@code drawLines} 绘制，
+ *     因此在所有版本中都可以保持硬件加速；</li>
+ *     <li>{@link #RENDER_MODE_SOFTWARE}：使用 {@link DashPathEffect} 绘制虚线，由于 {@link DashPathEffect}
+ *     在低于 API 28 的版本中不支持硬件加速，因此在这些版本中会关闭硬件加速。</li>
+ * </ul>
+ * <p>
+ * 增益曲线的 {@link Path} 会被缓存，只有在频段的增益或者尺寸发生改变时才会重新构建，
+ * 如果频段的增益没有发生改变，则不会重绘。
+ */
 public class BandChartView extends View {
+    /**
+     * 硬件加速渲染模式（默认）。
+     */
+    public static final int RENDER_MODE_HARDWARE = 0;
+    /**
+     * 软件渲染模式。
+     */
+    public static final int RENDER_MODE_SOFTWARE = 1;
+
+    @Retention(RetentionPolicy.SOURCE)
+    @IntDef({RENDER_MODE_HARDWARE, RENDER_MODE_SOFTWARE})
+    public @interface RenderMode {
+    }
+
     private EqualizerViewModel mEqualizerViewModel;
     private int mMinBandLevel;
     private int mBandRange;
@@ -38,9 +71,15 @@ public class BandChartView extends View {
 
     private Paint mPaint;
     private Path mLinePath;
+    private boolean mLinePathDirty;
     private CornerPathEffect mCornerPathEffect;
     private DashPathEffect mDashPathEffect;
 
+    private int mRenderMode;
+    private int mDashLength;
+    // 预先拆分好的中央虚线的线段（x0, y0, x1, y1, ...），仅用于硬件加速渲染模式
+    private float[] mDashLines;
+
     private Rect mContentRect;
     private Rect mHintTextRect;
     private String mHintText;
@@ -75,11 +114,6 @@ public class BandChartView extends View {
     }
 
     private void initView(Context context, @Nullable AttributeSet attrs) {
-        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
-            // 因为 DashPathEffect 在低于 API 28 的版本中不支持硬件加速，因此需要关闭硬件加速才能生效
-            setLayerType(View.LAYER_TYPE_SOFTWARE, null);
-        }
-
         mPaint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.SUBPIXEL_TEXT_FLAG);
         mLinePath = new Path();
 
@@ -97,10 +131,11 @@ public class BandChartView extends View {
         gridLineWidth = res.getDimensionPixelOffset(R.dimen.snow_ui_band_chart_default_grid_line_width);
         gridLineColor = Color.parseColor("#E0E0E0");
 
-        int dashLength = res.getDimensionPixelOffset(R.dimen.snow_ui_band_chart_dash_length);
-        mDashPathEffect = new DashPathEffect(new float[]{dashLength, dashLength}, 0);
+        mDashLength = res.getDimensionPixelOffset(R.dimen.snow_ui_band_chart_dash_length);
+        mDashPathEffect = new DashPathEffect(new float[]{mDashLength, mDashLength}, 0);
 
         getAttrsValue(context, attrs);
+        applyRenderMode();
     }
 
     private void getAttrsValue(Context context, @Nullable AttributeSet attrs) {
@@ -113,6 +148,7 @@ public class BandChartView extends View {
         hintTextColor = typedArray.getColor(R.styleable.BandChartView_hintTextColor, hintTextColor);
         gridLineWidth = typedArray.getDimensionPixelOffset(R.styleable.BandChartView_gridLineWidth, gridLineWidth);
         gridLineColor = typedArray.getColor(R.styleable.BandChartView_gridLineColor, gridLineColor);
+        mRenderMode = typedArray.getInt(R.styleable.BandChartView_renderMode, RENDER_MODE_HARDWARE);
 
         typedArray.recycle();
     }
@@ -130,25 +166,31 @@ public class BandChartView extends View {
             return;
         }
 
-        mInitialized = true;
         mEqualizerViewModel = viewModel;
+        initBandLevels(mEqualizerViewModel.getEqualizerBandLevelRange(), getAllBandLevel());
+    }
 
-        short[] bandLevelRange = mEqualizerViewModel.getEqualizerBandLevelRange();
+    @VisibleForTesting
+    void initBandLevels(@NonNull short[] bandLevelRange, @NonNull short[] allBandLevel) {
+        mInitialized = true;
 
         mMinBandLevel = bandLevelRange[0];
         mBandRange = bandLevelRange[1] - mMinBandLevel;
 
-        mAllBandLevel = new short[mEqualizerViewModel.getEqualizerNumberOfBands()];
-        updateAllBandLevelData();
+        mAllBandLevel = allBandLevel.clone();
+        mLinePathDirty = true;
         invalidate();
     }
 
-    private void updateAllBandLevelData() {
+    private short[] getAllBandLevel() {
         int numberOfBands = mEqualizerViewModel.getEqualizerNumberOfBands();
+        short[] allBandLevel = new short[numberOfBands];
 
         for (int band = 0; band < numberOfBands; band++) {
-            mAllBandLevel[band] = mEqualizerViewModel.getEqualizerBandLevel((short) band);
+            allBandLevel[band] = mEqualizerViewModel.getEqualizerBandLevel((short) band);
         }
+
+        return allBandLevel;
     }
 
     public void notifyEqualizerSettingChanged() {
@@ -156,8 +198,69 @@ public class BandChartView extends View {
             return;
         }
 
-        updateAllBandLevelData();
+        updateBandLevels(getAllBandLevel());
+    }
+
+    /**
+     * 更新所有频段的增益，只有在任何频段的增益发生改变时才会重绘。
+     *
+     * @return 如果有任何频段的增益发生了改变，则返回 true，否则返回 false
+     */
+    @VisibleForTesting
+    boolean updateBandLevels(@NonNull short[] allBandLevel) {
+        boolean changed = false;
+
+        for (int band = 0; band < mAllBandLevel.length; band++) {
+            if (mAllBandLevel[band] != allBandLevel[band]) {
+                mAllBandLevel[band] = allBandLevel[band];
+                changed = true;
+            }
+        }
+
+        if (!changed) {
+            return false;
+        }
+
+        mLinePathDirty = true;
         invalidate();
+        return true;
+    }
+
+    /**
+     * 设置渲染模式。
+     *
+     * @param renderMode 渲染模式，只能是 {@link #RENDER_MODE_HARDWARE} 或者 {@link #RENDER_MODE_SOFTWARE}
+     */
+    public void setRenderMode(@RenderMode int renderMode) {
+        if (renderMode == mRenderMode) {
+            return;
+        }
+
+        mRenderMode = renderMode;
+        applyRenderMode();
+        invalidate();
+    }
+
+    @RenderMode
+    public int getRenderMode() {
+        return mRenderMode;
+    }
+
+    private void applyRenderMode() {
+        if (mRenderMode == RENDER_MODE_SOFTWARE && Build.VERSION.SDK_INT < Build.VERSION_CODES.P) {
+            // 因为 DashPathEffect 在低于 API 28 的版本中不支持硬件加速，因此需要关闭硬件加速才能生效
+            setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+        } else if (getLayerType() == View.LAYER_TYPE_SOFTWARE) {
+            setLayerType(View.LAYER_TYPE_NONE, null);
+        }
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+
+        mLinePathDirty = true;
+        mDashLines = null;
     }
 
     @Override
@@ -174,10 +277,16 @@ public class BandChartView extends View {
     }
 
     private void updateContentRect() {
-        mContentRect.top = getPaddingTop();
-        mContentRect.left = getPaddingLeft();
-        mContentRect.right = getWidth() - getPaddingRight();
-        mContentRect.bottom = getHeight() - getPaddingBottom();
+        int left = getPaddingLeft();
+        int top = getPaddingTop();
+        int right = getWidth() - getPaddingRight();
+        int bottom = getHeight() - getPaddingBottom();
+
+        if (mContentRect.left != left || mContentRect.top != top
+                || mContentRect.right != right || mContentRect.bottom != bottom) {
+            mContentRect.set(left, top, right, bottom);
+            mLinePathDirty = true;
+        }
     }
 
     private void drawHintText(Canvas canvas) {
@@ -210,27 +319,55 @@ public class BandChartView extends View {
 
         // 绘制中央水平线条
         int centerY = getHeight() / 2;
-        mPaint.setPathEffect(mDashPathEffect);
-        canvas.drawLine(0, centerY, getWidth(), centerY, mPaint);
+        if (mRenderMode == RENDER_MODE_SOFTWARE) {
+            mPaint.setPathEffect(mDashPathEffect);
+            canvas.drawLine(0, centerY, getWidth(), centerY, mPaint);
+            return;
+        }
+
+        if (mDashLines == null) {
+            mDashLines = createDashLines(getWidth(), centerY, mDashLength);
+        }
+        canvas.drawLines(mDashLines, mPaint);
     }
 
-    private void drawBandLine(Canvas canvas) {
-        mLinePath.rewind();
+    /**
+     * 获取预先拆分好的虚线线段，尚未创建时返回 null。
+     */
+    @VisibleForTesting
+    @Nullable
+    float[] getDashLines() {
+        return mDashLines;
+    }
 
+    private static float[] createDashLines(int width, float y, int dashLength) {
+        int step = Math.max(dashLength, 1) * 2;
+        int count = (width + step - 1) / step;
+
+        float[] lines = new float[count * 4];
+        for (int i = 0; i < count; i++) {
+            int x = i * step;
+            lines[i * 4] = x;
+            lines[i * 4 + 1] = y;
+            lines[i * 4 + 2] = Math.min(x + step / 2, width);
+            lines[i * 4 + 3] = y;
+        }
+
+        return lines;
+    }
+
+    private void drawBandLine(Canvas canvas) {
         int numberOfBands = mAllBandLevel.length;
         int space = mContentRect.width() / (numberOfBands - 1);
         if (space != mBandSpace) {
             mBandSpace = space;
             mCornerPathEffect = new CornerPathEffect(Math.round(space / 2.0));
+            mLinePathDirty = true;
         }
 
-        mLinePath.moveTo(mContentRect.left, getBandLevelY(0));
-
-        for (int band = 1; band < numberOfBands; band++) {
-            float x = band * space;
-            float y = getBandLevelY(band);
-
-            mLinePath.lineTo(x, y);
+        if (mLinePathDirty) {
+            mLinePathDirty = false;
+            rebuildLinePath();
         }
 
         mPaint.setPathEffect(mCornerPathEffect);
@@ -240,6 +377,23 @@ public class BandChartView extends View {
         canvas.drawPath(mLinePath, mPaint);
     }
 
+    private void rebuildLinePath() {
+        mLinePath.rewind();
+        mLinePath.moveTo(getBandX(0), getBandLevelY(0));
+
+        for (int band = 1; band < mAllBandLevel.length; band++) {
+            mLinePath.lineTo(getBandX(band), getBandLevelY(band));
+        }
+    }
+
+    private int getBandX(int band) {
+        if (band == 0) {
+            return mContentRect.left;
+        }
+
+        return band * mBandSpace;
+    }
+
     private int getBandLevelY(int band) {
         int height = mContentRect.height();
 
@@ -281,6 +435,7 @@ public class BandChartView extends View {
 
     public void setLineWidth(int lineWidth) {
         this.lineWidth = lineWidth;
+        mLinePathDirty = true;
         invalidate();
     }
 
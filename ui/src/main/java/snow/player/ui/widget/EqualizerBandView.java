@@ -174,6 +174,7 @@ public class EqualizerBandView extends LinearLayout {
                 public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
                     if (fromUser) {
                         mEqualizerViewModel.setEqualizerBandLevel(mBand, (short) (progress - center));
+                        mEqualizerViewModel.publishChanges();
                         notifyEqualizerSettingChanged();
                     }
                 }